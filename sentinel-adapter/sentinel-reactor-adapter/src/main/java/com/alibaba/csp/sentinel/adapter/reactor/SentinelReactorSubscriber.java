@@ -16,6 +16,8 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -23,11 +25,13 @@ import com.alibaba.csp.sentinel.SphU;
 import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowTokens;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Supplier;
 
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -82,17 +86,27 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
-    private void entryWhenSubscribed() {
+    private void entryWhenSubscribed(ClusterFlowTokens clusterTokens) {
         ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
         if (sentinelContextConfig != null) {
             // If current we're already in a context, the context config won't work.
             ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
         }
+        clusterTokens.attach();
         try {
-            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
-                entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            // Use the non-blocking entry, so that rules queueing requests (e.g. uniform rate limiting)
+            // will not block current thread, which might be an event loop.
+            AsyncEntry entry = SphU.asyncEntryNonBlocking(entryConfig.getResourceName(),
+                entryConfig.getResourceType(), entryConfig.getEntryType(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
             this.currentEntry = entry;
-            actual.onSubscribe(this);
+            long waitInMs = entry.getWaitInMs();
+            if (waitInMs > 0) {
+                // Delay the subscription (and thus the upstream requests) until the reserved time comes.
+                Schedulers.parallel().schedule(() -> actual.onSubscribe(this), waitInMs, TimeUnit.MILLISECONDS);
+            } else {
+                actual.onSubscribe(this);
+            }
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
             entryExited.set(true);
@@ -101,6 +115,7 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             actual.onSubscribe(this);
             actual.onError(ex);
         } finally {
+            ClusterFlowTokens.detach();
             if (sentinelContextConfig != null) {
                 ContextUtil.exit();
             }
@@ -109,8 +124,38 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
 
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
+        // Tokens of cluster flow rules are requested in advance, so that the entry won't wait for the token server.
+        CompletableFuture<ClusterFlowTokens> clusterTokens = ClusterFlowTokens.requestAsync(
+            entryConfig.getResourceName(), resolveOrigin(), entryConfig.getAcquireCount(), false);
+        if (clusterTokens.isDone()) {
+            entryWithContext(clusterTokens.join());
+        } else {
+            // Don't run the entry (and the downstream) on the I/O thread of the token client.
+            clusterTokens.thenAccept(tokens -> Schedulers.parallel().schedule(() -> entryWithContext(tokens)));
+        }
+    }
+
+    /**
+     * Resolve the origin of the context which the entry will be made in (see {@link #entryWithContext}).
+     */
+    private String resolveOrigin() {
+        Optional<com.alibaba.csp.sentinel.context.Context> contextOpt = currentContext()
+            .getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY);
+        if (contextOpt.isPresent()) {
+            return contextOpt.get().getOrigin();
+        }
+        com.alibaba.csp.sentinel.context.Context context = ContextUtil.getContext();
+        if (context != null) {
+            // The context config won't work if we're already in a context.
+            return context.getOrigin();
+        }
+        ContextConfig sentinelContextConfig = entryConfig.getContextConfig();
+        return sentinelContextConfig == null ? "" : sentinelContextConfig.getOrigin();
+    }
+
+    private void entryWithContext(ClusterFlowTokens clusterTokens) {
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
-            this::entryWhenSubscribed);
+            () -> entryWhenSubscribed(clusterTokens));
     }
 
     @Override
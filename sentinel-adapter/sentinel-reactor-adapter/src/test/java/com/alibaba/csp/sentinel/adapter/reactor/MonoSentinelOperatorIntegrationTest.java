@@ -2,13 +2,19 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -55,6 +61,32 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testClusterTokensRequestedForOriginOfContextConfig() {
+        String resourceName = createResourceName("testClusterTokensRequestedForOriginOfContextConfig");
+        String origin = "originA";
+        FlowRuleManager.loadRules(Arrays.asList(
+            newClusterRule(resourceName, origin, 101L),
+            newClusterRule(resourceName, "originB", 102L)
+        ));
+        RecordingTokenServer.REQUESTED_FLOW_IDS.clear();
+        ClusterStateManager.markToServer();
+        try {
+            StepVerifier.create(Mono.just(2)
+                .transform(new SentinelReactorTransformer<>(
+                    new EntryConfig(resourceName, EntryType.IN, new ContextConfig("test_cluster_context", origin))))
+            )
+                .expectNext(2)
+                .verifyComplete();
+        } finally {
+            ClusterStateManager.applyState(ClusterStateManager.CLUSTER_NOT_STARTED);
+            FlowRuleManager.loadRules(new ArrayList<>());
+        }
+
+        // Only the token of the rule applying to the origin is requested.
+        assertEquals(Collections.singletonList(101L), RecordingTokenServer.REQUESTED_FLOW_IDS);
+    }
+
     @Test
     public void testFluxToMonoNextThenCancelSuccess() {
         String resourceName = createResourceName("testFluxToMonoNextThenCancelSuccess");
@@ -184,6 +216,36 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testRateLimiterDelaysWithoutBlocking() throws Exception {
+        String resourceName = createResourceName("testRateLimiterDelaysWithoutBlocking");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        Mono<Integer> mono = Mono.just(1).transform(new SentinelReactorTransformer<>(resourceName));
+        StepVerifier.create(mono).expectNext(1).verifyComplete();
+
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        mono.subscribe(e -> latch.countDown());
+        // The subscribing thread should not be blocked by the queueing.
+        assertTrue(System.currentTimeMillis() - start < 100);
+        assertEquals(1, latch.getCount());
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 150);
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    private FlowRule newClusterRule(String resourceName, String limitApp, long flowId) {
+        FlowRule rule = new FlowRule(resourceName).setCount(10).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId));
+        rule.setLimitApp(limitApp);
+        return rule;
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_mono_" + resourceName;
     }
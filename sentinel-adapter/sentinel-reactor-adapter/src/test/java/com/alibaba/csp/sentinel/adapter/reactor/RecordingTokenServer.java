@@ -0,0 +1,45 @@
+package com.alibaba.csp.sentinel.adapter.reactor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServer;
+
+/**
+ * Embedded token server for tests, which grants all requests and records the requested flow IDs.
+ */
+public class RecordingTokenServer implements EmbeddedClusterTokenServer {
+
+    static final List<Long> REQUESTED_FLOW_IDS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public TokenResult requestToken(Long ruleId, int acquireCount, boolean prioritized) {
+        REQUESTED_FLOW_IDS.add(ruleId);
+        return new TokenResult(TokenResultStatus.OK);
+    }
+
+    @Override
+    public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
+        return new TokenResult(TokenResultStatus.OK);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        return new TokenResult(TokenResultStatus.OK);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long tokenId) {
+    }
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+/**
+ * <p>Simulates a backend whose capacity shifts over time, and compares a static thread count limit
+ * (tuned for the initial capacity) with the adaptive concurrency limit
+ * ({@link RuleConstant#CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY}).</p>
+ *
+ * <p>The backend serves a request in {@link #BASE_LATENCY_MS} while the concurrency is within its capacity,
+ * beyond which the requests queue up and the latency grows proportionally. The throughput, average latency
+ * and blocked requests of each capacity phase are printed, e.g.
+ * {@code java ... AdaptiveConcurrencySimulation [phaseSeconds] [clientThreads]}.</p>
+ */
+public class AdaptiveConcurrencySimulation {
+
+    private static final int BASE_LATENCY_MS = 10;
+    private static final int[] CAPACITY_PHASES = {40, 15, 80};
+    private static final int STATIC_LIMIT = 40;
+    private static final int ADAPTIVE_MAX_LIMIT = 200;
+
+    private final String resource;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int capacity;
+    private volatile boolean running = true;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong latencySum = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+
+    private AdaptiveConcurrencySimulation(String resource) {
+        this.resource = resource;
+    }
+
+    private void callBackend() throws InterruptedException {
+        int n = inflight.incrementAndGet();
+        try {
+            Thread.sleep(BASE_LATENCY_MS * Math.max(1, (n + capacity - 1) / capacity));
+        } finally {
+            inflight.decrementAndGet();
+        }
+    }
+
+    private void request() throws InterruptedException {
+        long start = System.nanoTime();
+        Entry entry = null;
+        try {
+            entry = SphU.entry(resource);
+            callBackend();
+        } catch (BlockException ex) {
+            blocked.incrementAndGet();
+            // Back off a little like a real client.
+            Thread.sleep(1);
+            return;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+        completed.incrementAndGet();
+        latencySum.addAndGet(System.nanoTime() - start);
+    }
+
+    private void run(int phaseSeconds, int clientThreads) throws Exception {
+        capacity = CAPACITY_PHASES[0];
+        final CountDownLatch done = new CountDownLatch(clientThreads);
+        for (int i = 0; i < clientThreads; i++) {
+            Thread t = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (running) {
+                            request();
+                        }
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "simulation-client-" + i);
+            t.setDaemon(true);
+            t.start();
+        }
+        for (int c : CAPACITY_PHASES) {
+            capacity = c;
+            // Skip the first second of each phase as the transition.
+            Thread.sleep(1000);
+            long completed0 = completed.get();
+            long latency0 = latencySum.get();
+            long blocked0 = blocked.get();
+            Thread.sleep((phaseSeconds - 1) * 1000L);
+            long n = completed.get() - completed0;
+            System.out.printf("[AdaptiveConcurrency] resource=%s, capacity=%d (ideal %d req/s): throughput=%d req/s, "
+                    + "avgLatency=%.1f ms, blocked=%d req/s%n", resource, c, c * 1000 / BASE_LATENCY_MS,
+                n / (phaseSeconds - 1), n == 0 ? 0 : (latencySum.get() - latency0) / 1e6 / n,
+                (blocked.get() - blocked0) / (phaseSeconds - 1));
+        }
+        running = false;
+        done.await();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int phaseSeconds = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int clientThreads = args.length > 1 ? Integer.parseInt(args[1]) : 128;
+
+        List<FlowRule> rules = new ArrayList<>();
+        rules.add(new FlowRule("static-limit")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setCount(STATIC_LIMIT));
+        rules.add(new FlowRule("adaptive-limit")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY)
+            .setAdaptiveSmoothing(0.2)
+            .setCount(ADAPTIVE_MAX_LIMIT));
+        FlowRuleManager.loadRules(rules);
+
+        new AdaptiveConcurrencySimulation("static-limit").run(phaseSeconds, clientThreads);
+        new AdaptiveConcurrencySimulation("adaptive-limit").run(phaseSeconds, clientThreads);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for entries guarded by circuit breakers in CLOSED state (both slow request ratio
+ * and error ratio breakers), which stresses the completion accounting of the breakers under contention.
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class CircuitBreakerBenchmark {
+
+    private static final String RESOURCE = "circuit-breaker-benchmark";
+
+    @Setup
+    public void prepare() {
+        List<DegradeRule> rules = new ArrayList<>();
+        rules.add(new DegradeRule(RESOURCE)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+            .setCount(100)
+            .setSlowRatioThreshold(0.5)
+            .setMinRequestAmount(5)
+            .setStatIntervalMs(1000)
+            .setTimeWindow(10));
+        rules.add(new DegradeRule(RESOURCE)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+            .setCount(0.5)
+            .setMinRequestAmount(5)
+            .setStatIntervalMs(1000)
+            .setTimeWindow(10));
+        DegradeRuleManager.loadRules(rules);
+    }
+
+    @TearDown
+    public void tearDown() {
+        DegradeRuleManager.loadRules(new ArrayList<DegradeRule>());
+    }
+
+    private boolean doEntry() {
+        Entry entry = null;
+        try {
+            entry = SphU.entry(RESOURCE);
+            return true;
+        } catch (BlockException ex) {
+            return false;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testSingleThreadEntry() {
+        return doEntry();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean test8ThreadsEntry() {
+        return doEntry();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public boolean test32ThreadsEntry() {
+        return doEntry();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.CompactRequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.DefaultRequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.CompactRequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.DefaultRequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares encoding and decoding a cluster flow request in the original codec and in the compact codec
+ * ({@link ClusterConstants#CODEC_VERSION_V2}), which reads flow requests into the same request instance.
+ * Run with {@code -prof gc} to compare the allocation per request as well.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class ClusterCodecBenchmark {
+
+    private final DefaultRequestEntityWriter defaultWriter = new DefaultRequestEntityWriter();
+    private final DefaultRequestEntityDecoder defaultDecoder = new DefaultRequestEntityDecoder();
+    private final CompactRequestEntityWriter compactWriter = new CompactRequestEntityWriter();
+    private final CompactRequestEntityDecoder compactDecoder = new CompactRequestEntityDecoder(true);
+
+    private ClusterRequest<FlowRequestData> request;
+    private ByteBuf buf;
+    private int xid;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        RequestDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataWriter());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataDecoder());
+        request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW,
+            new FlowRequestData().setFlowId(1001L).setCount(1).setPriority(false));
+        buf = PooledByteBufAllocator.DEFAULT.directBuffer(64);
+    }
+
+    @TearDown(Level.Trial)
+    public void release() {
+        buf.release();
+    }
+
+    private ClusterRequest<FlowRequestData> nextRequest() {
+        return request.setId(xid = xid >= 999_999_999 ? 1 : xid + 1);
+    }
+
+    @Benchmark
+    public Object testDefaultCodec() {
+        buf.clear();
+        defaultWriter.writeTo(nextRequest(), buf);
+        return defaultDecoder.decode(buf);
+    }
+
+    @Benchmark
+    public Object testCompactCodec() {
+        buf.clear();
+        compactWriter.writeTo(nextRequest(), buf);
+        return compactDecoder.decode(buf);
+    }
+}
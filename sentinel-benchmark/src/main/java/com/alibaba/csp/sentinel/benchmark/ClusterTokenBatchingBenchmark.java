@@ -0,0 +1,193 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.cluster.server.SentinelDefaultTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>Compares the throughput and latency of cluster flow token requests with and without request batching
+ * ({@link ClusterClientStartUpConfig#BATCH_WINDOW_MICROS}) or token leases
+ * ({@link ClusterClientStartUpConfig#LEASE_MILLIS}), against a token server running in the same process
+ * with given execution mode ({@link ServerTransportConfig#getExecutionMode()}).</p>
+ *
+ * <p>The client threads request tokens of a few flow IDs in a closed loop, and the throughput, the average,
+ * p50 and p99 latency, the failed requests and the token requests handled by the token server per second
+ * of each mode are printed, e.g.
+ * {@code java ... ClusterTokenBatchingBenchmark [seconds] [clientThreads] [batchWindowMicros] [leaseMs]
+ * [executionMode]}.</p>
+ */
+public class ClusterTokenBatchingBenchmark {
+
+    private static final String NAMESPACE = "sentinel-benchmark-cluster";
+    private static final int PORT = 18739;
+    private static final int FLOW_ID_COUNT = 8;
+    private static final int MAX_SAMPLES_PER_THREAD = 200_000;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        long windowMicros = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        int leaseMs = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+        String executionMode = args.length > 4 ? args[4] : ServerTransportConfig.DEFAULT_EXECUTION_MODE;
+
+        SentinelDefaultTokenServer server = startTokenServer(executionMode);
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(500));
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", PORT));
+
+        run("unbatched", 0, 0, seconds, threads);
+        run("batched (" + windowMicros + " us)", windowMicros, 0, seconds, threads);
+        run("leased (" + leaseMs + " ms)", 0, leaseMs, seconds, threads);
+
+        server.stop();
+        System.exit(0);
+    }
+
+    private static SentinelDefaultTokenServer startTokenServer(String executionMode) throws Exception {
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig().setPort(PORT)
+            .setIdleSeconds(600).setExecutionMode(executionMode));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        List<FlowRule> rules = new ArrayList<>();
+        for (long flowId = 1; flowId <= FLOW_ID_COUNT; flowId++) {
+            rules.add(new FlowRule("cluster-batch-resource-" + flowId).setCount(1e9).setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.loadRules(NAMESPACE, rules);
+
+        SentinelDefaultTokenServer server = new SentinelDefaultTokenServer();
+        server.start();
+        return server;
+    }
+
+    private static void run(String mode, long windowMicros, int leaseMs, int seconds, int threads)
+        throws Exception {
+        SentinelConfig.setConfig(ClusterClientStartUpConfig.BATCH_WINDOW_MICROS, String.valueOf(windowMicros));
+        SentinelConfig.setConfig(ClusterClientStartUpConfig.LEASE_MILLIS, String.valueOf(leaseMs));
+        final DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+        client.start();
+        for (int i = 0; i < 100 && client.getState() != ClientConstants.CLIENT_STATUS_STARTED; i++) {
+            Thread.sleep(50);
+        }
+        // Warm up.
+        runClients(client, threads, 1);
+        Result result = runClients(client, threads, seconds);
+        double serverQps = 0;
+        for (long flowId = 1; flowId <= FLOW_ID_COUNT; flowId++) {
+            serverQps += ClusterMetricStatistics.getMetric(flowId).getAvg(ClusterFlowEvent.PASS_REQUEST)
+                + ClusterMetricStatistics.getMetric(flowId).getAvg(ClusterFlowEvent.BLOCK_REQUEST);
+        }
+        client.stop();
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("[ClusterTokenBatching] %s: throughput=%.0f req/s, avgLatency=%.1f us, "
+                + "p50=%.1f us, p99=%.1f us, failed=%d, serverQps=%.0f%n", mode,
+            result.requests.get() / (double)seconds,
+            result.latencySum.get() / 1000.0 / Math.max(1, result.requests.get()),
+            percentile(latencies, 0.5) / 1000.0, percentile(latencies, 0.99) / 1000.0, result.failed.get(), serverQps);
+    }
+
+    private static Result runClients(final DefaultClusterTokenClient client, int threads, int seconds)
+        throws InterruptedException {
+        final Result result = new Result();
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        final long[][] samples = new long[threads][];
+        final int[] sampleCounts = new int[threads];
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] local = new long[MAX_SAMPLES_PER_THREAD];
+                    int count = 0;
+                    long i = index;
+                    while (System.nanoTime() < deadline) {
+                        long flowId = (i++ % FLOW_ID_COUNT) + 1;
+                        long start = System.nanoTime();
+                        TokenResult tokenResult = client.requestToken(flowId, 1, false);
+                        long latency = System.nanoTime() - start;
+                        if (tokenResult.getStatus() != TokenResultStatus.OK) {
+                            result.failed.incrementAndGet();
+                        }
+                        result.requests.incrementAndGet();
+                        result.latencySum.addAndGet(latency);
+                        if (count < local.length) {
+                            local[count++] = latency;
+                        }
+                    }
+                    samples[index] = local;
+                    sampleCounts[index] = count;
+                    latch.countDown();
+                }
+            }, "cluster-batch-client-" + t).start();
+        }
+        latch.await();
+
+        int total = 0;
+        for (int count : sampleCounts) {
+            total += count;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(samples[t], 0, latencies, offset, sampleCounts[t]);
+            offset += sampleCounts[t];
+        }
+        result.latencies = latencies;
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int)(sorted.length * p))];
+    }
+
+    private static class Result {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong latencySum = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private long[] latencies;
+    }
+}
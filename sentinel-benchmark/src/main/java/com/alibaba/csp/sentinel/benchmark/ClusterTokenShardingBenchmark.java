@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.TokenServerShard;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.SentinelDefaultTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.init.InitExecutor;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+/**
+ * <p>Compares the throughput and latency of cluster flow token requests against a single token server
+ * and against token server shards ({@link ClusterClientAssignConfig#getShardServers()}), where each token server
+ * runs in its own process on the local host.</p>
+ *
+ * <p>The token server processes are forked with the classpath of current process, and the client threads
+ * request tokens of a number of flow IDs in a closed loop, e.g.
+ * {@code java ... ClusterTokenShardingBenchmark [seconds] [clientThreads] [shards]}.
+ * The gain of sharding depends on the CPU cores available to the token server processes.</p>
+ */
+public class ClusterTokenShardingBenchmark {
+
+    private static final String NAMESPACE = "sentinel-benchmark-cluster";
+    private static final String SERVER_MODE = "server";
+    private static final int BASE_PORT = 18740;
+    private static final int FLOW_ID_COUNT = 64;
+
+    public static void main(String[] args) throws Exception {
+        // Register the entity codecs of the token server (or client).
+        InitExecutor.doInit();
+        if (args.length > 1 && SERVER_MODE.equals(args[0])) {
+            startTokenServer(Integer.parseInt(args[1]));
+            Thread.sleep(Long.MAX_VALUE);
+            return;
+        }
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int shardCount = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+
+        List<Process> servers = new ArrayList<>();
+        List<TokenServerShard> shards = new ArrayList<>();
+        try {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            for (int i = 0; i < shardCount; i++) {
+                int port = BASE_PORT + i;
+                servers.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    ClusterTokenShardingBenchmark.class.getName(), SERVER_MODE, String.valueOf(port))
+                    .inheritIO().start());
+                shards.add(new TokenServerShard("127.0.0.1", port));
+            }
+            for (TokenServerShard shard : shards) {
+                awaitServer(shard.getServerPort());
+            }
+            ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(500));
+
+            ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", BASE_PORT));
+            run("single server", seconds, threads);
+            ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig().setShardServers(shards));
+            run(shardCount + " shards", seconds, threads);
+        } finally {
+            for (Process server : servers) {
+                server.destroy();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void startTokenServer(int port) throws Exception {
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig().setPort(port)
+            .setIdleSeconds(600));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        // Each shard loads all the rules, while only the flows it owns are requested.
+        List<FlowRule> rules = new ArrayList<>();
+        for (long flowId = 1; flowId <= FLOW_ID_COUNT; flowId++) {
+            rules.add(new FlowRule("cluster-shard-resource-" + flowId).setCount(1e9).setClusterMode(true)
+                .setClusterConfig(new ClusterFlowConfig().setFlowId(flowId)
+                    .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)));
+        }
+        ClusterFlowRuleManager.loadRules(NAMESPACE, rules);
+        new SentinelDefaultTokenServer().start();
+    }
+
+    private static void awaitServer(int port) throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("127.0.0.1", port), 100);
+                return;
+            } catch (Exception ex) {
+                Thread.sleep(100);
+            }
+        }
+        throw new IllegalStateException("Token server is not started on port " + port);
+    }
+
+    private static void run(String mode, int seconds, int threads) throws Exception {
+        final DefaultClusterTokenClient client = new DefaultClusterTokenClient();
+        client.start();
+        for (int i = 0; i < 100 && client.getState() != ClientConstants.CLIENT_STATUS_STARTED; i++) {
+            Thread.sleep(50);
+        }
+        // Warm up.
+        runClients(client, threads, 1);
+        Result result = runClients(client, threads, seconds);
+        client.stop();
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("[ClusterTokenSharding] %s: throughput=%.0f req/s, avgLatency=%.1f us, "
+                + "p99=%.1f us, failed=%d%n", mode, result.requests.get() / (double)seconds,
+            result.latencySum.get() / 1000.0 / Math.max(1, result.requests.get()),
+            latencies.length == 0 ? 0 : latencies[(int)(latencies.length * 0.99)] / 1000.0, result.failed.get());
+    }
+
+    private static Result runClients(final DefaultClusterTokenClient client, int threads, int seconds)
+        throws InterruptedException {
+        final Result result = new Result();
+        final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        final List<long[]> samples = Collections.synchronizedList(new ArrayList<long[]>());
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int index = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long[] local = new long[100_000];
+                    int count = 0;
+                    long i = index;
+                    while (System.nanoTime() < deadline) {
+                        long flowId = (i++ % FLOW_ID_COUNT) + 1;
+                        long start = System.nanoTime();
+                        TokenResult tokenResult = client.requestToken(flowId, 1, false);
+                        long latency = System.nanoTime() - start;
+                        if (tokenResult.getStatus() != TokenResultStatus.OK) {
+                            result.failed.incrementAndGet();
+                        }
+                        result.requests.incrementAndGet();
+                        result.latencySum.addAndGet(latency);
+                        if (count < local.length) {
+                            local[count++] = latency;
+                        }
+                    }
+                    samples.add(Arrays.copyOf(local, count));
+                    latch.countDown();
+                }
+            }, "cluster-shard-client-" + t).start();
+        }
+        latch.await();
+
+        int total = 0;
+        for (long[] sample : samples) {
+            total += sample.length;
+        }
+        long[] latencies = new long[total];
+        int offset = 0;
+        for (long[] sample : samples) {
+            System.arraycopy(sample, 0, latencies, offset, sample.length);
+            offset += sample.length;
+        }
+        result.latencies = latencies;
+        return result;
+    }
+
+    private static class Result {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong latencySum = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private long[] latencies;
+    }
+}
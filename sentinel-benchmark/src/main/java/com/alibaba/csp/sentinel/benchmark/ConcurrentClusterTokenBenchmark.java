@@ -0,0 +1,133 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.ConcurrentClusterFlowChecker;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Measures acquiring and releasing the concurrent cluster tokens of {@link ConcurrentClusterFlowChecker}
+ * with a large amount of outstanding tokens (e.g. held by slow calls), which are all tracked by
+ * {@link TokenCacheNodeManager} and scheduled in the expiration wheel.</p>
+ *
+ * <p>The heap retained by each outstanding token is printed on set up.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ConcurrentClusterTokenBenchmark {
+
+    private static final String NAMESPACE = "concurrent-token-benchmark";
+    private static final String CLIENT_ADDRESS = "127.0.0.1:18730";
+    private static final long FLOW_ID = 18730L;
+
+    @Param({"50000"})
+    private int outstandingTokens;
+
+    private FlowRule rule;
+    private long[] outstanding;
+
+    @Setup
+    public void prepare() {
+        ConnectionManager.addConnection(NAMESPACE, CLIENT_ADDRESS);
+        ClusterFlowConfig config = new ClusterFlowConfig()
+            .setFlowId(FLOW_ID)
+            .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL);
+        // Keep the outstanding tokens alive during the benchmark.
+        config.setResourceTimeout(TimeUnit.HOURS.toMillis(1));
+        config.setClientOfflineTime(TimeUnit.HOURS.toMillis(1));
+        FlowRule flowRule = new FlowRule("concurrent-token-benchmark-resource")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            // Leave room for the benchmark threads.
+            .setCount(outstandingTokens + 1024)
+            .setClusterMode(true)
+            .setClusterConfig(config);
+        ClusterFlowRuleManager.registerPropertyIfAbsent(NAMESPACE);
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(flowRule));
+        rule = ClusterFlowRuleManager.getFlowRuleById(FLOW_ID);
+
+        outstanding = new long[outstandingTokens];
+        long heapBefore = usedHeap();
+        for (int i = 0; i < outstandingTokens; i++) {
+            outstanding[i] = acquire().getTokenId();
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("%n[ConcurrentClusterToken] outstanding=%d, heap per token=%d bytes%n",
+            TokenCacheNodeManager.getSize(), (heapAfter - heapBefore) / outstandingTokens);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (long tokenId : outstanding) {
+            ConcurrentClusterFlowChecker.releaseConcurrentToken(tokenId);
+        }
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.<FlowRule>emptyList());
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private TokenResult acquire() {
+        TokenResult result = ConcurrentClusterFlowChecker.acquireConcurrentToken(CLIENT_ADDRESS, rule, 1);
+        if (result.getStatus() != TokenResultStatus.OK) {
+            throw new IllegalStateException("Unexpected token status: " + result.getStatus());
+        }
+        return result;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int acquireAndRelease() {
+        return ConcurrentClusterFlowChecker.releaseConcurrentToken(acquire().getTokenId()).getStatus();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int acquireAndReleaseConcurrently() {
+        return ConcurrentClusterFlowChecker.releaseConcurrentToken(acquire().getTokenId()).getStatus();
+    }
+}
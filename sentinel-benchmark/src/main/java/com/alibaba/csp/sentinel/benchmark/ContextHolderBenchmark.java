@@ -0,0 +1,160 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares the context holders (see {@link SentinelConfig#CONTEXT_HOLDER}). The holder is resolved once
+ * per JVM, so each holder is measured in its own fork.</p>
+ *
+ * <p>The JMH benchmarks measure the throughput of entries within {@link ContextUtil#runOnContext}.
+ * The {@link #main(String[])} reports the heap used per in-flight entry with 1M concurrent virtual threads
+ * (JDK 21+), e.g. {@code java -Dcsp.sentinel.context.holder=scoped ... ContextHolderBenchmark 1000000}.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ContextHolderBenchmark {
+
+    private static final String THREAD_LOCAL = "-Dcsp.sentinel.context.holder=threadlocal";
+    private static final String SCOPED = "-Dcsp.sentinel.context.holder=scoped";
+
+    private static final String RESOURCE_NAME = "context-holder-resource";
+
+    private static final Runnable ENTRY_TASK = new Runnable() {
+        @Override
+        public void run() {
+            Entry entry = null;
+            try {
+                entry = SphU.entry(RESOURCE_NAME);
+            } catch (BlockException ex) {
+                // Ignore.
+            } finally {
+                if (entry != null) {
+                    entry.exit();
+                }
+                ContextUtil.exit();
+            }
+        }
+    };
+
+    @Benchmark
+    @Threads(8)
+    @Fork(jvmArgsAppend = THREAD_LOCAL)
+    public void testThreadLocalHolder() {
+        ContextUtil.runOnContext(null, ENTRY_TASK);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Fork(jvmArgsAppend = SCOPED)
+    public void testScopedHolder() {
+        ContextUtil.runOnContext(null, ENTRY_TASK);
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        ExecutorService executor = newVirtualThreadExecutor();
+        if (executor == null) {
+            System.out.println("Virtual threads are unavailable (JDK 21+ required), skipping the report");
+            return;
+        }
+        // Warm up the slot chain and the nodes of the resource.
+        ContextUtil.runOnContext(null, ENTRY_TASK);
+
+        final CountDownLatch started = new CountDownLatch(count);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable holdingTask = new Runnable() {
+            @Override
+            public void run() {
+                Entry entry = null;
+                try {
+                    entry = SphU.entry(RESOURCE_NAME);
+                } catch (BlockException ex) {
+                    // Ignore.
+                }
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (entry != null) {
+                        entry.exit();
+                    }
+                    ContextUtil.exit();
+                }
+            }
+        };
+        long base = usedHeap();
+        for (int i = 0; i < count; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ContextUtil.runOnContext(null, holdingTask);
+                }
+            });
+        }
+        started.await();
+        long used = usedHeap() - base;
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("[ContextHolder] holder=%s, in-flight entries=%d, heap used=%,d bytes "
+                + "(%d bytes per in-flight entry)%n", ContextUtil.getContextHolder().getClass().getSimpleName(),
+            count, used, used / count);
+    }
+}
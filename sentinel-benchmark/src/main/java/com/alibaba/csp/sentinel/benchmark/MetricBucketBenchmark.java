@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark comparing the default {@code LongAdder} based bucket layout
+ * and the cache-line padded striped bucket layout of {@link ArrayMetric} under contention.
+ * Should be run on a box with many cores (e.g. 32) to make the difference visible.
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MetricBucketBenchmark {
+
+    @Param({"false", "true"})
+    private boolean striped;
+
+    private ArrayMetric metric;
+
+    @Setup
+    public void prepare() {
+        metric = new ArrayMetric(2, 1000, true, striped);
+    }
+
+    private void record() {
+        metric.addPass(1);
+        metric.addSuccess(1);
+        metric.addRT(5);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void testSingleThreadRecord() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void test8ThreadsRecord() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public void test32ThreadsRecord() {
+        record();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long test32ThreadsRecordAndRead() {
+        record();
+        return metric.pass();
+    }
+}
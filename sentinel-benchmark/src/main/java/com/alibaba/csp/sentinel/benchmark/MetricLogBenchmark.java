@@ -0,0 +1,209 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.MetricWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares the text metric log ({@link MetricWriter}/{@link MetricSearcher}) with the binary one
+ * ({@link BinaryMetricWriter}/{@link BinaryMetricSearcher}).</p>
+ *
+ * <p>The write benchmarks write the metrics of one second for {@code resourceCount} resources per operation,
+ * so a throughput above 1 ops/s means the writer keeps up with the flush task. The query benchmarks search
+ * the metrics of one resource in the last {@code seconds} (an hour by default) of data, which is how the
+ * dashboard queries a resource.</p>
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class MetricLogBenchmark {
+
+    private static final long BASE_TIME = 1600000000000L;
+    private static final String TEXT_FILE_NAME = "benchmark-metrics.log";
+    private static final String BINARY_FILE_NAME = "benchmark-metrics.bin";
+    private static final long SINGLE_FILE_SIZE = 256L * 1024 * 1024;
+
+    @Param({"5000"})
+    private int resourceCount;
+
+    @Param({"3600"})
+    private int seconds;
+
+    private File queryDir;
+    private File writeDir;
+
+    private MetricSearcher textSearcher;
+    private BinaryMetricSearcher binarySearcher;
+
+    private MetricWriter textWriter;
+    private BinaryMetricWriter binaryWriter;
+    private long textWriteTime;
+    private long binaryWriteTime;
+
+    private String queryResource;
+
+    private List<MetricNode> nodesOf(long second) {
+        List<MetricNode> nodes = new ArrayList<MetricNode>(resourceCount);
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("metric-log-resource-" + i);
+            node.setPassQps(second + i);
+            node.setSuccessQps(second + i);
+            node.setRt(i % 100);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static File newTempDir(String prefix) throws Exception {
+        File dir = File.createTempFile(prefix, "");
+        dir.delete();
+        dir.mkdirs();
+        return dir;
+    }
+
+    private static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        queryDir = newTempDir("sentinel-metric-query");
+        // The text writer always writes to the log base dir, so only the binary data is prepared with it.
+        BinaryMetricWriter binaryPreparer = new BinaryMetricWriter(queryDir.getAbsolutePath(), BINARY_FILE_NAME,
+            SINGLE_FILE_SIZE, Integer.MAX_VALUE);
+        TextLogPreparer textPreparer = new TextLogPreparer(new File(queryDir, TEXT_FILE_NAME + ".2020-09-13"));
+        for (int s = 0; s < seconds; s++) {
+            long time = BASE_TIME + s * 1000L;
+            List<MetricNode> nodes = nodesOf(s);
+            binaryPreparer.write(time, nodes);
+            textPreparer.write(time, nodes);
+        }
+        binaryPreparer.close();
+        textPreparer.close();
+        textSearcher = new MetricSearcher(queryDir.getAbsolutePath(), TEXT_FILE_NAME);
+        binarySearcher = new BinaryMetricSearcher(queryDir.getAbsolutePath(), BINARY_FILE_NAME);
+        queryResource = "metric-log-resource-" + (resourceCount / 2);
+
+        writeDir = newTempDir("sentinel-metric-write");
+        textWriter = new MetricWriter(64L * 1024 * 1024, 4);
+        binaryWriter = new BinaryMetricWriter(writeDir.getAbsolutePath(), BINARY_FILE_NAME, 64L * 1024 * 1024, 4);
+        textWriteTime = System.currentTimeMillis() / 1000 * 1000;
+        binaryWriteTime = BASE_TIME;
+    }
+
+    @TearDown(Level.Trial)
+    public void cleanUp() throws Exception {
+        textWriter.close();
+        binaryWriter.close();
+        deleteDir(queryDir);
+        deleteDir(writeDir);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void testTextWriteOneSecond() throws Exception {
+        textWriteTime += 1000;
+        textWriter.write(textWriteTime, nodesOf(textWriteTime / 1000));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void testBinaryWriteOneSecond() throws Exception {
+        binaryWriteTime += 1000;
+        binaryWriter.write(binaryWriteTime, nodesOf(binaryWriteTime / 1000));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<MetricNode> testTextQueryHour() throws Exception {
+        return textSearcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000L, queryResource);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<MetricNode> testBinaryQueryHour() throws Exception {
+        return binarySearcher.findByTimeAndResource(BASE_TIME, BASE_TIME + seconds * 1000L, queryResource);
+    }
+
+    /**
+     * Writes the text metric log in the same format as {@link MetricWriter} into given file.
+     */
+    private static class TextLogPreparer {
+
+        private final DataOutputStream index;
+        private final BufferedOutputStream out;
+        private long position;
+
+        TextLogPreparer(File file) throws Exception {
+            this.out = new BufferedOutputStream(new FileOutputStream(file));
+            this.index = new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(MetricWriter.formIndexFileName(file.getAbsolutePath()))));
+        }
+
+        void write(long time, List<MetricNode> nodes) throws Exception {
+            index.writeLong(time / 1000);
+            index.writeLong(position);
+            for (MetricNode node : nodes) {
+                node.setTimestamp(time);
+                byte[] bytes = node.toFatString().getBytes("UTF-8");
+                out.write(bytes);
+                position += bytes.length;
+            }
+        }
+
+        void close() throws Exception {
+            out.close();
+            index.close();
+        }
+    }
+}
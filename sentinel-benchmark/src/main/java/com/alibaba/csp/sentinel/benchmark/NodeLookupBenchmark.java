@@ -0,0 +1,233 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.util.function.BiConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for looking up the {@link DefaultNode} of a context in {@link NodeSelectorSlot},
+ * comparing the context-index table with the context-name map (only used by contexts without a valid index).</p>
+ *
+ * <p>A memory footprint report of the slots for 10k resources and 50 contexts
+ * is printed at the end of the trial (it can also be printed via {@link #main(String[])}).</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class NodeLookupBenchmark {
+
+    private static final int REPORT_RESOURCES = 10000;
+    private static final int REPORT_CONTEXTS = 50;
+    private static final int MEASURED_RESOURCES = 1000;
+
+    @Param({"50"})
+    private int contextCount;
+
+    private NodeSelectorSlot slot;
+    private ResourceWrapper resource;
+    private Context[] indexedContexts;
+    private Context[] namedContexts;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Throwable {
+        slot = new NodeSelectorSlot();
+        resource = new StringResourceWrapper("node-lookup-resource", EntryType.IN);
+        indexedContexts = new Context[contextCount];
+        namedContexts = new Context[contextCount];
+        for (int i = 0; i < contextCount; i++) {
+            String name = "node-lookup-context-" + i;
+            EntranceNode entranceNode = new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null);
+            // A plain default node as entrance, so the context has no index and falls back to the name map.
+            namedContexts[i] = newContext(new DefaultNode(entranceNode.getId(), null), name);
+            indexedContexts[i] = newContext(entranceNode, name);
+            slot.entry(indexedContexts[i], resource, null, 1, false);
+            slot.entry(namedContexts[i], resource, null, 1, false);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        printFootprintReport();
+    }
+
+    private static Context newContext(DefaultNode entranceNode, String name) {
+        Context context = new Context(entranceNode, name);
+        context.setCurEntry(new NoopEntry());
+        return context;
+    }
+
+    @Benchmark
+    public Node lookupByContextIndex() throws Throwable {
+        Context context = indexedContexts[cursor++ % contextCount];
+        slot.entry(context, resource, null, 1, false);
+        return context.getCurNode();
+    }
+
+    @Benchmark
+    public Node lookupByContextName() throws Throwable {
+        Context context = namedContexts[cursor++ % contextCount];
+        slot.entry(context, resource, null, 1, false);
+        return context.getCurNode();
+    }
+
+    /**
+     * <p>Print the heap retained by real {@link NodeSelectorSlot}s (one per resource) with all contexts entered,
+     * and how much of it is taken by the lookup structures rather than the {@link DefaultNode}s,
+     * which are created and kept no matter how they are looked up. The former layout (copy-on-write map
+     * keyed by context name) is built alongside as a reference.</p>
+     *
+     * <p>The slots are measured with {@link #MEASURED_RESOURCES} resources to keep the heap small,
+     * and the result is scaled to {@link #REPORT_RESOURCES} resources.</p>
+     */
+    public static void printFootprintReport() {
+        ResourceWrapper resource = new StringResourceWrapper("footprint-resource", EntryType.IN);
+        EntranceNode[] entranceNodes = new EntranceNode[REPORT_CONTEXTS];
+        for (int i = 0; i < REPORT_CONTEXTS; i++) {
+            entranceNodes[i] = new EntranceNode(new StringResourceWrapper("footprint-context-" + i, EntryType.IN),
+                null);
+        }
+
+        long base = usedHeap();
+        NodeSelectorSlot[] slots = new NodeSelectorSlot[MEASURED_RESOURCES];
+        for (int r = 0; r < MEASURED_RESOURCES; r++) {
+            slots[r] = new NodeSelectorSlot();
+            for (EntranceNode entranceNode : entranceNodes) {
+                try {
+                    slots[r].entry(newFootprintContext(entranceNode), resource, null, 1, false);
+                } catch (Throwable ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        }
+        long slotBytes = usedHeap() - base;
+
+        base = usedHeap();
+        DefaultNode[] nodes = new DefaultNode[MEASURED_RESOURCES * REPORT_CONTEXTS];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new DefaultNode(resource, null);
+        }
+        long nodeBytes = usedHeap() - base;
+
+        Object node = new Object();
+        base = usedHeap();
+        Object[] maps = new Object[MEASURED_RESOURCES];
+        for (int r = 0; r < MEASURED_RESOURCES; r++) {
+            Map<String, Object> map = new HashMap<String, Object>(10);
+            for (EntranceNode entranceNode : entranceNodes) {
+                HashMap<String, Object> copy = new HashMap<String, Object>(map.size());
+                copy.putAll(map);
+                copy.put(entranceNode.getId().getName(), node);
+                map = copy;
+            }
+            maps[r] = map;
+        }
+        long mapBytes = usedHeap() - base;
+
+        int scale = REPORT_RESOURCES / MEASURED_RESOURCES;
+        System.out.printf("NodeSelectorSlot footprint for %d resources x %d contexts (measured with %d resources):%n",
+            REPORT_RESOURCES, REPORT_CONTEXTS, MEASURED_RESOURCES);
+        System.out.printf("  slots with nodes:          %,d bytes (%d bytes per resource)%n", slotBytes * scale,
+            slotBytes / MEASURED_RESOURCES);
+        System.out.printf("  nodes only:                %,d bytes (%d bytes per resource)%n", nodeBytes * scale,
+            nodeBytes / MEASURED_RESOURCES);
+        System.out.printf("  slot lookup structures:    %,d bytes (%d bytes per resource)%n",
+            (slotBytes - nodeBytes) * scale, (slotBytes - nodeBytes) / MEASURED_RESOURCES);
+        System.out.printf("  former context name map:  %,d bytes (%d bytes per resource)%n", mapBytes * scale,
+            mapBytes / MEASURED_RESOURCES);
+        // Keep the measured objects reachable until measured.
+        if (slots.length + nodes.length + maps.length == 0) {
+            System.out.println();
+        }
+    }
+
+    private static Context newFootprintContext(EntranceNode entranceNode) {
+        Context context = new Context(entranceNode, entranceNode.getId().getName());
+        // A fresh parent for each node, so that the invocation tree doesn't retain the nodes.
+        context.setCurEntry(new NoopEntry(new DefaultNode(entranceNode.getId(), null)));
+        return context;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) {
+        printFootprintReport();
+    }
+
+    private static class NoopEntry extends Entry {
+
+        private final Node lastNode;
+
+        NoopEntry() {
+            this(null);
+        }
+
+        NoopEntry(Node lastNode) {
+            super(new StringResourceWrapper("node-lookup-entry", EntryType.IN));
+            this.lastNode = lastNode;
+        }
+
+        @Override
+        public void exit(int count, Object... args) {
+        }
+
+        @Override
+        protected Entry trueExit(int count, Object... args) {
+            return null;
+        }
+
+        @Override
+        public Node getLastNode() {
+            return lastNode;
+        }
+
+        @Override
+        public void whenTerminate(BiConsumer<Context, Entry> handler) {
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares the hot parameter check tracking every value exactly ({@code hotKeyCapacity = 0}) with the one
+ * tracking only the hot values detected by a Count-Min sketch, with a million distinct cold values
+ * and a few hot values taking half of the traffic.</p>
+ *
+ * <p>The JMH benchmarks measure the throughput, and the heap used together with the amount of exactly tracked
+ * values is printed on tear down. The {@link #main(String[])} reports the accuracy of both modes:
+ * the passed QPS of each hot value (which should be close to the threshold) and the blocked cold requests
+ * (which should be none).</p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowCheckerBenchmark {
+
+    private static final int COLD_VALUES = 1000000;
+    private static final int HOT_VALUES = 16;
+    private static final int THRESHOLD = 100;
+
+    @Param({"0", "1024"})
+    private int hotKeyCapacity;
+
+    private ResourceWrapper resource;
+    private ParamFlowRule rule;
+    private Long[] values;
+
+    @Setup
+    public void prepare() {
+        resource = new StringResourceWrapper("param-flow-checker-benchmark", EntryType.IN);
+        ParameterMetricStorage.clearParamMetricForResource(resource.getName());
+        rule = newRule(resource.getName(), hotKeyCapacity);
+        ParameterMetricStorage.initParamMetricsFor(resource, rule);
+        values = new Long[COLD_VALUES + HOT_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long)i;
+        }
+    }
+
+    @TearDown
+    public void report() {
+        System.gc();
+        System.out.printf("%n[ParamFlowChecker] hotKeyCapacity=%d, exactly tracked values=%d, heapUsed=%,d bytes%n",
+            hotKeyCapacity, ParameterMetricStorage.getParamMetric(resource).getRuleTimeCounter(rule).size(),
+            ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    }
+
+    private static ParamFlowRule newRule(String resourceName, int hotKeyCapacity) {
+        return new ParamFlowRule(resourceName)
+            .setParamIdx(0)
+            .setCount(THRESHOLD)
+            .setHotKeyCapacity(hotKeyCapacity);
+    }
+
+    /**
+     * @return index of the next value, half of the requests go to the hot values
+     */
+    private static int nextValue(ThreadLocalRandom random) {
+        return random.nextBoolean() ? COLD_VALUES + random.nextInt(HOT_VALUES) : random.nextInt(COLD_VALUES);
+    }
+
+    private boolean check() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, values[nextValue(ThreadLocalRandom.current())]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testSingleThreadCheck() {
+        return check();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean test8ThreadsCheck() {
+        return check();
+    }
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        for (int capacity : new int[] {0, 1024}) {
+            ResourceWrapper resource = new StringResourceWrapper("param-flow-checker-accuracy-" + capacity,
+                EntryType.IN);
+            ParamFlowRule rule = newRule(resource.getName(), capacity);
+            ParameterMetricStorage.initParamMetricsFor(resource, rule);
+
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long requests = 0;
+            long hotPassed = 0;
+            long coldBlocked = 0;
+            long end = System.currentTimeMillis() + seconds * 1000L;
+            while (System.currentTimeMillis() < end) {
+                int idx = nextValue(random);
+                boolean pass = ParamFlowChecker.passCheck(resource, rule, 1, (long)idx);
+                requests++;
+                if (idx >= COLD_VALUES) {
+                    hotPassed += pass ? 1 : 0;
+                } else {
+                    coldBlocked += pass ? 0 : 1;
+                }
+            }
+            System.out.printf("[ParamFlowChecker] hotKeyCapacity=%d: throughput=%d req/s, "
+                    + "passed QPS per hot value=%.1f (threshold %d), blocked cold requests=%d, "
+                    + "exactly tracked values=%d%n", capacity, requests / seconds,
+                (double)hotPassed / seconds / HOT_VALUES, THRESHOLD, coldBlocked,
+                ParameterMetricStorage.getParamMetric(resource).getRuleTimeCounter(rule).size());
+        }
+    }
+}
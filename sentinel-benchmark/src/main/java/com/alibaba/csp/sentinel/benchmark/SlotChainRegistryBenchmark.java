@@ -0,0 +1,117 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.CtSph;
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for cold-start registration of slot chains, i.e. many distinct resources
+ * showing up concurrently for the first time (e.g. URL or RPC resources at startup).
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SlotChainRegistryBenchmark {
+
+    @Param({"64"})
+    private int threads;
+
+    @Param({"6000"})
+    private int resourceCount;
+
+    private ExecutorService pool;
+    private Method resetChainMap;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        pool = Executors.newFixedThreadPool(threads);
+        resetChainMap = CtSph.class.getDeclaredMethod("resetChainMap");
+        resetChainMap.setAccessible(true);
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() throws Exception {
+        resetChainMap.invoke(null);
+        ClusterBuilderSlot.resetClusterNodes();
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    public int registerResourcesConcurrently() throws InterruptedException {
+        final int total = Math.min(resourceCount, Constants.MAX_SLOT_CHAIN_SIZE);
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = offset; i < total; i += threads) {
+                            enterAndExit("cold-start-resource-" + i);
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+        latch.await();
+        return CtSph.entrySize();
+    }
+
+    private static void enterAndExit(String resource) {
+        Entry e = null;
+        try {
+            e = SphU.entry(resource);
+        } catch (BlockException ex) {
+            // Ignore.
+        } finally {
+            if (e != null) {
+                e.exit();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Compares the heap and the off-heap statistic storage (see {@link SentinelConfig#STATISTIC_STORAGE})
+ * with a large amount of nodes. The storage is resolved once per JVM, so each storage is measured in its own fork.</p>
+ *
+ * <p>Besides the recording throughput, the duration of full GCs with all nodes alive is measured,
+ * and the heap/direct memory footprint together with the total GC pause time is printed on tear down.
+ * The sliding windows are filled lazily while recording, so the footprint is reported after the trial.</p>
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class StatisticStorageBenchmark {
+
+    private static final String HEAP = "-Dcsp.sentinel.statistic.storage=heap";
+    private static final String OFF_HEAP = "-Dcsp.sentinel.statistic.storage=offheap";
+
+    @Param({"20000"})
+    private int nodeCount;
+
+    private ClusterNode[] nodes;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        nodes = new ClusterNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = new ClusterNode("statistic-storage-resource-" + i);
+            nodes[i].addPassRequest(1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.gc();
+        long heapUsed = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long directUsed = 0;
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                directUsed = pool.getMemoryUsed();
+            }
+        }
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += gc.getCollectionCount();
+            gcTime += gc.getCollectionTime();
+        }
+        System.out.printf("%n[StatisticStorage] offHeap=%s, nodes=%d, heapUsed=%,d bytes, directUsed=%,d bytes, "
+                + "gcCount=%d, gcTime=%d ms%n", SentinelConfig.statisticOffHeap(), nodeCount, heapUsed, directUsed,
+            gcCount, gcTime);
+    }
+
+    private void record() {
+        ClusterNode node = nodes[ThreadLocalRandom.current().nextInt(nodeCount)];
+        node.addPassRequest(1);
+        node.addRtAndSuccess(5, 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(8)
+    @Fork(jvmArgsAppend = HEAP)
+    public void testHeapRecord() {
+        record();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Threads(8)
+    @Fork(jvmArgsAppend = OFF_HEAP)
+    public void testOffHeapRecord() {
+        record();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(jvmArgsAppend = HEAP)
+    public void testHeapFullGc() {
+        record();
+        System.gc();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Fork(jvmArgsAppend = OFF_HEAP)
+    public void testOffHeapFullGc() {
+        record();
+        System.gc();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for clock modes of {@link TimeUtil}. The clock mode is resolved once per JVM,
+ * so each mode is measured in its own fork. Tick drift observed during each run is printed on tear down.
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TimeUtilBenchmark {
+
+    @TearDown
+    public void printDrift() {
+        System.out.println("\n[TimeUtil] mode=" + TimeUtil.currentMode() + ", ticking=" + TimeUtil.isTicking()
+            + ", ticks=" + TimeUtil.getTickCount() + ", maxDrift=" + TimeUtil.getMaxTickDrift() + "ms");
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long testSystemCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long testSystemNanoTime() {
+        return System.nanoTime();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Fork(jvmArgsAppend = "-Dcsp.sentinel.time.tick.mode=tick")
+    public long testTickMode() {
+        return TimeUtil.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Fork(jvmArgsAppend = "-Dcsp.sentinel.time.tick.mode=adaptive")
+    public long testAdaptiveMode() {
+        return TimeUtil.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(8)
+    @Fork(jvmArgsAppend = "-Dcsp.sentinel.time.tick.mode=monotonic")
+    public long testMonotonicMode() {
+        return TimeUtil.currentTimeMillis();
+    }
+}
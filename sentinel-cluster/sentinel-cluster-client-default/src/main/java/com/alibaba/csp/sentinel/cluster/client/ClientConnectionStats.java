@@ -0,0 +1,158 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Statistics of a connection in the pool of {@link NettyTransportClient}, including the requests
+ * in flight and a histogram of the request latency.</p>
+ *
+ * <p>The latency of a request falls into the first bucket whose upper bound (in microseconds,
+ * see {@link #getLatencyBoundsMicros()}) is no less than it.</p>
+ *
+ * @since 1.8.2
+ */
+public class ClientConnectionStats {
+
+    private static final long[] LATENCY_BOUNDS_MICROS = {100, 200, 500, 1000, 2000, 5000, 10000, 20000, 50000,
+        100000, Long.MAX_VALUE};
+
+    private final String server;
+    private final int index;
+    private final AtomicInteger state;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BOUNDS_MICROS.length);
+
+    ClientConnectionStats(String server, int index, AtomicInteger state) {
+        this.server = server;
+        this.index = index;
+        this.state = state;
+    }
+
+    void onSend() {
+        inFlight.incrementAndGet();
+    }
+
+    void onComplete(long startNanos, boolean success) {
+        inFlight.decrementAndGet();
+        if (!success) {
+            failureCount.incrementAndGet();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        int i = 0;
+        while (micros > LATENCY_BOUNDS_MICROS[i]) {
+            i++;
+        }
+        latencyCounts.incrementAndGet(i);
+    }
+
+    /**
+     * @return address of the token server, in form of {@code host:port}
+     */
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * @return index of the connection in the pool
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return state of the connection, see {@link ClientConstants}
+     */
+    public int getState() {
+        return state.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * @return count of the succeeded requests
+     */
+    public long getSuccessCount() {
+        long count = 0;
+        for (int i = 0; i < latencyCounts.length(); i++) {
+            count += latencyCounts.get(i);
+        }
+        return count;
+    }
+
+    public long[] getLatencyBoundsMicros() {
+        return LATENCY_BOUNDS_MICROS.clone();
+    }
+
+    /**
+     * @return count of the succeeded requests in each latency bucket
+     */
+    public long[] getLatencyCounts() {
+        long[] counts = new long[latencyCounts.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = latencyCounts.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * @return upper bound (in microseconds) of the bucket where the median latency falls, or 0 if no requests
+     */
+    public long getP50LatencyMicros() {
+        return percentileMicros(0.5);
+    }
+
+    /**
+     * @return upper bound (in microseconds) of the bucket where the 99th percentile latency falls,
+     * or 0 if no requests
+     */
+    public long getP99LatencyMicros() {
+        return percentileMicros(0.99);
+    }
+
+    private long percentileMicros(double percentile) {
+        long[] counts = getLatencyCounts();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return LATENCY_BOUNDS_MICROS[i];
+            }
+        }
+        return LATENCY_BOUNDS_MICROS[counts.length - 1];
+    }
+}
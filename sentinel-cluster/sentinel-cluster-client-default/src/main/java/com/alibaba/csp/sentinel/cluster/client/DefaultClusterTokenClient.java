@@ -15,8 +15,20 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
@@ -26,7 +38,10 @@ import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
+import com.alibaba.csp.sentinel.cluster.client.config.TokenServerShard;
+import com.alibaba.csp.sentinel.cluster.client.config.TokenServerShardRing;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
@@ -37,15 +52,24 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
- * Default implementation of {@link ClusterTokenClient}.
+ * <p>Default implementation of {@link ClusterTokenClient}.</p>
+ *
+ * <p>If the client is assigned to token server shards (see {@link ClusterClientAssignConfig#getShardServers()}),
+ * a connection is kept for each shard, and each request is routed to the shard owning its flow ID.</p>
  *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class DefaultClusterTokenClient implements ClusterTokenClient {
 
-    private ClusterTransportClient transportClient;
-    private TokenServerDescriptor serverDescriptor;
+    /**
+     * Client of the single token server, null if it's not created or the client is in the sharded mode.
+     */
+    private volatile ServerClient serverClient;
+    /**
+     * Clients of the token server shards, null if the client is not in the sharded mode.
+     */
+    private volatile ShardClients shardClients;
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
@@ -55,19 +79,30 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             public void onRemoteServerChange(ClusterClientAssignConfig assignConfig) {
                 changeServer(assignConfig);
             }
+
+            @Override
+            public void onShardServersChange(TokenServerShardRing shardRing) {
+                changeShards(shardRing);
+            }
         });
         initNewConnection();
     }
 
-    private boolean serverEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
-        if (descriptor == null || config == null) {
+    private boolean serverEqual(ServerClient client, ClusterClientAssignConfig config) {
+        if (client == null || config == null) {
             return false;
         }
+        TokenServerDescriptor descriptor = client.descriptor;
         return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
     }
 
     private void initNewConnection() {
-        if (transportClient != null) {
+        TokenServerShardRing shardRing = ClusterClientConfigManager.getShardRing();
+        if (shardRing != null) {
+            changeShards(shardRing);
+            return;
+        }
+        if (serverClient != null) {
             return;
         }
         String host = ClusterClientConfigManager.getServerHost();
@@ -77,46 +112,139 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
 
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            this.serverClient = newServerClient(host, port);
+            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverClient.descriptor);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
         }
     }
 
     private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
-        if (serverEqual(serverDescriptor, config)) {
+        if (serverEqual(serverClient, config)) {
             return;
         }
         try {
-            if (transportClient != null) {
-                transportClient.stop();
+            if (serverClient != null) {
+                serverClient.transportClient.stop();
             }
             // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
-            startClientIfScheduled();
-            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverDescriptor);
+            this.serverClient = newServerClient(config.getServerHost(), config.getServerPort());
+            startClientIfScheduled(serverClient);
+            RecordLog.info("[DefaultClusterTokenClient] New client created: {}", serverClient.descriptor);
         } catch (Exception ex) {
             RecordLog.warn("[DefaultClusterTokenClient] Failed to change remote token server", ex);
         }
     }
 
-    private void startClientIfScheduled() throws Exception {
+    private synchronized void changeShards(TokenServerShardRing shardRing) {
+        ShardClients former = this.shardClients;
+        if (shardRing == null) {
+            this.shardClients = null;
+            if (former != null) {
+                stopClients(former.clients.values());
+            }
+            return;
+        }
+        // Clients of the remaining shards are reused, so only flows of changed shards are affected.
+        Map<TokenServerShard, ServerClient> clients = new HashMap<>();
+        for (TokenServerShard shard : shardRing.getShards()) {
+            ServerClient client = former == null ? null : former.clients.get(shard);
+            if (client == null) {
+                try {
+                    client = newServerClient(shard.getServerHost(), shard.getServerPort());
+                    startClientIfScheduled(client);
+                    RecordLog.info("[DefaultClusterTokenClient] New client created for shard: {}", shard);
+                } catch (Exception ex) {
+                    RecordLog.warn("[DefaultClusterTokenClient] Failed to create client for shard: " + shard, ex);
+                    continue;
+                }
+            }
+            clients.put(shard, client);
+        }
+        this.shardClients = new ShardClients(shardRing, clients);
+
+        // The single token server is replaced by the shards.
+        ServerClient single = this.serverClient;
+        this.serverClient = null;
+        if (single != null) {
+            stopClients(Collections.singletonList(single));
+        }
+        if (former != null) {
+            for (Map.Entry<TokenServerShard, ServerClient> entry : former.clients.entrySet()) {
+                if (clients.get(entry.getKey()) != entry.getValue()) {
+                    stopClients(Collections.singletonList(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    private ServerClient newServerClient(String host, int port) {
+        ClusterTransportClient transportClient = new NettyTransportClient(host, port);
+        return new ServerClient(new TokenServerDescriptor(host, port), transportClient,
+            newBatcher(transportClient), newLeaseManager(transportClient));
+    }
+
+    private FlowRequestBatcher newBatcher(ClusterTransportClient transportClient) {
+        long windowMicros = ClusterClientStartUpConfig.getBatchWindowMicros();
+        if (windowMicros <= 0) {
+            return null;
+        }
+        RecordLog.info("[DefaultClusterTokenClient] Flow requests are batched within {} us", windowMicros);
+        return new FlowRequestBatcher(transportClient, windowMicros, ClusterClientStartUpConfig.getBatchMaxSize(),
+            ClusterClientStartUpConfig.isBatchCoalesceEnabled());
+    }
+
+    private FlowTokenLeaseManager newLeaseManager(ClusterTransportClient transportClient) {
+        int leaseMs = ClusterClientStartUpConfig.getLeaseMillis();
+        if (leaseMs <= 0) {
+            return null;
+        }
+        RecordLog.info("[DefaultClusterTokenClient] Flow tokens are leased for {} ms", leaseMs);
+        return new FlowTokenLeaseManager(transportClient, leaseMs);
+    }
+
+    private void startClientIfScheduled(ServerClient client) throws Exception {
         if (shouldStart.get()) {
-            if (transportClient != null) {
-                transportClient.start();
-            } else {
-                RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
+            client.transportClient.start();
+        }
+    }
+
+    private void startClientsIfScheduled() throws Exception {
+        if (!shouldStart.get()) {
+            return;
+        }
+        ShardClients shardClients = this.shardClients;
+        if (shardClients != null) {
+            for (ServerClient client : shardClients.clients.values()) {
+                client.transportClient.start();
             }
+            return;
+        }
+        if (serverClient != null) {
+            serverClient.transportClient.start();
+        } else {
+            RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
         }
     }
 
     private void stopClientIfStarted() throws Exception {
         if (shouldStart.compareAndSet(true, false)) {
-            if (transportClient != null) {
-                transportClient.stop();
+            ShardClients shardClients = this.shardClients;
+            if (shardClients != null) {
+                stopClients(shardClients.clients.values());
+            }
+            if (serverClient != null) {
+                serverClient.transportClient.stop();
+            }
+        }
+    }
+
+    private void stopClients(Collection<ServerClient> clients) {
+        for (ServerClient client : clients) {
+            try {
+                client.transportClient.stop();
+            } catch (Exception ex) {
+                RecordLog.warn("[DefaultClusterTokenClient] Failed to stop client: " + client.descriptor, ex);
             }
         }
     }
@@ -124,7 +252,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     @Override
     public void start() throws Exception {
         if (shouldStart.compareAndSet(false, true)) {
-            startClientIfScheduled();
+            startClientsIfScheduled();
         }
     }
 
@@ -135,27 +263,104 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
 
     @Override
     public int getState() {
-        if (transportClient == null) {
+        ShardClients shardClients = this.shardClients;
+        if (shardClients != null) {
+            // The client is started only if all the shards are ready.
+            if (shardClients.clients.size() < shardClients.ring.getShards().size()) {
+                return ClientConstants.CLIENT_STATUS_OFF;
+            }
+            for (ServerClient client : shardClients.clients.values()) {
+                if (!client.transportClient.isReady()) {
+                    return ClientConstants.CLIENT_STATUS_OFF;
+                }
+            }
+            return ClientConstants.CLIENT_STATUS_STARTED;
+        }
+        ServerClient serverClient = this.serverClient;
+        if (serverClient == null) {
             return ClientConstants.CLIENT_STATUS_OFF;
         }
-        return transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_OFF;
+        return serverClient.transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED
+            : ClientConstants.CLIENT_STATUS_OFF;
+    }
+
+    /**
+     * Get the statistics of the connections to the token server (or all the shards in the sharded mode).
+     *
+     * @return statistics of the connections
+     * @since 1.8.2
+     */
+    public List<ClientConnectionStats> getConnectionStats() {
+        List<ClientConnectionStats> stats = new ArrayList<>();
+        ShardClients shardClients = this.shardClients;
+        if (shardClients != null) {
+            for (ServerClient client : shardClients.clients.values()) {
+                addConnectionStats(client, stats);
+            }
+        }
+        addConnectionStats(this.serverClient, stats);
+        return stats;
+    }
+
+    private void addConnectionStats(ServerClient client, List<ClientConnectionStats> stats) {
+        if (client != null && client.transportClient instanceof NettyTransportClient) {
+            stats.addAll(((NettyTransportClient)client.transportClient).getConnectionStats());
+        }
     }
 
+    /**
+     * Get current token server. In the sharded mode, the first shard is returned.
+     */
     @Override
     public TokenServerDescriptor currentServer() {
-        return serverDescriptor;
+        ShardClients shardClients = this.shardClients;
+        if (shardClients != null) {
+            ServerClient client = shardClients.clients.get(shardClients.ring.getShards().get(0));
+            return client == null ? null : client.descriptor;
+        }
+        ServerClient serverClient = this.serverClient;
+        return serverClient == null ? null : serverClient.descriptor;
     }
 
+    /**
+     * Pick the client of the token server owning provided flow.
+     */
+    private ServerClient pickClient(long flowId) {
+        ShardClients shardClients = this.shardClients;
+        if (shardClients != null) {
+            return shardClients.clients.get(shardClients.ring.select(flowId));
+        }
+        return serverClient;
+    }
     @Override
     public TokenResult requestToken(Long flowId, int acquireCount, boolean prioritized) {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
+        ServerClient client = pickClient(flowId);
+        if (client == null) {
+            return clientNotCreated();
+        }
+        // Prioritized requests might occupy future windows in the server, so they are never leased.
+        FlowTokenLeaseManager leaseManager = client.leaseManager;
+        if (leaseManager != null && !prioritized) {
+            TokenResult result = leaseManager.tryAcquire(flowId, acquireCount);
+            if (result == null) {
+                result = awaitLeasedResult(leaseManager.renew(flowId, acquireCount));
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        FlowRequestBatcher batcher = client.batcher;
+        if (batcher != null) {
+            return awaitBatchedResult(batcher, batcher.submit(flowId, acquireCount, prioritized));
+        }
         FlowRequestData data = new FlowRequestData().setCount(acquireCount)
             .setFlowId(flowId).setPriority(prioritized);
         ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(client, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -173,7 +378,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             .setFlowId(flowId).setParams(params);
         ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(pickClient(flowId), request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -182,6 +387,64 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public CompletableFuture<TokenResult> requestTokenAsync(final Long flowId, final int acquireCount,
+                                                           final boolean prioritized) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        final ServerClient client = pickClient(flowId);
+        if (client == null) {
+            return CompletableFuture.completedFuture(clientNotCreated());
+        }
+        FlowTokenLeaseManager leaseManager = client.leaseManager;
+        if (leaseManager != null && !prioritized) {
+            TokenResult result = leaseManager.tryAcquire(flowId, acquireCount);
+            if (result != null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            return leaseManager.renew(flowId, acquireCount).handle(
+                new BiFunction<TokenResult, Throwable, CompletableFuture<TokenResult>>() {
+                    @Override
+                    public CompletableFuture<TokenResult> apply(TokenResult result, Throwable ex) {
+                        if (ex != null) {
+                            return CompletableFuture.completedFuture(failResult(ex));
+                        }
+                        if (result != null) {
+                            logForResult(result);
+                            return CompletableFuture.completedFuture(result);
+                        }
+                        return requestRegularTokenAsync(client, flowId, acquireCount, false);
+                    }
+                }).thenCompose(Function.<CompletableFuture<TokenResult>>identity());
+        }
+        return requestRegularTokenAsync(client, flowId, acquireCount, prioritized);
+    }
+
+    private CompletableFuture<TokenResult> requestRegularTokenAsync(ServerClient client, Long flowId,
+                                                                    int acquireCount, boolean prioritized) {
+        FlowRequestBatcher batcher = client.batcher;
+        if (batcher != null) {
+            return handleTokenResult(batcher.submit(flowId, acquireCount, prioritized));
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+        return sendTokenRequestAsync(client, request);
+    }
+
+    @Override
+    public CompletableFuture<TokenResult> requestParamTokenAsync(Long flowId, int acquireCount,
+                                                                 Collection<Object> params) {
+        if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
+            return CompletableFuture.completedFuture(badRequest());
+        }
+        ParamFlowRequestData data = new ParamFlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setParams(params);
+        ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
+        return sendTokenRequestAsync(pickClient(flowId), request);
+    }
+
     @Override
     public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
         return null;
@@ -203,13 +466,91 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
-        if (transportClient == null) {
-            RecordLog.warn(
-                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+    private TokenResult sendTokenRequest(ServerClient client, ClusterRequest request) throws Exception {
+        if (client == null) {
+            return clientNotCreated();
+        }
+        ClusterResponse response = client.transportClient.sendRequest(request);
+        return toTokenResult(response);
+    }
+
+    private CompletableFuture<TokenResult> sendTokenRequestAsync(ServerClient client, ClusterRequest request) {
+        if (client == null) {
+            return CompletableFuture.completedFuture(clientNotCreated());
+        }
+        return client.transportClient.sendRequestAsync(request).handle(
+            new BiFunction<ClusterResponse, Throwable, TokenResult>() {
+                @Override
+                public TokenResult apply(ClusterResponse response, Throwable ex) {
+                    if (ex != null) {
+                        return failResult(ex);
+                    }
+                    TokenResult result = toTokenResult(response);
+                    logForResult(result);
+                    return result;
+                }
+            });
+    }
+
+    private CompletableFuture<TokenResult> handleTokenResult(CompletableFuture<TokenResult> future) {
+        return future.handle(new BiFunction<TokenResult, Throwable, TokenResult>() {
+            @Override
+            public TokenResult apply(TokenResult result, Throwable ex) {
+                if (ex != null) {
+                    return failResult(ex);
+                }
+                logForResult(result);
+                return result;
+            }
+        });
+    }
+
+    private TokenResult awaitBatchedResult(FlowRequestBatcher batcher, CompletableFuture<TokenResult> future) {
+        // The request waits for the batch window at most before it's sent.
+        long timeoutMicros = batcher.getWindowMicros() + ClusterClientConfigManager.getRequestTimeout() * 1000L;
+        try {
+            TokenResult result = future.get(timeoutMicros, TimeUnit.MICROSECONDS);
+            logForResult(result);
+            return result;
+        } catch (TimeoutException ex) {
+            ClusterClientStatLogUtil.log(ClusterErrorMessages.REQUEST_TIME_OUT);
+            return clientFail();
+        } catch (ExecutionException ex) {
+            return failResult(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return clientFail();
+        }
+    }
+
+    /**
+     * @return the token result, or null if the tokens should be requested regularly
+     */
+    private TokenResult awaitLeasedResult(CompletableFuture<TokenResult> future) {
+        try {
+            TokenResult result = future.get(ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+            if (result != null) {
+                logForResult(result);
+            }
+            return result;
+        } catch (TimeoutException ex) {
+            ClusterClientStatLogUtil.log(ClusterErrorMessages.REQUEST_TIME_OUT);
+            return clientFail();
+        } catch (ExecutionException ex) {
+            return failResult(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+    }
+
+    private TokenResult failResult(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        ClusterClientStatLogUtil.log(cause.getMessage());
+        return clientFail();
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
@@ -230,4 +571,47 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
     private TokenResult clientFail() {
         return new TokenResult(TokenResultStatus.FAIL);
     }
+
+    private TokenResult clientNotCreated() {
+        RecordLog.warn(
+            "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+        return clientFail();
+    }
+
+    /**
+     * Client of a token server, together with the batcher and leases of flow requests on it.
+     */
+    private static final class ServerClient {
+        private final TokenServerDescriptor descriptor;
+        private final ClusterTransportClient transportClient;
+        /**
+         * Batcher of flow requests, null if batching is disabled.
+         */
+        private final FlowRequestBatcher batcher;
+        /**
+         * Leases of flow tokens, null if leasing is disabled.
+         */
+        private final FlowTokenLeaseManager leaseManager;
+
+        ServerClient(TokenServerDescriptor descriptor, ClusterTransportClient transportClient,
+                     FlowRequestBatcher batcher, FlowTokenLeaseManager leaseManager) {
+            this.descriptor = descriptor;
+            this.transportClient = transportClient;
+            this.batcher = batcher;
+            this.leaseManager = leaseManager;
+        }
+    }
+
+    private static final class ShardClients {
+        private final TokenServerShardRing ring;
+        /**
+         * Clients of the shards, where the shards failed to create clients are absent.
+         */
+        private final Map<TokenServerShard, ServerClient> clients;
+
+        ShardClients(TokenServerShardRing ring, Map<TokenServerShard, ServerClient> clients) {
+            this.ring = ring;
+            this.clients = clients;
+        }
+    }
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Collects the flow token requests within a micro-window (or until the batch is full) and sends them
+ * as a single batched request ({@link ClusterConstants#MSG_TYPE_FLOW_BATCH}), so that the token server decodes
+ * and answers much fewer frames under high QPS.</p>
+ *
+ * <p>If coalescing is enabled, the requests of the same flow ID and priority in a batch are merged into a single
+ * multi-count request. The merged request is accepted or rejected as a whole, so all of them are blocked
+ * once the remaining tokens are fewer than the merged count, even if some of them could have passed.</p>
+ *
+ * @since 1.8.2
+ */
+final class FlowRequestBatcher {
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+        new NamedThreadFactory("sentinel-cluster-client-batch-flush", true));
+
+    private final ClusterTransportClient transportClient;
+    private final long windowMicros;
+    private final int maxSize;
+    private final boolean coalesce;
+
+    private final Object lock = new Object();
+    /**
+     * The batch being collected, which is detached once it's sent.
+     */
+    private List<PendingRequest> pending;
+
+    FlowRequestBatcher(ClusterTransportClient transportClient, long windowMicros, int maxSize, boolean coalesce) {
+        AssertUtil.notNull(transportClient, "transport client cannot be null");
+        AssertUtil.isTrue(windowMicros > 0, "batch window should be positive");
+        AssertUtil.isTrue(maxSize > 0 && maxSize <= ClusterConstants.MAX_FLOW_BATCH_SIZE, "invalid batch max size");
+        this.transportClient = transportClient;
+        this.windowMicros = windowMicros;
+        this.maxSize = maxSize;
+        this.coalesce = coalesce;
+    }
+
+    long getWindowMicros() {
+        return windowMicros;
+    }
+
+    /**
+     * Add the request to current batch.
+     *
+     * @return the future of the token result, which completes exceptionally if the batch failed
+     */
+    CompletableFuture<TokenResult> submit(long flowId, int count, boolean prioritized) {
+        PendingRequest request = new PendingRequest(flowId, count, prioritized);
+        final List<PendingRequest> batch;
+        boolean first = false;
+        boolean full = false;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new ArrayList<>(maxSize);
+                first = true;
+            }
+            batch = pending;
+            batch.add(request);
+            if (batch.size() >= maxSize) {
+                pending = null;
+                full = true;
+            }
+        }
+        if (full) {
+            send(batch);
+        } else if (first) {
+            SCHEDULER.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    flush(batch);
+                }
+            }, windowMicros, TimeUnit.MICROSECONDS);
+        }
+        return request.future;
+    }
+
+    private void flush(List<PendingRequest> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                // The batch has been sent as it's full.
+                return;
+            }
+            pending = null;
+        }
+        send(batch);
+    }
+
+    private void send(final List<PendingRequest> batch) {
+        final List<FlowRequestData> requests = new ArrayList<>(batch.size());
+        // Index of the (maybe coalesced) request that each pending request is answered by.
+        final int[] answeredBy = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PendingRequest request = batch.get(i);
+            int index = coalesce ? indexOf(requests, request) : -1;
+            if (index < 0) {
+                index = requests.size();
+                requests.add(new FlowRequestData().setFlowId(request.flowId).setCount(request.count)
+                    .setPriority(request.prioritized));
+            } else {
+                FlowRequestData merged = requests.get(index);
+                merged.setCount(merged.getCount() + request.count);
+            }
+            answeredBy[i] = index;
+        }
+
+        ClusterRequest<BatchFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_BATCH,
+            new BatchFlowRequestData().setRequests(requests));
+        transportClient.sendRequestAsync(request).whenComplete(new BiConsumer<ClusterResponse, Throwable>() {
+            @Override
+            public void accept(ClusterResponse response, Throwable ex) {
+                if (ex == null && response.getStatus() == TokenResultStatus.TOO_MANY_REQUEST) {
+                    // Rejected by the admission control of the token server.
+                    for (PendingRequest pendingRequest : batch) {
+                        pendingRequest.future.complete(new TokenResult(TokenResultStatus.TOO_MANY_REQUEST));
+                    }
+                    return;
+                }
+                List<TokenResult> results = null;
+                if (ex == null && response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK
+                    && response.getData() instanceof BatchFlowTokenResponseData) {
+                    results = ((BatchFlowTokenResponseData)response.getData()).getResults();
+                }
+                if (results == null || results.size() != requests.size()) {
+                    Throwable cause = ex != null ? ex : new SentinelClusterException(
+                        response.getStatus() == ClusterConstants.RESPONSE_STATUS_BAD
+                            ? ClusterErrorMessages.BAD_REQUEST : ClusterErrorMessages.UNEXPECTED_STATUS);
+                    for (PendingRequest pendingRequest : batch) {
+                        pendingRequest.future.completeExceptionally(cause);
+                    }
+                    return;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    TokenResult result = results.get(answeredBy[i]);
+                    batch.get(i).future.complete(new TokenResult(result.getStatus())
+                        .setRemaining(result.getRemaining())
+                        .setWaitInMs(result.getWaitInMs()));
+                }
+            }
+        });
+    }
+
+    private static int indexOf(List<FlowRequestData> requests, PendingRequest request) {
+        // The batch is small, so a linear scan is cheaper than hashing.
+        for (int i = 0; i < requests.size(); i++) {
+            FlowRequestData data = requests.get(i);
+            if (data.getFlowId() == request.flowId && data.isPriority() == request.prioritized) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class PendingRequest {
+        private final long flowId;
+        private final int count;
+        private final boolean prioritized;
+        private final CompletableFuture<TokenResult> future = new CompletableFuture<>();
+
+        PendingRequest(long flowId, int count, boolean prioritized) {
+            this.flowId = flowId;
+            this.count = count;
+            this.prioritized = prioritized;
+        }
+    }
+}
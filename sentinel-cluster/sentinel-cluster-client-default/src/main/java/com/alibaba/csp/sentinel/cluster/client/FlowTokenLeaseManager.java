@@ -0,0 +1,234 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Holds the leases of flow tokens ({@link ClusterConstants#MSG_TYPE_FLOW_LEASE}) granted by the token server,
+ * so that the flow requests are satisfied locally until the lease is exhausted or expires.</p>
+ *
+ * <p>The amount of a lease is sized by the recent local demand of the flow (the acquired count per lease time slice),
+ * while the token server limits the amount and the lease time, and counts the leased tokens as passed at once.
+ * Unused tokens of an ended lease are given back to the server with the next lease request.</p>
+ *
+ * <p>Only one lease request of a flow is in flight at any time. Requests arriving in the meantime wait for it
+ * and take their tokens from the renewed lease, or fall back to regular requests if the renewed lease
+ * does not have enough tokens.</p>
+ *
+ * @since 1.8.2
+ */
+final class FlowTokenLeaseManager {
+
+    private final ClusterTransportClient transportClient;
+    private final int leaseMs;
+
+    private final ConcurrentMap<Long, LeaseState> states = new ConcurrentHashMap<>();
+
+    FlowTokenLeaseManager(ClusterTransportClient transportClient, int leaseMs) {
+        AssertUtil.notNull(transportClient, "transport client cannot be null");
+        AssertUtil.isTrue(leaseMs > 0, "lease time should be positive");
+        this.transportClient = transportClient;
+        this.leaseMs = leaseMs;
+    }
+
+    int getLeaseMs() {
+        return leaseMs;
+    }
+
+    /**
+     * Take the tokens from current lease of the flow.
+     *
+     * @return the token result if tokens are taken from the lease, or null if the lease should be renewed
+     */
+    TokenResult tryAcquire(long flowId, int count) {
+        LeaseState state = getState(flowId);
+        state.demand.addAndGet(count);
+        Lease lease = state.lease;
+        if (lease != null && lease.tryTake(count, TimeUtil.currentTimeMillis())) {
+            return okResult(lease);
+        }
+        return null;
+    }
+
+    /**
+     * Renew the lease of the flow and acquire the tokens from it. This should be called
+     * after {@link #tryAcquire(long, int)} failed.
+     *
+     * @return the future of the token result, which completes with null if the renewed lease does not have
+     * enough tokens for the request (so that the tokens should be requested regularly),
+     * or completes exceptionally if the lease request failed
+     */
+    CompletableFuture<TokenResult> renew(final long flowId, final int count) {
+        final LeaseState state = getState(flowId);
+        synchronized (state) {
+            if (state.renewing != null) {
+                return state.renewing.handle(new BiFunction<TokenResult, Throwable, TokenResult>() {
+                    @Override
+                    public TokenResult apply(TokenResult result, Throwable ex) {
+                        Lease lease = state.lease;
+                        if (lease != null && lease.tryTake(count, TimeUtil.currentTimeMillis())) {
+                            return okResult(lease);
+                        }
+                        return null;
+                    }
+                });
+            }
+            long now = TimeUtil.currentTimeMillis();
+            int returnedCount = 0;
+            Lease previous = state.lease;
+            if (previous != null) {
+                state.lease = null;
+                // Unused tokens of leases ended long ago are no longer counted by the server.
+                if (now - previous.expireAt < leaseMs) {
+                    returnedCount = previous.remaining.getAndSet(0);
+                }
+            }
+            FlowLeaseRequestData data = new FlowLeaseRequestData().setFlowId(flowId)
+                .setAcquireCount(count)
+                .setLeaseCount(state.nextLeaseCount(count, now, leaseMs))
+                .setLeaseMs(leaseMs)
+                .setReturnedCount(returnedCount);
+            ClusterRequest<FlowLeaseRequestData> request = new ClusterRequest<>(
+                ClusterConstants.MSG_TYPE_FLOW_LEASE, data);
+
+            CompletableFuture<TokenResult> renewing = transportClient.sendRequestAsync(request).handle(
+                new BiFunction<ClusterResponse, Throwable, TokenResult>() {
+                    @Override
+                    public TokenResult apply(ClusterResponse response, Throwable ex) {
+                        synchronized (state) {
+                            state.renewing = null;
+                            if (ex != null) {
+                                throw ex instanceof CompletionException ? (CompletionException)ex
+                                    : new CompletionException(ex);
+                            }
+                            return applyLease(state, response, count);
+                        }
+                    }
+                });
+            // The response might have been handled in current thread.
+            if (!renewing.isDone()) {
+                state.renewing = renewing;
+            }
+            return renewing;
+        }
+    }
+
+    private TokenResult applyLease(LeaseState state, ClusterResponse response, int count) {
+        if (response.getStatus() != TokenResultStatus.OK) {
+            return new TokenResult(response.getStatus());
+        }
+        FlowLeaseResponseData data = (FlowLeaseResponseData)response.getData();
+        int rest = data == null ? 0 : data.getGrantedCount() - count;
+        if (rest > 0 && data.getLeaseMs() > 0) {
+            state.lease = new Lease(rest, TimeUtil.currentTimeMillis() + data.getLeaseMs());
+        }
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(Math.max(rest, 0))
+            .setWaitInMs(0);
+    }
+
+    private LeaseState getState(long flowId) {
+        LeaseState state = states.get(flowId);
+        if (state == null) {
+            state = new LeaseState();
+            LeaseState old = states.putIfAbsent(flowId, state);
+            if (old != null) {
+                state = old;
+            }
+        }
+        return state;
+    }
+
+    private static TokenResult okResult(Lease lease) {
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(lease.remaining.get())
+            .setWaitInMs(0);
+    }
+
+    private static final class LeaseState {
+
+        private volatile Lease lease;
+        /**
+         * Count acquired since the last renewal.
+         */
+        private final AtomicLong demand = new AtomicLong();
+
+        /**
+         * The fields below are guarded by the state itself.
+         */
+        private CompletableFuture<TokenResult> renewing;
+        private long lastRenewTime;
+        private double demandPerLease;
+
+        /**
+         * Estimate the amount of next lease, which is the smoothed count acquired per lease time.
+         */
+        int nextLeaseCount(int count, long now, int leaseMs) {
+            long acquired = demand.getAndSet(0);
+            if (lastRenewTime > 0) {
+                long elapsed = Math.max(1, now - lastRenewTime);
+                double recent = (double)acquired * leaseMs / elapsed;
+                demandPerLease = demandPerLease <= 0 ? recent : (demandPerLease + recent) / 2;
+            }
+            lastRenewTime = now;
+            return (int)Math.min(Integer.MAX_VALUE, Math.max(count, (long)Math.ceil(demandPerLease)));
+        }
+    }
+
+    private static final class Lease {
+
+        private final AtomicInteger remaining;
+        private final long expireAt;
+
+        Lease(int remaining, long expireAt) {
+            this.remaining = new AtomicInteger(remaining);
+            this.expireAt = expireAt;
+        }
+
+        boolean tryTake(int count, long now) {
+            if (now >= expireAt) {
+                return false;
+            }
+            while (true) {
+                int current = remaining.get();
+                if (current < count) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - count)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -16,17 +16,24 @@
 package com.alibaba.csp.sentinel.cluster.client;
 
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
 
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
 import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientHandler;
 import com.alibaba.csp.sentinel.cluster.client.handler.TokenClientPromiseHolder;
 import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
@@ -41,19 +48,30 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
-import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.DefaultThreadFactory;
 
 /**
- * Netty transport client implementation for Sentinel cluster transport.
+ * <p>Netty transport client implementation for Sentinel cluster transport.</p>
+ *
+ * <p>The client keeps a pool of connections ({@link ClusterClientStartUpConfig#CONNECTION_POOL_SIZE}) to the token
+ * server, each on its own event loop, and picks a ready connection for each request in a round-robin way
+ * or by the least requests in flight ({@link ClusterClientStartUpConfig#CONNECTION_SELECTOR}). Broken connections
+ * are reconnected individually on the event loops with an exponential backoff, starting from
+ * {@link #RECONNECT_DELAY_MS} up to {@link #MAX_RECONNECT_DELAY_MS}.</p>
+ *
+ * <p>The native epoll transport is used on Linux if it's available and enabled
+ * ({@link ClusterClientStartUpConfig#NATIVE_TRANSPORT}), otherwise the NIO transport is used.</p>
  *
  * @author Eric Zhao
  * @since 1.4.0
@@ -65,114 +83,82 @@ public class NettyTransportClient implements ClusterTransportClient {
         new NamedThreadFactory("sentinel-cluster-transport-client-scheduler"));
 
     public static final int RECONNECT_DELAY_MS = 2000;
+    /**
+     * @since 1.8.2
+     */
+    public static final int MAX_RECONNECT_DELAY_MS = 32000;
+
+    private static final String EPOLL_EVENT_LOOP_GROUP = "io.netty.channel.epoll.EpollEventLoopGroup";
+    private static final String EPOLL_SOCKET_CHANNEL = "io.netty.channel.epoll.EpollSocketChannel";
+
+    /**
+     * The xid is shared by all clients, as the pending requests of all clients are held together
+     * in {@link TokenClientPromiseHolder}.
+     */
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
 
     private final String host;
     private final int port;
+    private final int poolSize;
+    private final boolean leastPending;
 
-    private Channel channel;
-    private NioEventLoopGroup eventLoopGroup;
-    private TokenClientHandler clientHandler;
-
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
-    private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
-    private final AtomicInteger failConnectedTime = new AtomicInteger(0);
+    private volatile EventLoopGroup eventLoopGroup;
+    private volatile Bootstrap bootstrap;
+    private volatile Connection[] connections = new Connection[0];
 
+    private final AtomicInteger nextConnection = new AtomicInteger(0);
     private final AtomicBoolean shouldRetry = new AtomicBoolean(true);
 
     public NettyTransportClient(String host, int port) {
+        this(host, port, ClusterClientStartUpConfig.getConnectionPoolSize(),
+            ClusterClientStartUpConfig.getConnectionSelector());
+    }
+
+    /**
+     * @param host     host of the token server
+     * @param port     port of the token server
+     * @param poolSize amount of connections to the token server
+     * @param selector how to pick a connection for each request, see
+     *                 {@link ClusterClientStartUpConfig#CONNECTION_SELECTOR}
+     * @since 1.8.2
+     */
+    public NettyTransportClient(String host, int port, int poolSize, String selector) {
         AssertUtil.assertNotBlank(host, "remote host cannot be blank");
         AssertUtil.isTrue(port > 0, "port should be positive");
+        AssertUtil.isTrue(poolSize > 0, "poolSize should be positive");
         this.host = host;
         this.port = port;
+        this.poolSize = poolSize;
+        this.leastPending = ClusterClientStartUpConfig.SELECTOR_LEAST_PENDING.equals(selector);
     }
 
-    private Bootstrap initClientBootstrap() {
-        Bootstrap b = new Bootstrap();
-        eventLoopGroup = new NioEventLoopGroup();
-        b.group(eventLoopGroup)
-            .channel(NioSocketChannel.class)
+    private Bootstrap initClientBootstrap(EventLoopGroup group) {
+        return new Bootstrap()
+            .group(group)
+            .channel(group instanceof NioEventLoopGroup ? NioSocketChannel.class : epollSocketChannelClass())
             .option(ChannelOption.TCP_NODELAY, true)
             .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterClientConfigManager.getConnectTimeout())
-            .handler(new ChannelInitializer<SocketChannel>() {
-                @Override
-                public void initChannel(SocketChannel ch) throws Exception {
-                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
-
-                    ChannelPipeline pipeline = ch.pipeline();
-                    pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
-                    pipeline.addLast(new NettyResponseDecoder());
-                    pipeline.addLast(new LengthFieldPrepender(2));
-                    pipeline.addLast(new NettyRequestEncoder());
-                    pipeline.addLast(clientHandler);
-                }
-            });
-
-        return b;
-    }
-
-    private void connect(Bootstrap b) {
-        if (currentState.compareAndSet(ClientConstants.CLIENT_STATUS_OFF, ClientConstants.CLIENT_STATUS_PENDING)) {
-            b.connect(host, port)
-                .addListener(new GenericFutureListener<ChannelFuture>() {
-                @Override
-                public void operationComplete(ChannelFuture future) {
-                    if (future.cause() != null) {
-                        RecordLog.warn(
-                            String.format("[NettyTransportClient] Could not connect to <%s:%d> after %d times",
-                                host, port, failConnectedTime.get()), future.cause());
-                        failConnectedTime.incrementAndGet();
-                        channel = null;
-                    } else {
-                        failConnectedTime.set(0);
-                        channel = future.channel();
-                        RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}>", host, port);
-                    }
-                }
-            });
-        }
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, ClusterClientConfigManager.getConnectTimeout());
     }
 
-    private Runnable disconnectCallback = new Runnable() {
-        @Override
-        public void run() {
-            if (!shouldRetry.get()) {
-                return;
-            }
-            SCHEDULER.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    if (shouldRetry.get()) {
-                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}>", host, port);
-                        try {
-                            startInternal();
-                        } catch (Exception e) {
-                            RecordLog.warn("[NettyTransportClient] Failed to reconnect to server", e);
-                        }
-                    }
-                }
-            }, RECONNECT_DELAY_MS * (failConnectedTime.get() + 1), TimeUnit.MILLISECONDS);
-            cleanUp();
-        }
-    };
-
     @Override
     public void start() throws Exception {
+        if (eventLoopGroup != null) {
+            return;
+        }
         shouldRetry.set(true);
-        startInternal();
-    }
-
-    private void startInternal() {
-        connect(initClientBootstrap());
-    }
-
-    private void cleanUp() {
-        if (channel != null) {
-            channel.close();
-            channel = null;
+        EventLoopGroup group = newEventLoopGroup(poolSize);
+        Connection[] connections = new Connection[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            // The group has one event loop per connection. Each connection is bound to its own loop,
+            // so that the connections never share a loop, even after reconnecting.
+            connections[i] = new Connection(i, group.next());
         }
-        if (eventLoopGroup != null) {
-            eventLoopGroup.shutdownGracefully();
+        this.eventLoopGroup = group;
+        this.bootstrap = initClientBootstrap(group);
+        this.connections = connections;
+        for (Connection connection : connections) {
+            connection.connect();
         }
     }
 
@@ -181,16 +167,18 @@ public class NettyTransportClient implements ClusterTransportClient {
         // Stop retrying for connection.
         shouldRetry.set(false);
 
-        while (currentState.get() == ClientConstants.CLIENT_STATUS_PENDING) {
-            try {
-                Thread.sleep(200);
-            } catch (Exception ex) {
-                // Ignore.
-            }
+        Connection[] connections = this.connections;
+        this.connections = new Connection[0];
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        EventLoopGroup group = this.eventLoopGroup;
+        this.eventLoopGroup = null;
+        this.bootstrap = null;
+        if (group != null) {
+            // Pending connecting attempts and scheduled reconnecting are discarded with the group.
+            group.shutdownGracefully();
         }
-
-        cleanUp();
-        failConnectedTime.set(0);
 
         RecordLog.info("[NettyTransportClient] Cluster transport client stopped");
     }
@@ -201,26 +189,82 @@ public class NettyTransportClient implements ClusterTransportClient {
 
     @Override
     public boolean isReady() {
-        return channel != null && clientHandler != null && clientHandler.hasStarted();
+        for (Connection connection : connections) {
+            if (connection.isReady()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the statistics of the connections in the pool.
+     *
+     * @return statistics of the connections, empty if the client is stopped
+     * @since 1.8.2
+     */
+    public List<ClientConnectionStats> getConnectionStats() {
+        Connection[] connections = this.connections;
+        List<ClientConnectionStats> stats = new ArrayList<>(connections.length);
+        for (Connection connection : connections) {
+            stats.add(connection.stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Pick a ready connection for a request.
+     *
+     * @return the connection, or null if no connection is ready
+     */
+    private Connection selectConnection() {
+        Connection[] connections = this.connections;
+        int size = connections.length;
+        if (leastPending) {
+            Connection selected = null;
+            for (Connection connection : connections) {
+                if (connection.isReady() && (selected == null
+                    || connection.stats.getInFlight() < selected.stats.getInFlight())) {
+                    selected = connection;
+                }
+            }
+            return selected;
+        }
+        if (size == 0) {
+            return null;
+        }
+        int start = (nextConnection.getAndIncrement() & Integer.MAX_VALUE) % size;
+        for (int i = 0; i < size; i++) {
+            Connection connection = connections[(start + i) % size];
+            if (connection.isReady()) {
+                return connection;
+            }
+        }
+        return null;
     }
 
     @Override
     public ClusterResponse sendRequest(ClusterRequest request) throws Exception {
-        if (!isReady()) {
+        Connection connection = selectConnection();
+        Channel channel = connection == null ? null : connection.channel;
+        if (channel == null) {
             throw new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY);
         }
         if (!validRequest(request)) {
             throw new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST);
         }
         int xid = getCurrentId();
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        connection.stats.onSend();
         try {
             request.setId(xid);
 
-            channel.writeAndFlush(request);
-
             ChannelPromise promise = channel.newPromise();
             TokenClientPromiseHolder.putPromise(xid, promise);
 
+            channel.writeAndFlush(request);
+
             if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
                 throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
             }
@@ -230,42 +274,230 @@ public class NettyTransportClient implements ClusterTransportClient {
                 // Should not go through here.
                 throw new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS);
             }
+            success = true;
             return entry.getValue();
         } finally {
             TokenClientPromiseHolder.remove(xid);
+            connection.stats.onComplete(startNanos, success);
         }
     }
 
     private int getCurrentId() {
         int pre, next;
         do {
-            pre = idGenerator.get();
+            pre = ID_GENERATOR.get();
             next = pre >= MAX_ID ? MIN_ID : pre + 1;
-        } while (!idGenerator.compareAndSet(pre, next));
+        } while (!ID_GENERATOR.compareAndSet(pre, next));
         return next;
     }
 
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
+    /**
+     * Send the request without blocking current thread. The response is completed by the I/O thread,
+     * and the timeout ({@link ClusterClientConfigManager#getRequestTimeout()}) is checked by the scheduler,
+     * so the future always completes even if the connection is closed.
+     *
+     * @since 1.8.2
+     */
+    @Override
+    public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
+        final CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
+        final Connection connection = selectConnection();
+        Channel channel = connection == null ? null : connection.channel;
+        if (channel == null) {
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return future;
+        }
         if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
+            future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST));
+            return future;
         }
-        int xid = getCurrentId();
+        final int xid = getCurrentId();
         request.setId(xid);
+        // Register before writing, so that the response could never arrive before the future.
+        TokenClientPromiseHolder.putFuture(xid, future);
+
+        final long startNanos = System.nanoTime();
+        connection.stats.onSend();
+        final ScheduledFuture<?> timeoutTask = SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (TokenClientPromiseHolder.removeFuture(xid, future)) {
+                    future.completeExceptionally(new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+                }
+            }
+        }, ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+        future.whenComplete(new BiConsumer<ClusterResponse, Throwable>() {
+            @Override
+            public void accept(ClusterResponse response, Throwable ex) {
+                timeoutTask.cancel(false);
+                connection.stats.onComplete(startNanos, ex == null);
+            }
+        });
+
+        channel.writeAndFlush(request).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture f) {
+                if (!f.isSuccess() && TokenClientPromiseHolder.removeFuture(xid, future)) {
+                    future.completeExceptionally(f.cause() != null ? f.cause()
+                        : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Get the delay before next reconnecting, which is doubled on each failure.
+     *
+     * @param failures continuous failures of connecting
+     * @return the delay in milliseconds
+     */
+    static long reconnectDelay(int failures) {
+        long delay = RECONNECT_DELAY_MS;
+        for (int i = 0; i < failures && delay < MAX_RECONNECT_DELAY_MS; i++) {
+            delay <<= 1;
+        }
+        return Math.min(delay, MAX_RECONNECT_DELAY_MS);
+    }
+
+    private static EventLoopGroup newEventLoopGroup(int threads) {
+        ThreadFactory threadFactory = new DefaultThreadFactory("sentinel-cluster-transport-client");
+        if (ClusterClientStartUpConfig.isNativeTransportEnabled() && isEpollAvailable()) {
+            try {
+                EventLoopGroup group = (EventLoopGroup)Class.forName(EPOLL_EVENT_LOOP_GROUP)
+                    .getConstructor(int.class, ThreadFactory.class).newInstance(threads, threadFactory);
+                RecordLog.info("[NettyTransportClient] Using the native epoll transport");
+                return group;
+            } catch (Throwable ex) {
+                RecordLog.warn("[NettyTransportClient] Failed to create epoll event loops, using NIO instead", ex);
+            }
+        }
+        return new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    private static boolean isEpollAvailable() {
+        try {
+            return (Boolean)Class.forName("io.netty.channel.epoll.Epoll").getMethod("isAvailable").invoke(null);
+        } catch (Throwable ex) {
+            // The native transport is absent.
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Channel> epollSocketChannelClass() {
+        try {
+            return (Class<? extends Channel>)Class.forName(EPOLL_SOCKET_CHANNEL);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * A connection in the pool, which is reconnected individually once broken.
+     */
+    private final class Connection {
+
+        private final int index;
+        private final EventLoop eventLoop;
+        private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
+        private final AtomicInteger failConnectedTime = new AtomicInteger(0);
+        private final ClientConnectionStats stats;
+
+        private volatile Channel channel;
+        private volatile TokenClientHandler clientHandler;
+
+        private final Runnable disconnectCallback = new Runnable() {
+            @Override
+            public void run() {
+                channel = null;
+                scheduleReconnect();
+            }
+        };
+
+        Connection(int index, EventLoop eventLoop) {
+            this.index = index;
+            this.eventLoop = eventLoop;
+            this.stats = new ClientConnectionStats(host + ":" + port, index, currentState);
+        }
+
+        boolean isReady() {
+            TokenClientHandler handler = clientHandler;
+            return channel != null && handler != null && handler.hasStarted();
+        }
+
+        /**
+         * Whether the connection is still in the pool (rather than stopped or replaced by a restart).
+         */
+        private boolean isAlive() {
+            Connection[] current = connections;
+            return shouldRetry.get() && index < current.length && current[index] == this;
+        }
+
+        void connect() {
+            Bootstrap b = bootstrap;
+            if (b == null || !currentState.compareAndSet(ClientConstants.CLIENT_STATUS_OFF,
+                ClientConstants.CLIENT_STATUS_PENDING)) {
+                return;
+            }
+            b.clone(eventLoop).handler(new ChannelInitializer<Channel>() {
+                @Override
+                public void initChannel(Channel ch) throws Exception {
+                    clientHandler = new TokenClientHandler(currentState, disconnectCallback);
 
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
-                } else {
-                    future.cancel(false);
+                    ChannelPipeline pipeline = ch.pipeline();
+                    pipeline.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    pipeline.addLast(new NettyResponseDecoder());
+                    pipeline.addLast(new LengthFieldPrepender(2));
+                    pipeline.addLast(new NettyRequestEncoder());
+                    pipeline.addLast(clientHandler);
+                }
+            }).connect(host, port).addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture future) {
+                    // On failure, the channel is unregistered and then reconnecting is scheduled.
+                    if (future.cause() != null) {
+                        RecordLog.warn(
+                            String.format("[NettyTransportClient] Could not connect to <%s:%d> after %d times",
+                                host, port, failConnectedTime.get()), future.cause());
+                        failConnectedTime.incrementAndGet();
+                        channel = null;
+                    } else if (!isAlive()) {
+                        future.channel().close();
+                    } else {
+                        failConnectedTime.set(0);
+                        channel = future.channel();
+                        RecordLog.info("[NettyTransportClient] Successfully connect to server <{}:{}> ({})",
+                            host, port, index);
+                    }
                 }
             });
-        return future;
-    }*/
+        }
+
+        private void scheduleReconnect() {
+            if (!isAlive() || eventLoop.isShuttingDown()) {
+                return;
+            }
+            long delay = reconnectDelay(failConnectedTime.get());
+            eventLoop.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (isAlive()) {
+                        RecordLog.info("[NettyTransportClient] Reconnecting to server <{}:{}> ({})", host, port, index);
+                        connect();
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        void close() {
+            Channel channel = this.channel;
+            this.channel = null;
+            if (channel != null) {
+                channel.close();
+            }
+        }
+    }
 
     private static final int MIN_ID = 1;
     private static final int MAX_ID = 999_999_999;
@@ -0,0 +1,72 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Entity writer of the compact codec ({@link ClusterConstants#CODEC_VERSION_V2}) for any {@link ClusterRequest}.</p>
+ *
+ * <p>Encode format:</p>
+ * <pre>
+ * +----------+-------------+---------+---------+
+ * | magic(1) | xid(varint) | type(1) | data... |
+ * +----------+-------------+---------+---------+
+ * </pre>
+ *
+ * <p>The data of flow requests is encoded as {@code flowId(varlong) | count(varint) | priority(1)},
+ * while the data of other types is written by the writers in {@link RequestDataWriterRegistry}.</p>
+ *
+ * @since 1.8.2
+ */
+public class CompactRequestEntityWriter implements RequestEntityWriter<ClusterRequest, ByteBuf> {
+
+    @Override
+    public void writeTo(ClusterRequest request, ByteBuf target) {
+        int type = request.getType();
+        if (type == ClusterConstants.MSG_TYPE_FLOW) {
+            writeHead(request, target);
+            FlowRequestData data = (FlowRequestData)request.getData();
+            VarIntUtil.writeVarLong(target, data.getFlowId());
+            VarIntUtil.writeVarInt(target, data.getCount());
+            target.writeBoolean(data.isPriority());
+            return;
+        }
+        EntityWriter<Object, ByteBuf> requestDataWriter = RequestDataWriterRegistry.getWriter(type);
+        if (requestDataWriter == null) {
+            RecordLog.warn("[CompactRequestEntityWriter] Cannot find matching request writer for type <{}>,"
+                + " dropping the request", type);
+            return;
+        }
+        writeHead(request, target);
+        requestDataWriter.writeTo(request.getData(), target);
+    }
+
+    private void writeHead(ClusterRequest request, ByteBuf out) {
+        out.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+        VarIntUtil.writeVarInt(out, request.getId());
+        out.writeByte(request.getType());
+    }
+}
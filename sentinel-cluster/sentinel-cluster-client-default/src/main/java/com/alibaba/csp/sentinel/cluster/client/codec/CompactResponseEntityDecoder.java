@@ -0,0 +1,75 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Entity decoder of the compact codec ({@link ClusterConstants#CODEC_VERSION_V2}) for any {@link ClusterResponse}.</p>
+ *
+ * <p>Decode format:</p>
+ * <pre>
+ * +----------+-------------+---------+-----------+---------+
+ * | magic(1) | xid(varint) | type(1) | status(1) | data... |
+ * +----------+-------------+---------+-----------+---------+
+ * </pre>
+ *
+ * <p>The data of flow and param flow responses is decoded as
+ * {@code remainingCount(zigzag varint) | waitInMs(zigzag varint)}, while the data of other types is decoded
+ * by the decoders in {@link ResponseDataDecodeRegistry}. The data is absent (null) if no bytes remain.</p>
+ *
+ * @since 1.8.2
+ */
+public class CompactResponseEntityDecoder implements ResponseEntityDecoder<ByteBuf, ClusterResponse> {
+
+    @Override
+    public ClusterResponse decode(ByteBuf source) {
+        if (source.readableBytes() < 4 || source.readUnsignedByte() != ClusterConstants.CODEC_V2_MAGIC) {
+            return null;
+        }
+        int xid = VarIntUtil.readVarInt(source);
+        int type = source.readByte();
+        int status = source.readByte();
+
+        Object data = null;
+        if (type == ClusterConstants.MSG_TYPE_FLOW || type == ClusterConstants.MSG_TYPE_PARAM_FLOW) {
+            if (source.isReadable()) {
+                data = new FlowTokenResponseData()
+                    .setRemainingCount(VarIntUtil.readSignedVarInt(source))
+                    .setWaitInMs(VarIntUtil.readSignedVarInt(source));
+            }
+        } else {
+            EntityDecoder<ByteBuf, ?> decoder = ResponseDataDecodeRegistry.getDecoder(type);
+            if (decoder == null) {
+                RecordLog.warn("Unknown type of response data decoder: {}", type);
+                return null;
+            }
+            if (source.isReadable()) {
+                data = decoder.decode(source);
+            }
+        }
+        return new ClusterResponse<>(xid, type, status, data);
+    }
+}
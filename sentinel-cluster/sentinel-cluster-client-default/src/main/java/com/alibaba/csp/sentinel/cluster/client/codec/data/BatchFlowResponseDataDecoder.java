@@ -0,0 +1,56 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Decoder for {@link BatchFlowTokenResponseData}. The layout:
+ * <pre>
+ * | size (2) | status (1) | remaining (4) | wait in ms (4) | ... (size times)
+ * </pre>
+ *
+ * @since 1.8.2
+ */
+public class BatchFlowResponseDataDecoder implements EntityDecoder<ByteBuf, BatchFlowTokenResponseData> {
+
+    private static final int ITEM_SIZE = 9;
+
+    @Override
+    public BatchFlowTokenResponseData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (source.readableBytes() < size * ITEM_SIZE) {
+            return null;
+        }
+        List<TokenResult> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            results.add(new TokenResult((int)source.readByte())
+                .setRemaining(source.readInt())
+                .setWaitInMs(source.readInt()));
+        }
+        return new BatchFlowTokenResponseData().setResults(results);
+    }
+}
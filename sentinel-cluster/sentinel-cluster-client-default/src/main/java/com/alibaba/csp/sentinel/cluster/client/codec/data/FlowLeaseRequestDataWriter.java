@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * +----------------+----------------------+--------------------+-------------------+-----------------------+
+ * | FlowID(8 byte) | AcquireCount(4 byte) | LeaseCount(4 byte) | LeaseMs(4 byte)   | ReturnedCount(4 byte) |
+ * +----------------+----------------------+--------------------+-------------------+-----------------------+
+ *
+ * @since 1.8.2
+ */
+public class FlowLeaseRequestDataWriter implements EntityWriter<FlowLeaseRequestData, ByteBuf> {
+
+    @Override
+    public void writeTo(FlowLeaseRequestData entity, ByteBuf target) {
+        target.writeLong(entity.getFlowId());
+        target.writeInt(entity.getAcquireCount());
+        target.writeInt(entity.getLeaseCount());
+        target.writeInt(entity.getLeaseMs());
+        target.writeInt(entity.getReturnedCount());
+    }
+}
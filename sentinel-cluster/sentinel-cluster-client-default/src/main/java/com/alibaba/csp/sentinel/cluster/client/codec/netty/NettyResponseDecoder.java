@@ -17,7 +17,9 @@ package com.alibaba.csp.sentinel.cluster.client.codec.netty;
 
 import java.util.List;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.codec.ClientEntityCodecProvider;
+import com.alibaba.csp.sentinel.cluster.client.codec.CompactResponseEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.registry.ResponseDataDecodeRegistry;
 import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
 import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityDecoder;
@@ -30,13 +32,28 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
 /**
+ * <p>Decoder of response frames. Frames of the compact codec (which lead with {@link ClusterConstants#CODEC_V2_MAGIC})
+ * are decoded by the {@link CompactResponseEntityDecoder}, while others are decoded by the global response
+ * entity decoder.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyResponseDecoder extends ByteToMessageDecoder {
 
+    private final CompactResponseEntityDecoder compactDecoder = new CompactResponseEntityDecoder();
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.isReadable() && in.getUnsignedByte(in.readerIndex()) == ClusterConstants.CODEC_V2_MAGIC) {
+            Response response = compactDecoder.decode(in);
+            if (response != null) {
+                out.add(response);
+            }
+            // The input is exactly a frame, so the remaining bytes (e.g. of unknown types) are dropped.
+            in.skipBytes(in.readableBytes());
+            return;
+        }
         ResponseEntityDecoder<ByteBuf, Response> responseDecoder = ClientEntityCodecProvider.getResponseEntityDecoder();
         if (responseDecoder == null) {
             RecordLog.warn("[NettyResponseDecoder] Cannot resolve the global response entity decoder, "
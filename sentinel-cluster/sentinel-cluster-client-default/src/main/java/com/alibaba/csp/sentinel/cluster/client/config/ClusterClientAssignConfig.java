@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -23,6 +25,13 @@ public class ClusterClientAssignConfig {
 
     private String serverHost;
     private Integer serverPort;
+    /**
+     * Token server shards in the sharded mode, where the flow IDs are partitioned across the shards.
+     * If it's not empty, the single server address is ignored.
+     *
+     * @since 1.8.2
+     */
+    private List<TokenServerShard> shardServers;
 
     public ClusterClientAssignConfig() {}
 
@@ -49,11 +58,29 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<TokenServerShard> getShardServers() {
+        return shardServers;
+    }
+
+    public ClusterClientAssignConfig setShardServers(List<TokenServerShard> shardServers) {
+        this.shardServers = shardServers;
+        return this;
+    }
+
+    /**
+     * @return whether the client is assigned to sharded token servers
+     * @since 1.8.2
+     */
+    public boolean isSharded() {
+        return shardServers != null && !shardServers.isEmpty();
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", shardServers=" + shardServers +
             '}';
     }
 }
@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
@@ -37,6 +38,10 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    /**
+     * Consistent hash ring of the token server shards, null if the client is not in the sharded mode.
+     */
+    private static volatile TokenServerShardRing shardRing = null;
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
@@ -127,7 +132,14 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (config.isSharded()) {
+                updateShardAssignment(new TokenServerShardRing(config.getShardServers()));
+                return;
+            }
+            boolean wasSharded = shardRing != null;
+            if (wasSharded) {
+                updateShardAssignment(null);
+            } else if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
                 return;
             }
 
@@ -184,10 +196,38 @@ public final class ClusterClientConfigManager {
         serverPort = port;
     }
 
+    private static void updateShardAssignment(TokenServerShardRing ring) {
+        TokenServerShardRing current = shardRing;
+        if (ring == null ? current == null : current != null
+            && new HashSet<>(ring.getShards()).equals(new HashSet<>(current.getShards()))) {
+            return;
+        }
+        RecordLog.info("[ClusterClientConfigManager] Assign to new token server shards: {}",
+            ring == null ? null : ring.getShards());
+
+        shardRing = ring;
+        for (ServerChangeObserver observer : SERVER_CHANGE_OBSERVERS) {
+            observer.onShardServersChange(ring);
+        }
+    }
+
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
-        return config != null && StringUtil.isNotBlank(config.getServerHost())
-            && config.getServerPort() > 0
-            && config.getServerPort() <= 65535;
+        if (config == null) {
+            return false;
+        }
+        if (config.isSharded()) {
+            for (TokenServerShard shard : config.getShardServers()) {
+                if (shard == null || !isValidServerAddress(shard.getServerHost(), shard.getServerPort())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isValidServerAddress(config.getServerHost(), config.getServerPort());
+    }
+
+    private static boolean isValidServerAddress(String host, Integer port) {
+        return StringUtil.isNotBlank(host) && port != null && port > 0 && port <= 65535;
     }
 
     public static boolean isValidClientConfig(ClusterClientConfig config) {
@@ -202,6 +242,28 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * Get the consistent hash ring of token server shards.
+     *
+     * @return the shard ring, or null if the client is not in the sharded mode
+     * @since 1.8.2
+     */
+    public static TokenServerShardRing getShardRing() {
+        return shardRing;
+    }
+
+    /**
+     * Get the token server shard which owns provided flow.
+     *
+     * @param flowId the flow ID
+     * @return the owner shard, or null if the client is not in the sharded mode
+     * @since 1.8.2
+     */
+    public static TokenServerShard getShardServer(long flowId) {
+        TokenServerShardRing ring = shardRing;
+        return ring == null ? null : ring.select(flowId);
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -30,6 +31,71 @@ public class ClusterClientStartUpConfig {
 
     private static final String MAX_PARAM_BYTE_SIZE = "csp.sentinel.cluster.max.param.byte.size";
 
+    /**
+     * The micro-window (in microseconds) within which flow requests are coalesced into a batch.
+     * Batching is disabled if it's not positive (by default), as it requires the token server to support batches.
+     *
+     * @since 1.8.2
+     */
+    public static final String BATCH_WINDOW_MICROS = "csp.sentinel.cluster.client.batch.window.us";
+    /**
+     * The max amount of requests in a batch, the batch is sent immediately once it's full.
+     *
+     * @since 1.8.2
+     */
+    public static final String BATCH_MAX_SIZE = "csp.sentinel.cluster.client.batch.max.size";
+    /**
+     * Whether requests of the same flow ID (and priority) in a batch are coalesced into a single multi-count request.
+     *
+     * @since 1.8.2
+     */
+    public static final String BATCH_COALESCE = "csp.sentinel.cluster.client.batch.coalesce";
+
+    /**
+     * The time slice (in milliseconds) of the flow token leases, within which acquired tokens are taken
+     * from the leases locally. Leasing is disabled if it's not positive (by default), as it requires
+     * the token server to support leases.
+     *
+     * @since 1.8.2
+     */
+    public static final String LEASE_MILLIS = "csp.sentinel.cluster.client.lease.ms";
+
+    /**
+     * The max wire codec version the client negotiates with the token server (2 by default).
+     * The compact codec is disabled if it's 1.
+     *
+     * @since 1.8.2
+     */
+    public static final String CODEC_VERSION = "csp.sentinel.cluster.client.codec.version";
+
+    /**
+     * The amount of connections to each token server (1 by default).
+     *
+     * @since 1.8.2
+     */
+    public static final String CONNECTION_POOL_SIZE = "csp.sentinel.cluster.client.connection.pool.size";
+    /**
+     * How to pick a connection from the pool for each request, {@link #SELECTOR_ROUND_ROBIN} (by default)
+     * or {@link #SELECTOR_LEAST_PENDING}.
+     *
+     * @since 1.8.2
+     */
+    public static final String CONNECTION_SELECTOR = "csp.sentinel.cluster.client.connection.selector";
+    /**
+     * Whether to use the native epoll transport if available (true by default). The epoll transport is available
+     * on Linux if the {@code netty-transport-native-epoll} (or {@code netty-all}) is present.
+     *
+     * @since 1.8.2
+     */
+    public static final String NATIVE_TRANSPORT = "csp.sentinel.cluster.client.native.transport";
+
+    public static final String SELECTOR_ROUND_ROBIN = "round-robin";
+    public static final String SELECTOR_LEAST_PENDING = "least-pending";
+
+    public static final int DEFAULT_CONNECTION_POOL_SIZE = 1;
+    public static final int MAX_CONNECTION_POOL_SIZE = 64;
+    public static final int DEFAULT_BATCH_MAX_SIZE = 32;
+
     /**
      * Get the max bytes params can be serialized
      *
@@ -45,5 +111,118 @@ public class ClusterClientStartUpConfig {
         }
     }
 
+    /**
+     * Get the micro-window of request batching.
+     *
+     * @return the window in microseconds, 0 if batching is disabled
+     * @since 1.8.2
+     */
+    public static long getBatchWindowMicros() {
+        String window = SentinelConfig.getConfig(BATCH_WINDOW_MICROS);
+        try {
+            return window == null ? 0 : Math.max(0, Long.parseLong(window));
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse batch window: " + window);
+            return 0;
+        }
+    }
+
+    /**
+     * Get the max amount of requests in a batch, which is no more than {@link ClusterConstants#MAX_FLOW_BATCH_SIZE}.
+     *
+     * @return the max batch size
+     * @since 1.8.2
+     */
+    public static int getBatchMaxSize() {
+        String maxSize = SentinelConfig.getConfig(BATCH_MAX_SIZE);
+        try {
+            int size = maxSize == null ? DEFAULT_BATCH_MAX_SIZE : Integer.parseInt(maxSize);
+            return Math.min(Math.max(size, 1), ClusterConstants.MAX_FLOW_BATCH_SIZE);
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse batch max size: " + maxSize);
+            return DEFAULT_BATCH_MAX_SIZE;
+        }
+    }
+
+    /**
+     * @return whether requests of the same flow ID in a batch are coalesced (true by default)
+     * @since 1.8.2
+     */
+    public static boolean isBatchCoalesceEnabled() {
+        return !"false".equalsIgnoreCase(SentinelConfig.getConfig(BATCH_COALESCE));
+    }
 
+    /**
+     * Get the time slice of flow token leases.
+     *
+     * @return the time slice in milliseconds, 0 if leasing is disabled
+     * @since 1.8.2
+     */
+    public static int getLeaseMillis() {
+        String leaseMs = SentinelConfig.getConfig(LEASE_MILLIS);
+        try {
+            return leaseMs == null ? 0 : Math.max(0, Integer.parseInt(leaseMs));
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse lease time: " + leaseMs);
+            return 0;
+        }
+    }
+
+    /**
+     * Get the max wire codec version to negotiate with the token server.
+     *
+     * @return the codec version, {@link ClusterConstants#CODEC_VERSION_V1} or {@link ClusterConstants#CODEC_VERSION_V2}
+     * @since 1.8.2
+     */
+    public static int getCodecVersion() {
+        String version = SentinelConfig.getConfig(CODEC_VERSION);
+        try {
+            return version == null || Integer.parseInt(version) >= ClusterConstants.CODEC_VERSION_V2
+                ? ClusterConstants.CODEC_VERSION_V2 : ClusterConstants.CODEC_VERSION_V1;
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse codec version: " + version);
+            return ClusterConstants.CODEC_VERSION_V2;
+        }
+    }
+
+    /**
+     * Get the amount of connections to each token server, which is no more than {@link #MAX_CONNECTION_POOL_SIZE}.
+     *
+     * @return the pool size
+     * @since 1.8.2
+     */
+    public static int getConnectionPoolSize() {
+        String poolSize = SentinelConfig.getConfig(CONNECTION_POOL_SIZE);
+        try {
+            int size = poolSize == null ? DEFAULT_CONNECTION_POOL_SIZE : Integer.parseInt(poolSize);
+            return Math.min(Math.max(size, 1), MAX_CONNECTION_POOL_SIZE);
+        } catch (Exception ex) {
+            RecordLog.warn("[ClusterClientStartUpConfig] Failed to parse connection pool size: " + poolSize);
+            return DEFAULT_CONNECTION_POOL_SIZE;
+        }
+    }
+
+    /**
+     * @return the connection selector, {@link #SELECTOR_ROUND_ROBIN} or {@link #SELECTOR_LEAST_PENDING}
+     * @since 1.8.2
+     */
+    public static String getConnectionSelector() {
+        String selector = SentinelConfig.getConfig(CONNECTION_SELECTOR);
+        if (selector == null || SELECTOR_ROUND_ROBIN.equalsIgnoreCase(selector)) {
+            return SELECTOR_ROUND_ROBIN;
+        }
+        if (SELECTOR_LEAST_PENDING.equalsIgnoreCase(selector)) {
+            return SELECTOR_LEAST_PENDING;
+        }
+        RecordLog.warn("[ClusterClientStartUpConfig] Unknown connection selector: " + selector);
+        return SELECTOR_ROUND_ROBIN;
+    }
+
+    /**
+     * @return whether to use the native epoll transport if available (true by default)
+     * @since 1.8.2
+     */
+    public static boolean isNativeTransportEnabled() {
+        return !"false".equalsIgnoreCase(SentinelConfig.getConfig(NATIVE_TRANSPORT));
+    }
 }
@@ -27,4 +27,13 @@ public interface ServerChangeObserver {
      * @param assignConfig new cluster assignment config
      */
     void onRemoteServerChange(ClusterClientAssignConfig assignConfig);
+
+    /**
+     * Callback on membership change of the token server shards.
+     *
+     * @param shardRing the consistent hash ring of new shards, or null if the sharded mode is turned off
+     *                  (then the single server is announced by {@link #onRemoteServerChange})
+     * @since 1.8.2
+     */
+    default void onShardServersChange(TokenServerShardRing shardRing) {}
 }
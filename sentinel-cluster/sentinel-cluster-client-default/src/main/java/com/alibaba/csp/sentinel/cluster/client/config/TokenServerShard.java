@@ -0,0 +1,79 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+/**
+ * Address of a token server in the sharded mode, which owns a part of the flow IDs.
+ *
+ * @since 1.8.2
+ */
+public class TokenServerShard {
+
+    private String serverHost;
+    private Integer serverPort;
+
+    public TokenServerShard() {}
+
+    public TokenServerShard(String serverHost, Integer serverPort) {
+        this.serverHost = serverHost;
+        this.serverPort = serverPort;
+    }
+
+    public String getServerHost() {
+        return serverHost;
+    }
+
+    public TokenServerShard setServerHost(String serverHost) {
+        this.serverHost = serverHost;
+        return this;
+    }
+
+    public Integer getServerPort() {
+        return serverPort;
+    }
+
+    public TokenServerShard setServerPort(Integer serverPort) {
+        this.serverPort = serverPort;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        TokenServerShard that = (TokenServerShard)o;
+        if (serverHost != null ? !serverHost.equals(that.serverHost) : that.serverHost != null) {
+            return false;
+        }
+        return serverPort != null ? serverPort.equals(that.serverPort) : that.serverPort == null;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = serverHost != null ? serverHost.hashCode() : 0;
+        result = 31 * result + (serverPort != null ? serverPort.hashCode() : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return serverHost + ":" + serverPort;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Consistent hash ring of the token server shards, which partitions the flow IDs across the shards.</p>
+ *
+ * <p>Each shard is placed on the ring as a number of virtual nodes, and a flow ID is owned by the first
+ * virtual node clockwise from the hash of the flow ID. So the flow IDs are spread evenly, and only the flow IDs
+ * owned by the added (or removed) shard are moved when the membership changes.</p>
+ *
+ * @since 1.8.2
+ */
+public final class TokenServerShardRing {
+
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final List<TokenServerShard> shards;
+    private final long[] hashes;
+    private final TokenServerShard[] owners;
+
+    public TokenServerShardRing(List<TokenServerShard> shards) {
+        this(shards, DEFAULT_VIRTUAL_NODES);
+    }
+
+    public TokenServerShardRing(List<TokenServerShard> shards, int virtualNodes) {
+        AssertUtil.isTrue(shards != null && !shards.isEmpty(), "shards cannot be empty");
+        AssertUtil.isTrue(virtualNodes > 0, "virtual nodes should be positive");
+        this.shards = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(shards)));
+
+        TreeMap<Long, TokenServerShard> ring = new TreeMap<>();
+        for (TokenServerShard shard : this.shards) {
+            for (int i = 0; i < virtualNodes; i++) {
+                // Conflicted virtual nodes are rare, and the smaller address wins regardless of the shard order.
+                long hash = hash(shard.toString() + "#" + i);
+                TokenServerShard old = ring.get(hash);
+                if (old == null || old.toString().compareTo(shard.toString()) > 0) {
+                    ring.put(hash, shard);
+                }
+            }
+        }
+        this.hashes = new long[ring.size()];
+        this.owners = new TokenServerShard[ring.size()];
+        int index = 0;
+        for (Map.Entry<Long, TokenServerShard> entry : ring.entrySet()) {
+            hashes[index] = entry.getKey();
+            owners[index] = entry.getValue();
+            index++;
+        }
+    }
+
+    /**
+     * Get the shard owning provided flow.
+     *
+     * @param flowId the flow ID
+     * @return the owner shard
+     */
+    public TokenServerShard select(long flowId) {
+        long hash = mix(flowId);
+        int low = 0;
+        int high = hashes.length - 1;
+        // Find the first virtual node whose hash is no less than the flow hash.
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (hashes[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return owners[low == hashes.length ? 0 : low];
+    }
+
+    /**
+     * @return all distinct shards on the ring, in the order they are provided
+     */
+    public List<TokenServerShard> getShards() {
+        return shards;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key, mixed with the finalizer of MurmurHash3.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -16,10 +16,14 @@
 package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.CompactRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
 import com.alibaba.csp.sentinel.cluster.registry.ConfigSupplierRegistry;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
@@ -27,6 +31,8 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.LengthFieldPrepender;
 
 /**
  * Netty client handler for Sentinel token client.
@@ -36,6 +42,12 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
  */
 public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
+    /**
+     * Servers which don't support the codec negotiation never reply, so the client falls back to
+     * the original codec after the timeout.
+     */
+    private static final long CODEC_NEGOTIATE_TIMEOUT_MS = 500;
+
     private final AtomicInteger currentState;
     private final Runnable disconnectCallback;
 
@@ -46,8 +58,14 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
-        currentState.set(ClientConstants.CLIENT_STATUS_STARTED);
-        fireClientPing(ctx);
+        if (ClusterClientStartUpConfig.getCodecVersion() >= ClusterConstants.CODEC_VERSION_V2) {
+            // The client is started once the codec is negotiated.
+            fireClientPing(ctx);
+            fireCodecNegotiate(ctx);
+        } else {
+            currentState.set(ClientConstants.CLIENT_STATUS_STARTED);
+            fireClientPing(ctx);
+        }
         RecordLog.info("[TokenClientHandler] Client handler active, remote address: {}", getRemoteAddress(ctx));
     }
 
@@ -60,6 +78,10 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
                 handlePingResponse(ctx, response);
                 return;
             }
+            if (response.getType() == ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE) {
+                handleCodecNegotiateResponse(ctx, response);
+                return;
+            }
 
             TokenClientPromiseHolder.completePromise(response.getId(), response);
         }
@@ -73,6 +95,45 @@ public class TokenClientHandler extends ChannelInboundHandlerAdapter {
         ctx.writeAndFlush(ping);
     }
 
+    private void fireCodecNegotiate(final ChannelHandlerContext ctx) {
+        ClusterRequest<Void> negotiate = new ClusterRequest<Void>().setId(0)
+            .setType(ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE);
+        ctx.writeAndFlush(negotiate);
+        ctx.executor().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (currentState.compareAndSet(ClientConstants.CLIENT_STATUS_PENDING,
+                    ClientConstants.CLIENT_STATUS_STARTED)) {
+                    RecordLog.info("[TokenClientHandler] No codec negotiation response from server {}, "
+                        + "using the original codec", getRemoteAddress(ctx));
+                }
+            }
+        }, CODEC_NEGOTIATE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void handleCodecNegotiateResponse(ChannelHandlerContext ctx, ClusterResponse response) {
+        // The response might come after the timeout, then the client switches to the compact codec
+        // as well, since the server tells frames of both codecs apart.
+        if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK && response.getData() instanceof Integer
+            && (int)response.getData() >= ClusterConstants.CODEC_VERSION_V2 && useCompactCodec(ctx.pipeline())) {
+            RecordLog.info("[TokenClientHandler] Compact codec negotiated with server {}", getRemoteAddress(ctx));
+        }
+        currentState.compareAndSet(ClientConstants.CLIENT_STATUS_PENDING, ClientConstants.CLIENT_STATUS_STARTED);
+    }
+
+    private boolean useCompactCodec(ChannelPipeline pipeline) {
+        if (pipeline.get(CompactRequestEncoder.class) != null) {
+            return true;
+        }
+        if (pipeline.get(NettyRequestEncoder.class) == null || pipeline.get(LengthFieldPrepender.class) == null) {
+            // Unknown pipeline, keep it as is.
+            return false;
+        }
+        pipeline.remove(LengthFieldPrepender.class);
+        pipeline.replace(NettyRequestEncoder.class, "compactRequestEncoder", new CompactRequestEncoder());
+        return true;
+    }
+
     private void handlePingResponse(ChannelHandlerContext ctx, ClusterResponse response) {
         if (response.getStatus() == ClusterConstants.RESPONSE_STATUS_OK) {
             int count = (int) response.getData();
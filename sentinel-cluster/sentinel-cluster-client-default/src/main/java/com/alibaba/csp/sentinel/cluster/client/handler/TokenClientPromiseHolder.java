@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.cluster.client.handler;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
@@ -30,6 +31,10 @@ import io.netty.channel.ChannelPromise;
 public final class TokenClientPromiseHolder {
 
     private static final Map<Integer, SimpleEntry<ChannelPromise, ClusterResponse>> PROMISE_MAP = new ConcurrentHashMap<>();
+    /**
+     * Pending futures of non-blocking requests.
+     */
+    private static final Map<Integer, CompletableFuture<ClusterResponse>> FUTURE_MAP = new ConcurrentHashMap<>();
 
     public static void putPromise(int xid, ChannelPromise promise) {
         PROMISE_MAP.put(xid, new SimpleEntry<ChannelPromise, ClusterResponse>(promise, null));
@@ -43,7 +48,30 @@ public final class TokenClientPromiseHolder {
         PROMISE_MAP.remove(xid);
     }
 
+    /**
+     * Register the future of a non-blocking request, which is completed when the response arrives.
+     *
+     * @since 1.8.2
+     */
+    public static void putFuture(int xid, CompletableFuture<ClusterResponse> future) {
+        FUTURE_MAP.put(xid, future);
+    }
+
+    /**
+     * Remove the future of a non-blocking request (e.g. on timeout).
+     *
+     * @return true if the future was pending and has been removed, otherwise false
+     * @since 1.8.2
+     */
+    public static boolean removeFuture(int xid, CompletableFuture<ClusterResponse> future) {
+        return FUTURE_MAP.remove(xid, future);
+    }
+
     public static <T> boolean completePromise(int xid, ClusterResponse<T> response) {
+        CompletableFuture<ClusterResponse> future = FUTURE_MAP.remove(xid);
+        if (future != null) {
+            return future.complete(response);
+        }
         if (!PROMISE_MAP.containsKey(xid)) {
             return false;
         }
@@ -16,6 +16,10 @@
 package com.alibaba.csp.sentinel.cluster.client.init;
 
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.BatchFlowRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.BatchFlowResponseDataDecoder;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowLeaseRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowLeaseResponseDataDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowRequestDataWriter;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.FlowResponseDataDecoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.data.ParamFlowRequestDataWriter;
@@ -43,6 +47,10 @@ public class DefaultClusterClientInitFunc implements InitFunc {
     private void initDefaultEntityWriters() {
         RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PING, new PingRequestDataWriter());
         RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_FLOW, new FlowRequestDataWriter());
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_FLOW_BATCH, new BatchFlowRequestDataWriter());
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_FLOW_LEASE, new FlowLeaseRequestDataWriter());
+        // The negotiation request carries no data.
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_CODEC_NEGOTIATE, new PingRequestDataWriter());
         Integer maxParamByteSize = ClusterClientStartUpConfig.getMaxParamByteSize();
         if (maxParamByteSize == null) {
             RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PARAM_FLOW, new ParamFlowRequestDataWriter());
@@ -55,5 +63,9 @@ public class DefaultClusterClientInitFunc implements InitFunc {
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PING, new PingResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW, new FlowResponseDataDecoder());
         ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_PARAM_FLOW, new FlowResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW_BATCH, new BatchFlowResponseDataDecoder());
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_FLOW_LEASE, new FlowLeaseResponseDataDecoder());
+        // Data of the negotiation response: the chosen codec version (int).
+        ResponseDataDecodeRegistry.addDecoder(ClientConstants.TYPE_CODEC_NEGOTIATE, new PingResponseDataDecoder());
     }
 }
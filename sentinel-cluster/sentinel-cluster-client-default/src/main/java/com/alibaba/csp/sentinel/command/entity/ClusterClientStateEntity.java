@@ -15,8 +15,12 @@
  */
 package com.alibaba.csp.sentinel.command.entity;
 
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.client.ClientConnectionStats;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.TokenServerShard;
 
 /**
  * @author Eric Zhao
@@ -26,11 +30,19 @@ public class ClusterClientStateEntity {
 
     private String serverHost;
     private Integer serverPort;
+    private List<TokenServerShard> shardServers;
 
     private Integer clientState;
 
     private Integer requestTimeout;
 
+    /**
+     * Statistics of the connections to the token servers.
+     *
+     * @since 1.8.2
+     */
+    private List<ClientConnectionStats> connections;
+
     public String getServerHost() {
         return serverHost;
     }
@@ -49,6 +61,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public List<TokenServerShard> getShardServers() {
+        return shardServers;
+    }
+
+    public ClusterClientStateEntity setShardServers(List<TokenServerShard> shardServers) {
+        this.shardServers = shardServers;
+        return this;
+    }
+
     public Integer getRequestTimeout() {
         return requestTimeout;
     }
@@ -67,6 +88,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public List<ClientConnectionStats> getConnections() {
+        return connections;
+    }
+
+    public ClusterClientStateEntity setConnections(List<ClientConnectionStats> connections) {
+        this.connections = connections;
+        return this;
+    }
+
     public ClusterClientConfig toClientConfig() {
         return new ClusterClientConfig().setRequestTimeout(requestTimeout);
     }
@@ -74,7 +104,8 @@ public class ClusterClientStateEntity {
     public ClusterClientAssignConfig toAssignConfig() {
         return new ClusterClientAssignConfig()
             .setServerHost(serverHost)
-            .setServerPort(serverPort);
+            .setServerPort(serverPort)
+            .setShardServers(shardServers);
     }
 
     @Override
@@ -82,6 +113,7 @@ public class ClusterClientStateEntity {
         return "ClusterClientStateEntity{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", shardServers=" + shardServers +
             ", clientState=" + clientState +
             ", requestTimeout=" + requestTimeout +
             '}';
@@ -16,8 +16,11 @@
 package com.alibaba.csp.sentinel.command.handler;
 
 import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.DefaultClusterTokenClient;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.TokenServerShardRing;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
@@ -38,8 +41,16 @@ public class FetchClusterClientConfigHandler implements CommandHandler<String> {
             .setServerHost(ClusterClientConfigManager.getServerHost())
             .setServerPort(ClusterClientConfigManager.getServerPort())
             .setRequestTimeout(ClusterClientConfigManager.getRequestTimeout());
+        TokenServerShardRing shardRing = ClusterClientConfigManager.getShardRing();
+        if (shardRing != null) {
+            stateVO.setShardServers(shardRing.getShards());
+        }
         if (TokenClientProvider.isClientSpiAvailable()) {
-            stateVO.setClientState(TokenClientProvider.getClient().getState());
+            ClusterTokenClient client = TokenClientProvider.getClient();
+            stateVO.setClientState(client.getState());
+            if (client instanceof DefaultClusterTokenClient) {
+                stateVO.setConnections(((DefaultClusterTokenClient)client).getConnectionStats());
+            }
         } else {
             stateVO.setClientState(ClientConstants.CLIENT_STATUS_OFF);
         }
@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FlowRequestBatcherTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSendCoalescedBatchWhenFull() throws Exception {
+        ClusterTransportClient transportClient = mock(ClusterTransportClient.class);
+        CompletableFuture<ClusterResponse> response = new CompletableFuture<>();
+        when(transportClient.sendRequestAsync(any(ClusterRequest.class))).thenReturn(response);
+        // The window is long enough, so the batch is sent as it's full.
+        FlowRequestBatcher batcher = new FlowRequestBatcher(transportClient, TimeUnit.SECONDS.toMicros(10), 3, true);
+
+        CompletableFuture<TokenResult> first = batcher.submit(1L, 1, false);
+        CompletableFuture<TokenResult> second = batcher.submit(2L, 1, false);
+        CompletableFuture<TokenResult> third = batcher.submit(1L, 2, false);
+
+        ArgumentCaptor<ClusterRequest> captor = ArgumentCaptor.forClass(ClusterRequest.class);
+        verify(transportClient, times(1)).sendRequestAsync(captor.capture());
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW_BATCH, captor.getValue().getType());
+        List<FlowRequestData> requests = ((BatchFlowRequestData)captor.getValue().getData()).getRequests();
+        // Requests of flow 1 are coalesced.
+        assertEquals(2, requests.size());
+        assertEquals(1L, requests.get(0).getFlowId());
+        assertEquals(3, requests.get(0).getCount());
+        assertFalse(first.isDone());
+
+        response.complete(new ClusterResponse<>(0, ClusterConstants.MSG_TYPE_FLOW_BATCH,
+            ClusterConstants.RESPONSE_STATUS_OK, new BatchFlowTokenResponseData().setResults(Arrays.asList(
+                new TokenResult(TokenResultStatus.BLOCKED), new TokenResult(TokenResultStatus.OK).setRemaining(5)))));
+        assertEquals(TokenResultStatus.BLOCKED, (int)first.get().getStatus());
+        assertEquals(TokenResultStatus.BLOCKED, (int)third.get().getStatus());
+        assertEquals(TokenResultStatus.OK, (int)second.get().getStatus());
+        assertEquals(5, second.get().getRemaining());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushWhenWindowElapsed() throws Exception {
+        ClusterTransportClient transportClient = mock(ClusterTransportClient.class);
+        when(transportClient.sendRequestAsync(any(ClusterRequest.class))).thenReturn(
+            CompletableFuture.<ClusterResponse>completedFuture(new ClusterResponse<>(0,
+                ClusterConstants.MSG_TYPE_FLOW_BATCH, ClusterConstants.RESPONSE_STATUS_BAD, null)));
+        FlowRequestBatcher batcher = new FlowRequestBatcher(transportClient, 200, 32, true);
+
+        CompletableFuture<TokenResult> future = batcher.submit(1L, 1, false);
+        try {
+            future.get(1, TimeUnit.SECONDS);
+            fail("the bad batch should fail");
+        } catch (ExecutionException ex) {
+            // A batch which is not answered fails all requests in it.
+            assertTrue(ex.getCause() instanceof SentinelClusterException);
+        }
+        verify(transportClient, times(1)).sendRequestAsync(any(ClusterRequest.class));
+    }
+}
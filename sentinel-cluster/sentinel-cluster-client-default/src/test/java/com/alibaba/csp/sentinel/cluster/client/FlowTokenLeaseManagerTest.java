@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FlowTokenLeaseManagerTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAcquireFromLeaseUntilExhausted() throws Exception {
+        ClusterTransportClient transportClient = mock(ClusterTransportClient.class);
+        when(transportClient.sendRequestAsync(any(ClusterRequest.class))).thenReturn(
+            CompletableFuture.<ClusterResponse>completedFuture(leaseResponse(10)));
+        FlowTokenLeaseManager leaseManager = new FlowTokenLeaseManager(transportClient, 1000);
+
+        assertNull(leaseManager.tryAcquire(1L, 1));
+        TokenResult result = leaseManager.renew(1L, 1).get();
+        assertEquals(TokenResultStatus.OK, (int)result.getStatus());
+        assertEquals(9, result.getRemaining());
+        for (int i = 8; i >= 0; i--) {
+            result = leaseManager.tryAcquire(1L, 1);
+            assertNotNull(result);
+            assertEquals(i, result.getRemaining());
+        }
+        assertNull(leaseManager.tryAcquire(1L, 1));
+        // Leases of other flows are separated.
+        assertNull(leaseManager.tryAcquire(2L, 1));
+
+        leaseManager.renew(1L, 1).get();
+        ArgumentCaptor<ClusterRequest> captor = ArgumentCaptor.forClass(ClusterRequest.class);
+        verify(transportClient, times(2)).sendRequestAsync(captor.capture());
+        FlowLeaseRequestData first = (FlowLeaseRequestData)captor.getAllValues().get(0).getData();
+        FlowLeaseRequestData second = (FlowLeaseRequestData)captor.getAllValues().get(1).getData();
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW_LEASE, captor.getValue().getType());
+        assertEquals(1, first.getLeaseCount());
+        assertEquals(1000, first.getLeaseMs());
+        // The next lease is sized by the demand, and nothing is returned as the lease is exhausted.
+        assertTrue(second.getLeaseCount() > 10);
+        assertEquals(0, second.getReturnedCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentRenewalShared() throws Exception {
+        ClusterTransportClient transportClient = mock(ClusterTransportClient.class);
+        CompletableFuture<ClusterResponse> response = new CompletableFuture<>();
+        when(transportClient.sendRequestAsync(any(ClusterRequest.class))).thenReturn(response);
+        FlowTokenLeaseManager leaseManager = new FlowTokenLeaseManager(transportClient, 1000);
+
+        CompletableFuture<TokenResult> first = leaseManager.renew(1L, 1);
+        CompletableFuture<TokenResult> second = leaseManager.renew(1L, 1);
+        CompletableFuture<TokenResult> third = leaseManager.renew(1L, 1);
+        verify(transportClient, times(1)).sendRequestAsync(any(ClusterRequest.class));
+        assertFalse(second.isDone());
+
+        response.complete(leaseResponse(2));
+        assertEquals(TokenResultStatus.OK, (int)first.get().getStatus());
+        assertEquals(TokenResultStatus.OK, (int)second.get().getStatus());
+        // The lease has been taken up, so the request should be sent regularly.
+        assertNull(third.get());
+    }
+
+    private ClusterResponse<FlowLeaseResponseData> leaseResponse(int grantedCount) {
+        return new ClusterResponse<>(0, ClusterConstants.MSG_TYPE_FLOW_LEASE, ClusterConstants.RESPONSE_STATUS_OK,
+            new FlowLeaseResponseData().setGrantedCount(grantedCount).setLeaseMs(1000));
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientStartUpConfig;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.exception.SentinelClusterException;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import io.netty.handler.codec.LengthFieldPrepender;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class NettyTransportClientTest {
+
+    private static NioEventLoopGroup serverGroup;
+    private static Channel serverChannel;
+    private static volatile boolean silent = false;
+    private static volatile boolean compactSupported = false;
+    private static volatile boolean lastRequestCompact = false;
+
+    @BeforeClass
+    public static void startServer() throws Exception {
+        new DefaultClusterClientInitFunc().init();
+        // Leave enough time for the first request in a cold JVM.
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(500));
+        serverGroup = new NioEventLoopGroup(1);
+        serverChannel = new ServerBootstrap().group(serverGroup)
+            .channel(NioServerSocketChannel.class)
+            .childHandler(new ChannelInitializer<SocketChannel>() {
+                @Override
+                public void initChannel(SocketChannel ch) {
+                    ch.pipeline().addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
+                    ch.pipeline().addLast(new LengthFieldPrepender(2));
+                    ch.pipeline().addLast(new FakeTokenServerHandler());
+                }
+            })
+            .bind("127.0.0.1", 0).sync().channel();
+    }
+
+    @AfterClass
+    public static void stopServer() {
+        ClusterClientConfigManager.applyNewConfig(
+            new ClusterClientConfig().setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT));
+        serverChannel.close();
+        serverGroup.shutdownGracefully();
+    }
+
+    @Test
+    public void testSendRequestAsync() throws Exception {
+        NettyTransportClient client = startClient();
+        try {
+            silent = false;
+            CompletableFuture<ClusterResponse> future = client.sendRequestAsync(newFlowRequest());
+            ClusterResponse response = future.get(1, TimeUnit.SECONDS);
+            assertEquals(ClusterConstants.RESPONSE_STATUS_OK, response.getStatus());
+            assertEquals(7, ((FlowTokenResponseData)response.getData()).getRemainingCount());
+
+            // The future completes exceptionally when the server does not respond in time.
+            silent = true;
+            try {
+                client.sendRequestAsync(newFlowRequest()).get(1, TimeUnit.SECONDS);
+                fail("should time out");
+            } catch (ExecutionException ex) {
+                assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getCause().getMessage());
+            }
+        } finally {
+            silent = false;
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testSendRequestWithCompactCodec() throws Exception {
+        compactSupported = true;
+        NettyTransportClient client = startClient();
+        try {
+            ClusterResponse response = client.sendRequest(newFlowRequest());
+            assertEquals(ClusterConstants.RESPONSE_STATUS_OK, response.getStatus());
+            assertEquals(7, ((FlowTokenResponseData)response.getData()).getRemainingCount());
+            assertTrue(lastRequestCompact);
+        } finally {
+            compactSupported = false;
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testSendRequestWithoutCodecNegotiation() throws Exception {
+        // The server does not reply the negotiation, so the client falls back to the original codec.
+        NettyTransportClient client = startClient();
+        try {
+            ClusterResponse response = client.sendRequest(newFlowRequest());
+            assertEquals(7, ((FlowTokenResponseData)response.getData()).getRemainingCount());
+            assertFalse(lastRequestCompact);
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testRoundRobinConnectionPool() throws Exception {
+        NettyTransportClient client = startClient(3, ClusterClientStartUpConfig.SELECTOR_ROUND_ROBIN);
+        try {
+            for (int i = 0; i < 6; i++) {
+                assertEquals(ClusterConstants.RESPONSE_STATUS_OK, client.sendRequest(newFlowRequest()).getStatus());
+            }
+            List<ClientConnectionStats> stats = client.getConnectionStats();
+            assertEquals(3, stats.size());
+            for (ClientConnectionStats connectionStats : stats) {
+                assertEquals(2, connectionStats.getSuccessCount());
+                assertEquals(0, connectionStats.getInFlight());
+                assertTrue(connectionStats.getP99LatencyMicros() > 0);
+            }
+        } finally {
+            client.stop();
+        }
+        assertFalse(client.isReady());
+        assertTrue(client.getConnectionStats().isEmpty());
+    }
+
+    @Test
+    public void testLeastPendingConnectionPool() throws Exception {
+        NettyTransportClient client = startClient(2, ClusterClientStartUpConfig.SELECTOR_LEAST_PENDING);
+        try {
+            silent = true;
+            CompletableFuture<ClusterResponse> first = client.sendRequestAsync(newFlowRequest());
+            CompletableFuture<ClusterResponse> second = client.sendRequestAsync(newFlowRequest());
+            // Pending requests are spread over the connections.
+            for (ClientConnectionStats connectionStats : client.getConnectionStats()) {
+                assertEquals(1, connectionStats.getInFlight());
+            }
+            try {
+                CompletableFuture.allOf(first, second).get(1, TimeUnit.SECONDS);
+                fail("should time out");
+            } catch (ExecutionException ex) {
+                assertEquals(ClusterErrorMessages.REQUEST_TIME_OUT, ex.getCause().getMessage());
+            }
+            for (ClientConnectionStats connectionStats : client.getConnectionStats()) {
+                assertEquals(0, connectionStats.getInFlight());
+                assertEquals(1, connectionStats.getFailureCount());
+            }
+        } finally {
+            silent = false;
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testReconnectDelay() {
+        assertEquals(NettyTransportClient.RECONNECT_DELAY_MS, NettyTransportClient.reconnectDelay(0));
+        assertEquals(NettyTransportClient.RECONNECT_DELAY_MS * 4, NettyTransportClient.reconnectDelay(2));
+        assertEquals(NettyTransportClient.MAX_RECONNECT_DELAY_MS, NettyTransportClient.reconnectDelay(100));
+    }
+
+    @Test
+    public void testSendRequestAsyncWhenNotReady() {
+        NettyTransportClient client = new NettyTransportClient("127.0.0.1", 1);
+        CompletableFuture<ClusterResponse> future = client.sendRequestAsync(newFlowRequest());
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.join();
+        } catch (Exception ex) {
+            assertTrue(ex.getCause() instanceof SentinelClusterException);
+        }
+    }
+
+    private static NettyTransportClient startClient() throws Exception {
+        return startClient(1, ClusterClientStartUpConfig.SELECTOR_ROUND_ROBIN);
+    }
+
+    private static NettyTransportClient startClient(int poolSize, String selector) throws Exception {
+        int port = ((InetSocketAddress)serverChannel.localAddress()).getPort();
+        NettyTransportClient client = new NettyTransportClient("127.0.0.1", port, poolSize, selector);
+        client.start();
+        for (int i = 0; i < 100 && !allConnectionsStarted(client); i++) {
+            Thread.sleep(30);
+        }
+        assertTrue(client.isReady() && allConnectionsStarted(client));
+        return client;
+    }
+
+    private static boolean allConnectionsStarted(NettyTransportClient client) {
+        for (ClientConnectionStats connectionStats : client.getConnectionStats()) {
+            if (connectionStats.getState() != ClientConstants.CLIENT_STATUS_STARTED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ClusterRequest<FlowRequestData> newFlowRequest() {
+        FlowRequestData data = new FlowRequestData().setFlowId(1L).setCount(1).setPriority(false);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    private static class FakeTokenServerHandler extends ChannelInboundHandlerAdapter {
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf request = (ByteBuf)msg;
+            boolean compact = request.getUnsignedByte(request.readerIndex()) == ClusterConstants.CODEC_V2_MAGIC;
+            if (compact) {
+                request.skipBytes(1);
+            }
+            int xid = compact ? VarIntUtil.readVarInt(request) : request.readInt();
+            int type = request.readByte();
+            request.release();
+            if (type == ClusterConstants.MSG_TYPE_FLOW && silent) {
+                return;
+            }
+            if (type == ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE && !compactSupported) {
+                // Servers without the compact codec ignore the negotiation.
+                return;
+            }
+            if (type == ClusterConstants.MSG_TYPE_FLOW) {
+                lastRequestCompact = compact;
+            }
+            ByteBuf response = ctx.alloc().buffer();
+            if (compact) {
+                response.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+                VarIntUtil.writeVarInt(response, xid);
+            } else {
+                response.writeInt(xid);
+            }
+            response.writeByte(type);
+            response.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+            if (type == ClusterConstants.MSG_TYPE_PING) {
+                response.writeInt(1);
+            } else if (type == ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE) {
+                response.writeInt(ClusterConstants.CODEC_VERSION_V2);
+            } else if (compact) {
+                VarIntUtil.writeSignedVarInt(response, 7);
+                VarIntUtil.writeSignedVarInt(response, 0);
+            } else {
+                response.writeInt(7);
+                response.writeInt(0);
+            }
+            ctx.writeAndFlush(response);
+        }
+    }
+}
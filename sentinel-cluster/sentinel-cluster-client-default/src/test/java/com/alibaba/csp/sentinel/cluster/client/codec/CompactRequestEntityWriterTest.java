@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.client.ClientConstants;
+import com.alibaba.csp.sentinel.cluster.client.codec.data.PingRequestDataWriter;
+import com.alibaba.csp.sentinel.cluster.client.codec.registry.RequestDataWriterRegistry;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompactRequestEntityWriterTest {
+
+    @Test
+    public void testVarIntRoundTrip() {
+        ByteBuf buf = Unpooled.buffer();
+        int[] ints = {0, 1, 127, 128, 16383, 16384, 999_999_999, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        long[] longs = {0, 300, Long.MAX_VALUE, -1, Long.MIN_VALUE};
+        for (int value : ints) {
+            VarIntUtil.writeVarInt(buf, value);
+            VarIntUtil.writeSignedVarInt(buf, value);
+        }
+        for (long value : longs) {
+            VarIntUtil.writeVarLong(buf, value);
+        }
+        for (int value : ints) {
+            assertEquals(value, VarIntUtil.readVarInt(buf));
+            assertEquals(value, VarIntUtil.readSignedVarInt(buf));
+        }
+        for (long value : longs) {
+            assertEquals(value, VarIntUtil.readVarLong(buf));
+        }
+        assertFalse(buf.isReadable());
+
+        VarIntUtil.writeVarInt(buf, 127);
+        VarIntUtil.writeSignedVarInt(buf, -64);
+        assertEquals(2, buf.readableBytes());
+    }
+
+    @Test
+    public void testWriteFlowRequest() {
+        ByteBuf buf = Unpooled.buffer();
+        FlowRequestData data = new FlowRequestData().setFlowId(1000L).setCount(2).setPriority(true);
+        new CompactRequestEntityWriter().writeTo(new ClusterRequest<>(300, ClusterConstants.MSG_TYPE_FLOW, data), buf);
+
+        // 18 bytes in the original codec.
+        assertEquals(8, buf.readableBytes());
+        assertEquals(ClusterConstants.CODEC_V2_MAGIC, buf.readUnsignedByte());
+        assertEquals(300, VarIntUtil.readVarInt(buf));
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, buf.readByte());
+        assertEquals(1000L, VarIntUtil.readVarLong(buf));
+        assertEquals(2, VarIntUtil.readVarInt(buf));
+        assertTrue(buf.readBoolean());
+    }
+
+    @Test
+    public void testWriteWithRegisteredWriter() {
+        RequestDataWriterRegistry.addWriter(ClientConstants.TYPE_PING, new PingRequestDataWriter());
+        ByteBuf buf = Unpooled.buffer();
+        new CompactRequestEntityWriter().writeTo(new ClusterRequest<>(0, ClusterConstants.MSG_TYPE_PING, "ns"), buf);
+
+        assertEquals(ClusterConstants.CODEC_V2_MAGIC, buf.readUnsignedByte());
+        assertEquals(0, VarIntUtil.readVarInt(buf));
+        assertEquals(ClusterConstants.MSG_TYPE_PING, buf.readByte());
+        assertEquals(2, buf.readInt());
+        assertEquals(2, buf.readableBytes());
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompactResponseEntityDecoderTest {
+
+    @Test
+    public void testDecodeFlowResponse() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+        VarIntUtil.writeVarInt(buf, 999_999_999);
+        buf.writeByte(ClusterConstants.MSG_TYPE_PARAM_FLOW);
+        buf.writeByte(TokenResultStatus.BLOCKED);
+        VarIntUtil.writeSignedVarInt(buf, -3);
+        VarIntUtil.writeSignedVarInt(buf, 20);
+
+        ClusterResponse response = new CompactResponseEntityDecoder().decode(buf);
+        assertEquals(999_999_999, response.getId());
+        assertEquals(ClusterConstants.MSG_TYPE_PARAM_FLOW, response.getType());
+        assertEquals(TokenResultStatus.BLOCKED, response.getStatus());
+        assertEquals(new FlowTokenResponseData().setRemainingCount(-3).setWaitInMs(20), response.getData());
+    }
+
+    @Test
+    public void testDecodeResponseWithoutData() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+        VarIntUtil.writeVarInt(buf, 5);
+        buf.writeByte(ClusterConstants.MSG_TYPE_FLOW);
+        buf.writeByte(TokenResultStatus.TOO_MANY_REQUEST);
+
+        ClusterResponse response = new CompactResponseEntityDecoder().decode(buf);
+        assertEquals(5, response.getId());
+        assertEquals(TokenResultStatus.TOO_MANY_REQUEST, response.getStatus());
+        assertNull(response.getData());
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterClientConfigManagerTest {
+
+    @After
+    public void tearDown() {
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig("127.0.0.1", 18730));
+    }
+
+    @Test
+    public void testAnnounceShardServersChange() {
+        final List<TokenServerShardRing> rings = new ArrayList<>();
+        final List<ClusterClientAssignConfig> servers = new ArrayList<>();
+        ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
+            @Override
+            public void onRemoteServerChange(ClusterClientAssignConfig assignConfig) {
+                servers.add(assignConfig);
+            }
+
+            @Override
+            public void onShardServersChange(TokenServerShardRing shardRing) {
+                rings.add(shardRing);
+            }
+        });
+        TokenServerShard a = new TokenServerShard("127.0.0.1", 18731);
+        TokenServerShard b = new TokenServerShard("127.0.0.1", 18732);
+
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig()
+            .setShardServers(Arrays.asList(a, b)));
+        assertEquals(1, rings.size());
+        TokenServerShard owner = ClusterClientConfigManager.getShardServer(1L);
+        assertTrue(owner.equals(a) || owner.equals(b));
+        assertEquals(rings.get(0).select(1L), owner);
+
+        // The same membership is not announced again.
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig()
+            .setShardServers(Arrays.asList(b, a)));
+        assertEquals(1, rings.size());
+        // Invalid shards are ignored.
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig()
+            .setShardServers(Arrays.asList(a, new TokenServerShard("", 18733))));
+        assertEquals(1, rings.size());
+
+        // Back to the single server, even if it's the same as the one before sharding.
+        int serverChanges = servers.size();
+        ClusterClientConfigManager.applyNewAssignConfig(new ClusterClientAssignConfig(
+            ClusterClientConfigManager.getServerHost() == null ? "127.0.0.1" : ClusterClientConfigManager.getServerHost(),
+            ClusterClientConfigManager.getServerPort()));
+        assertEquals(2, rings.size());
+        assertNull(rings.get(1));
+        assertNull(ClusterClientConfigManager.getShardServer(1L));
+        assertEquals(serverChanges + 1, servers.size());
+        assertNotNull(servers.get(servers.size() - 1).getServerHost());
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.config;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenServerShardRingTest {
+
+    private static final int FLOW_COUNT = 10000;
+
+    private final TokenServerShard a = new TokenServerShard("10.0.0.1", 18730);
+    private final TokenServerShard b = new TokenServerShard("10.0.0.2", 18730);
+    private final TokenServerShard c = new TokenServerShard("10.0.0.3", 18730);
+    private final TokenServerShard d = new TokenServerShard("10.0.0.3", 18731);
+
+    @Test
+    public void testFlowsSpreadEvenly() {
+        TokenServerShardRing ring = new TokenServerShardRing(Arrays.asList(a, b, c, d, a));
+        assertEquals(4, ring.getShards().size());
+
+        Map<TokenServerShard, Integer> counts = new HashMap<>();
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            TokenServerShard shard = ring.select(flowId);
+            Integer count = counts.get(shard);
+            counts.put(shard, count == null ? 1 : count + 1);
+        }
+        assertEquals(4, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("unbalanced shards: " + counts, count > FLOW_COUNT / 8 && count < FLOW_COUNT * 3 / 8);
+        }
+    }
+
+    @Test
+    public void testOnlyFlowsOfChangedShardMoved() {
+        List<TokenServerShard> shards = Arrays.asList(a, b, c);
+        TokenServerShardRing ring = new TokenServerShardRing(shards);
+        // The ring does not depend on the order of shards.
+        TokenServerShardRing reordered = new TokenServerShardRing(Arrays.asList(c, a, b));
+        TokenServerShardRing added = new TokenServerShardRing(Arrays.asList(a, b, c, d));
+        TokenServerShardRing removed = new TokenServerShardRing(Arrays.asList(a, c));
+
+        int moved = 0;
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            TokenServerShard owner = ring.select(flowId);
+            assertEquals(owner, reordered.select(flowId));
+            TokenServerShard newOwner = added.select(flowId);
+            if (!newOwner.equals(owner)) {
+                assertEquals(d, newOwner);
+                moved++;
+            }
+            if (!owner.equals(b)) {
+                assertEquals(owner, removed.select(flowId));
+            }
+        }
+        assertTrue("too many flows moved: " + moved, moved > 0 && moved < FLOW_COUNT * 3 / 8);
+    }
+}
@@ -26,6 +26,24 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PARAM_FLOW = 2;
     public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 3;
     public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 4;
+    /**
+     * Batched flow requests, answered by a batched response.
+     *
+     * @since 1.8.2
+     */
+    public static final int MSG_TYPE_FLOW_BATCH = 5;
+    /**
+     * Request for a lease of flow tokens, which could be taken locally by the client until the lease expires.
+     *
+     * @since 1.8.2
+     */
+    public static final int MSG_TYPE_FLOW_LEASE = 6;
+    /**
+     * Negotiation of the wire codec, answered with the codec version chosen by the server.
+     *
+     * @since 1.8.2
+     */
+    public static final int MSG_TYPE_CODEC_NEGOTIATE = 7;
 
 
     public static final int RESPONSE_STATUS_BAD = -1;
@@ -44,5 +62,33 @@ public final class ClusterConstants {
     public static final int DEFAULT_REQUEST_TIMEOUT = 20;
     public static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = 10 * 1000;
 
+    /**
+     * Max amount of requests in a batch, so that the batched frame never exceeds the max frame length (1024 bytes).
+     *
+     * @since 1.8.2
+     */
+    public static final int MAX_FLOW_BATCH_SIZE = 64;
+
+    /**
+     * The original codec with fixed-width fields.
+     *
+     * @since 1.8.2
+     */
+    public static final int CODEC_VERSION_V1 = 1;
+    /**
+     * The compact codec with varint-encoded IDs and counts, which is used once negotiated.
+     *
+     * @since 1.8.2
+     */
+    public static final int CODEC_VERSION_V2 = 2;
+    /**
+     * The leading byte of compact frames. The leading byte of original frames is the highest byte
+     * of the xid (no more than 999,999,999), which never equals to it, so both kinds of frames could be
+     * told apart frame by frame.
+     *
+     * @since 1.8.2
+     */
+    public static final int CODEC_V2_MAGIC = 0xC2;
+
     private ClusterConstants() {}
 }
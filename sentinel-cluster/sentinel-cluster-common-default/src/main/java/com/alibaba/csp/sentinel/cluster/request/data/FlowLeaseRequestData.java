@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Data of the request for a lease of flow tokens.
+ *
+ * @since 1.8.2
+ */
+public class FlowLeaseRequestData {
+
+    private long flowId;
+    /**
+     * The count acquired by current request, which is the least amount of the lease.
+     */
+    private int acquireCount;
+    /**
+     * The expected amount of the lease (including the acquired count).
+     */
+    private int leaseCount;
+    /**
+     * The expected lease time (in milliseconds).
+     */
+    private int leaseMs;
+    /**
+     * Unused tokens of the previous lease, which are given back to the server.
+     */
+    private int returnedCount;
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public FlowLeaseRequestData setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public int getAcquireCount() {
+        return acquireCount;
+    }
+
+    public FlowLeaseRequestData setAcquireCount(int acquireCount) {
+        this.acquireCount = acquireCount;
+        return this;
+    }
+
+    public int getLeaseCount() {
+        return leaseCount;
+    }
+
+    public FlowLeaseRequestData setLeaseCount(int leaseCount) {
+        this.leaseCount = leaseCount;
+        return this;
+    }
+
+    public int getLeaseMs() {
+        return leaseMs;
+    }
+
+    public FlowLeaseRequestData setLeaseMs(int leaseMs) {
+        this.leaseMs = leaseMs;
+        return this;
+    }
+
+    public int getReturnedCount() {
+        return returnedCount;
+    }
+
+    public FlowLeaseRequestData setReturnedCount(int returnedCount) {
+        this.returnedCount = returnedCount;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowLeaseRequestData{" +
+            "flowId=" + flowId +
+            ", acquireCount=" + acquireCount +
+            ", leaseCount=" + leaseCount +
+            ", leaseMs=" + leaseMs +
+            ", returnedCount=" + returnedCount +
+            '}';
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.response.data;
+
+/**
+ * Data of the flow lease response. The granted count includes the count acquired by the request itself.
+ *
+ * @since 1.8.2
+ */
+public class FlowLeaseResponseData {
+
+    private int grantedCount;
+    private int leaseMs;
+
+    public int getGrantedCount() {
+        return grantedCount;
+    }
+
+    public FlowLeaseResponseData setGrantedCount(int grantedCount) {
+        this.grantedCount = grantedCount;
+        return this;
+    }
+
+    public int getLeaseMs() {
+        return leaseMs;
+    }
+
+    public FlowLeaseResponseData setLeaseMs(int leaseMs) {
+        this.leaseMs = leaseMs;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowLeaseResponseData{" +
+            "grantedCount=" + grantedCount +
+            ", leaseMs=" + leaseMs +
+            '}';
+    }
+}
@@ -111,6 +111,67 @@ final class ClusterFlowChecker {
         }
     }
 
+    /**
+     * <p>Acquire a lease of tokens for the client, so that the client could take the leased tokens locally
+     * within the lease time. The leased tokens are counted as passed at once, and the unused tokens
+     * of the previous lease given back by the client are reclaimed from current window.</p>
+     *
+     * <p>Each lease is no more than {@code maxLeaseRatio / connectedCount} of the global threshold,
+     * so that all tokens leased by the clients (which might be left unused, or reclaimed in a later window)
+     * are within {@code maxLeaseRatio} of the global threshold. The lease time is no longer than
+     * the bucket length of the sliding window, so that leased tokens are taken before their bucket is deprecated.</p>
+     *
+     * @param rule          valid cluster flow rule
+     * @param acquireCount  count acquired by current request, which is the least amount of the lease
+     * @param leaseCount    expected amount of the lease
+     * @param leaseMs       expected lease time in milliseconds
+     * @param returnedCount unused tokens of the previous lease
+     * @return the result, where the remaining count carries the granted amount of the lease
+     * and the wait time carries the granted lease time
+     * @since 1.8.2
+     */
+    static TokenResult acquireClusterTokenLease(/*@Valid*/ FlowRule rule, int acquireCount, int leaseCount,
+                                                int leaseMs, int returnedCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        String namespace = ClusterFlowRuleManager.getNamespace(id);
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        int connectedCount = Math.max(1, ClusterFlowRuleManager.getConnectedCount(id));
+        int maxLeaseCount = (int) (globalThreshold * ClusterServerConfigManager.getMaxLeaseRatio(namespace)
+            / connectedCount);
+        if (returnedCount > 0) {
+            metric.add(ClusterFlowEvent.PASS, -Math.min(returnedCount, maxLeaseCount));
+        }
+
+        double remaining = globalThreshold - metric.getAvg(ClusterFlowEvent.PASS);
+        if (remaining < acquireCount) {
+            metric.add(ClusterFlowEvent.BLOCK, acquireCount);
+            metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+            ClusterServerStatLogUtil.log("flow|block|" + id, acquireCount);
+            ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+            return blockedResult();
+        }
+        // The lease degrades to a regular request if leasing is disabled (with zero lease ratio).
+        int granted = (int) Math.min(Math.min(leaseCount, remaining), Math.max(acquireCount, maxLeaseCount));
+        metric.add(ClusterFlowEvent.PASS, granted);
+        metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
+
+        int bucketLengthMs = ClusterServerConfigManager.getIntervalMs(namespace)
+            / ClusterServerConfigManager.getSampleCount(namespace);
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(granted)
+            .setWaitInMs(Math.max(0, Math.min(leaseMs, bucketLengthMs)));
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
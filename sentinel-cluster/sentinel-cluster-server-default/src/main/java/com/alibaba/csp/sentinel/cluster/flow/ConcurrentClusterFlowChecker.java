@@ -53,26 +53,27 @@ final public class ConcurrentClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        // check before enter the lock to improve the efficiency
-        if (nowCalls.get() + acquireCount > calcGlobalThreshold(rule)) {
-            ClusterServerStatLogUtil.log("concurrent|block|" + flowId, acquireCount);
-            return new TokenResult(TokenResultStatus.BLOCKED);
-        }
-
-        // ensure the atomicity of operations
-        // lock different nowCalls to improve the efficiency
-        synchronized (nowCalls) {
-            // check again whether the request can pass.
-            if (nowCalls.get() + acquireCount > calcGlobalThreshold(rule)) {
+        // CAS loop rather than locking the nowCalls, so that acquiring never blocks the server thread.
+        double threshold = calcGlobalThreshold(rule);
+        for (;;) {
+            int current = nowCalls.get();
+            if (current + acquireCount > threshold) {
                 ClusterServerStatLogUtil.log("concurrent|block|" + flowId, acquireCount);
                 return new TokenResult(TokenResultStatus.BLOCKED);
-            } else {
-                nowCalls.getAndAdd(acquireCount);
+            }
+            if (nowCalls.compareAndSet(current, current + acquireCount)) {
+                break;
             }
         }
-        ClusterServerStatLogUtil.log("concurrent|pass|" + flowId, acquireCount);
         TokenCacheNode node = TokenCacheNode.generateTokenCacheNode(rule, acquireCount, clientAddress);
-        TokenCacheNodeManager.putTokenCacheNode(node.getTokenId(), node);
+        if (!TokenCacheNodeManager.putTokenCacheNode(node.getTokenId(), node)) {
+            // The token store is full, so the token could not be tracked (and released when expired).
+            nowCalls.getAndAdd(-1 * acquireCount);
+            RecordLog.warn("[ConcurrentClusterFlowChecker] Too many outstanding tokens, block the request for flowId<{}>", flowId);
+            ClusterServerStatLogUtil.log("concurrent|block|" + flowId, acquireCount);
+            return new TokenResult(TokenResultStatus.BLOCKED);
+        }
+        ClusterServerStatLogUtil.log("concurrent|pass|" + flowId, acquireCount);
         TokenResult tokenResult = new TokenResult(TokenResultStatus.OK);
         tokenResult.setTokenId(node.getTokenId());
         return tokenResult;
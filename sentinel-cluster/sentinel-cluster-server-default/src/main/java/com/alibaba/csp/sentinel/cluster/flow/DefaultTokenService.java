@@ -49,6 +49,34 @@ public class DefaultTokenService implements TokenService {
         return ClusterFlowChecker.acquireClusterToken(rule, acquireCount, prioritized);
     }
 
+    /**
+     * Request a lease of tokens for cluster flow control, see
+     * {@link ClusterFlowChecker#acquireClusterTokenLease(FlowRule, int, int, int, int)}.
+     *
+     * @param ruleId        the unique rule ID
+     * @param acquireCount  count acquired by current request
+     * @param leaseCount    expected amount of the lease
+     * @param leaseMs       expected lease time in milliseconds
+     * @param returnedCount unused tokens of the previous lease
+     * @return the result, where the remaining count carries the granted amount of the lease
+     * and the wait time carries the granted lease time
+     * @since 1.8.2
+     */
+    public TokenResult requestTokenLease(Long ruleId, int acquireCount, int leaseCount, int leaseMs,
+                                         int returnedCount) {
+        if (notValidRequest(ruleId, acquireCount)) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+
+        return ClusterFlowChecker.acquireClusterTokenLease(rule, acquireCount, Math.max(acquireCount, leaseCount),
+            leaseMs, Math.max(0, returnedCount));
+    }
+
     @Override
     public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(ruleId, acquireCount) || params == null || params.isEmpty()) {
@@ -17,12 +17,13 @@ package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
 
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * We use TokenCacheNodeManager to store the tokenId, whose the underlying storage structure
- * is ConcurrentLinkedHashMap, Its storage node is TokenCacheNode. In order to operate the nowCalls value when
- * the expired tokenId is deleted regularly, we need to store the flowId in TokenCacheNode.
+ * is ConcurrentHashMap, Its storage node is TokenCacheNode. In order to operate the nowCalls value when
+ * the expired tokenId is deleted, we need to store the flowId in TokenCacheNode. The node also carries the
+ * links of {@link TokenExpireWheel}, so that scheduling the expiration does not allocate anything else.
  *
  * @author yunfeiyanggzq
  */
@@ -53,14 +54,28 @@ public class TokenCacheNode {
      */
     private String clientAddress;
 
+    /**
+     * The following fields are only accessed by {@link TokenExpireWheel}.
+     */
+    long deadline;
+    int wheelSlot = -1;
+    TokenCacheNode wheelPrev;
+    TokenCacheNode wheelNext;
+    TokenCacheNode nextAdded;
+    TokenCacheNode nextCancelled;
+
     public TokenCacheNode() {
     }
 
     public static TokenCacheNode generateTokenCacheNode(FlowRule rule, int acquireCount, String clientAddress) {
         TokenCacheNode node = new TokenCacheNode();
-        // getMostSignificantBits() returns the most significant 64 bits of this UUID's 128 bit value.
-        // The probability of collision is extremely low.
-        node.setTokenId(UUID.randomUUID().getMostSignificantBits());
+        // A random 64-bit id, of which the probability of collision is extremely low. Unlike UUID.randomUUID(),
+        // ThreadLocalRandom does not contend on the shared SecureRandom.
+        long tokenId;
+        do {
+            tokenId = ThreadLocalRandom.current().nextLong();
+        } while (tokenId == 0);
+        node.setTokenId(tokenId);
         node.setFlowId(rule.getClusterConfig().getFlowId());
         node.setClientTimeout(rule.getClusterConfig().getClientOfflineTime());
         node.setResourceTimeout(rule.getClusterConfig().getResourceTimeout());
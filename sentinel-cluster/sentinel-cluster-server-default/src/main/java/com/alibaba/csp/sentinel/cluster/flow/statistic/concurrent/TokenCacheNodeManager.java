@@ -15,49 +15,83 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
 
-import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire.RegularExpireStrategy;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.util.AssertUtil;
-import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
-import com.googlecode.concurrentlinkedhashmap.Weighers;
 
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
+ * The tokens are stored in a ConcurrentHashMap and expired by a {@link TokenExpireWheel}. The amount of
+ * outstanding tokens is bounded by the capacity, and new tokens are rejected rather than evicting the
+ * outstanding ones (which would never be released) when it's full.
+ *
  * @author yunfeiyanggzq
  */
 public class TokenCacheNodeManager {
-    private static ConcurrentLinkedHashMap<Long, TokenCacheNode> TOKEN_CACHE_NODE_MAP;
-
+    private static ConcurrentHashMap<Long, TokenCacheNode> TOKEN_CACHE_NODE_MAP;
+    private static TokenExpireWheel EXPIRE_WHEEL;
+    private static final AtomicInteger TOKEN_COUNT = new AtomicInteger();
+    private static volatile int capacity;
 
     private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
     private static final int DEFAULT_CAPACITY = Integer.MAX_VALUE;
+    private static final long DEFAULT_TICK_MS = 10;
+    /**
+     * The interval to detect the status of the client once the client offline time is exceeded.
+     */
+    private static final long CLIENT_CHECK_INTERVAL_MS = 1000;
 
     static {
         prepare(DEFAULT_CONCURRENCY_LEVEL, DEFAULT_CAPACITY);
     }
 
-    public static void prepare(int concurrencyLevel, int maximumWeightedCapacity) {
+    public static synchronized void prepare(int concurrencyLevel, int maximumWeightedCapacity) {
         AssertUtil.isTrue(concurrencyLevel > 0, "concurrencyLevel must be positive");
         AssertUtil.isTrue(maximumWeightedCapacity > 0, "maximumWeightedCapacity must be positive");
 
-        TOKEN_CACHE_NODE_MAP = new ConcurrentLinkedHashMap.Builder<Long, TokenCacheNode>()
-                .concurrencyLevel(concurrencyLevel)
-                .maximumWeightedCapacity(maximumWeightedCapacity)
-                .weigher(Weighers.singleton())
-                .build();
-        // Start the task of regularly clearing expired keys
-        RegularExpireStrategy strategy = new RegularExpireStrategy(TOKEN_CACHE_NODE_MAP);
-        strategy.startClearTaskRegularly();
+        if (EXPIRE_WHEEL != null) {
+            EXPIRE_WHEEL.stop();
+        }
+        TOKEN_CACHE_NODE_MAP = new ConcurrentHashMap<Long, TokenCacheNode>(16, 0.75f, concurrencyLevel);
+        TOKEN_COUNT.set(0);
+        capacity = maximumWeightedCapacity;
+        // Start the task of expiring tokens
+        EXPIRE_WHEEL = new TokenExpireWheel(DEFAULT_TICK_MS);
+        EXPIRE_WHEEL.startClearTaskRegularly();
     }
 
 
     public static TokenCacheNode getTokenCacheNode(long tokenId) {
-        //use getQuietly to prevent disorder
-        return TOKEN_CACHE_NODE_MAP.getQuietly(tokenId);
+        return TOKEN_CACHE_NODE_MAP.get(tokenId);
     }
 
-    public static void putTokenCacheNode(long tokenId, TokenCacheNode cacheNode) {
-        TOKEN_CACHE_NODE_MAP.put(tokenId, cacheNode);
+    /**
+     * Put the token and schedule its expiration.
+     *
+     * @return false if the amount of tokens reaches the capacity, then the token is not stored
+     */
+    public static boolean putTokenCacheNode(long tokenId, TokenCacheNode cacheNode) {
+        int count;
+        do {
+            count = TOKEN_COUNT.get();
+            if (count >= capacity) {
+                return false;
+            }
+        } while (!TOKEN_COUNT.compareAndSet(count, count + 1));
+
+        TokenCacheNode old = TOKEN_CACHE_NODE_MAP.put(tokenId, cacheNode);
+        if (old != null) {
+            TOKEN_COUNT.decrementAndGet();
+            EXPIRE_WHEEL.cancel(old);
+        }
+        cacheNode.deadline = Math.min(cacheNode.getClientTimeout(), cacheNode.getResourceTimeout());
+        EXPIRE_WHEEL.add(cacheNode);
+        return true;
     }
 
     public static boolean isContainsTokenId(long tokenId) {
@@ -65,7 +99,12 @@ public class TokenCacheNodeManager {
     }
 
     public static TokenCacheNode removeTokenCacheNode(long tokenId) {
-        return TOKEN_CACHE_NODE_MAP.remove(tokenId);
+        TokenCacheNode node = TOKEN_CACHE_NODE_MAP.remove(tokenId);
+        if (node != null) {
+            TOKEN_COUNT.decrementAndGet();
+            EXPIRE_WHEEL.cancel(node);
+        }
+        return node;
     }
 
     public static int getSize() {
@@ -79,4 +118,50 @@ public class TokenCacheNodeManager {
     public static boolean validToken(TokenCacheNode cacheNode) {
         return cacheNode.getTokenId() != null && cacheNode.getFlowId() != null && cacheNode.getClientTimeout() >= 0 && cacheNode.getResourceTimeout() >= 0;
     }
+
+    /**
+     * Check whether the token is expired, and remove it if so. We need to consider the situation that
+     * the token client goes offline or the resource call times out. If the client offline time is exceeded,
+     * the token will be removed once the client is offline. If the token's save time is more than 2 times of
+     * the client's call resource timeout time, the token will be determined to timeout.
+     *
+     * @return the next time to check the token, or {@link TokenExpireWheel#EXPIRED} if it's removed
+     */
+    static long checkExpiration(TokenCacheNode node, long now) {
+        Long tokenId = node.getTokenId();
+        if (TOKEN_CACHE_NODE_MAP.get(tokenId) != node) {
+            return TokenExpireWheel.EXPIRED;
+        }
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(node.getFlowId());
+        if (rule == null) {
+            expireToken(node);
+            RecordLog.info("[TokenCacheNodeManager] Delete the token<{}> because of no rule for ruleId<{}>", tokenId, node.getFlowId());
+            return TokenExpireWheel.EXPIRED;
+        }
+        long resourceDeadline = node.getResourceTimeout() + rule.getClusterConfig().getResourceTimeout();
+        if (now > resourceDeadline) {
+            expireToken(node);
+            RecordLog.info("[TokenCacheNodeManager] Delete the expired token<{}> because of resource timeout for ruleId<{}>", tokenId, node.getFlowId());
+            return TokenExpireWheel.EXPIRED;
+        }
+        long clientTimeout = node.getClientTimeout();
+        if (now > clientTimeout && !ConnectionManager.isClientOnline(node.getClientAddress())) {
+            expireToken(node);
+            RecordLog.info("[TokenCacheNodeManager] Delete the expired token<{}> because of client offline for ruleId<{}>", tokenId, node.getFlowId());
+            return TokenExpireWheel.EXPIRED;
+        }
+        long clientCheckTime = now > clientTimeout ? now + CLIENT_CHECK_INTERVAL_MS : clientTimeout + 1;
+        return Math.min(resourceDeadline + 1, clientCheckTime);
+    }
+
+    private static void expireToken(TokenCacheNode node) {
+        if (!TOKEN_CACHE_NODE_MAP.remove(node.getTokenId(), node)) {
+            return;
+        }
+        TOKEN_COUNT.decrementAndGet();
+        AtomicInteger nowCalls = CurrentConcurrencyManager.get(node.getFlowId());
+        if (nowCalls != null) {
+            nowCalls.getAndAdd(-node.getAcquireCount());
+        }
+    }
 }
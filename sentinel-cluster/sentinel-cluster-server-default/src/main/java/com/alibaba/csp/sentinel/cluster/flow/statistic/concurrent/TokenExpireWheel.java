@@ -0,0 +1,252 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.expire.ExpireStrategy;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>A hierarchical timing wheel which expires the tokens of {@link TokenCacheNodeManager}. Each token is
+ * scheduled once at its next check time rather than being rescanned regularly, so the cost of expiration
+ * is proportional to the expired tokens instead of the outstanding tokens.</p>
+ *
+ * <p>The wheel is only touched by the tick thread. Adding and cancelling a token just push the node onto a
+ * lock-free stack (linked by the fields of the node itself), which is drained on the next tick. A cancelled
+ * node is unlinked from its bucket at that time, so the wheel never retains released tokens.</p>
+ *
+ * @since 1.8.2
+ */
+public class TokenExpireWheel implements ExpireStrategy {
+
+    /**
+     * Returned by {@link #expire(TokenCacheNode, long)} if the token has been removed.
+     */
+    static final long EXPIRED = -1;
+
+    static final int SLOT_BITS = 6;
+    static final int SLOT_COUNT = 1 << SLOT_BITS;
+    static final int SLOT_MASK = SLOT_COUNT - 1;
+    static final int LEVELS = 4;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService EXECUTOR = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-token-expire-wheel", true));
+
+    private final long tickMs;
+    private final TokenCacheNode[] buckets = new TokenCacheNode[LEVELS * SLOT_COUNT];
+    private final AtomicReference<TokenCacheNode> added = new AtomicReference<TokenCacheNode>();
+    private final AtomicReference<TokenCacheNode> cancelled = new AtomicReference<TokenCacheNode>();
+
+    private long currentTick;
+    private ScheduledFuture<?> tickTask;
+
+    public TokenExpireWheel(long tickMs) {
+        this(tickMs, System.currentTimeMillis());
+    }
+
+    TokenExpireWheel(long tickMs, long startMs) {
+        AssertUtil.isTrue(tickMs > 0, "tickMs must be positive");
+        this.tickMs = tickMs;
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedule the node to be checked at its {@code deadline}. This method is lock-free.
+     */
+    void add(TokenCacheNode node) {
+        TokenCacheNode head;
+        do {
+            head = added.get();
+            node.nextAdded = head;
+        } while (!added.compareAndSet(head, node));
+    }
+
+    /**
+     * Unschedule the node, which should have been {@link #add(TokenCacheNode) added}. This method is lock-free.
+     */
+    void cancel(TokenCacheNode node) {
+        TokenCacheNode head;
+        do {
+            head = cancelled.get();
+            node.nextCancelled = head;
+        } while (!cancelled.compareAndSet(head, node));
+    }
+
+    /**
+     * Check the token whose deadline comes.
+     *
+     * @return the next time to check the token, or {@link #EXPIRED} if the token has been removed
+     */
+    long expire(TokenCacheNode node, long now) {
+        return TokenCacheNodeManager.checkExpiration(node, now);
+    }
+
+    @Override
+    public synchronized void startClearTaskRegularly() {
+        if (tickTask != null) {
+            return;
+        }
+        tickTask = EXECUTOR.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    advance(System.currentTimeMillis());
+                } catch (Throwable e) {
+                    RecordLog.warn("[TokenExpireWheel] Unexpected error when expiring tokens", e);
+                }
+            }
+        }, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (tickTask != null) {
+            tickTask.cancel(false);
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Move the wheel to given time and check the tokens whose deadline has come.
+     * This method should only be called by the tick thread.
+     */
+    void advance(long now) {
+        drainAdded();
+        drainCancelled();
+        long targetTick = now / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = 1; level < LEVELS; level++) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+                    break;
+                }
+                cascade(level);
+            }
+            fire(now);
+        }
+    }
+
+    private void drainAdded() {
+        TokenCacheNode node = added.getAndSet(null);
+        while (node != null) {
+            TokenCacheNode next = node.nextAdded;
+            node.nextAdded = null;
+            if (node.wheelSlot < 0) {
+                schedule(node, currentTick + 1);
+            }
+            node = next;
+        }
+    }
+
+    private void drainCancelled() {
+        TokenCacheNode node = cancelled.getAndSet(null);
+        while (node != null) {
+            TokenCacheNode next = node.nextCancelled;
+            node.nextCancelled = null;
+            unlink(node);
+            node = next;
+        }
+    }
+
+    private void cascade(int level) {
+        int slot = level * SLOT_COUNT + (int)((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        TokenCacheNode node = buckets[slot];
+        buckets[slot] = null;
+        while (node != null) {
+            TokenCacheNode next = node.wheelNext;
+            node.wheelPrev = node.wheelNext = null;
+            node.wheelSlot = -1;
+            // The nodes due in current tick are fired right after cascading.
+            schedule(node, currentTick);
+            node = next;
+        }
+    }
+
+    private void fire(long now) {
+        int slot = (int)(currentTick & SLOT_MASK);
+        TokenCacheNode node = buckets[slot];
+        buckets[slot] = null;
+        while (node != null) {
+            TokenCacheNode next = node.wheelNext;
+            node.wheelPrev = node.wheelNext = null;
+            node.wheelSlot = -1;
+            // Nodes far beyond the span of the wheel are clamped to the last bucket and scheduled again here.
+            long deadline = node.deadline > now ? node.deadline : expire(node, now);
+            if (deadline != EXPIRED) {
+                node.deadline = deadline;
+                schedule(node, currentTick + 1);
+            }
+            node = next;
+        }
+    }
+
+    private void schedule(TokenCacheNode node, long earliestTick) {
+        long deadlineTick = Math.max((node.deadline + tickMs - 1) / tickMs, earliestTick);
+        long delta = deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        if (delta >= (1L << (SLOT_BITS * LEVELS))) {
+            deadlineTick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int slot = level * SLOT_COUNT + (int)((deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        TokenCacheNode head = buckets[slot];
+        node.wheelNext = head;
+        if (head != null) {
+            head.wheelPrev = node;
+        }
+        buckets[slot] = node;
+        node.wheelSlot = slot;
+    }
+
+    private void unlink(TokenCacheNode node) {
+        int slot = node.wheelSlot;
+        if (slot < 0) {
+            return;
+        }
+        if (node.wheelPrev != null) {
+            node.wheelPrev.wheelNext = node.wheelNext;
+        } else {
+            buckets[slot] = node.wheelNext;
+        }
+        if (node.wheelNext != null) {
+            node.wheelNext.wheelPrev = node.wheelPrev;
+        }
+        node.wheelPrev = node.wheelNext = null;
+        node.wheelSlot = -1;
+    }
+
+    /**
+     * @return the number of scheduled nodes, which should only be called by the tick thread (or in tests)
+     */
+    int scheduledCount() {
+        int count = 0;
+        for (TokenCacheNode head : buckets) {
+            for (TokenCacheNode node = head; node != null; node = node.wheelNext) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
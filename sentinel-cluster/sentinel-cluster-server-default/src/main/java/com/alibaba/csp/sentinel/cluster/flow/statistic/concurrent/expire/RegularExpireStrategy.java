@@ -44,7 +44,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * token server will continue to save it.
  *
  * @author yunfeiyanggzq
+ * @deprecated since 1.8.2, the tokens of {@link com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenCacheNodeManager}
+ * are expired by {@link com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.TokenExpireWheel} rather than being rescanned
  **/
+@Deprecated
 public class RegularExpireStrategy implements ExpireStrategy {
     /**
      * The max number of token deleted each time,
@@ -22,7 +22,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyRequestDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
 import com.alibaba.csp.sentinel.cluster.server.connection.Connection;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.executor.RequestExecutor;
+import com.alibaba.csp.sentinel.cluster.server.executor.RequestExecutorProvider;
 import com.alibaba.csp.sentinel.cluster.server.handler.TokenServerHandler;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -56,9 +59,11 @@ public class NettyTransportServer implements ClusterTokenServer {
     private static final int RETRY_SLEEP_MS = 2000;
 
     private final int port;
+    private final String executionMode;
 
     private NioEventLoopGroup bossGroup;
     private NioEventLoopGroup workerGroup;
+    private RequestExecutor requestExecutor;
 
     private final ConnectionPool connectionPool = new ConnectionPool();
 
@@ -66,7 +71,17 @@ public class NettyTransportServer implements ClusterTokenServer {
     private final AtomicInteger failedTimes = new AtomicInteger(0);
 
     public NettyTransportServer(int port) {
+        this(port, ServerTransportConfig.DEFAULT_EXECUTION_MODE);
+    }
+
+    /**
+     * @param port          the port of the token server
+     * @param executionMode how to process the requests, see {@link ServerTransportConfig}
+     * @since 1.8.2
+     */
+    public NettyTransportServer(int port, String executionMode) {
         this.port = port;
+        this.executionMode = executionMode;
     }
 
     @Override
@@ -78,6 +93,11 @@ public class NettyTransportServer implements ClusterTokenServer {
         ServerBootstrap b = new ServerBootstrap();
         this.bossGroup = new NioEventLoopGroup(1);
         this.workerGroup = new NioEventLoopGroup(DEFAULT_EVENT_LOOP_THREADS);
+        if (requestExecutor == null) {
+            // Retained on retrying.
+            this.requestExecutor = RequestExecutorProvider.createExecutor(executionMode);
+        }
+        final RequestExecutor requestExecutor = this.requestExecutor;
         b.group(bossGroup, workerGroup)
             .channel(NioServerSocketChannel.class)
             .option(ChannelOption.SO_BACKLOG, 128)
@@ -87,10 +107,11 @@ public class NettyTransportServer implements ClusterTokenServer {
                 public void initChannel(SocketChannel ch) throws Exception {
                     ChannelPipeline p = ch.pipeline();
                     p.addLast(new LengthFieldBasedFrameDecoder(1024, 0, 2, 0, 2));
-                    p.addLast(new NettyRequestDecoder());
+                    // Flow requests could be decoded into the same instance if processed on the I/O thread.
+                    p.addLast(new NettyRequestDecoder(requestExecutor == null));
                     p.addLast(new LengthFieldPrepender(2));
                     p.addLast(new NettyResponseEncoder());
-                    p.addLast(new TokenServerHandler(connectionPool));
+                    p.addLast(new TokenServerHandler(connectionPool, requestExecutor));
                 }
             })
             .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
@@ -118,7 +139,9 @@ public class NettyTransportServer implements ClusterTokenServer {
                         RecordLog.info("[NettyTransportServer] Failed to start token server when retrying", e);
                     }
                 } else {
-                    RecordLog.info("[NettyTransportServer] Token server started success at port {}", port);
+                    RecordLog.info("[NettyTransportServer] Token server started success at port {} (execution mode: {})",
+                        port, executionMode);
+                    RequestExecutorProvider.setExecutor(requestExecutor);
                     currentState.compareAndSet(SERVER_STATUS_STARTING, SERVER_STATUS_STARTED);
                 }
             }
@@ -141,6 +164,13 @@ public class NettyTransportServer implements ClusterTokenServer {
                 bossGroup.shutdownGracefully();
                 workerGroup.shutdownGracefully();
                 connectionPool.shutdownAll();
+                if (requestExecutor != null) {
+                    if (RequestExecutorProvider.getExecutor() == requestExecutor) {
+                        RequestExecutorProvider.setExecutor(null);
+                    }
+                    requestExecutor.shutdown();
+                    requestExecutor = null;
+                }
 
                 failedTimes.set(0);
 
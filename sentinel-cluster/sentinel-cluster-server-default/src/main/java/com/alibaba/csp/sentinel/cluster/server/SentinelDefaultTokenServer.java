@@ -40,6 +40,7 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
 
     private ClusterTokenServer server;
     private int port;
+    private String executionMode;
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
     static {
@@ -67,8 +68,10 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
         }
         int port = ClusterServerConfigManager.getPort();
         if (port > 0) {
-            this.server = new NettyTransportServer(port);
+            String executionMode = ClusterServerConfigManager.getExecutionMode();
+            this.server = new NettyTransportServer(port, executionMode);
             this.port = port;
+            this.executionMode = executionMode;
         }
     }
 
@@ -77,15 +80,17 @@ public class SentinelDefaultTokenServer implements ClusterTokenServer {
             return;
         }
         int newPort = config.getPort();
-        if (newPort == port) {
+        String newExecutionMode = config.getExecutionMode();
+        if (newPort == port && newExecutionMode.equals(executionMode)) {
             return;
         }
         try {
             if (server != null) {
                 stopServer();
             }
-            this.server = new NettyTransportServer(newPort);
+            this.server = new NettyTransportServer(newPort, newExecutionMode);
             this.port = newPort;
+            this.executionMode = newExecutionMode;
             startServerIfScheduled();
         } catch (Exception ex) {
             RecordLog.warn("[SentinelDefaultTokenServer] Failed to apply modification to token server", ex);
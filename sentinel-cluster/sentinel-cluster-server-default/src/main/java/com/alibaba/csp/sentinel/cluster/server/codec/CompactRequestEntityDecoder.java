@@ -0,0 +1,90 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.RequestDataDecodeRegistry;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Entity decoder of the compact codec ({@link ClusterConstants#CODEC_VERSION_V2}) for any {@link ClusterRequest}.</p>
+ *
+ * <p>Decode format:</p>
+ * <pre>
+ * +----------+-------------+---------+---------+
+ * | magic(1) | xid(varint) | type(1) | data... |
+ * +----------+-------------+---------+---------+
+ * </pre>
+ *
+ * <p>The data of flow requests is decoded as {@code flowId(varlong) | count(varint) | priority(1)}, while the data
+ * of other types is decoded by the decoders in {@link RequestDataDecodeRegistry}.</p>
+ *
+ * <p>If the decoder reuses the flow requests, the fields of each flow request are read into the same request
+ * instance, which is only valid until the next request is decoded. So the decoder should be confined to
+ * a channel whose requests are processed on the I/O thread.</p>
+ *
+ * @since 1.8.2
+ */
+public class CompactRequestEntityDecoder implements RequestEntityDecoder<ByteBuf, ClusterRequest> {
+
+    private final ClusterRequest<FlowRequestData> reusedFlowRequest;
+
+    public CompactRequestEntityDecoder() {
+        this(false);
+    }
+
+    /**
+     * @param reuseFlowRequests whether to read the flow requests into the same request instance
+     */
+    public CompactRequestEntityDecoder(boolean reuseFlowRequests) {
+        this.reusedFlowRequest = reuseFlowRequests
+            ? new ClusterRequest<>(0, ClusterConstants.MSG_TYPE_FLOW, new FlowRequestData()) : null;
+    }
+
+    @Override
+    public ClusterRequest decode(ByteBuf source) {
+        if (source.readableBytes() < 3 || source.readUnsignedByte() != ClusterConstants.CODEC_V2_MAGIC) {
+            return null;
+        }
+        int xid = VarIntUtil.readVarInt(source);
+        int type = source.readByte();
+
+        if (type == ClusterConstants.MSG_TYPE_FLOW && source.isReadable()) {
+            ClusterRequest<FlowRequestData> request = reusedFlowRequest != null ? reusedFlowRequest
+                : new ClusterRequest<>(0, type, new FlowRequestData());
+            request.setId(xid).getData()
+                .setFlowId(VarIntUtil.readVarLong(source))
+                .setCount(VarIntUtil.readVarInt(source))
+                .setPriority(source.readBoolean());
+            return request;
+        }
+
+        EntityDecoder<ByteBuf, ?> dataDecoder = RequestDataDecodeRegistry.getDecoder(type);
+        if (dataDecoder == null) {
+            RecordLog.warn("Unknown type of request data decoder: {}", type);
+            return null;
+        }
+        Object data = source.isReadable() ? dataDecoder.decode(source) : null;
+        return new ClusterRequest<>(xid, type, data);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.codec.response.ResponseEntityWriter;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.codec.registry.ResponseDataWriterRegistry;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>Entity writer of the compact codec ({@link ClusterConstants#CODEC_VERSION_V2}) for any {@link ClusterResponse}.</p>
+ *
+ * <p>Encode format:</p>
+ * <pre>
+ * +----------+-------------+---------+-----------+---------+
+ * | magic(1) | xid(varint) | type(1) | status(1) | data... |
+ * +----------+-------------+---------+-----------+---------+
+ * </pre>
+ *
+ * <p>The data of flow and param flow responses is encoded as
+ * {@code remainingCount(zigzag varint) | waitInMs(zigzag varint)}, while the data of other types is written
+ * by the writers in {@link ResponseDataWriterRegistry}. The data part is empty if the data is absent.</p>
+ *
+ * @since 1.8.2
+ */
+public class CompactResponseEntityWriter implements ResponseEntityWriter<ClusterResponse, ByteBuf> {
+
+    @Override
+    public void writeTo(ClusterResponse response, ByteBuf out) {
+        int type = response.getType();
+        if (type == ClusterConstants.MSG_TYPE_FLOW || type == ClusterConstants.MSG_TYPE_PARAM_FLOW) {
+            writeHead(response, out);
+            if (response.getData() != null) {
+                FlowTokenResponseData data = (FlowTokenResponseData)response.getData();
+                VarIntUtil.writeSignedVarInt(out, data.getRemainingCount());
+                VarIntUtil.writeSignedVarInt(out, data.getWaitInMs());
+            }
+            return;
+        }
+
+        EntityWriter<Object, ByteBuf> responseDataWriter = ResponseDataWriterRegistry.getWriter(type);
+        if (responseDataWriter == null) {
+            writeHead(response.setStatus(ClusterConstants.RESPONSE_STATUS_BAD), out);
+            RecordLog.warn("[CompactResponseEntityWriter] Cannot find matching writer for type <{}>", type);
+            return;
+        }
+        writeHead(response, out);
+        if (response.getData() != null) {
+            responseDataWriter.writeTo(response.getData(), out);
+        }
+    }
+
+    private void writeHead(ClusterResponse response, ByteBuf out) {
+        out.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+        VarIntUtil.writeVarInt(out, response.getId());
+        out.writeByte(response.getType());
+        out.writeByte(response.getStatus());
+    }
+}
@@ -42,7 +42,10 @@ public class DefaultResponseEntityWriter implements ResponseEntityWriter<Cluster
             return;
         }
         writeHead(response, out);
-        responseDataWriter.writeTo(response.getData(), out);
+        // The data is absent if the request is rejected before being processed.
+        if (response.getData() != null) {
+            responseDataWriter.writeTo(response.getData(), out);
+        }
     }
 
     private void writeHead(Response response, ByteBuf out) {
@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Decoder for {@link BatchFlowRequestData} from {@code ByteBuf} stream. The layout:
+ * </p>
+ * <pre>
+ * | size (2) | flow ID (8) | count (4) | priority flag (1) | ... (size times)
+ * </pre>
+ *
+ * @since 1.8.2
+ */
+public class BatchFlowRequestDataDecoder implements EntityDecoder<ByteBuf, BatchFlowRequestData> {
+
+    private static final int ITEM_SIZE = 13;
+
+    @Override
+    public BatchFlowRequestData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (size > ClusterConstants.MAX_FLOW_BATCH_SIZE || source.readableBytes() < size * ITEM_SIZE) {
+            return null;
+        }
+        List<FlowRequestData> requests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            requests.add(new FlowRequestData()
+                .setFlowId(source.readLong())
+                .setCount(source.readInt())
+                .setPriority(source.readBoolean()));
+        }
+        return new BatchFlowRequestData().setRequests(requests);
+    }
+}
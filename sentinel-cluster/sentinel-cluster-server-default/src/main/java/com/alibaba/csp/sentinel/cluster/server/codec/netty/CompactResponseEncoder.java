@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.netty;
+
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.codec.CompactResponseEntityWriter;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+
+/**
+ * <p>Encoder of the compact codec, which replaces both the {@link NettyResponseEncoder} and the length field
+ * prepender once the codec is negotiated with the client.</p>
+ *
+ * <p>The 2-byte length field is written in place, so that each response is encoded into a single small
+ * (pooled direct by default) buffer, rather than a data buffer along with a header buffer.</p>
+ *
+ * @since 1.8.2
+ */
+public class CompactResponseEncoder extends MessageToByteEncoder<ClusterResponse> {
+
+    private static final int INITIAL_BUFFER_SIZE = 32;
+
+    private final CompactResponseEntityWriter entityWriter = new CompactResponseEntityWriter();
+
+    @Override
+    protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, ClusterResponse msg, boolean preferDirect) {
+        return preferDirect ? ctx.alloc().ioBuffer(INITIAL_BUFFER_SIZE) : ctx.alloc().heapBuffer(INITIAL_BUFFER_SIZE);
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ClusterResponse response, ByteBuf out) throws Exception {
+        int lengthIndex = out.writerIndex();
+        out.writeShort(0);
+        entityWriter.writeTo(response, out);
+        out.setShort(lengthIndex, out.writerIndex() - lengthIndex - 2);
+    }
+}
@@ -17,8 +17,10 @@ package com.alibaba.csp.sentinel.cluster.server.codec.netty;
 
 import java.util.List;
 
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.codec.request.RequestEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.request.Request;
+import com.alibaba.csp.sentinel.cluster.server.codec.CompactRequestEntityDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.ServerEntityCodecProvider;
 import com.alibaba.csp.sentinel.log.RecordLog;
 
@@ -27,13 +29,41 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 
 /**
+ * <p>Decoder of request frames. Frames of the compact codec (which lead with {@link ClusterConstants#CODEC_V2_MAGIC})
+ * are decoded by the {@link CompactRequestEntityDecoder}, while others are decoded by the global request
+ * entity decoder.</p>
+ *
  * @author Eric Zhao
  * @since 1.4.0
  */
 public class NettyRequestDecoder extends ByteToMessageDecoder {
 
+    private final CompactRequestEntityDecoder compactDecoder;
+
+    public NettyRequestDecoder() {
+        this(false);
+    }
+
+    /**
+     * @param reuseFlowRequests whether to decode the compact flow requests into the same request instance,
+     *                          which is only safe if the requests are processed on the I/O thread
+     * @since 1.8.2
+     */
+    public NettyRequestDecoder(boolean reuseFlowRequests) {
+        this.compactDecoder = new CompactRequestEntityDecoder(reuseFlowRequests);
+    }
+
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception {
+        if (in.isReadable() && in.getUnsignedByte(in.readerIndex()) == ClusterConstants.CODEC_V2_MAGIC) {
+            Request request = compactDecoder.decode(in);
+            if (request != null) {
+                out.add(request);
+            }
+            // The input is exactly a frame, so the remaining bytes (e.g. of unknown types) are dropped.
+            in.skipBytes(in.readableBytes());
+            return;
+        }
         RequestEntityDecoder<ByteBuf, Request> requestDecoder = ServerEntityCodecProvider.getRequestEntityDecoder();
         if (requestDecoder == null) {
             RecordLog.warn("[NettyRequestDecoder] Cannot resolve the global request entity decoder, "
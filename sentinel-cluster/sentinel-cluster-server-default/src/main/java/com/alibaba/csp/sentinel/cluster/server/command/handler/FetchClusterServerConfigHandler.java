@@ -55,7 +55,9 @@ public class FetchClusterServerConfigHandler implements CommandHandler<String> {
     private CommandResponse<String> globalConfigResult() {
         ServerTransportConfig transportConfig = new ServerTransportConfig()
             .setPort(ClusterServerConfigManager.getPort())
-            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds());
+            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds())
+            .setExecutionMode(ClusterServerConfigManager.getExecutionMode())
+            .setMaxQueueMs(ClusterServerConfigManager.getMaxQueueMs());
         ServerFlowConfig flowConfig = new ServerFlowConfig()
             .setExceedCount(ClusterServerConfigManager.getExceedCount())
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio())
@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
 import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionGroup;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.cluster.server.executor.RequestExecutorProvider;
 import com.alibaba.csp.sentinel.command.CommandHandler;
 import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
@@ -52,7 +53,9 @@ public class FetchClusterServerInfoCommandHandler implements CommandHandler<Stri
 
         ServerTransportConfig transportConfig = new ServerTransportConfig()
             .setPort(ClusterServerConfigManager.getPort())
-            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds());
+            .setIdleSeconds(ClusterServerConfigManager.getIdleSeconds())
+            .setExecutionMode(ClusterServerConfigManager.getExecutionMode())
+            .setMaxQueueMs(ClusterServerConfigManager.getMaxQueueMs());
         ServerFlowConfig flowConfig = new ServerFlowConfig()
             .setExceedCount(ClusterServerConfigManager.getExceedCount())
             .setMaxOccupyRatio(ClusterServerConfigManager.getMaxOccupyRatio())
@@ -83,6 +86,8 @@ public class FetchClusterServerInfoCommandHandler implements CommandHandler<Stri
                 .fluentPut("namespace", namespace)
                 .fluentPut("currentQps", GlobalRequestLimiter.getCurrentQps(namespace))
                 .fluentPut("maxAllowedQps", GlobalRequestLimiter.getMaxAllowedQps(namespace))
+                .fluentPut("queueDepth", RequestExecutorProvider.getQueueDepth(namespace))
+                .fluentPut("rejectedCount", RequestExecutorProvider.getRejectedCount(namespace))
             );
         }
         return array;
@@ -40,12 +40,20 @@ public class ModifyClusterServerTransportConfigHandler implements CommandHandler
         if (StringUtil.isBlank(idleSecondsValue)) {
             return CommandResponse.ofFailure(new IllegalArgumentException("invalid empty idleSeconds"));
         }
+        // The execution mode and max queue time are optional, which remain unchanged if absent.
+        String executionMode = request.getParam("executionMode");
+        String maxQueueMsValue = request.getParam("maxQueueMs");
         try {
             int port = Integer.valueOf(portValue);
             int idleSeconds = Integer.valueOf(idleSecondsValue);
+            int maxQueueMs = StringUtil.isBlank(maxQueueMsValue) ? ClusterServerConfigManager.getMaxQueueMs()
+                : Integer.valueOf(maxQueueMsValue);
 
             ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig()
-                .setPort(port).setIdleSeconds(idleSeconds));
+                .setPort(port).setIdleSeconds(idleSeconds)
+                .setExecutionMode(StringUtil.isBlank(executionMode) ? ClusterServerConfigManager.getExecutionMode()
+                    : executionMode)
+                .setMaxQueueMs(maxQueueMs));
             return CommandResponse.ofSuccess("success");
         } catch (NumberFormatException e) {
             return CommandResponse.ofFailure(new IllegalArgumentException("invalid parameter"));
@@ -51,6 +51,8 @@ public final class ClusterServerConfigManager {
      */
     private static volatile int port = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
     private static volatile int idleSeconds = ServerTransportConfig.DEFAULT_IDLE_SECONDS;
+    private static volatile String executionMode = ServerTransportConfig.DEFAULT_EXECUTION_MODE;
+    private static volatile int maxQueueMs = ServerTransportConfig.DEFAULT_MAX_QUEUE_MS;
     private static volatile Set<String> namespaceSet = Collections.singleton(ServerConstants.DEFAULT_NAMESPACE);
 
     /**
@@ -61,6 +63,7 @@ public final class ClusterServerConfigManager {
     private static volatile int intervalMs = ServerFlowConfig.DEFAULT_INTERVAL_MS;
     private static volatile int sampleCount = ServerFlowConfig.DEFAULT_SAMPLE_COUNT;
     private static volatile double maxAllowedQps = ServerFlowConfig.DEFAULT_MAX_ALLOWED_QPS;
+    private static volatile double maxLeaseRatio = ServerFlowConfig.DEFAULT_MAX_LEASE_RATIO;
 
     /**
      * Namespace-specific flow config for token server.
@@ -283,6 +286,9 @@ public final class ClusterServerConfigManager {
             if (config.getIdleSeconds() != idleSeconds) {
                 idleSeconds = config.getIdleSeconds();
             }
+            if (config.getMaxQueueMs() != maxQueueMs) {
+                maxQueueMs = config.getMaxQueueMs();
+            }
             updateTokenServer(config);
         }
     }
@@ -290,10 +296,11 @@ public final class ClusterServerConfigManager {
     private static void updateTokenServer(ServerTransportConfig config) {
         int newPort = config.getPort();
         AssertUtil.isTrue(newPort > 0, "token server port should be valid (positive)");
-        if (newPort == port) {
+        if (newPort == port && config.getExecutionMode().equals(executionMode)) {
             return;
         }
         ClusterServerConfigManager.port = newPort;
+        ClusterServerConfigManager.executionMode = config.getExecutionMode();
 
         for (ServerTransportConfigObserver observer : TRANSPORT_CONFIG_OBSERVERS) {
             observer.onTransportConfigChange(config);
@@ -329,6 +336,9 @@ public final class ClusterServerConfigManager {
                 maxAllowedQps = config.getMaxAllowedQps();
                 GlobalRequestLimiter.applyMaxQpsChange(maxAllowedQps);
             }
+            if (config.getMaxLeaseRatio() != maxLeaseRatio) {
+                maxLeaseRatio = config.getMaxLeaseRatio();
+            }
             int newIntervalMs = config.getIntervalMs();
             int newSampleCount = config.getSampleCount();
             if (newIntervalMs != intervalMs || newSampleCount != sampleCount) {
@@ -346,12 +356,20 @@ public final class ClusterServerConfigManager {
     }
 
     public static boolean isValidTransportConfig(ServerTransportConfig config) {
-        return config != null && config.getPort() > 0 && config.getPort() <= 65535;
+        return config != null && config.getPort() > 0 && config.getPort() <= 65535
+            && isValidExecutionMode(config.getExecutionMode()) && config.getMaxQueueMs() > 0;
+    }
+
+    private static boolean isValidExecutionMode(String mode) {
+        return ServerTransportConfig.EXECUTION_MODE_INLINE.equals(mode)
+            || ServerTransportConfig.EXECUTION_MODE_NAMESPACE.equals(mode)
+            || ServerTransportConfig.EXECUTION_MODE_FORK_JOIN.equals(mode);
     }
 
     public static boolean isValidFlowConfig(ServerFlowConfig config) {
         return config != null && config.getMaxOccupyRatio() >= 0 && config.getExceedCount() >= 0
-            && config.getMaxAllowedQps() >= 0
+            && config.getMaxAllowedQps() >= 0 && config.getMaxLeaseRatio() >= 0
+            && config.getMaxLeaseRatio() <= 1
             && FlowRuleUtil.isWindowConfigValid(config.getSampleCount(), config.getIntervalMs());
     }
 
@@ -410,6 +428,15 @@ public final class ClusterServerConfigManager {
         return maxAllowedQps;
     }
 
+    public static double getMaxLeaseRatio(String namespace) {
+        AssertUtil.notEmpty(namespace, "namespace cannot be empty");
+        ServerFlowConfig config = NAMESPACE_CONF.get(namespace);
+        if (config != null) {
+            return config.getMaxLeaseRatio();
+        }
+        return maxLeaseRatio;
+    }
+
     public static double getExceedCount() {
         return exceedCount;
     }
@@ -418,6 +445,10 @@ public final class ClusterServerConfigManager {
         return maxOccupyRatio;
     }
 
+    public static double getMaxLeaseRatio() {
+        return maxLeaseRatio;
+    }
+
     public static Set<String> getNamespaceSet() {
         return namespaceSet;
     }
@@ -430,6 +461,14 @@ public final class ClusterServerConfigManager {
         return idleSeconds;
     }
 
+    public static String getExecutionMode() {
+        return executionMode;
+    }
+
+    public static int getMaxQueueMs() {
+        return maxQueueMs;
+    }
+
     public static int getIntervalMs() {
         return intervalMs;
     }
@@ -25,8 +25,35 @@ public class ServerTransportConfig {
 
     public static final int DEFAULT_IDLE_SECONDS = 600;
 
+    /**
+     * Process the requests on the Netty I/O threads directly.
+     */
+    public static final String EXECUTION_MODE_INLINE = "inline";
+    /**
+     * Process the requests on a dedicated executor of each namespace.
+     */
+    public static final String EXECUTION_MODE_NAMESPACE = "namespace";
+    /**
+     * Process the requests on a shared work-stealing {@link java.util.concurrent.ForkJoinPool}.
+     */
+    public static final String EXECUTION_MODE_FORK_JOIN = "forkjoin";
+
+    public static final String DEFAULT_EXECUTION_MODE = EXECUTION_MODE_INLINE;
+    public static final int DEFAULT_MAX_QUEUE_MS = 100;
+
     private int port;
     private int idleSeconds;
+    /**
+     * @since 1.8.2
+     */
+    private String executionMode = DEFAULT_EXECUTION_MODE;
+    /**
+     * The max pending requests of each namespace when not processed inline, which is measured in the time to
+     * process them at the max allowed QPS of the namespace.
+     *
+     * @since 1.8.2
+     */
+    private int maxQueueMs = DEFAULT_MAX_QUEUE_MS;
 
     public ServerTransportConfig() {
         this(ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT, DEFAULT_IDLE_SECONDS);
@@ -55,11 +82,31 @@ public class ServerTransportConfig {
         return this;
     }
 
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    public ServerTransportConfig setExecutionMode(String executionMode) {
+        this.executionMode = executionMode;
+        return this;
+    }
+
+    public int getMaxQueueMs() {
+        return maxQueueMs;
+    }
+
+    public ServerTransportConfig setMaxQueueMs(int maxQueueMs) {
+        this.maxQueueMs = maxQueueMs;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ServerTransportConfig{" +
             "port=" + port +
             ", idleSeconds=" + idleSeconds +
+            ", executionMode='" + executionMode + '\'' +
+            ", maxQueueMs=" + maxQueueMs +
             '}';
     }
 }
@@ -0,0 +1,150 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.limit.GlobalRequestLimiter;
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
+
+/**
+ * <p>The base {@link RequestExecutor} with per-namespace admission control. The pending requests of each
+ * namespace are bounded by the amount it could process within the max queue time
+ * (see {@link ClusterServerConfigManager#getMaxQueueMs()}) at its max allowed QPS of the
+ * {@link GlobalRequestLimiter}, so that one noisy namespace cannot occupy the executor and starve others.
+ * The requests exceeding the bound would be rejected by the limiter anyway, so they're rejected early
+ * rather than being queued.</p>
+ *
+ * <p>The requests of the namespaces out of the server namespace set
+ * (see {@link ClusterServerConfigManager#getNamespaceSet()}) are accounted to the default namespace,
+ * so that clients cannot make the executor keep state for arbitrary namespaces.</p>
+ *
+ * @since 1.8.2
+ */
+public abstract class AbstractRequestExecutor implements RequestExecutor {
+
+    /**
+     * The min queue depth of each namespace, which tolerates bursts when the max allowed QPS is low.
+     */
+    static final int MIN_QUEUE_DEPTH = 16;
+
+    private final ConcurrentMap<String, QueueStat> queueStats = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean execute(String namespace, final Runnable task) {
+        namespace = resolveNamespace(namespace);
+        final QueueStat stat = getOrCreateStat(namespace);
+        if (!stat.tryEnter(maxQueueDepth(namespace))) {
+            stat.rejected.incrementAndGet();
+            ClusterServerStatLogUtil.log("queue|reject|" + namespace);
+            return false;
+        }
+        try {
+            doExecute(namespace, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        stat.pending.decrementAndGet();
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException ex) {
+            // The executor is shutting down.
+            stat.pending.decrementAndGet();
+            stat.rejected.incrementAndGet();
+            return false;
+        }
+    }
+
+    /**
+     * Run the task asynchronously.
+     *
+     * @throws RejectedExecutionException if the task cannot be accepted
+     */
+    protected abstract void doExecute(String namespace, Runnable task);
+
+    /**
+     * Resolve the namespace which the request is accounted to.
+     *
+     * @param namespace namespace of the request
+     * @return the namespace if it's served by the server, otherwise the default namespace
+     */
+    static String resolveNamespace(String namespace) {
+        if (namespace != null && ClusterServerConfigManager.getNamespaceSet().contains(namespace)) {
+            return namespace;
+        }
+        return ServerConstants.DEFAULT_NAMESPACE;
+    }
+
+    static int maxQueueDepth(String namespace) {
+        double maxAllowedQps = GlobalRequestLimiter.getMaxAllowedQps(namespace);
+        if (maxAllowedQps <= 0) {
+            // The limiter is absent (e.g. the namespace is not served), fall back to the global one.
+            maxAllowedQps = ClusterServerConfigManager.getMaxAllowedQps();
+        }
+        double depth = maxAllowedQps * ClusterServerConfigManager.getMaxQueueMs() / 1000;
+        return depth >= Integer.MAX_VALUE ? Integer.MAX_VALUE : Math.max(MIN_QUEUE_DEPTH, (int)depth);
+    }
+
+    private QueueStat getOrCreateStat(String namespace) {
+        QueueStat stat = queueStats.get(namespace);
+        if (stat == null) {
+            QueueStat newStat = new QueueStat();
+            stat = queueStats.putIfAbsent(namespace, newStat);
+            if (stat == null) {
+                stat = newStat;
+            }
+        }
+        return stat;
+    }
+
+    @Override
+    public int getQueueDepth(String namespace) {
+        QueueStat stat = queueStats.get(resolveNamespace(namespace));
+        return stat == null ? 0 : stat.pending.get();
+    }
+
+    @Override
+    public long getRejectedCount(String namespace) {
+        QueueStat stat = queueStats.get(resolveNamespace(namespace));
+        return stat == null ? 0 : stat.rejected.get();
+    }
+
+    private static final class QueueStat {
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong rejected = new AtomicLong();
+
+        boolean tryEnter(int maxDepth) {
+            int current;
+            do {
+                current = pending.get();
+                if (current >= maxDepth) {
+                    return false;
+                }
+            } while (!pending.compareAndSet(current, current + 1));
+            return true;
+        }
+    }
+}
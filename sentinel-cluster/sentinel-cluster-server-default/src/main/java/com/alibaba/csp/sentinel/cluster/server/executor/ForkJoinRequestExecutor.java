@@ -0,0 +1,60 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * A {@link RequestExecutor} processing the requests of all namespaces on a shared work-stealing
+ * {@link ForkJoinPool}, so that idle workers take over the requests queued by busy event loops.
+ * The share of each namespace is bounded by the admission control of {@link AbstractRequestExecutor}.
+ *
+ * @since 1.8.2
+ */
+public class ForkJoinRequestExecutor extends AbstractRequestExecutor {
+
+    private final ForkJoinPool pool;
+
+    public ForkJoinRequestExecutor(int parallelism) {
+        AssertUtil.isTrue(parallelism > 0, "parallelism should be positive");
+        // The requests are independent tasks, so the FIFO (async) mode is used.
+        this.pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+            @Override
+            public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("sentinel-cluster-server-fork-join-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, null, true);
+    }
+
+    @Override
+    protected void doExecute(String namespace, Runnable task) {
+        pool.execute(task);
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * A {@link RequestExecutor} with a dedicated thread pool for each namespace, which isolates the namespaces
+ * completely. The pools are created on the first request of the namespace, and only the namespaces
+ * in the server namespace set have their own pools (others share the pool of the default namespace).
+ * Idle threads are released after {@link #KEEP_ALIVE_MS}. The queue of each pool is bounded
+ * by the admission control of {@link AbstractRequestExecutor}.
+ *
+ * @since 1.8.2
+ */
+public class NamespaceRequestExecutor extends AbstractRequestExecutor {
+
+    static final long KEEP_ALIVE_MS = 60 * 1000;
+
+    private final int threadsPerNamespace;
+    private final ConcurrentMap<String, ExecutorService> executors = new ConcurrentHashMap<>();
+    private volatile boolean shutdown = false;
+
+    public NamespaceRequestExecutor(int threadsPerNamespace) {
+        AssertUtil.isTrue(threadsPerNamespace > 0, "threadsPerNamespace should be positive");
+        this.threadsPerNamespace = threadsPerNamespace;
+    }
+
+    @Override
+    protected void doExecute(String namespace, Runnable task) {
+        getOrCreateExecutor(namespace).execute(task);
+    }
+
+    private ExecutorService getOrCreateExecutor(String namespace) {
+        ExecutorService executor = executors.get(namespace);
+        if (executor != null) {
+            return executor;
+        }
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Request executor has been shut down");
+            }
+            executor = executors.get(namespace);
+            if (executor == null) {
+                ThreadPoolExecutor pool = new ThreadPoolExecutor(threadsPerNamespace, threadsPerNamespace,
+                    KEEP_ALIVE_MS, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(),
+                    new NamedThreadFactory("sentinel-cluster-server-executor-" + namespace, true));
+                pool.allowCoreThreadTimeOut(true);
+                executor = pool;
+                executors.put(namespace, executor);
+            }
+            return executor;
+        }
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+        for (ExecutorService executor : executors.values()) {
+            executor.shutdown();
+        }
+        executors.clear();
+    }
+}
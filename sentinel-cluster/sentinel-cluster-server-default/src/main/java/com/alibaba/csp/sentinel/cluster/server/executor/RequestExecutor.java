@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+/**
+ * Executor of the token server requests, which processes the requests off the Netty I/O threads
+ * so that a hot namespace cannot pin an event loop.
+ *
+ * @since 1.8.2
+ */
+public interface RequestExecutor {
+
+    /**
+     * Submit the request processing task of given namespace.
+     *
+     * @param namespace namespace of the client
+     * @param task      the request processing task
+     * @return true if the task is admitted, or false if it's rejected (e.g. too many pending requests
+     * of the namespace), then the caller should reply the request immediately
+     */
+    boolean execute(String namespace, Runnable task);
+
+    /**
+     * @param namespace namespace of the client
+     * @return amount of the admitted but not yet finished requests of the namespace
+     */
+    int getQueueDepth(String namespace);
+
+    /**
+     * @param namespace namespace of the client
+     * @return amount of the rejected requests of the namespace
+     */
+    long getRejectedCount(String namespace);
+
+    void shutdown();
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * Provider of the {@link RequestExecutor} of the running token server.
+ *
+ * @since 1.8.2
+ */
+public final class RequestExecutorProvider {
+
+    private static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static volatile RequestExecutor executor = null;
+
+    /**
+     * Create the request executor of given execution mode (see {@link ServerTransportConfig}).
+     *
+     * @return the request executor, or null if the requests should be processed inline
+     */
+    public static RequestExecutor createExecutor(String executionMode) {
+        if (ServerTransportConfig.EXECUTION_MODE_NAMESPACE.equals(executionMode)) {
+            return new NamespaceRequestExecutor(DEFAULT_THREADS);
+        }
+        if (ServerTransportConfig.EXECUTION_MODE_FORK_JOIN.equals(executionMode)) {
+            return new ForkJoinRequestExecutor(DEFAULT_THREADS);
+        }
+        if (!ServerTransportConfig.EXECUTION_MODE_INLINE.equals(executionMode)) {
+            RecordLog.warn("[RequestExecutorProvider] Unknown execution mode <{}>, processing requests inline",
+                executionMode);
+        }
+        return null;
+    }
+
+    /**
+     * @return the request executor of the running token server, or null if the requests are processed inline
+     */
+    public static RequestExecutor getExecutor() {
+        return executor;
+    }
+
+    public static void setExecutor(RequestExecutor executor) {
+        RequestExecutorProvider.executor = executor;
+    }
+
+    public static int getQueueDepth(String namespace) {
+        RequestExecutor executor = RequestExecutorProvider.executor;
+        return executor == null ? 0 : executor.getQueueDepth(namespace);
+    }
+
+    public static long getRejectedCount(String namespace) {
+        RequestExecutor executor = RequestExecutorProvider.executor;
+        return executor == null ? 0 : executor.getRejectedCount(namespace);
+    }
+
+    private RequestExecutorProvider() {}
+}
@@ -18,10 +18,15 @@ package com.alibaba.csp.sentinel.cluster.server.handler;
 import java.net.InetSocketAddress;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.CompactResponseEncoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.netty.NettyResponseEncoder;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.executor.RequestExecutor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -29,6 +34,9 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPipeline;
+import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.AttributeKey;
 
 /**
  * Netty server handler for Sentinel token server.
@@ -38,10 +46,26 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
  */
 public class TokenServerHandler extends ChannelInboundHandlerAdapter {
 
+    private static final AttributeKey<String> NAMESPACE_KEY = AttributeKey.valueOf("sentinel.cluster.namespace");
+
     private final ConnectionPool globalConnectionPool;
+    /**
+     * The executor to process the requests, or null if processing on the I/O thread.
+     */
+    private final RequestExecutor requestExecutor;
 
     public TokenServerHandler(ConnectionPool globalConnectionPool) {
+        this(globalConnectionPool, null);
+    }
+
+    /**
+     * @param globalConnectionPool the connection pool
+     * @param requestExecutor      the executor to process the requests, or null if processing on the I/O thread
+     * @since 1.8.2
+     */
+    public TokenServerHandler(ConnectionPool globalConnectionPool, RequestExecutor requestExecutor) {
         this.globalConnectionPool = globalConnectionPool;
+        this.requestExecutor = requestExecutor;
     }
 
     @Override
@@ -68,19 +92,53 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
                 handlePingRequest(ctx, request);
                 return;
             }
+            if (request.getType() == ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE) {
+                handleCodecNegotiateRequest(ctx, request);
+                return;
+            }
 
             // Pick request processor for request type.
             RequestProcessor<?, ?> processor = RequestProcessorProvider.getProcessor(request.getType());
             if (processor == null) {
                 RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
                 writeBadResponse(ctx, request);
-            } else {
+            } else if (requestExecutor == null) {
                 ClusterResponse<?> response = processor.processRequest(request);
                 writeResponse(ctx, response);
+            } else {
+                processAsync(ctx, request, processor);
             }
         }
     }
 
+    private void processAsync(final ChannelHandlerContext ctx, final ClusterRequest request,
+                              final RequestProcessor<?, ?> processor) {
+        String namespace = ctx.channel().attr(NAMESPACE_KEY).get();
+        boolean admitted = requestExecutor.execute(namespace == null ? ServerConstants.DEFAULT_NAMESPACE : namespace,
+            new Runnable() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public void run() {
+                    ClusterResponse<?> response;
+                    try {
+                        response = processor.processRequest(request);
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[TokenServerHandler] Failed to process request: " + request, ex);
+                        response = new ClusterResponse<>(request.getId(), request.getType(),
+                            ClusterConstants.RESPONSE_STATUS_BAD, null);
+                    }
+                    // The response is written on the event loop of the channel by Netty.
+                    writeResponse(ctx, response);
+                }
+            });
+        if (!admitted) {
+            // Too many pending requests of the namespace, reply without the data so that the client
+            // takes it as a token result of the status.
+            writeResponse(ctx, new ClusterResponse<>(request.getId(), request.getType(),
+                TokenResultStatus.TOO_MANY_REQUEST, null));
+        }
+    }
+
     private void writeBadResponse(ChannelHandlerContext ctx, ClusterRequest request) {
         ClusterResponse<?> response = new ClusterResponse<>(request.getId(), request.getType(),
             ClusterConstants.RESPONSE_STATUS_BAD, null);
@@ -98,6 +156,7 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         }
         String namespace = (String)request.getData();
         String clientAddress = getRemoteAddress(ctx);
+        ctx.channel().attr(NAMESPACE_KEY).set(namespace);
         // Add the remote namespace to connection manager.
         int curCount = ConnectionManager.addConnection(namespace, clientAddress).getConnectedCount();
         int status = ClusterConstants.RESPONSE_STATUS_OK;
@@ -105,6 +164,24 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
         writeResponse(ctx, response);
     }
 
+    private void handleCodecNegotiateRequest(ChannelHandlerContext ctx, ClusterRequest request) {
+        ChannelPipeline pipeline = ctx.pipeline();
+        boolean switchable = pipeline.get(NettyResponseEncoder.class) != null
+            && pipeline.get(LengthFieldPrepender.class) != null;
+        int version = switchable || pipeline.get(CompactResponseEncoder.class) != null
+            ? ClusterConstants.CODEC_VERSION_V2 : ClusterConstants.CODEC_VERSION_V1;
+        ClusterResponse<Integer> response = new ClusterResponse<>(request.getId(), request.getType(),
+            ClusterConstants.RESPONSE_STATUS_OK, version);
+        // The reply is encoded synchronously on the I/O thread, so it's always in the original codec.
+        writeResponse(ctx, response);
+        if (switchable) {
+            // Responses are in the compact codec from now on. Requests of both codecs are accepted,
+            // as the client switches after receiving the reply.
+            pipeline.remove(LengthFieldPrepender.class);
+            pipeline.replace(NettyResponseEncoder.class, "compactResponseEncoder", new CompactResponseEncoder());
+        }
+    }
+
     private String getRemoteAddress(ChannelHandlerContext ctx) {
         if (ctx.channel().remoteAddress() == null) {
             return null;
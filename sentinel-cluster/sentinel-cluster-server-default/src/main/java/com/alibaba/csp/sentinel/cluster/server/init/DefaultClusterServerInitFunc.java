@@ -17,6 +17,10 @@ package com.alibaba.csp.sentinel.cluster.server.init;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchFlowRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.BatchFlowResponseDataWriter;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowLeaseRequestDataDecoder;
+import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowLeaseResponseDataWriter;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowRequestDataDecoder;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.FlowResponseDataWriter;
 import com.alibaba.csp.sentinel.cluster.server.codec.data.ParamFlowRequestDataDecoder;
@@ -51,12 +55,20 @@ public class DefaultClusterServerInitFunc implements InitFunc {
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_PING, new PingResponseDataWriter());
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW, new FlowResponseDataWriter());
         ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_PARAM_FLOW, new FlowResponseDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW_BATCH, new BatchFlowResponseDataWriter());
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowLeaseResponseDataWriter());
+        // Data of the negotiation response: the chosen codec version (int).
+        ResponseDataWriterRegistry.addWriter(ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE, new PingResponseDataWriter());
     }
 
     private void initDefaultEntityDecoders() {
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_PING, new PingRequestDataDecoder());
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestDataDecoder());
         RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_PARAM_FLOW, new ParamFlowRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW_BATCH, new BatchFlowRequestDataDecoder());
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_FLOW_LEASE, new FlowLeaseRequestDataDecoder());
+        // The negotiation request carries no data.
+        RequestDataDecodeRegistry.addDecoder(ClusterConstants.MSG_TYPE_CODEC_NEGOTIATE, new PingRequestDataDecoder());
     }
 
     private void initDefaultProcessors() {
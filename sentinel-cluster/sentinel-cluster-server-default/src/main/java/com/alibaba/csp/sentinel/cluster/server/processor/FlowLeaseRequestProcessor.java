@@ -0,0 +1,64 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.flow.DefaultTokenService;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowLeaseResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor of flow lease requests. If the token service does not support leases,
+ * only the count acquired by current request is granted (without a lease time).
+ *
+ * @since 1.8.2
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_LEASE)
+public class FlowLeaseRequestProcessor implements RequestProcessor<FlowLeaseRequestData, FlowLeaseResponseData> {
+
+    @Override
+    public ClusterResponse<FlowLeaseResponseData> processRequest(ClusterRequest<FlowLeaseRequestData> request) {
+        TokenService tokenService = TokenServiceProvider.getService();
+        FlowLeaseRequestData data = request.getData();
+
+        TokenResult result;
+        if (tokenService instanceof DefaultTokenService) {
+            result = ((DefaultTokenService)tokenService).requestTokenLease(data.getFlowId(), data.getAcquireCount(),
+                data.getLeaseCount(), data.getLeaseMs(), data.getReturnedCount());
+        } else {
+            result = tokenService.requestToken(data.getFlowId(), data.getAcquireCount(), false);
+            if (result.getStatus() == TokenResultStatus.OK) {
+                result.setRemaining(data.getAcquireCount()).setWaitInMs(0);
+            }
+        }
+        return toResponse(result, request);
+    }
+
+    private ClusterResponse<FlowLeaseResponseData> toResponse(TokenResult result, ClusterRequest request) {
+        FlowLeaseResponseData data = new FlowLeaseResponseData();
+        if (result.getStatus() == TokenResultStatus.OK) {
+            data.setGrantedCount(result.getRemaining()).setLeaseMs(result.getWaitInMs());
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), result.getStatus(), data);
+    }
+}
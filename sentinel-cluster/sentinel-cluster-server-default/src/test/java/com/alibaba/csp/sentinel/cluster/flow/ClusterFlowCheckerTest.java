@@ -15,12 +15,18 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -32,7 +38,7 @@ import static com.alibaba.csp.sentinel.cluster.ClusterFlowTestUtil.*;
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class ClusterFlowCheckerTest {
+public class ClusterFlowCheckerTest extends AbstractTimeBasedTest {
 
     //@Test
     public void testAcquireClusterTokenOccupyPass() {
@@ -72,6 +78,43 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAcquireClusterTokenLease() {
+        setCurrentMillis(System.currentTimeMillis());
+        String namespace = "cluster-flow-lease-test";
+        long flowId = 98766L;
+        FlowRule clusterRule = new FlowRule("lease-test")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(flowId);
+
+        try {
+            // Each lease is no more than 10% (by default) of the threshold, and lasts no longer than a bucket.
+            TokenResult result = ClusterFlowChecker.acquireClusterTokenLease(rule, 1, 50, 50, 0);
+            assertEquals(TokenResultStatus.OK, (int) result.getStatus());
+            assertEquals(10, result.getRemaining());
+            assertEquals(50, result.getWaitInMs());
+            result = ClusterFlowChecker.acquireClusterTokenLease(rule, 1, 5, 500, 0);
+            assertEquals(5, result.getRemaining());
+            assertEquals(100, result.getWaitInMs());
+            // Unused tokens of previous lease are reclaimed.
+            result = ClusterFlowChecker.acquireClusterTokenLease(rule, 1, 1, 50, 5);
+            assertEquals(1, result.getRemaining());
+            assertEquals(11, ClusterMetricStatistics.getMetric(flowId).getSum(ClusterFlowEvent.PASS));
+            // The acquired count is granted even if it's more than the lease bound.
+            result = ClusterFlowChecker.acquireClusterTokenLease(rule, 89, 89, 50, 0);
+            assertEquals(89, result.getRemaining());
+            assertResultBlock(ClusterFlowChecker.acquireClusterTokenLease(rule, 1, 10, 50, 0));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, Collections.<FlowRule>emptyList());
+        }
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenExpireWheelTest {
+
+    @Test
+    public void testExpireAtDeadline() {
+        final List<Long> expired = new ArrayList<>();
+        TokenExpireWheel wheel = new TokenExpireWheel(10, 0) {
+            @Override
+            long expire(TokenCacheNode node, long now) {
+                assertTrue(now >= node.deadline);
+                expired.add(node.getTokenId());
+                return EXPIRED;
+            }
+        };
+        // Cover every level of the wheel, including the deadline beyond its span (10ms * 64^4).
+        long[] deadlines = {5, 15, 640, 700, 41000, 3000000, 200000000};
+        for (int i = 0; i < deadlines.length; i++) {
+            wheel.add(newNode(i, deadlines[i]));
+        }
+        long now = 0;
+        int lastExpired = 0;
+        while (expired.size() < deadlines.length) {
+            now += 10;
+            wheel.advance(now);
+            if (expired.size() > lastExpired) {
+                lastExpired = expired.size();
+                // Expired within the tick after the deadline.
+                assertTrue(now - deadlines[lastExpired - 1] < 10);
+            }
+        }
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(i, (long)expired.get(i));
+        }
+        assertEquals(0, wheel.scheduledCount());
+    }
+
+    @Test
+    public void testCancelAndReschedule() {
+        final List<Long> expired = new ArrayList<>();
+        TokenExpireWheel wheel = new TokenExpireWheel(10, 0) {
+            @Override
+            long expire(TokenCacheNode node, long now) {
+                expired.add(node.getTokenId());
+                // Check the token once more before removing it.
+                return expired.size() == 1 ? now + 100 : EXPIRED;
+            }
+        };
+        TokenCacheNode cancelled = newNode(1, 50);
+        TokenCacheNode rescheduled = newNode(2, 50);
+        wheel.add(cancelled);
+        wheel.add(rescheduled);
+        wheel.advance(20);
+        assertEquals(2, wheel.scheduledCount());
+
+        wheel.cancel(cancelled);
+        wheel.advance(50);
+        assertEquals(1, expired.size());
+        assertEquals(1, wheel.scheduledCount());
+        wheel.advance(140);
+        assertEquals(1, expired.size());
+        wheel.advance(150);
+        assertEquals(2, expired.size());
+        assertEquals(2L, (long)expired.get(1));
+        assertEquals(0, wheel.scheduledCount());
+    }
+
+    private TokenCacheNode newNode(long tokenId, long deadline) {
+        TokenCacheNode node = new TokenCacheNode();
+        node.setTokenId(tokenId);
+        node.deadline = deadline;
+        return node;
+    }
+}
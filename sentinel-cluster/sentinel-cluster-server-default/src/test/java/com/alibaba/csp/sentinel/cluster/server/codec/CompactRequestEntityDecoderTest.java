@@ -0,0 +1,105 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.VarIntUtil;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CompactRequestEntityDecoderTest {
+
+    @Test
+    public void testDecodeFlowRequest() {
+        CompactRequestEntityDecoder decoder = new CompactRequestEntityDecoder();
+        ClusterRequest first = decoder.decode(newFlowRequestFrame(1, 10L, 1, false));
+        ClusterRequest second = decoder.decode(newFlowRequestFrame(200, -1L, 300, true));
+
+        assertNotSame(first, second);
+        assertEquals(1, first.getId());
+        assertEquals(10L, ((FlowRequestData)first.getData()).getFlowId());
+        assertEquals(200, second.getId());
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, second.getType());
+        FlowRequestData data = (FlowRequestData)second.getData();
+        assertEquals(-1L, data.getFlowId());
+        assertEquals(300, data.getCount());
+        assertTrue(data.isPriority());
+    }
+
+    @Test
+    public void testReuseFlowRequest() {
+        CompactRequestEntityDecoder decoder = new CompactRequestEntityDecoder(true);
+        ClusterRequest first = decoder.decode(newFlowRequestFrame(1, 10L, 1, true));
+        assertEquals(10L, ((FlowRequestData)first.getData()).getFlowId());
+        ClusterRequest second = decoder.decode(newFlowRequestFrame(2, 20L, 3, false));
+
+        assertSame(first, second);
+        assertEquals(2, second.getId());
+        FlowRequestData data = (FlowRequestData)second.getData();
+        assertEquals(20L, data.getFlowId());
+        assertEquals(3, data.getCount());
+        assertFalse(data.isPriority());
+    }
+
+    @Test
+    public void testDecodeNonCompactFrame() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(1);
+        buf.writeByte(ClusterConstants.MSG_TYPE_FLOW);
+        assertNull(new CompactRequestEntityDecoder().decode(buf));
+    }
+
+    @Test
+    public void testWriteFlowResponse() {
+        ByteBuf buf = Unpooled.buffer();
+        FlowTokenResponseData data = new FlowTokenResponseData().setRemainingCount(-2).setWaitInMs(0);
+        new CompactResponseEntityWriter().writeTo(new ClusterResponse<>(3, ClusterConstants.MSG_TYPE_FLOW,
+            ClusterConstants.RESPONSE_STATUS_OK, data), buf);
+
+        // 14 bytes in the original codec.
+        assertEquals(6, buf.readableBytes());
+        assertEquals(ClusterConstants.CODEC_V2_MAGIC, buf.readUnsignedByte());
+        assertEquals(3, VarIntUtil.readVarInt(buf));
+        assertEquals(ClusterConstants.MSG_TYPE_FLOW, buf.readByte());
+        assertEquals(ClusterConstants.RESPONSE_STATUS_OK, buf.readByte());
+        assertEquals(-2, VarIntUtil.readSignedVarInt(buf));
+        assertEquals(0, VarIntUtil.readSignedVarInt(buf));
+    }
+
+    private static ByteBuf newFlowRequestFrame(int xid, long flowId, int count, boolean priority) {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeByte(ClusterConstants.CODEC_V2_MAGIC);
+        VarIntUtil.writeVarInt(buf, xid);
+        buf.writeByte(ClusterConstants.MSG_TYPE_FLOW);
+        VarIntUtil.writeVarLong(buf, flowId);
+        VarIntUtil.writeVarInt(buf, count);
+        buf.writeBoolean(priority);
+        return buf;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link BatchFlowRequestDataDecoder}.
+ */
+public class BatchFlowRequestDataDecoderTest {
+
+    @Test
+    public void testDecodeBatch() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeLong(11L).writeInt(3).writeBoolean(false);
+        buf.writeLong(12L).writeInt(1).writeBoolean(true);
+
+        BatchFlowRequestData data = new BatchFlowRequestDataDecoder().decode(buf);
+        assertThat(data.getRequests()).hasSize(2);
+        FlowRequestData second = data.getRequests().get(1);
+        assertThat(second.getFlowId()).isEqualTo(12L);
+        assertThat(second.getCount()).isEqualTo(1);
+        assertThat(second.isPriority()).isTrue();
+        assertThat(buf.readableBytes()).isZero();
+        buf.release();
+    }
+
+    @Test
+    public void testDecodeTruncatedBatch() {
+        ByteBuf buf = Unpooled.buffer();
+        buf.writeShort(2);
+        buf.writeLong(11L).writeInt(3).writeBoolean(false);
+
+        assertThat(new BatchFlowRequestDataDecoder().decode(buf)).isNull();
+        buf.release();
+    }
+}
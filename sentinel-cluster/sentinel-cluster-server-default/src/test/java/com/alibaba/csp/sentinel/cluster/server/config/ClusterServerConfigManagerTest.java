@@ -13,10 +13,17 @@ public class ClusterServerConfigManagerTest {
     public void testIsValidTransportConfig() {
         ServerTransportConfig badConfig1 = new ServerTransportConfig().setPort(-1);
         ServerTransportConfig badConfig2 = new ServerTransportConfig().setPort(886622);
+        ServerTransportConfig badConfig3 = new ServerTransportConfig().setPort(23456).setExecutionMode("unknown");
+        ServerTransportConfig badConfig4 = new ServerTransportConfig().setPort(23456).setMaxQueueMs(0);
         ServerTransportConfig goodConfig1 = new ServerTransportConfig().setPort(23456);
+        ServerTransportConfig goodConfig2 = new ServerTransportConfig().setPort(23456)
+            .setExecutionMode(ServerTransportConfig.EXECUTION_MODE_FORK_JOIN);
         assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig1));
         assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig2));
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig3));
+        assertFalse(ClusterServerConfigManager.isValidTransportConfig(badConfig4));
         assertTrue(ClusterServerConfigManager.isValidTransportConfig(goodConfig1));
+        assertTrue(ClusterServerConfigManager.isValidTransportConfig(goodConfig2));
     }
 
     @Test
@@ -24,8 +31,10 @@ public class ClusterServerConfigManagerTest {
         ServerFlowConfig badConfig1 = new ServerFlowConfig().setMaxAllowedQps(-2);
         ServerFlowConfig badConfig2 = new ServerFlowConfig().setIntervalMs(1000).setSampleCount(3);
         ServerFlowConfig badConfig3 = new ServerFlowConfig().setIntervalMs(1000).setSampleCount(0);
+        ServerFlowConfig badConfig4 = new ServerFlowConfig().setMaxLeaseRatio(1.5);
         assertFalse(ClusterServerConfigManager.isValidFlowConfig(badConfig1));
         assertFalse(ClusterServerConfigManager.isValidFlowConfig(badConfig2));
         assertFalse(ClusterServerConfigManager.isValidFlowConfig(badConfig3));
+        assertFalse(ClusterServerConfigManager.isValidFlowConfig(badConfig4));
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.executor;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RequestExecutorTest {
+
+    private static final String NOISY_NAMESPACE = "request-executor-noisy";
+    private static final String QUIET_NAMESPACE = "request-executor-quiet";
+    private static final String UNKNOWN_NAMESPACE = "request-executor-unknown";
+
+    @Before
+    public void setUp() {
+        // At the default max allowed QPS (30000), 1ms allows 30 pending requests for each namespace.
+        loadMaxQueueMs(1);
+        ClusterServerConfigManager.loadServerNamespaceSet(
+            new HashSet<>(Arrays.asList(NOISY_NAMESPACE, QUIET_NAMESPACE)));
+    }
+
+    @After
+    public void tearDown() {
+        loadMaxQueueMs(ServerTransportConfig.DEFAULT_MAX_QUEUE_MS);
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(ServerConstants.DEFAULT_NAMESPACE));
+    }
+
+    private static void loadMaxQueueMs(int maxQueueMs) {
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig()
+            .setPort(ClusterServerConfigManager.getPort()).setMaxQueueMs(maxQueueMs));
+    }
+
+    @Test
+    public void testNamespaceAdmissionControl() throws Exception {
+        int maxDepth = AbstractRequestExecutor.maxQueueDepth(NOISY_NAMESPACE);
+        assertEquals(30, maxDepth);
+
+        RequestExecutor executor = new NamespaceRequestExecutor(1);
+        try {
+            final CountDownLatch blocker = new CountDownLatch(1);
+            Runnable blockingTask = new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+            for (int i = 0; i < maxDepth; i++) {
+                assertTrue(executor.execute(NOISY_NAMESPACE, blockingTask));
+            }
+            assertFalse(executor.execute(NOISY_NAMESPACE, blockingTask));
+            assertEquals(maxDepth, executor.getQueueDepth(NOISY_NAMESPACE));
+            assertEquals(1, executor.getRejectedCount(NOISY_NAMESPACE));
+
+            // The other namespace is neither rejected nor blocked by the noisy one.
+            final CountDownLatch quietDone = new CountDownLatch(1);
+            assertTrue(executor.execute(QUIET_NAMESPACE, new Runnable() {
+                @Override
+                public void run() {
+                    quietDone.countDown();
+                }
+            }));
+            assertTrue(quietDone.await(5, TimeUnit.SECONDS));
+
+            blocker.countDown();
+            for (int i = 0; i < 500 && executor.getQueueDepth(NOISY_NAMESPACE) > 0; i++) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, executor.getQueueDepth(NOISY_NAMESPACE));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testUnknownNamespaceAccountedToDefault() throws Exception {
+        assertSame(NOISY_NAMESPACE, AbstractRequestExecutor.resolveNamespace(NOISY_NAMESPACE));
+        assertEquals(ServerConstants.DEFAULT_NAMESPACE, AbstractRequestExecutor.resolveNamespace(UNKNOWN_NAMESPACE));
+        assertEquals(ServerConstants.DEFAULT_NAMESPACE, AbstractRequestExecutor.resolveNamespace(null));
+
+        RequestExecutor executor = new NamespaceRequestExecutor(1);
+        try {
+            final CountDownLatch blocker = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+            assertTrue(executor.execute(UNKNOWN_NAMESPACE, new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        blocker.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                }
+            }));
+            assertEquals(1, executor.getQueueDepth(ServerConstants.DEFAULT_NAMESPACE));
+            assertEquals(0, executor.getQueueDepth(NOISY_NAMESPACE));
+            blocker.countDown();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testForkJoinExecute() throws Exception {
+        RequestExecutor executor = new ForkJoinRequestExecutor(2);
+        try {
+            final CountDownLatch done = new CountDownLatch(20);
+            for (int i = 0; i < 20; i++) {
+                assertTrue(executor.execute(i % 2 == 0 ? NOISY_NAMESPACE : QUIET_NAMESPACE, new Runnable() {
+                    @Override
+                    public void run() {
+                        done.countDown();
+                    }
+                }));
+            }
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+        assertFalse(executor.execute(NOISY_NAMESPACE, new Runnable() {
+            @Override
+            public void run() {
+            }
+        }));
+        assertEquals(1, executor.getRejectedCount(NOISY_NAMESPACE));
+    }
+
+    @Test
+    public void testCreateExecutor() {
+        assertEquals(null, RequestExecutorProvider.createExecutor(ServerTransportConfig.EXECUTION_MODE_INLINE));
+        RequestExecutor executor = RequestExecutorProvider.createExecutor(
+            ServerTransportConfig.EXECUTION_MODE_NAMESPACE);
+        assertTrue(executor instanceof NamespaceRequestExecutor);
+        executor.shutdown();
+        executor = RequestExecutorProvider.createExecutor(ServerTransportConfig.EXECUTION_MODE_FORK_JOIN);
+        assertTrue(executor instanceof ForkJoinRequestExecutor);
+        executor.shutdown();
+    }
+}
@@ -15,11 +15,18 @@
  */
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * The entry for asynchronous resources.
@@ -31,8 +38,74 @@ public class AsyncEntry extends CtEntry {
 
     private Context asyncContext;
 
+    /**
+     * Whether slots should reserve the time to wait rather than making current thread sleep.
+     */
+    private final boolean nonBlocking;
+    private volatile long waitInMs = 0;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        this(resourceWrapper, chain, context, false);
+    }
+
+    AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context, boolean nonBlocking) {
         super(resourceWrapper, chain, context);
+        this.nonBlocking = nonBlocking;
+    }
+
+    /**
+     * @return whether the entry is non-blocking, i.e. the wait time of queueing rules is reserved
+     * (see {@link #getWaitInMs()}) rather than waited on the caller's thread
+     * @since 1.8.2
+     */
+    public boolean isNonBlocking() {
+        return nonBlocking;
+    }
+
+    /**
+     * Get the time (since the entry was created) that the invocation should be delayed for. It's only reserved
+     * for non-blocking entries, and the caller is responsible for delaying the invocation asynchronously.
+     *
+     * @return the time to wait in milliseconds
+     * @since 1.8.2
+     */
+    public long getWaitInMs() {
+        return waitInMs;
+    }
+
+    /**
+     * Reserve the time that the invocation should wait for. This is used by slots for non-blocking entries.
+     * As the invocation should satisfy all rules, the max wait time takes effect.
+     *
+     * @param waitInMs the time to wait in milliseconds
+     * @since 1.8.2
+     */
+    public void reserveWait(long waitInMs) {
+        if (waitInMs > this.waitInMs) {
+            this.waitInMs = waitInMs;
+        }
+    }
+
+    /**
+     * Get a future that completes with this entry when the reserved wait time has elapsed,
+     * without blocking any thread.
+     *
+     * @return the future which completes when the invocation could go ahead
+     * @since 1.8.2
+     */
+    public CompletableFuture<AsyncEntry> whenReady() {
+        long delay = getCreateTimestamp() + waitInMs - TimeUtil.currentTimeMillis();
+        if (delay <= 0) {
+            return CompletableFuture.completedFuture(this);
+        }
+        final CompletableFuture<AsyncEntry> future = new CompletableFuture<>();
+        DelaySchedulerHolder.SCHEDULER.schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.complete(AsyncEntry.this);
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+        return future;
     }
 
     /**
@@ -95,4 +168,9 @@ public class AsyncEntry extends CtEntry {
 
         return parent;
     }
+
+    private static class DelaySchedulerHolder {
+        private static final ScheduledExecutorService SCHEDULER = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("sentinel-async-entry-delay", true));
+    }
 }
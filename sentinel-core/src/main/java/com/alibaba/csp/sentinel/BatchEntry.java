@@ -0,0 +1,147 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.function.BiConsumer;
+
+/**
+ * <p>A composite {@link Entry} which holds the entries of multiple resources acquired in one batch
+ * (see {@link SphU#entryBatch(Map)}).</p>
+ *
+ * <p>The underlying entries are nested in the invocation context in the order they were acquired,
+ * so exiting the batch entry will exit all of them in reverse order, each with the token count
+ * that has been acquired for the resource.</p>
+ *
+ * @since 1.8.2
+ */
+public class BatchEntry extends Entry {
+
+    private final List<Entry> entries;
+    private final List<Integer> counts;
+    private final Map<String, BlockException> blockedResources;
+
+    private boolean exited = false;
+
+    BatchEntry(ResourceWrapper resourceWrapper, List<Entry> entries, List<Integer> counts,
+               Map<String, BlockException> blockedResources) {
+        super(resourceWrapper);
+        AssertUtil.isTrue(entries.size() == counts.size(), "entries and counts should be paired");
+        this.entries = entries;
+        this.counts = counts;
+        this.blockedResources = blockedResources;
+    }
+
+    /**
+     * Get the entries of all passed resources, in acquiring order.
+     *
+     * @return unmodifiable list of passed entries
+     */
+    public List<Entry> getEntries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Get the blocked resources and the corresponding block exceptions.
+     * It's only non-empty when partial pass is allowed.
+     *
+     * @return unmodifiable map of blocked resources
+     */
+    public Map<String, BlockException> getBlockedResources() {
+        return Collections.unmodifiableMap(blockedResources);
+    }
+
+    /**
+     * @return true if all resources in the batch have passed
+     */
+    public boolean isAllPassed() {
+        return blockedResources.isEmpty();
+    }
+
+    /**
+     * Exit all passed entries of the batch. Note that the provided count is ignored,
+     * as each entry will release the amount of tokens it has acquired.
+     */
+    @Override
+    public void exit(int count, Object... args) throws ErrorEntryFreeException {
+        trueExit(count, args);
+    }
+
+    @Override
+    protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        if (exited) {
+            return null;
+        }
+        exited = true;
+        Entry parent = null;
+        Throwable firstError = null;
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            // Every entry should be exited even if some of them fail to exit.
+            try {
+                parent = entries.get(i).trueExit(counts.get(i), args);
+            } catch (RuntimeException | Error ex) {
+                if (firstError == null) {
+                    firstError = ex;
+                }
+            }
+        }
+        if (firstError instanceof Error) {
+            throw (Error)firstError;
+        }
+        if (firstError != null) {
+            throw (RuntimeException)firstError;
+        }
+        return parent;
+    }
+
+    @Override
+    public Node getLastNode() {
+        return entries.isEmpty() ? null : entries.get(0).getLastNode();
+    }
+
+    @Override
+    public void setError(Throwable error) {
+        super.setError(error);
+        for (Entry entry : entries) {
+            entry.setError(error);
+        }
+    }
+
+    /**
+     * The handler will be registered to the outermost entry of the batch, which is the last one to exit.
+     */
+    @Override
+    public void whenTerminate(BiConsumer<Context, Entry> handler) {
+        if (!entries.isEmpty()) {
+            entries.get(0).whenTerminate(handler);
+        }
+    }
+
+    static BatchEntry enter(Map<String, Integer> resourceCounts, EntryType trafficType, boolean allowPartial)
+        throws BlockException {
+        AssertUtil.notNull(resourceCounts, "resourceCounts cannot be null");
+        AssertUtil.isTrue(!resourceCounts.isEmpty(), "resourceCounts cannot be empty");
+        return ((CtSph)Env.sph).entryBatch(resourceCounts, trafficType, allowPartial);
+    }
+}
@@ -16,8 +16,12 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.context.Context;
@@ -31,6 +35,7 @@ import com.alibaba.csp.sentinel.slotchain.SlotChainProvider;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
+import com.alibaba.csp.sentinel.slots.statistic.BatchStatistics;
 
 /**
  * {@inheritDoc}
@@ -47,11 +52,25 @@ public class CtSph implements Sph {
     /**
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
+     *
+     * <p>Lookups are lock-free. Registration of a new resource only locks the hash bin of that resource,
+     * so a burst of distinct resources during warm-up will not serialize on a global lock nor copy the whole map.</p>
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
-
-    private static final Object LOCK = new Object();
+    private static final ConcurrentHashMap<ResourceWrapper, ProcessorSlotChain> chainMap
+        = new ConcurrentHashMap<ResourceWrapper, ProcessorSlotChain>();
+
+    private static final Function<ResourceWrapper, ProcessorSlotChain> SLOT_CHAIN_CREATOR
+        = new Function<ResourceWrapper, ProcessorSlotChain>() {
+        @Override
+        public ProcessorSlotChain apply(ResourceWrapper resourceWrapper) {
+            // Re-check the limit as other resources may have been registered concurrently.
+            // Returning null here means no mapping will be recorded.
+            if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                return null;
+            }
+            return SlotChainProvider.newSlotChain();
+        }
+    };
 
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
@@ -63,6 +82,11 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, count, prioritized, false, args);
+    }
+
+    private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
+                                                      boolean nonBlocking, Object... args) throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -86,7 +110,7 @@ public class CtSph implements Sph {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context);
+        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context, nonBlocking);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
             // Initiate the async context only when the entry successfully passed the slot chain.
@@ -172,10 +196,110 @@ public class CtSph implements Sph {
      * @return {@link Entry} represents this call
      * @throws BlockException if any rule's threshold is exceeded
      */
+    @Override
     public Entry entry(ResourceWrapper resourceWrapper, int count, Object... args) throws BlockException {
         return entryWithPriority(resourceWrapper, count, false, args);
     }
 
+    /**
+     * Enter all resources of a batch in one pass (see {@link SphU#entryBatch(Map, EntryType, boolean)}).
+     *
+     * <p>The context and the slot chains of the batch are resolved once before checking. The resources are
+     * checked in order, and the pass counts are recorded right after each check, while the pass events are
+     * deferred until all resources have been checked. If the batch is all-or-nothing and any resource is blocked,
+     * the pass counts are rolled back and the passed entries are exited as blocked, so that the rejected batch
+     * leaves no pass statistics.</p>
+     *
+     * @param resourceCounts the resource names and the amount of tokens requested for each resource
+     * @param trafficType    the traffic type of all resources in the batch
+     * @param allowPartial   whether the passed resources are kept when some resource is blocked
+     * @return the composite entry of the batch
+     * @throws BlockException if any resource in the batch is blocked and partial pass is not allowed
+     * @since 1.8.2
+     */
+    @SuppressWarnings("unchecked")
+    BatchEntry entryBatch(Map<String, Integer> resourceCounts, EntryType trafficType, boolean allowPartial)
+        throws BlockException {
+        int size = resourceCounts.size();
+        ResourceWrapper[] resources = new ResourceWrapper[size];
+        int[] counts = new int[size];
+        int n = 0;
+        for (Map.Entry<String, Integer> e : resourceCounts.entrySet()) {
+            resources[n] = new StringResourceWrapper(e.getKey(), trafficType);
+            counts[n++] = e.getValue() == null ? 1 : e.getValue();
+        }
+
+        Context context = ContextUtil.getContext();
+        if (context == null) {
+            // Using default context.
+            context = InternalContextUtil.internalEnter(Constants.CONTEXT_DEFAULT_NAME);
+        }
+        // No rule checking will be done with NullContext or when the global switch is off.
+        boolean checking = !(context instanceof NullContext) && Constants.ON;
+        ProcessorSlot<Object>[] chains = new ProcessorSlot[size];
+        if (checking) {
+            for (int i = 0; i < size; i++) {
+                chains[i] = lookProcessChain(resources[i]);
+            }
+        }
+
+        List<Entry> entries = new ArrayList<>(size);
+        List<Integer> passedCounts = new ArrayList<>(size);
+        Map<String, BlockException> blocked = new LinkedHashMap<>();
+        BatchStatistics statistics = new BatchStatistics();
+        BlockException rejected = null;
+        if (checking) {
+            context.setBatchStatistics(statistics);
+        }
+        try {
+            for (int i = 0; i < size; i++) {
+                Entry e = new CtEntry(resources[i], chains[i], context);
+                if (chains[i] != null) {
+                    try {
+                        chains[i].entry(context, resources[i], null, counts[i], false, OBJECTS0);
+                    } catch (BlockException ex) {
+                        e.exit(counts[i]);
+                        if (!allowPartial) {
+                            rejected = ex;
+                            break;
+                        }
+                        blocked.put(resources[i].getName(), ex);
+                        if (ContextUtil.getContext() == null) {
+                            // The default context has been exited together with the blocked entry.
+                            context.setBatchStatistics(null);
+                            context = InternalContextUtil.internalEnter(Constants.CONTEXT_DEFAULT_NAME);
+                            context.setBatchStatistics(statistics);
+                        }
+                        continue;
+                    } catch (Throwable ex) {
+                        // This should not happen, unless there are errors existing in Sentinel internal.
+                        RecordLog.info("Sentinel unexpected exception", ex);
+                    }
+                }
+                entries.add(e);
+                passedCounts.add(counts[i]);
+            }
+        } finally {
+            if (checking) {
+                context.setBatchStatistics(null);
+            }
+        }
+
+        if (rejected != null) {
+            // The pass counts of the passed entries are removed, so they're exited as blocked.
+            statistics.rollback();
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                Entry e = entries.get(i);
+                e.setBlockError(rejected);
+                e.exit(passedCounts.get(i));
+            }
+            throw rejected;
+        }
+        statistics.commit();
+        ResourceWrapper batchResource = entries.isEmpty() ? resources[0] : entries.get(0).getResourceWrapper();
+        return new BatchEntry(batchResource, entries, passedCounts, blocked);
+    }
+
     /**
      * Get {@link ProcessorSlotChain} of the resource. new {@link ProcessorSlotChain} will
      * be created if the resource doesn't relate one.
@@ -194,22 +318,11 @@ public class CtSph implements Sph {
     ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
         ProcessorSlotChain chain = chainMap.get(resourceWrapper);
         if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
-                }
+            // Entry size limit.
+            if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
+                return null;
             }
+            chain = chainMap.computeIfAbsent(resourceWrapper, SLOT_CHAIN_CREATOR);
         }
         return chain;
     }
@@ -324,7 +437,7 @@ public class CtSph implements Sph {
     @Override
     public Entry entryWithPriority(String name, EntryType type, int count, boolean prioritized) throws BlockException {
         StringResourceWrapper resource = new StringResourceWrapper(name, type);
-        return entryWithPriority(resource, count, prioritized);
+        return entryWithPriority(resource, count, prioritized, OBJECTS0);
     }
 
     @Override
@@ -353,4 +466,11 @@ public class CtSph implements Sph {
         StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
         return asyncEntryWithPriorityInternal(resource, count, prioritized, args);
     }
+
+    @Override
+    public AsyncEntry nonBlockingAsyncEntryWithType(String name, int resourceType, EntryType entryType, int count,
+                                                    Object[] args) throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        return asyncEntryWithPriorityInternal(resource, count, false, true, args);
+    }
 }
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
 
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
 
@@ -146,6 +147,24 @@ public interface Sph extends SphResourceTypeSupport {
      */
     Entry entry(String name, EntryType trafficType, int batchCount, Object... args) throws BlockException;
 
+    /**
+     * Record statistics and perform rule checking for the given resource. The resource wrapper
+     * could be created once and reused by the caller, so that no wrapper will be created per invocation.
+     * By default, it delegates to {@link #entryWithType(String, int, EntryType, int, Object[])}, so that
+     * existing implementations keep working.
+     *
+     * @param resourceWrapper the protected resource
+     * @param batchCount      the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args            args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.2
+     */
+    default Entry entry(ResourceWrapper resourceWrapper, int batchCount, Object... args) throws BlockException {
+        return entryWithType(resourceWrapper.getName(), resourceWrapper.getResourceType(),
+            resourceWrapper.getEntryType(), batchCount, args);
+    }
+
     /**
      * Create a protected asynchronous resource.
      *
@@ -74,4 +74,29 @@ public interface SphResourceTypeSupport {
     AsyncEntry asyncEntryWithType(String name, int resourceType, EntryType trafficType, int batchCount,
                                   boolean prioritized,
                                   Object[] args) throws BlockException;
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates a non-blocking
+     * async invocation. Rules that queue requests (e.g. uniform rate limiting) will not make current thread
+     * wait, but reserve the time to wait in {@link AsyncEntry#getWaitInMs()} instead, so the caller should
+     * delay the invocation asynchronously (e.g. via {@link AsyncEntry#whenReady()}).
+     * By default, it falls back to the blocking
+     * {@link #asyncEntryWithType(String, int, EntryType, int, boolean, Object[])}, so that existing
+     * implementations keep working.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.2
+     */
+    default AsyncEntry nonBlockingAsyncEntryWithType(String name, int resourceType, EntryType trafficType,
+                                                     int batchCount, Object[] args) throws BlockException {
+        return asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
+    }
 }
@@ -16,7 +16,9 @@
 package com.alibaba.csp.sentinel;
 
 import java.lang.reflect.Method;
+import java.util.Map;
 
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
 import com.alibaba.csp.sentinel.slots.system.SystemRule;
@@ -208,6 +210,69 @@ public class SphU {
         return Env.sph.entry(name, trafficType, batchCount, args);
     }
 
+    /**
+     * Record statistics and perform rule checking for the given resource.
+     *
+     * <p>Different from {@link #entry(String)}, the {@link ResourceWrapper} is provided by the caller,
+     * so it could be created once (e.g. cached as a constant) and reused for all invocations
+     * on the hot path, avoiding creating a new resource wrapper per invocation.</p>
+     *
+     * @param resourceWrapper the protected resource
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.2
+     */
+    public static Entry entry(ResourceWrapper resourceWrapper) throws BlockException {
+        return Env.sph.entry(resourceWrapper, 1, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the given resource.
+     *
+     * @param resourceWrapper the protected resource, which could be reused for all invocations
+     * @param batchCount      the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.2
+     */
+    public static Entry entry(ResourceWrapper resourceWrapper, int batchCount) throws BlockException {
+        return Env.sph.entry(resourceWrapper, batchCount, OBJECTS0);
+    }
+
+    /**
+     * Record statistics and perform rule checking for a batch of resources in one call, e.g. when consuming
+     * a batch of messages that map to a handful of resources. All resources should pass, otherwise the passed
+     * entries will be released and the first {@link BlockException} will be thrown.
+     * All resources are checked in one pass, and the pass statistics of a rejected batch are rolled back,
+     * so a rejected batch leaves no pass statistics.
+     *
+     * <p>The returned {@link BatchEntry} should be exited once, which will exit all entries of the batch.</p>
+     *
+     * @param resourceCounts the resource names and the amount of tokens requested for each resource
+     * @return the composite entry of the batch
+     * @throws BlockException if any resource in the batch is blocked
+     * @since 1.8.2
+     */
+    public static BatchEntry entryBatch(Map<String, Integer> resourceCounts) throws BlockException {
+        return BatchEntry.enter(resourceCounts, EntryType.OUT, false);
+    }
+
+    /**
+     * Record statistics and perform rule checking for a batch of resources in one call.
+     *
+     * @param resourceCounts the resource names and the amount of tokens requested for each resource
+     * @param trafficType    the traffic type (inbound, outbound or internal) of all resources in the batch
+     * @param allowPartial   if true, blocked resources will be recorded in {@link BatchEntry#getBlockedResources()}
+     *                       and the passed ones are kept; otherwise the batch is all-or-nothing
+     * @return the composite entry of the batch
+     * @throws BlockException if any resource in the batch is blocked and partial pass is not allowed
+     * @since 1.8.2
+     */
+    public static BatchEntry entryBatch(Map<String, Integer> resourceCounts, EntryType trafficType,
+                                        boolean allowPartial) throws BlockException {
+        return BatchEntry.enter(resourceCounts, trafficType, allowPartial);
+    }
+
     /**
      * Record statistics and check all rules of the resource that indicates an async invocation.
      *
@@ -365,4 +430,41 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, trafficType, batchCount, false, args);
     }
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates a non-blocking
+     * async invocation. Rules that queue requests (e.g. uniform rate limiting) will not make current thread wait,
+     * but reserve the time to wait in {@link AsyncEntry#getWaitInMs()} instead. The caller should delay the
+     * invocation for the reserved time asynchronously (e.g. via {@link AsyncEntry#whenReady()}),
+     * which is useful for event loops that should never be blocked.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param trafficType  the traffic type (inbound, outbound or internal). This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @param batchCount   the amount of calls within the invocation (e.g. batchCount=2 means request for 2 tokens)
+     * @param args         args for parameter flow control or customized slots
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.2
+     */
+    public static AsyncEntry asyncEntryNonBlocking(String name, int resourceType, EntryType trafficType,
+                                                   int batchCount, Object[] args) throws BlockException {
+        return Env.sph.nonBlockingAsyncEntryWithType(name, resourceType, trafficType, batchCount, args);
+    }
+
+    /**
+     * Record statistics and perform rule checking for the given resource that indicates a non-blocking
+     * async invocation. See {@link #asyncEntryNonBlocking(String, int, EntryType, int, Object[])}.
+     *
+     * @param name        the unique name for the protected resource
+     * @param trafficType the traffic type (inbound, outbound or internal)
+     * @return the {@link Entry} of this invocation (used for mark the invocation complete and get context data)
+     * @throws BlockException if the block criteria is met (e.g. metric exceeded the threshold of any rules)
+     * @since 1.8.2
+     */
+    public static AsyncEntry asyncEntryNonBlocking(String name, EntryType trafficType) throws BlockException {
+        return Env.sph.nonBlockingAsyncEntryWithType(name, ResourceTypeConstants.COMMON, trafficType, 1, OBJECTS0);
+    }
 }
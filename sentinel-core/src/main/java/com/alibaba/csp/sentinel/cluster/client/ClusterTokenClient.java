@@ -15,6 +15,10 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 
@@ -53,4 +57,33 @@ public interface ClusterTokenClient extends TokenService {
      * @return state of the cluster token client
      */
     int getState();
+
+    /**
+     * Request tokens from remote token server without blocking current thread.
+     * The default implementation delegates to the blocking {@link #requestToken(Long, int, boolean)}.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param prioritized whether the request is prioritized
+     * @return the future of the token result, which never completes exceptionally
+     * @since 1.8.2
+     */
+    default CompletableFuture<TokenResult> requestTokenAsync(Long ruleId, int acquireCount, boolean prioritized) {
+        return CompletableFuture.completedFuture(requestToken(ruleId, acquireCount, prioritized));
+    }
+
+    /**
+     * Request tokens for a specific parameter from remote token server without blocking current thread.
+     * The default implementation delegates to the blocking {@link #requestParamToken(Long, int, Collection)}.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param params parameter list
+     * @return the future of the token result, which never completes exceptionally
+     * @since 1.8.2
+     */
+    default CompletableFuture<TokenResult> requestParamTokenAsync(Long ruleId, int acquireCount,
+                                                                  Collection<Object> params) {
+        return CompletableFuture.completedFuture(requestParamToken(ruleId, acquireCount, params));
+    }
 }
\ No newline at end of file
@@ -61,6 +61,59 @@ public final class SentinelConfig {
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
     public static final String METRIC_FLUSH_INTERVAL = "csp.sentinel.metric.flush.interval";
+    /**
+     * Clock mode of {@link com.alibaba.csp.sentinel.util.TimeUtil}: {@code tick}, {@code adaptive} or {@code monotonic}.
+     *
+     * @since 1.8.2
+     */
+    public static final String TIME_TICK_MODE = "csp.sentinel.time.tick.mode";
+    /**
+     * Storage of the rolling-window statistics of nodes: {@code heap} (default) or {@code offheap}.
+     *
+     * @since 1.8.2
+     */
+    public static final String STATISTIC_STORAGE = "csp.sentinel.statistic.storage";
+    /**
+     * Alias name of the {@link com.alibaba.csp.sentinel.context.ContextHolder} SPI implementation,
+     * e.g. {@code threadlocal} (default) or {@code scoped}.
+     *
+     * @since 1.8.2
+     */
+    public static final String CONTEXT_HOLDER = "csp.sentinel.context.holder";
+    /**
+     * Format of the metric log: {@code text} (default), {@code binary} (memory-mapped fixed-width segments),
+     * or {@code binary,text} (binary segments with the text log kept as an export). Unrecognized formats
+     * fall back to {@code text}.
+     *
+     * @since 1.8.2
+     */
+    public static final String METRIC_LOG_FORMAT = "csp.sentinel.metric.log.format";
+    /**
+     * Max seconds of metrics queued for the metric log writer, the oldest seconds are dropped when exceeded.
+     *
+     * @since 1.8.2
+     */
+    public static final String METRIC_FLUSH_QUEUE_CAPACITY = "csp.sentinel.metric.flush.queue.capacity";
+    /**
+     * Alias name of the {@link com.alibaba.csp.sentinel.slots.system.SystemMetricsProvider} SPI implementation,
+     * e.g. {@code jmx} (default) or {@code cgroup}.
+     *
+     * @since 1.8.2
+     */
+    public static final String SYSTEM_STATUS_PROVIDER = "csp.sentinel.system.status.provider";
+    /**
+     * Interval (in milliseconds) of sampling the system metrics, sub-second intervals are supported.
+     *
+     * @since 1.8.2
+     */
+    public static final String SYSTEM_STATUS_INTERVAL_MS = "csp.sentinel.system.status.interval.ms";
+    /**
+     * Smoothing factor (0, 1] of the exponential moving average of the sampled system metrics,
+     * where 1 means no smoothing. Only applied by the providers which sample raw counters (e.g. {@code cgroup}).
+     *
+     * @since 1.8.2
+     */
+    public static final String SYSTEM_STATUS_SMOOTHING = "csp.sentinel.system.status.smoothing";
 
     public static final String DEFAULT_CHARSET = "UTF-8";
     public static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -68,6 +121,9 @@ public final class SentinelConfig {
     public static final int DEFAULT_COLD_FACTOR = 3;
     public static final int DEFAULT_STATISTIC_MAX_RT = 5000;
     public static final long DEFAULT_METRIC_FLUSH_INTERVAL = 1L;
+    public static final int DEFAULT_METRIC_FLUSH_QUEUE_CAPACITY = 60;
+    public static final long DEFAULT_SYSTEM_STATUS_INTERVAL_MS = 1000;
+    public static final double DEFAULT_SYSTEM_STATUS_SMOOTHING = 0.5;
 
     static {
         try {
@@ -203,6 +259,75 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Get the max seconds of metrics queued for the metric log writer.
+     *
+     * @return the capacity of the metric flush queue
+     * @since 1.8.2
+     */
+    public static int metricFlushQueueCapacity() {
+        String capacity = props.get(METRIC_FLUSH_QUEUE_CAPACITY);
+        if (StringUtil.isBlank(capacity)) {
+            return DEFAULT_METRIC_FLUSH_QUEUE_CAPACITY;
+        }
+        try {
+            int value = Integer.parseInt(capacity.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Parse metricFlushQueueCapacity fail, use default value: "
+                    + DEFAULT_METRIC_FLUSH_QUEUE_CAPACITY, throwable);
+        }
+        return DEFAULT_METRIC_FLUSH_QUEUE_CAPACITY;
+    }
+
+    /**
+     * Get the interval of sampling the system metrics.
+     *
+     * @return the sampling interval in milliseconds
+     * @since 1.8.2
+     */
+    public static long systemStatusIntervalMs() {
+        String interval = props.get(SYSTEM_STATUS_INTERVAL_MS);
+        if (StringUtil.isBlank(interval)) {
+            return DEFAULT_SYSTEM_STATUS_INTERVAL_MS;
+        }
+        try {
+            long value = Long.parseLong(interval.trim());
+            if (value > 0) {
+                return value;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Parse systemStatusIntervalMs fail, use default value: "
+                    + DEFAULT_SYSTEM_STATUS_INTERVAL_MS, throwable);
+        }
+        return DEFAULT_SYSTEM_STATUS_INTERVAL_MS;
+    }
+
+    /**
+     * Get the smoothing factor of the sampled system metrics.
+     *
+     * @return the smoothing factor in (0, 1]
+     * @since 1.8.2
+     */
+    public static double systemStatusSmoothing() {
+        String smoothing = props.get(SYSTEM_STATUS_SMOOTHING);
+        if (StringUtil.isBlank(smoothing)) {
+            return DEFAULT_SYSTEM_STATUS_SMOOTHING;
+        }
+        try {
+            double value = Double.parseDouble(smoothing.trim());
+            if (value > 0 && value <= 1) {
+                return value;
+            }
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Parse systemStatusSmoothing fail, use default value: "
+                    + DEFAULT_SYSTEM_STATUS_SMOOTHING, throwable);
+        }
+        return DEFAULT_SYSTEM_STATUS_SMOOTHING;
+    }
+
     public static int coldFactor() {
         try {
             int coldFactor = Integer.parseInt(props.get(COLD_FACTOR));
@@ -241,6 +366,60 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Whether the rolling-window statistics of nodes should be kept in off-heap memory,
+     * which is designed for applications with very large amount of resources.
+     *
+     * @return true if {@link #STATISTIC_STORAGE} is {@code offheap}
+     * @since 1.8.2
+     */
+    public static boolean statisticOffHeap() {
+        return "offheap".equalsIgnoreCase(props.get(STATISTIC_STORAGE));
+    }
+
+    /**
+     * Whether the metric log is written as binary segments, see {@link #METRIC_LOG_FORMAT}.
+     *
+     * @return true if the binary metric log is enabled
+     * @since 1.8.2
+     */
+    public static boolean metricLogBinary() {
+        return metricLogFormatContains("binary");
+    }
+
+    /**
+     * Whether the metric log is written as text, see {@link #METRIC_LOG_FORMAT}.
+     *
+     * @return true if the text metric log is enabled (the default, also for unrecognized formats)
+     * @since 1.8.2
+     */
+    public static boolean metricLogText() {
+        if (metricLogFormatContains("text")) {
+            return true;
+        }
+        if (metricLogBinary()) {
+            return false;
+        }
+        String format = props.get(METRIC_LOG_FORMAT);
+        if (StringUtil.isNotBlank(format)) {
+            RecordLog.warn("[SentinelConfig] Unrecognized metric log format, fall back to text: " + format);
+        }
+        return true;
+    }
+
+    private static boolean metricLogFormatContains(String format) {
+        String value = props.get(METRIC_LOG_FORMAT);
+        if (StringUtil.isBlank(value)) {
+            return false;
+        }
+        for (String part : value.split(",")) {
+            if (format.equalsIgnoreCase(part.trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Function for resolving project name. The order is elaborated below:
      *
@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.slots.statistic.BatchStatistics;
 
 /**
  * This class holds metadata of current invocation:<br/>
@@ -78,6 +79,16 @@ public class Context {
 
     private final boolean async;
 
+    /**
+     * Dense index of the context name, or -1 if absent. See {@link EntranceNode#getIndex()}.
+     */
+    private final int index;
+
+    /**
+     * The pass statistics of the batch being entered in this context, if any.
+     */
+    private BatchStatistics batchStatistics;
+
     /**
      * Create a new async context.
      *
@@ -98,6 +109,16 @@ public class Context {
         this.name = name;
         this.entranceNode = entranceNode;
         this.async = async;
+        this.index = resolveIndex(name, entranceNode);
+    }
+
+    private static int resolveIndex(String name, DefaultNode entranceNode) {
+        // The index is only valid when the entrance node is exactly the one of the context name.
+        if (entranceNode instanceof EntranceNode && name != null
+            && name.equals(entranceNode.getId().getName())) {
+            return ((EntranceNode) entranceNode).getIndex();
+        }
+        return -1;
     }
 
     public boolean isAsync() {
@@ -108,6 +129,16 @@ public class Context {
         return name;
     }
 
+    /**
+     * Get the dense index of the context name, which is unique for each context name.
+     *
+     * @return the index of the context name, or -1 if the context has no valid entrance node
+     * @since 1.8.2
+     */
+    public int getIndex() {
+        return index;
+    }
+
     public Node getCurNode() {
         return curEntry == null ? null : curEntry.getCurNode();
     }
@@ -130,6 +161,21 @@ public class Context {
         return origin;
     }
 
+    /**
+     * Get the batch being entered in this context, which collects the pass statistics of the entries.
+     *
+     * @return the batch statistics, or null if no batch is being entered
+     * @since 1.8.2
+     */
+    public BatchStatistics getBatchStatistics() {
+        return batchStatistics;
+    }
+
+    public Context setBatchStatistics(BatchStatistics batchStatistics) {
+        this.batchStatistics = batchStatistics;
+        return this;
+    }
+
     public Context setOrigin(String origin) {
         this.origin = origin;
         return this;
@@ -0,0 +1,55 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * <p>SPI holding the {@link Context} of current thread for {@link ContextUtil}.</p>
+ *
+ * <p>The holder is resolved once by the alias name configured in {@link SentinelConfig#CONTEXT_HOLDER},
+ * and the default one is {@link ThreadLocalContextHolder}.</p>
+ *
+ * @since 1.8.2
+ */
+public interface ContextHolder {
+
+    /**
+     * @return context of current thread, or null if absent
+     */
+    Context get();
+
+    /**
+     * Set the context of current thread.
+     *
+     * @param context the context, cannot be null
+     */
+    void set(Context context);
+
+    /**
+     * Remove the context of current thread.
+     */
+    void remove();
+
+    /**
+     * Run the task with the provided context as the context of current thread,
+     * and restore the original context after the task completes.
+     *
+     * @param context the context, could be null, which means running in a fresh scope without context
+     * @param task    the task to run
+     */
+    void runWith(Context context, Runnable task);
+}
@@ -23,12 +23,15 @@ import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.SphO;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * Utility class to get or create {@link Context} in current thread.
@@ -45,9 +48,9 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
 public class ContextUtil {
 
     /**
-     * Store the context in ThreadLocal for easy access.
+     * Store the context in ThreadLocal (or other {@link ContextHolder} configured) for easy access.
      */
-    private static ThreadLocal<Context> contextHolder = new ThreadLocal<>();
+    private static final ContextHolder contextHolder = resolveContextHolder();
 
     /**
      * Holds all {@link EntranceNode}. Each {@link EntranceNode} is associated with a distinct context name.
@@ -62,6 +65,28 @@ public class ContextUtil {
         initDefaultContext();
     }
 
+    private static ContextHolder resolveContextHolder() {
+        String alias = SentinelConfig.getConfig(SentinelConfig.CONTEXT_HOLDER);
+        if (StringUtil.isNotBlank(alias)) {
+            try {
+                ContextHolder holder = SpiLoader.of(ContextHolder.class).loadInstance(alias.trim());
+                RecordLog.info("[ContextUtil] Using context holder: {}", holder.getClass().getName());
+                return holder;
+            } catch (Throwable ex) {
+                RecordLog.warn("[ContextUtil] Failed to load context holder: " + alias + ", using the default", ex);
+            }
+        }
+        return new ThreadLocalContextHolder();
+    }
+
+    /**
+     * @return the holder of the context of current thread
+     * @since 1.8.2
+     */
+    public static ContextHolder getContextHolder() {
+        return contextHolder;
+    }
+
     private static void initDefaultContext() {
         String defaultContextName = Constants.CONTEXT_DEFAULT_NAME;
         EntranceNode node = new EntranceNode(new StringResourceWrapper(defaultContextName, EntryType.IN), null);
@@ -200,7 +225,7 @@ public class ContextUtil {
     public static void exit() {
         Context context = contextHolder.get();
         if (context != null && context.getCurEntry() == null) {
-            contextHolder.set(null);
+            contextHolder.remove();
         }
     }
 
@@ -265,17 +290,14 @@ public class ContextUtil {
     /**
      * Execute the code within provided context.
      * This is mainly designed for context switching (e.g. in asynchronous invocation).
+     * A null context means running the code in a fresh scope without context, which is useful
+     * for tasks of virtual threads with {@link ScopedValueContextHolder}.
      *
      * @param context the context
      * @param f       lambda to run within the context
      * @since 0.2.0
      */
     public static void runOnContext(Context context, Runnable f) {
-        Context curContext = replaceContext(context);
-        try {
-            f.run();
-        } finally {
-            replaceContext(curContext);
-        }
+        contextHolder.runWith(context, f);
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.spi.Spi;
+
+/**
+ * <p>A {@link ContextHolder} designed for virtual threads, which propagates the context with
+ * {@code java.lang.ScopedValue} (JDK 21+, might require {@code --enable-preview} before it's final).</p>
+ *
+ * <p>{@link #runWith(Context, Runnable)} (thus {@link ContextUtil#runOnContext(Context, Runnable)}) binds a
+ * mutable cell to the scoped value for the task, and all context operations within the task work on the cell
+ * without touching any {@link ThreadLocal}. So running the tasks of virtual threads via
+ * {@code ContextUtil.runOnContext(null, task)} saves the thread-local map and entry for each virtual thread.
+ * Outside of any scope, or when {@code ScopedValue} is unavailable, it falls back to a {@link ThreadLocal}.</p>
+ *
+ * @since 1.8.2
+ */
+@Spi(ScopedValueContextHolder.ALIAS)
+public class ScopedValueContextHolder implements ContextHolder {
+
+    public static final String ALIAS = "scoped";
+
+    private final ThreadLocalContextHolder fallback = new ThreadLocalContextHolder();
+
+    private final MethodHandle isBound;
+    private final MethodHandle getCell;
+    private final MethodHandle bindCell;
+    private final MethodHandle runInScope;
+
+    public ScopedValueContextHolder() {
+        MethodHandle isBound = null;
+        MethodHandle getCell = null;
+        MethodHandle bindCell = null;
+        MethodHandle runInScope = null;
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            Class<?> scopedValueClass = Class.forName("java.lang.ScopedValue");
+            Class<?> carrierClass = Class.forName("java.lang.ScopedValue$Carrier");
+            Object key = lookup.findStatic(scopedValueClass, "newInstance", MethodType.methodType(scopedValueClass))
+                .invoke();
+            isBound = lookup.findVirtual(scopedValueClass, "isBound", MethodType.methodType(boolean.class))
+                .bindTo(key);
+            getCell = lookup.findVirtual(scopedValueClass, "get", MethodType.methodType(Object.class))
+                .bindTo(key);
+            bindCell = MethodHandles.insertArguments(lookup.findStatic(scopedValueClass, "where",
+                MethodType.methodType(carrierClass, scopedValueClass, Object.class)), 0, key);
+            runInScope = lookup.findVirtual(carrierClass, "run", MethodType.methodType(void.class, Runnable.class));
+            // Verify that the scoped value works (e.g. preview features might be disabled).
+            final MethodHandle verifyBound = isBound;
+            final boolean[] bound = new boolean[1];
+            runInScope.invoke(bindCell.invoke(new Cell(null)), new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        bound[0] = (boolean)verifyBound.invoke();
+                    } catch (Throwable ex) {
+                        bound[0] = false;
+                    }
+                }
+            });
+            if (!bound[0]) {
+                throw new IllegalStateException("ScopedValue is not bound in scope");
+            }
+            RecordLog.info("[ScopedValueContextHolder] Using ScopedValue to propagate contexts");
+        } catch (Throwable ex) {
+            RecordLog.warn("[ScopedValueContextHolder] ScopedValue is unavailable, falling back to ThreadLocal", ex);
+            isBound = null;
+        }
+        this.isBound = isBound;
+        this.getCell = getCell;
+        this.bindCell = bindCell;
+        this.runInScope = runInScope;
+    }
+
+    /**
+     * @return whether the contexts are propagated via {@code ScopedValue}
+     */
+    public boolean isScopedValueSupported() {
+        return isBound != null;
+    }
+
+    private Cell currentCell() {
+        if (isBound == null) {
+            return null;
+        }
+        Cell cell;
+        try {
+            cell = (boolean)isBound.invokeExact() ? (Cell)(Object)getCell.invokeExact() : null;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+        // Bindings are inherited by forked threads (e.g. in structured concurrency), but the context
+        // should never be shared across threads, so the cell of another thread is ignored.
+        return cell != null && cell.owner == Thread.currentThread() ? cell : null;
+    }
+
+    @Override
+    public Context get() {
+        Cell cell = currentCell();
+        return cell != null ? cell.context : fallback.get();
+    }
+
+    @Override
+    public void set(Context context) {
+        Cell cell = currentCell();
+        if (cell != null) {
+            cell.context = context;
+        } else {
+            fallback.set(context);
+        }
+    }
+
+    @Override
+    public void remove() {
+        Cell cell = currentCell();
+        if (cell != null) {
+            cell.context = null;
+        } else {
+            fallback.remove();
+        }
+    }
+
+    @Override
+    public void runWith(Context context, Runnable task) {
+        if (isBound == null) {
+            fallback.runWith(context, task);
+            return;
+        }
+        try {
+            // The original binding is restored automatically when the scope ends.
+            runInScope.invoke(bindCell.invoke(new Cell(context)), task);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * The mutable cell bound to a scope, which is confined to the thread creating the scope.
+     */
+    private static final class Cell {
+        private final Thread owner = Thread.currentThread();
+        private Context context;
+
+        Cell(Context context) {
+            this.context = context;
+        }
+    }
+}
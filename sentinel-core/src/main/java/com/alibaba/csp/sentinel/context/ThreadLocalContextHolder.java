@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import com.alibaba.csp.sentinel.spi.Spi;
+
+/**
+ * The default {@link ContextHolder}, which stores the context in a {@link ThreadLocal}.
+ *
+ * @since 1.8.2
+ */
+@Spi(value = ThreadLocalContextHolder.ALIAS, isDefault = true)
+public class ThreadLocalContextHolder implements ContextHolder {
+
+    public static final String ALIAS = "threadlocal";
+
+    private final ThreadLocal<Context> holder = new ThreadLocal<>();
+
+    @Override
+    public Context get() {
+        return holder.get();
+    }
+
+    @Override
+    public void set(Context context) {
+        holder.set(context);
+    }
+
+    @Override
+    public void remove() {
+        // Remove rather than set null, so the entry won't be left in the map of the thread.
+        holder.remove();
+    }
+
+    @Override
+    public void runWith(Context context, Runnable task) {
+        Context backup = holder.get();
+        setOrRemove(context);
+        try {
+            task.run();
+        } finally {
+            setOrRemove(backup);
+        }
+    }
+
+    private void setOrRemove(Context context) {
+        if (context == null) {
+            holder.remove();
+        } else {
+            holder.set(context);
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
@@ -38,8 +40,25 @@ import com.alibaba.csp.sentinel.slots.nodeselector.NodeSelectorSlot;
  */
 public class EntranceNode extends DefaultNode {
 
+    private static final AtomicInteger INDEX_GENERATOR = new AtomicInteger(0);
+
+    /**
+     * Dense index of this entrance node. As same context name shares the same entrance node,
+     * it's also the index of the context name, which could be used for array-indexed lookups.
+     */
+    private final int index;
+
     public EntranceNode(ResourceWrapper id, ClusterNode clusterNode) {
         super(id, clusterNode);
+        this.index = INDEX_GENERATOR.getAndIncrement();
+    }
+
+    /**
+     * @return the dense index of this entrance node
+     * @since 1.8.2
+     */
+    public int getIndex() {
+        return index;
     }
 
     @Override
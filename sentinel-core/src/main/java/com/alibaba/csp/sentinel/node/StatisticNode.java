@@ -20,9 +20,12 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.offheap.OffHeapMetric;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
@@ -40,6 +43,12 @@ import com.alibaba.csp.sentinel.util.function.Predicate;
  * </p>
  *
  * <p>
+ * When {@link SentinelConfig#STATISTIC_STORAGE} is set to {@code offheap}, the sliding windows are kept
+ * in off-heap memory by {@link OffHeapMetric} instead, which saves heap and GC work when there are
+ * tens of thousands of resources.
+ * </p>
+ *
+ * <p>
  * case 1: When the first request comes in, Sentinel will create a new window bucket of
  * a specified time-span to store running statics, such as total response time(rt),
  * incoming request(QPS), block request(bq), etc. And the time-span is defined by sample count.
@@ -89,18 +98,20 @@ import com.alibaba.csp.sentinel.util.function.Predicate;
  */
 public class StatisticNode implements Node {
 
+    private static final boolean OFF_HEAP_STORAGE = resolveOffHeapStorage();
+
     /**
      * Holds statistics of the recent {@code INTERVAL} milliseconds. The {@code INTERVAL} is divided into time spans
      * by given {@code sampleCount}.
      */
-    private transient volatile Metric rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT,
-        IntervalProperty.INTERVAL);
+    private transient volatile Metric rollingCounterInSecond = newMetric(SampleCountProperty.SAMPLE_COUNT,
+        IntervalProperty.INTERVAL, true);
 
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
+    private transient Metric rollingCounterInMinute = newMetric(60, 60 * 1000, false);
 
     /**
      * The counter for thread count.
@@ -148,7 +159,26 @@ public class StatisticNode implements Node {
 
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        rollingCounterInSecond = newMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL, true);
+    }
+
+    private static Metric newMetric(int sampleCount, int intervalInMs, boolean enableOccupy) {
+        if (OFF_HEAP_STORAGE) {
+            return new OffHeapMetric(sampleCount, intervalInMs, enableOccupy);
+        }
+        return new ArrayMetric(sampleCount, intervalInMs, enableOccupy);
+    }
+
+    private static boolean resolveOffHeapStorage() {
+        if (!SentinelConfig.statisticOffHeap()) {
+            return false;
+        }
+        if (!OffHeapMetric.isSupported()) {
+            RecordLog.warn("[StatisticNode] Off-heap statistic storage is not supported, using heap storage instead");
+            return false;
+        }
+        RecordLog.info("[StatisticNode] Using off-heap statistic storage");
+        return true;
     }
 
     @Override
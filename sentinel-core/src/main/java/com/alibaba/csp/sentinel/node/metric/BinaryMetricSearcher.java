@@ -0,0 +1,357 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter.*;
+
+/**
+ * <p>Searches the binary metric segments written by {@link BinaryMetricWriter}.</p>
+ *
+ * <p>The segments and the sparse indexes are memory-mapped and cached, so a range query only binary-searches
+ * the index and slices the records of the range (see {@link #sliceByTime(long, long)}) without copying or
+ * parsing, and only the matched records are decoded to {@link MetricNode}.</p>
+ *
+ * @since 1.8.2
+ */
+public class BinaryMetricSearcher {
+
+    /**
+     * Avoid OOM in any cases.
+     */
+    private static final int MAX_LINES_RETURN = 100000;
+
+    private final String baseDir;
+    private final String baseFileName;
+
+    private final Map<String, Segment> segments = new HashMap<String, Segment>();
+
+    /**
+     * @param baseDir      directory of the segments
+     * @param baseFileName base file name of the segments, see {@link BinaryMetricWriter#formMetricFileName}
+     */
+    public BinaryMetricSearcher(String baseDir, String baseFileName) {
+        if (baseDir == null) {
+            throw new IllegalArgumentException("baseDir can't be null");
+        }
+        if (baseFileName == null) {
+            throw new IllegalArgumentException("baseFileName can't be null");
+        }
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        this.baseFileName = baseFileName;
+    }
+
+    /**
+     * Find about {@code recommendLines} metrics from {@code beginTimeMs}. Metrics of the same second
+     * won't be split, so the count might exceed {@code recommendLines}.
+     *
+     * @param beginTimeMs    the min timestamp
+     * @param recommendLines the expected count of metrics
+     * @return metrics found
+     */
+    public synchronized List<MetricNode> find(long beginTimeMs, int recommendLines) throws Exception {
+        List<MetricNode> list = new ArrayList<MetricNode>(Math.min(recommendLines, MAX_LINES_RETURN));
+        long lastTimestamp = -1;
+        for (Segment segment : openSegments()) {
+            ByteBuffer records = segment.slice(beginTimeMs / 1000, Long.MAX_VALUE);
+            if (records == null) {
+                continue;
+            }
+            for (int pos = 0; pos < records.limit(); pos += RECORD_SIZE) {
+                long timestamp = records.getLong(pos + TIMESTAMP_OFFSET);
+                if (list.size() >= recommendLines && timestamp / 1000 != lastTimestamp / 1000) {
+                    return list;
+                }
+                list.add(segment.decode(records, pos));
+                lastTimestamp = timestamp;
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Find metrics between [beginTimeMs, endTimeMs], both side inclusive.
+     * When identity is null, all metrics between the time interval will be read, otherwise, only the specific
+     * identity will be read.
+     */
+    public synchronized List<MetricNode> findByTimeAndResource(long beginTimeMs, long endTimeMs, String identity)
+        throws Exception {
+        List<MetricNode> list = new ArrayList<MetricNode>(1024);
+        long endSecond = endTimeMs / 1000;
+        for (Segment segment : openSegments()) {
+            if (segment.firstSecond() > endSecond) {
+                break;
+            }
+            ByteBuffer records = segment.slice(beginTimeMs / 1000, endSecond);
+            if (records == null) {
+                continue;
+            }
+            int resourceId = -1;
+            if (identity != null && (resourceId = segment.resourceIdOf(identity)) < 0) {
+                continue;
+            }
+            for (int pos = 0; pos < records.limit(); pos += RECORD_SIZE) {
+                if (resourceId < 0 || records.getInt(pos + RESOURCE_OFFSET) == resourceId) {
+                    list.add(segment.decode(records, pos));
+                    if (list.size() >= MAX_LINES_RETURN) {
+                        return list;
+                    }
+                }
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Slice the raw records between [beginTimeMs, endTimeMs] (both side inclusive) from the segments.
+     * The slices share the memory of the mapped segments, and each record is {@value BinaryMetricWriter#RECORD_SIZE}
+     * bytes with the layout described in {@link BinaryMetricWriter}.
+     *
+     * @return read-only slices of the records, in time order
+     */
+    public synchronized List<ByteBuffer> sliceByTime(long beginTimeMs, long endTimeMs) throws Exception {
+        List<ByteBuffer> slices = new ArrayList<ByteBuffer>();
+        long endSecond = endTimeMs / 1000;
+        for (Segment segment : openSegments()) {
+            if (segment.firstSecond() > endSecond) {
+                break;
+            }
+            ByteBuffer records = segment.slice(beginTimeMs / 1000, endSecond);
+            if (records != null) {
+                slices.add(records);
+            }
+        }
+        return slices;
+    }
+
+    private List<Segment> openSegments() throws Exception {
+        List<String> fileNames = MetricWriter.listMetricFiles(baseDir, baseFileName);
+        // Release the segments removed.
+        for (Iterator<String> it = segments.keySet().iterator(); it.hasNext(); ) {
+            if (!fileNames.contains(it.next())) {
+                it.remove();
+            }
+        }
+        List<Segment> list = new ArrayList<Segment>(fileNames.size());
+        for (String fileName : fileNames) {
+            Segment segment = segments.get(fileName);
+            if (segment == null) {
+                segment = Segment.open(fileName);
+                if (segment == null) {
+                    continue;
+                }
+                segments.put(fileName, segment);
+            }
+            list.add(segment);
+        }
+        return list;
+    }
+
+    private static final class Segment {
+
+        private final MappedByteBuffer data;
+        private final String indexFileName;
+        private final String dictFileName;
+
+        private ByteBuffer index;
+        private final List<String> resources = new ArrayList<String>();
+        private final Map<String, Integer> resourceIds = new HashMap<String, Integer>();
+        private long dictOffset;
+
+        private Segment(MappedByteBuffer data, String fileName) {
+            this.data = data;
+            this.indexFileName = MetricWriter.formIndexFileName(fileName);
+            this.dictFileName = fileName + METRIC_FILE_DICT_SUFFIX;
+        }
+
+        static Segment open(String fileName) throws IOException {
+            RandomAccessFile file = new RandomAccessFile(fileName, "r");
+            try {
+                long size = file.length();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    return null;
+                }
+                MappedByteBuffer data = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                    return null;
+                }
+                return new Segment(data, fileName);
+            } finally {
+                file.close();
+            }
+        }
+
+        private int limit() {
+            return (int)Math.min(data.getLong(LIMIT_OFFSET), data.capacity());
+        }
+
+        /**
+         * Map the index again when more entries are appended.
+         */
+        private ByteBuffer index() throws IOException {
+            File file = new File(indexFileName);
+            long size = file.length() / INDEX_ENTRY_SIZE * INDEX_ENTRY_SIZE;
+            if (index == null || index.capacity() < size) {
+                if (size == 0) {
+                    return null;
+                }
+                RandomAccessFile indexFile = new RandomAccessFile(file, "r");
+                try {
+                    index = indexFile.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+                } finally {
+                    indexFile.close();
+                }
+            }
+            return index;
+        }
+
+        /**
+         * @return the index of the first entry whose second is not less than given second
+         */
+        private static int lowerBound(ByteBuffer index, long second) {
+            int low = 0;
+            int high = index.capacity() / INDEX_ENTRY_SIZE;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (index.getLong(mid * INDEX_ENTRY_SIZE) < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        long firstSecond() throws IOException {
+            ByteBuffer index = index();
+            return index == null ? Long.MAX_VALUE : index.getLong(0);
+        }
+
+        ByteBuffer slice(long beginSecond, long endSecond) throws IOException {
+            ByteBuffer index = index();
+            if (index == null) {
+                return null;
+            }
+            int limit = limit();
+            int entries = index.capacity() / INDEX_ENTRY_SIZE;
+            int from = lowerBound(index, beginSecond);
+            if (from >= entries) {
+                return null;
+            }
+            long start = index.getLong(from * INDEX_ENTRY_SIZE + 8);
+            int to = endSecond == Long.MAX_VALUE ? entries : lowerBound(index, endSecond + 1);
+            long end = to >= entries ? limit : Math.min(limit, index.getLong(to * INDEX_ENTRY_SIZE + 8));
+            if (start >= end) {
+                return null;
+            }
+            ByteBuffer records = data.duplicate();
+            // Call via Buffer, as the covariant overrides of ByteBuffer since JDK 9 are absent in JDK 8.
+            ((Buffer)records).limit((int)end).position((int)start);
+            return records.slice().asReadOnlyBuffer();
+        }
+
+        int resourceIdOf(String resource) throws IOException {
+            Integer id = resourceIds.get(resource);
+            if (id == null) {
+                loadDict();
+                id = resourceIds.get(resource);
+            }
+            return id == null ? -1 : id;
+        }
+
+        private String resourceOf(int id) throws IOException {
+            if (id >= resources.size()) {
+                loadDict();
+            }
+            return id < resources.size() ? resources.get(id) : null;
+        }
+
+        private void loadDict() throws IOException {
+            File file = new File(dictFileName);
+            if (file.length() <= dictOffset) {
+                return;
+            }
+            FileInputStream in = new FileInputStream(file);
+            try {
+                in.getChannel().position(dictOffset);
+                DataInputStream dictIn = new DataInputStream(new BufferedInputStream(in));
+                while (true) {
+                    int id = dictIn.readInt();
+                    String resource = dictIn.readUTF();
+                    if (id != resources.size()) {
+                        throw new IOException("Bad metric dictionary: " + dictFileName);
+                    }
+                    resources.add(resource);
+                    resourceIds.put(resource, id);
+                    dictOffset += 4 + 2 + modifiedUtf8Length(resource);
+                }
+            } catch (EOFException ignore) {
+                // Partial entry will be read next time.
+            } finally {
+                in.close();
+            }
+        }
+
+        /**
+         * @return the length of the string encoded by {@link java.io.DataOutput#writeUTF(String)}
+         */
+        private static int modifiedUtf8Length(String str) {
+            int length = 0;
+            for (int i = 0; i < str.length(); i++) {
+                char c = str.charAt(i);
+                if (c >= 0x0001 && c <= 0x007F) {
+                    length++;
+                } else if (c > 0x07FF) {
+                    length += 3;
+                } else {
+                    length += 2;
+                }
+            }
+            return length;
+        }
+
+        MetricNode decode(ByteBuffer records, int pos) throws IOException {
+            MetricNode node = new MetricNode();
+            node.setTimestamp(records.getLong(pos + TIMESTAMP_OFFSET));
+            node.setResource(resourceOf(records.getInt(pos + RESOURCE_OFFSET)));
+            node.setClassification(records.getInt(pos + CLASSIFICATION_OFFSET));
+            node.setPassQps(records.getLong(pos + PASS_OFFSET));
+            node.setBlockQps(records.getLong(pos + BLOCK_OFFSET));
+            node.setSuccessQps(records.getLong(pos + SUCCESS_OFFSET));
+            node.setExceptionQps(records.getLong(pos + EXCEPTION_OFFSET));
+            node.setRt(records.getLong(pos + RT_OFFSET));
+            node.setOccupiedPassQps(records.getLong(pos + OCCUPIED_PASS_OFFSET));
+            node.setConcurrency(records.getInt(pos + CONCURRENCY_OFFSET));
+            return node;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.LogBase;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.PidUtil;
+
+/**
+ * <p>Writes {@link MetricNode} to memory-mapped binary segments, which could be searched by
+ * {@link BinaryMetricSearcher} without parsing text lines. The files are organized like the text
+ * metric log of {@link MetricWriter}:</p>
+ * <ol>
+ * <li>segment file name is like: {@code ${appName}-metrics.bin.pid${pid}.yyyy-MM-dd.[number]},
+ * and metric of different day should in different segment;</li>
+ * <li>the segment is pre-allocated with the single file size and mapped into memory. It starts with a
+ * {@value #HEADER_SIZE}-byte header (magic, version and the write limit), followed by fixed-width records
+ * of {@value #RECORD_SIZE} bytes;</li>
+ * <li>every segment is accompanied with a sparse index file ({@code .idx}), which holds the time-ordered
+ * {@code (second, offset)} pairs of the first record of each second;</li>
+ * <li>and a dictionary file ({@code .dict}), which maps the resource ids in the records to resource names.</li>
+ * </ol>
+ *
+ * @since 1.8.2
+ */
+public class BinaryMetricWriter {
+
+    public static final String METRIC_FILE = "metrics.bin";
+    public static final String METRIC_FILE_DICT_SUFFIX = ".dict";
+
+    static final int MAGIC = 0x53424D31;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int LIMIT_OFFSET = 8;
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    static final int RECORD_SIZE = 72;
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int RESOURCE_OFFSET = 8;
+    static final int CLASSIFICATION_OFFSET = 12;
+    static final int PASS_OFFSET = 16;
+    static final int BLOCK_OFFSET = 24;
+    static final int SUCCESS_OFFSET = 32;
+    static final int EXCEPTION_OFFSET = 40;
+    static final int RT_OFFSET = 48;
+    static final int OCCUPIED_PASS_OFFSET = 56;
+    static final int CONCURRENCY_OFFSET = 64;
+
+    private final String baseDir;
+    private String baseFileName;
+    private final int segmentCapacity;
+    private final int totalFileCount;
+
+    private File curSegmentFile;
+    private MappedByteBuffer segment;
+    private DataOutputStream outIndex;
+    private DataOutputStream outDict;
+    private final Map<String, Integer> resourceIds = new HashMap<String, Integer>();
+    private long indexedSecond = -1;
+
+    private long lastSecond = -1;
+
+    public BinaryMetricWriter(long singleFileSize, int totalFileCount) {
+        this(MetricWriter.METRIC_BASE_DIR, null, singleFileSize, totalFileCount);
+    }
+
+    /**
+     * @param baseDir        directory of the segments
+     * @param baseFileName   base file name of the segments, or null to form it with the app name and pid
+     * @param singleFileSize size of a single segment
+     * @param totalFileCount max count of segments to keep
+     */
+    public BinaryMetricWriter(String baseDir, String baseFileName, long singleFileSize, int totalFileCount) {
+        if (singleFileSize <= 0 || totalFileCount <= 0) {
+            throw new IllegalArgumentException();
+        }
+        RecordLog.info("[BinaryMetricWriter] Creating new BinaryMetricWriter, singleFileSize={}, totalFileCount={}",
+            singleFileSize, totalFileCount);
+        this.baseDir = baseDir.endsWith(File.separator) ? baseDir : baseDir + File.separator;
+        File dir = new File(this.baseDir);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        this.baseFileName = baseFileName;
+        long records = Math.max(1, (Math.min(singleFileSize, Integer.MAX_VALUE) - HEADER_SIZE) / RECORD_SIZE);
+        this.segmentCapacity = (int)(HEADER_SIZE + records * RECORD_SIZE);
+        this.totalFileCount = totalFileCount;
+    }
+
+    /**
+     * Write the metrics of given time (all nodes are regarded as of the time).
+     *
+     * @param time  timestamp of the metrics
+     * @param nodes metrics to write
+     */
+    public synchronized void write(long time, List<MetricNode> nodes) throws Exception {
+        if (nodes == null) {
+            return;
+        }
+        long second = time / 1000;
+        if (second < lastSecond) {
+            // Earlier metrics are ignored, which should not happen.
+            return;
+        }
+        if (baseFileName == null) {
+            String appName = SentinelConfig.getAppName();
+            baseFileName = formMetricFileName(appName == null ? "" : appName, PidUtil.getPid());
+        }
+        if (segment == null || !curSegmentFile.exists() || (second > lastSecond && isNewDay(lastSecond, second))) {
+            closeAndNewSegment(time);
+        }
+        lastSecond = second;
+
+        for (MetricNode node : nodes) {
+            node.setTimestamp(time);
+            if (segment.remaining() < RECORD_SIZE) {
+                closeAndNewSegment(time);
+            }
+            if (indexedSecond != second) {
+                outIndex.writeLong(second);
+                outIndex.writeLong(segment.position());
+                indexedSecond = second;
+            }
+            writeRecord(node);
+        }
+        // The dictionary should be visible before the records, while the index entries beyond
+        // the limit are ignored by the searcher.
+        outDict.flush();
+        segment.putLong(LIMIT_OFFSET, segment.position());
+        outIndex.flush();
+    }
+
+    private void writeRecord(MetricNode node) throws Exception {
+        int position = segment.position();
+        segment.putLong(position + TIMESTAMP_OFFSET, node.getTimestamp());
+        segment.putInt(position + RESOURCE_OFFSET, resourceIdOf(node.getResource()));
+        segment.putInt(position + CLASSIFICATION_OFFSET, node.getClassification());
+        segment.putLong(position + PASS_OFFSET, node.getPassQps());
+        segment.putLong(position + BLOCK_OFFSET, node.getBlockQps());
+        segment.putLong(position + SUCCESS_OFFSET, node.getSuccessQps());
+        segment.putLong(position + EXCEPTION_OFFSET, node.getExceptionQps());
+        segment.putLong(position + RT_OFFSET, node.getRt());
+        segment.putLong(position + OCCUPIED_PASS_OFFSET, node.getOccupiedPassQps());
+        segment.putInt(position + CONCURRENCY_OFFSET, node.getConcurrency());
+        // Call via Buffer, as ByteBuffer#position(int) is covariant since JDK 9 and absent in JDK 8.
+        ((Buffer)segment).position(position + RECORD_SIZE);
+    }
+
+    private int resourceIdOf(String resource) throws Exception {
+        Integer id = resourceIds.get(resource);
+        if (id == null) {
+            id = resourceIds.size();
+            resourceIds.put(resource, id);
+            outDict.writeInt(id);
+            outDict.writeUTF(resource);
+        }
+        return id;
+    }
+
+    public synchronized void close() throws Exception {
+        if (outDict != null) {
+            outDict.close();
+            outDict = null;
+        }
+        if (segment != null) {
+            segment.putLong(LIMIT_OFFSET, segment.position());
+            segment = null;
+        }
+        if (outIndex != null) {
+            outIndex.close();
+            outIndex = null;
+        }
+    }
+
+    private void closeAndNewSegment(long time) throws Exception {
+        close();
+        MetricWriter.removeMoreFiles(baseDir, baseFileName, totalFileCount, MetricWriter.METRIC_FILE_INDEX_SUFFIX,
+            METRIC_FILE_DICT_SUFFIX);
+        String fileName = MetricWriter.nextFileNameOfDay(baseDir, baseFileName, time);
+        RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            // The mapping keeps valid after the file is closed.
+            segment = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+        } finally {
+            file.close();
+        }
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(LIMIT_OFFSET, HEADER_SIZE);
+        ((Buffer)segment).position(HEADER_SIZE);
+        curSegmentFile = new File(fileName);
+        resourceIds.clear();
+        indexedSecond = -1;
+        outIndex = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(MetricWriter.formIndexFileName(fileName), false)));
+        outDict = new DataOutputStream(new BufferedOutputStream(
+            new FileOutputStream(fileName + METRIC_FILE_DICT_SUFFIX, false)));
+        RecordLog.info("[BinaryMetricWriter] New metric segment created: {}", fileName);
+    }
+
+    private static boolean isNewDay(long lastSecond, long second) {
+        long offset = TimeZone.getDefault().getRawOffset() / 1000;
+        return (second + offset) / 86400 > (lastSecond + offset) / 86400;
+    }
+
+    /**
+     * Form the segment file name with the specific appName and pid, like
+     * {@link MetricWriter#formMetricFileName(String, int)}.
+     *
+     * @param appName app name
+     * @param pid     pid
+     * @return base file name of the segments
+     */
+    public static String formMetricFileName(String appName, int pid) {
+        if (appName == null) {
+            appName = "";
+        }
+        String name = appName.replace(".", "-") + "-" + METRIC_FILE;
+        if (LogBase.isLogNameUsePid()) {
+            name += ".pid" + pid;
+        }
+        return name;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>The write stage of the metric log. The metrics of each second collected by {@link MetricTimerListener}
+ * are submitted to a bounded queue, and written by a dedicated writer thread, so that a slow disk won't
+ * stall the collection of next seconds.</p>
+ *
+ * <p>When the writer falls behind and the queue is full, the oldest seconds are dropped to make room for
+ * the newer ones. The lag of the flush and the count of dropped seconds are exposed for monitoring.</p>
+ *
+ * @since 1.8.2
+ */
+public class MetricFlushPipeline {
+
+    private final BlockingQueue<MetricBatch> queue;
+    private final MetricWriter metricWriter;
+    private final BinaryMetricWriter binaryMetricWriter;
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    private final AtomicLong submittedSeconds = new AtomicLong();
+    private final AtomicLong writtenSeconds = new AtomicLong();
+    private final AtomicLong droppedSeconds = new AtomicLong();
+    private final AtomicLong failedSeconds = new AtomicLong();
+
+    private volatile long lastWrittenTime = -1;
+    private volatile long lastFlushLagMs = 0;
+    private volatile long lastWriteCostMs = 0;
+
+    /**
+     * @param capacity           max seconds of metrics queued
+     * @param metricWriter       writer of the text metric log, nullable
+     * @param binaryMetricWriter writer of the binary metric log, nullable
+     */
+    public MetricFlushPipeline(int capacity, MetricWriter metricWriter, BinaryMetricWriter binaryMetricWriter) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive");
+        }
+        this.queue = new ArrayBlockingQueue<MetricBatch>(capacity);
+        this.metricWriter = metricWriter;
+        this.binaryMetricWriter = binaryMetricWriter;
+    }
+
+    /**
+     * Start the writer thread (only once).
+     */
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread writerThread = new NamedThreadFactory("sentinel-metrics-writer", true).newThread(new Runnable() {
+            @Override
+            public void run() {
+                while (!Thread.currentThread().isInterrupted()) {
+                    try {
+                        write(queue.take());
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[MetricFlushPipeline] Unexpected error when writing metrics", ex);
+                    }
+                }
+            }
+        });
+        writerThread.start();
+    }
+
+    /**
+     * Submit the metrics of a second to write. It never blocks: if the queue is full,
+     * the oldest queued seconds will be dropped.
+     *
+     * @param time  timestamp of the second
+     * @param nodes metrics of the second
+     * @return false if any queued second is dropped
+     */
+    public boolean submit(long time, List<MetricNode> nodes) {
+        MetricBatch batch = new MetricBatch(time, nodes);
+        submittedSeconds.incrementAndGet();
+        boolean dropped = false;
+        while (!queue.offer(batch)) {
+            MetricBatch oldest = queue.poll();
+            if (oldest != null) {
+                droppedSeconds.incrementAndGet();
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            RecordLog.warn("[MetricFlushPipeline] Metric writer falls behind, total dropped seconds: {}",
+                droppedSeconds.get());
+        }
+        return !dropped;
+    }
+
+    /**
+     * Write all queued metrics on current thread.
+     *
+     * @return count of seconds written
+     */
+    int drain() {
+        int count = 0;
+        MetricBatch batch;
+        while ((batch = queue.poll()) != null) {
+            write(batch);
+            count++;
+        }
+        return count;
+    }
+
+    private void write(MetricBatch batch) {
+        long start = TimeUtil.currentTimeMillis();
+        // Writers are isolated, so that the text metric log (which the dashboard depends on)
+        // is still written when the binary metric log fails.
+        boolean success = true;
+        if (binaryMetricWriter != null) {
+            try {
+                binaryMetricWriter.write(batch.time, batch.nodes);
+            } catch (Exception ex) {
+                success = false;
+                RecordLog.warn("[MetricFlushPipeline] Write binary metric error", ex);
+            }
+        }
+        if (metricWriter != null) {
+            try {
+                metricWriter.write(batch.time, batch.nodes);
+            } catch (Exception ex) {
+                success = false;
+                RecordLog.warn("[MetricFlushPipeline] Write metric error", ex);
+            }
+        }
+        if (success) {
+            writtenSeconds.incrementAndGet();
+        } else {
+            failedSeconds.incrementAndGet();
+        }
+        long end = TimeUtil.currentTimeMillis();
+        lastWriteCostMs = end - start;
+        // The metrics of the second are complete at the end of the second.
+        lastFlushLagMs = Math.max(0, end - batch.time - 1000);
+        lastWrittenTime = batch.time;
+    }
+
+    /**
+     * @return count of seconds waiting to be written
+     */
+    public int getQueuedSeconds() {
+        return queue.size();
+    }
+
+    /**
+     * @return how long (in ms) the oldest queued second has waited since it was complete, or 0 if none queued
+     */
+    public long getBacklogMs() {
+        MetricBatch oldest = queue.peek();
+        return oldest == null ? 0 : Math.max(0, TimeUtil.currentTimeMillis() - oldest.time - 1000);
+    }
+
+    /**
+     * @return the delay (in ms) between the end of the last written second and the time it was written
+     */
+    public long getLastFlushLagMs() {
+        return lastFlushLagMs;
+    }
+
+    public long getLastWriteCostMs() {
+        return lastWriteCostMs;
+    }
+
+    public long getLastWrittenTime() {
+        return lastWrittenTime;
+    }
+
+    public long getSubmittedSeconds() {
+        return submittedSeconds.get();
+    }
+
+    public long getWrittenSeconds() {
+        return writtenSeconds.get();
+    }
+
+    public long getDroppedSeconds() {
+        return droppedSeconds.get();
+    }
+
+    public long getFailedSeconds() {
+        return failedSeconds.get();
+    }
+
+    private static final class MetricBatch {
+        private final long time;
+        private final List<MetricNode> nodes;
+
+        MetricBatch(long time, List<MetricNode> nodes) {
+            this.time = time;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -23,18 +23,37 @@ import java.util.TreeMap;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
-import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 /**
+ * Collects the metrics of all resources, which are written to the metric log asynchronously
+ * via the {@link MetricFlushPipeline}.
+ *
  * @author jialiang.linjl
  */
 public class MetricTimerListener implements Runnable {
 
-    private static final MetricWriter metricWriter = new MetricWriter(SentinelConfig.singleMetricFileSize(),
-        SentinelConfig.totalMetricFileCount());
+    private static final MetricFlushPipeline flushPipeline = new MetricFlushPipeline(
+        SentinelConfig.metricFlushQueueCapacity(),
+        SentinelConfig.metricLogText()
+            ? new MetricWriter(SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount()) : null,
+        SentinelConfig.metricLogBinary()
+            ? new BinaryMetricWriter(SentinelConfig.singleMetricFileSize(), SentinelConfig.totalMetricFileCount())
+            : null);
+
+    static {
+        flushPipeline.start();
+    }
+
+    /**
+     * @return the pipeline writing the metric log
+     * @since 1.8.2
+     */
+    public static MetricFlushPipeline getFlushPipeline() {
+        return flushPipeline;
+    }
 
     @Override
     public void run() {
@@ -46,12 +65,9 @@ public class MetricTimerListener implements Runnable {
         }
         aggregate(maps, Constants.ENTRY_NODE.metrics(), Constants.ENTRY_NODE);
         if (!maps.isEmpty()) {
+            // The seconds are submitted in time order.
             for (Entry<Long, List<MetricNode>> entry : maps.entrySet()) {
-                try {
-                    metricWriter.write(entry.getKey(), entry.getValue());
-                } catch (Exception e) {
-                    RecordLog.warn("[MetricTimerListener] Write metric error", e);
-                }
+                flushPipeline.submit(entry.getKey(), entry.getValue());
             }
         }
     }
@@ -189,6 +189,10 @@ public class MetricWriter {
     }
 
     private String nextFileNameOfDay(long time) {
+        return nextFileNameOfDay(baseDir, baseFileName, time);
+    }
+
+    static String nextFileNameOfDay(String baseDir, String baseFileName, long time) {
         List<String> list = new ArrayList<String>();
         File baseFile = new File(baseDir);
         DateFormat fileNameDf = new SimpleDateFormat("yyyy-MM-dd");
@@ -198,6 +202,7 @@ public class MetricWriter {
             String fileName = file.getName();
             if (fileName.contains(fileNameModel)
                 && !fileName.endsWith(METRIC_FILE_INDEX_SUFFIX)
+                && !fileName.endsWith(BinaryMetricWriter.METRIC_FILE_DICT_SUFFIX)
                 && !fileName.endsWith(".lck")) {
                 list.add(file.getAbsolutePath());
             }
@@ -319,17 +324,27 @@ public class MetricWriter {
     }
 
     private void removeMoreFiles() throws Exception {
+        removeMoreFiles(baseDir, baseFileName, totalFileCount, METRIC_FILE_INDEX_SUFFIX);
+    }
+
+    /**
+     * Remove the earliest metric files (together with the files of given suffixes), so that there will be
+     * at most {@code totalFileCount} metric files after a new one is created.
+     */
+    static void removeMoreFiles(String baseDir, String baseFileName, int totalFileCount, String... suffixes)
+        throws Exception {
         List<String> list = listMetricFiles(baseDir, baseFileName);
         if (list == null || list.isEmpty()) {
             return;
         }
         for (int i = 0; i < list.size() - totalFileCount + 1; i++) {
             String fileName = list.get(i);
-            String indexFile = formIndexFileName(fileName);
             new File(fileName).delete();
             RecordLog.info("[MetricWriter] Removing metric file: {}", fileName);
-            new File(indexFile).delete();
-            RecordLog.info("[MetricWriter] Removing metric index file: {}", indexFile);
+            for (String suffix : suffixes) {
+                new File(fileName + suffix).delete();
+                RecordLog.info("[MetricWriter] Removing metric {} file: {}", suffix, fileName + suffix);
+            }
         }
     }
 
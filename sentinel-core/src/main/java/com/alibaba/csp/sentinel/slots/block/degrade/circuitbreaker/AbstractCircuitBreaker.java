@@ -67,10 +67,12 @@ public abstract class AbstractCircuitBreaker implements CircuitBreaker {
     @Override
     public boolean tryPass(Context context) {
         // Template implementation.
-        if (currentState.get() == State.CLOSED) {
+        // In CLOSED state (the common case) this is a single volatile read.
+        State state = currentState.get();
+        if (state == State.CLOSED) {
             return true;
         }
-        if (currentState.get() == State.OPEN) {
+        if (state == State.OPEN) {
             // For half-open state we allow a request for probing.
             return retryTimeoutArrived() && fromOpenToHalfOpen(context);
         }
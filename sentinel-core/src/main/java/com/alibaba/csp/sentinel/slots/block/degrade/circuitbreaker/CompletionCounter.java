@@ -0,0 +1,160 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>Counts the completed requests of a circuit breaker within the current statistic interval,
+ * together with the "bad" ones among them (e.g. slow requests or requests with errors).</p>
+ *
+ * <p>The counters are striped: each stripe is padded to 128 bytes and a thread always updates the stripe
+ * chosen by hashing its id, so completions on different cores don't contend on the same cache line
+ * (the same layout as {@code StripedMetricBucket}). Reading a counter sums up all stripes.</p>
+ *
+ * <p>There is only one bucket covering the whole interval, which rolls over lazily when a completion arrives
+ * after the interval ends. Like {@code LeapArray}, the bucket is reset in place, so a few completions racing
+ * with the rollover might be lost.</p>
+ *
+ * @since 1.8.2
+ */
+final class CompletionCounter {
+
+    /**
+     * Amount of {@code long} slots of a stripe (128 bytes).
+     */
+    private static final int STRIDE = 16;
+    private static final int TOTAL = 0;
+    private static final int BAD = 1;
+
+    private static final int MAX_STRIPES = 16;
+
+    private final int intervalMs;
+    /**
+     * The first and the last {@link #STRIDE} slots are left unused as padding.
+     */
+    private final AtomicLongArray cells;
+    private final int stripeMask;
+
+    private final AtomicLong windowStart = new AtomicLong();
+    /**
+     * Whether the request amount of current interval has been observed to reach the minimum request amount.
+     */
+    private volatile boolean minRequestReached;
+
+    CompletionCounter(int intervalMs) {
+        this(intervalMs, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param intervalMs statistic interval in milliseconds
+     * @param stripes    amount of stripes, will be rounded up to a power of two
+     */
+    CompletionCounter(int intervalMs, int stripes) {
+        AssertUtil.isTrue(intervalMs > 0, "intervalMs should be positive");
+        this.intervalMs = intervalMs;
+        int c = Math.max(1, Math.min(stripes, MAX_STRIPES));
+        int n = Integer.highestOneBit(c) == c ? c : Integer.highestOneBit(c) << 1;
+        this.stripeMask = n - 1;
+        this.cells = new AtomicLongArray((n + 2) * STRIDE);
+        this.windowStart.set(currentWindowStart());
+    }
+
+    private long currentWindowStart() {
+        long now = TimeUtil.currentTimeMillis();
+        return now - now % intervalMs;
+    }
+
+    private int currentStripe() {
+        long id = Thread.currentThread().getId();
+        int h = (int)(id ^ (id >>> 32));
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h & stripeMask;
+    }
+
+    /**
+     * Record a completed request in current interval.
+     *
+     * @param bad whether the request is a bad one
+     */
+    void add(boolean bad) {
+        long start = currentWindowStart();
+        long prev = windowStart.get();
+        if (start > prev && windowStart.compareAndSet(prev, start)) {
+            clear();
+        }
+        int base = (currentStripe() + 1) * STRIDE;
+        cells.getAndIncrement(base + TOTAL);
+        if (bad) {
+            cells.getAndIncrement(base + BAD);
+        }
+    }
+
+    long total() {
+        return sum(TOTAL);
+    }
+
+    long bad() {
+        return sum(BAD);
+    }
+
+    private long sum(int offset) {
+        long sum = 0;
+        for (int i = 0; i <= stripeMask; i++) {
+            sum += cells.get((i + 1) * STRIDE + offset);
+        }
+        return sum;
+    }
+
+    boolean isMinRequestReached() {
+        return minRequestReached;
+    }
+
+    void markMinRequestReached() {
+        this.minRequestReached = true;
+    }
+
+    /**
+     * Reset the counters and start over from current interval.
+     */
+    void reset() {
+        windowStart.set(currentWindowStart());
+        clear();
+    }
+
+    private void clear() {
+        for (int i = 0; i <= stripeMask; i++) {
+            cells.set((i + 1) * STRIDE + TOTAL, 0);
+            cells.set((i + 1) * STRIDE + BAD, 0);
+        }
+        minRequestReached = false;
+    }
+
+    @Override
+    public String toString() {
+        return "CompletionCounter{" +
+            "windowStart=" + windowStart.get() +
+            ", totalCount=" + total() +
+            ", badCount=" + bad() +
+            '}';
+    }
+}
@@ -15,14 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
-import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
-import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 import static com.alibaba.csp.sentinel.slots.block.RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT;
@@ -38,13 +33,13 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
     private final int minRequestAmount;
     private final double threshold;
 
-    private final LeapArray<SimpleErrorCounter> stat;
+    private final CompletionCounter stat;
 
     public ExceptionCircuitBreaker(DegradeRule rule) {
-        this(rule, new SimpleErrorCounterLeapArray(1, rule.getStatIntervalMs()));
+        this(rule, new CompletionCounter(rule.getStatIntervalMs()));
     }
 
-    ExceptionCircuitBreaker(DegradeRule rule, LeapArray<SimpleErrorCounter> stat) {
+    ExceptionCircuitBreaker(DegradeRule rule, CompletionCounter stat) {
         super(rule);
         this.strategy = rule.getGrade();
         boolean modeOk = strategy == DEGRADE_GRADE_EXCEPTION_RATIO || strategy == DEGRADE_GRADE_EXCEPTION_COUNT;
@@ -57,8 +52,7 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
 
     @Override
     protected void resetStat() {
-        // Reset current bucket (bucket count = 1).
-        stat.currentWindow().value().reset();
+        stat.reset();
     }
 
     @Override
@@ -68,11 +62,7 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
         Throwable error = entry.getError();
-        SimpleErrorCounter counter = stat.currentWindow().value();
-        if (error != null) {
-            counter.getErrorCount().add(1);
-        }
-        counter.getTotalCount().add(1);
+        stat.add(error != null);
 
         handleStateChangeWhenThresholdExceeded(error);
     }
@@ -92,16 +82,17 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
         
-        List<SimpleErrorCounter> counters = stat.values();
-        long errCount = 0;
-        long totalCount = 0;
-        for (SimpleErrorCounter counter : counters) {
-            errCount += counter.errorCount.sum();
-            totalCount += counter.totalCount.sum();
+        // A successful request never raises the error count or the error ratio, so it can only trip
+        // the breaker by making the request amount reach the minimum request amount.
+        if (error == null && stat.isMinRequestReached()) {
+            return;
         }
+        long totalCount = stat.total();
         if (totalCount < minRequestAmount) {
             return;
         }
+        stat.markMinRequestReached();
+        long errCount = stat.bad();
         double curCount = errCount;
         if (strategy == DEGRADE_GRADE_EXCEPTION_RATIO) {
             // Use errorRatio
@@ -111,56 +102,4 @@ public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
             transformToOpen(curCount);
         }
     }
-
-    static class SimpleErrorCounter {
-        private LongAdder errorCount;
-        private LongAdder totalCount;
-
-        public SimpleErrorCounter() {
-            this.errorCount = new LongAdder();
-            this.totalCount = new LongAdder();
-        }
-
-        public LongAdder getErrorCount() {
-            return errorCount;
-        }
-
-        public LongAdder getTotalCount() {
-            return totalCount;
-        }
-
-        public SimpleErrorCounter reset() {
-            errorCount.reset();
-            totalCount.reset();
-            return this;
-        }
-
-        @Override
-        public String toString() {
-            return "SimpleErrorCounter{" +
-                "errorCount=" + errorCount +
-                ", totalCount=" + totalCount +
-                '}';
-        }
-    }
-
-    static class SimpleErrorCounterLeapArray extends LeapArray<SimpleErrorCounter> {
-
-        public SimpleErrorCounterLeapArray(int sampleCount, int intervalInMs) {
-            super(sampleCount, intervalInMs);
-        }
-
-        @Override
-        public SimpleErrorCounter newEmptyBucket(long timeMillis) {
-            return new SimpleErrorCounter();
-        }
-
-        @Override
-        protected WindowWrap<SimpleErrorCounter> resetWindowTo(WindowWrap<SimpleErrorCounter> w, long startTime) {
-            // Update the start time and reset value.
-            w.resetTo(startTime);
-            w.value().reset();
-            return w;
-        }
-    }
 }
@@ -15,15 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
 
-import java.util.List;
-import java.util.concurrent.atomic.LongAdder;
-
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
-import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
-import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -39,13 +34,13 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
     private final double maxSlowRequestRatio;
     private final int minRequestAmount;
 
-    private final LeapArray<SlowRequestCounter> slidingCounter;
+    private final CompletionCounter slidingCounter;
 
     public ResponseTimeCircuitBreaker(DegradeRule rule) {
-        this(rule, new SlowRequestLeapArray(1, rule.getStatIntervalMs()));
+        this(rule, new CompletionCounter(rule.getStatIntervalMs()));
     }
 
-    ResponseTimeCircuitBreaker(DegradeRule rule, LeapArray<SlowRequestCounter> stat) {
+    ResponseTimeCircuitBreaker(DegradeRule rule, CompletionCounter stat) {
         super(rule);
         AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT, "rule metric type should be RT");
         AssertUtil.notNull(stat, "stat cannot be null");
@@ -57,13 +52,11 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
 
     @Override
     public void resetStat() {
-        // Reset current bucket (bucket count = 1).
-        slidingCounter.currentWindow().value().reset();
+        slidingCounter.reset();
     }
 
     @Override
     public void onRequestComplete(Context context) {
-        SlowRequestCounter counter = slidingCounter.currentWindow().value();
         Entry entry = context.getCurEntry();
         if (entry == null) {
             return;
@@ -73,10 +66,7 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
             completeTime = TimeUtil.currentTimeMillis();
         }
         long rt = completeTime - entry.getCreateTimestamp();
-        if (rt > maxAllowedRt) {
-            counter.slowCount.add(1);
-        }
-        counter.totalCount.add(1);
+        slidingCounter.add(rt > maxAllowedRt);
 
         handleStateChangeWhenThresholdExceeded(rt);
     }
@@ -97,16 +87,17 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
             return;
         }
 
-        List<SlowRequestCounter> counters = slidingCounter.values();
-        long slowCount = 0;
-        long totalCount = 0;
-        for (SlowRequestCounter counter : counters) {
-            slowCount += counter.slowCount.sum();
-            totalCount += counter.totalCount.sum();
+        // A fast request never raises the slow request ratio, so it can only trip the breaker
+        // by making the request amount reach the minimum request amount.
+        if (rt <= maxAllowedRt && slidingCounter.isMinRequestReached()) {
+            return;
         }
+        long totalCount = slidingCounter.total();
         if (totalCount < minRequestAmount) {
             return;
         }
+        slidingCounter.markMinRequestReached();
+        long slowCount = slidingCounter.bad();
         double currentRatio = slowCount * 1.0d / totalCount;
         if (currentRatio > maxSlowRequestRatio) {
             transformToOpen(currentRatio);
@@ -116,55 +107,4 @@ public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
             transformToOpen(currentRatio);
         }
     }
-
-    static class SlowRequestCounter {
-        private LongAdder slowCount;
-        private LongAdder totalCount;
-
-        public SlowRequestCounter() {
-            this.slowCount = new LongAdder();
-            this.totalCount = new LongAdder();
-        }
-
-        public LongAdder getSlowCount() {
-            return slowCount;
-        }
-
-        public LongAdder getTotalCount() {
-            return totalCount;
-        }
-
-        public SlowRequestCounter reset() {
-            slowCount.reset();
-            totalCount.reset();
-            return this;
-        }
-
-        @Override
-        public String toString() {
-            return "SlowRequestCounter{" +
-                "slowCount=" + slowCount +
-                ", totalCount=" + totalCount +
-                '}';
-        }
-    }
-
-    static class SlowRequestLeapArray extends LeapArray<SlowRequestCounter> {
-
-        public SlowRequestLeapArray(int sampleCount, int intervalInMs) {
-            super(sampleCount, intervalInMs);
-        }
-
-        @Override
-        public SlowRequestCounter newEmptyBucket(long timeMillis) {
-            return new SlowRequestCounter();
-        }
-
-        @Override
-        protected WindowWrap<SlowRequestCounter> resetWindowTo(WindowWrap<SlowRequestCounter> w, long startTime) {
-            w.resetTo(startTime);
-            w.value().reset();
-            return w;
-        }
-    }
 }
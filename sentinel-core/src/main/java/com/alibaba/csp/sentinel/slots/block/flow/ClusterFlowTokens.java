@@ -0,0 +1,243 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.client.ClusterTokenClient;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>Cluster tokens requested in advance for the cluster flow rules of a resource, so that non-blocking callers
+ * (e.g. reactive adapters running on event loops) don't have to wait for the token server within the slot chain.</p>
+ *
+ * <p>The tokens are requested via {@link #requestAsync(String, String, int, boolean)}, only for the rules
+ * which apply to the origin of the caller. The rules are requested one by one in the order they're checked,
+ * and the request stops at the first blocked rule, as the entry won't reach the following rules. When the future completes,
+ * the entry should be made between {@link #attach()} and {@link #detach()} on the same thread, where
+ * {@link FlowRuleChecker} applies the requested results rather than requesting the token server again:</p>
+ *
+ * <pre>
+ * ClusterFlowTokens.requestAsync(resourceName, origin, 1, false).thenAccept(tokens -&gt; {
+ *     tokens.attach();
+ *     try {
+ *         AsyncEntry entry = SphU.asyncEntryNonBlocking(resourceName, EntryType.IN);
+ *         // ...
+ *     } catch (BlockException ex) {
+ *         // ...
+ *     } finally {
+ *         ClusterFlowTokens.detach();
+ *     }
+ * });
+ * </pre>
+ *
+ * <p>Each result is applied once. Cluster rules which don't apply to the origin of the request are passed by
+ * the entries the tokens are attached to, as they're not selected by the request. Other rules without a requested
+ * result (e.g. the rules have been updated since the request) still request the token server synchronously.
+ * Entries without attached tokens check all cluster rules as before.</p>
+ *
+ * @since 1.8.2
+ */
+public final class ClusterFlowTokens {
+
+    private static final ClusterFlowTokens NONE = new ClusterFlowTokens(Collections.<FlowRule, TokenResult>emptyMap());
+    private static final CompletableFuture<ClusterFlowTokens> NONE_FUTURE = CompletableFuture.completedFuture(NONE);
+
+    private static final ThreadLocal<ClusterFlowTokens> ATTACHED = new ThreadLocal<>();
+
+    private final Map<FlowRule, TokenResult> results;
+    /**
+     * Origin the tokens are requested for, or null if the rules are not selected by origin.
+     */
+    private final String origin;
+
+    ClusterFlowTokens(Map<FlowRule, TokenResult> results) {
+        this(results, null);
+    }
+
+    ClusterFlowTokens(Map<FlowRule, TokenResult> results, String origin) {
+        this.results = results;
+        this.origin = origin;
+    }
+
+    /**
+     * Request the cluster tokens of given resource for the origin of current context
+     * without blocking current thread.
+     *
+     * @param resourceName the resource name
+     * @param acquireCount token count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return the future of the requested tokens, which never completes exceptionally
+     * @see #requestAsync(String, String, int, boolean)
+     */
+    public static CompletableFuture<ClusterFlowTokens> requestAsync(String resourceName, int acquireCount,
+                                                                    boolean prioritized) {
+        Context context = ContextUtil.getContext();
+        return requestAsync(resourceName, context == null ? "" : context.getOrigin(), acquireCount, prioritized);
+    }
+
+    /**
+     * Request the cluster tokens of the cluster flow rules of given resource which apply to the origin
+     * without blocking current thread. The future completes immediately if there are no such rules
+     * or current instance is not in cluster mode.
+     *
+     * @param resourceName the resource name
+     * @param origin       origin of the entry, which should be the origin of the context the entry is made in
+     * @param acquireCount token count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return the future of the requested tokens, which never completes exceptionally
+     */
+    public static CompletableFuture<ClusterFlowTokens> requestAsync(String resourceName, String origin,
+                                                                    int acquireCount, boolean prioritized) {
+        List<FlowRule> rules = resourceName == null ? null : FlowRuleManager.getFlowRuleMap().get(resourceName);
+        if (rules == null) {
+            return NONE_FUTURE;
+        }
+        List<FlowRule> clusterRules = new ArrayList<>(2);
+        boolean hasClusterRule = false;
+        for (FlowRule rule : rules) {
+            if (rule.isClusterMode() && rule.getLimitApp() != null && rule.getClusterConfig() != null) {
+                hasClusterRule = true;
+                if (FlowRuleChecker.isApplicableTo(rule, origin)) {
+                    clusterRules.add(rule);
+                }
+            }
+        }
+        TokenService service = hasClusterRule ? FlowRuleChecker.pickClusterService() : null;
+        if (service == null) {
+            return NONE_FUTURE;
+        }
+
+        // The rules are selected by origin, and the absent origin is the same as the empty origin of contexts.
+        ClusterFlowTokens tokens = new ClusterFlowTokens(new IdentityHashMap<FlowRule, TokenResult>(),
+            origin == null ? "" : origin);
+        return tokens.requestFrom(service, clusterRules, 0, acquireCount, prioritized);
+    }
+
+    /**
+     * Request the token of the rule at given index, and then the following rules unless it's blocked.
+     * Tokens of the following rules would never be used if the entry is blocked by current rule.
+     */
+    CompletableFuture<ClusterFlowTokens> requestFrom(final TokenService service, final List<FlowRule> rules,
+                                                     final int index, final int acquireCount,
+                                                     final boolean prioritized) {
+        if (index >= rules.size()) {
+            return CompletableFuture.completedFuture(this);
+        }
+        final FlowRule rule = rules.get(index);
+        return requestToken(service, rule.getClusterConfig().getFlowId(), acquireCount, prioritized)
+            .handle(new BiFunction<TokenResult, Throwable, TokenResult>() {
+                @Override
+                public TokenResult apply(TokenResult result, Throwable ex) {
+                    if (ex != null || result == null) {
+                        RecordLog.warn("[ClusterFlowTokens] Request cluster token unexpected failed", ex);
+                        result = new TokenResult(TokenResultStatus.FAIL);
+                    }
+                    put(rule, result);
+                    return result;
+                }
+            }).thenCompose(new Function<TokenResult, CompletableFuture<ClusterFlowTokens>>() {
+                @Override
+                public CompletableFuture<ClusterFlowTokens> apply(TokenResult result) {
+                    if (result.getStatus() == TokenResultStatus.BLOCKED) {
+                        return CompletableFuture.completedFuture(ClusterFlowTokens.this);
+                    }
+                    return requestFrom(service, rules, index + 1, acquireCount, prioritized);
+                }
+            });
+    }
+
+    private static CompletableFuture<TokenResult> requestToken(TokenService service, Long flowId, int acquireCount,
+                                                               boolean prioritized) {
+        if (service instanceof ClusterTokenClient) {
+            return ((ClusterTokenClient)service).requestTokenAsync(flowId, acquireCount, prioritized);
+        }
+        // The embedded token server serves the request within current process.
+        CompletableFuture<TokenResult> future = new CompletableFuture<>();
+        try {
+            future.complete(service.requestToken(flowId, acquireCount, prioritized));
+        } catch (Throwable ex) {
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+    private void put(FlowRule rule, TokenResult result) {
+        // Results might be completed by different I/O threads.
+        synchronized (results) {
+            results.put(rule, result);
+        }
+    }
+
+    /**
+     * Attach the tokens to current thread, so that they're applied by the entries made on current thread
+     * until {@link #detach()}.
+     */
+    public void attach() {
+        if (results.isEmpty() && origin == null) {
+            ATTACHED.remove();
+        } else {
+            ATTACHED.set(this);
+        }
+    }
+
+    /**
+     * Detach the tokens attached to current thread.
+     */
+    public static void detach() {
+        ATTACHED.remove();
+    }
+
+    /**
+     * Check whether the cluster rule is skipped by the tokens attached to current thread,
+     * i.e. the rule doesn't apply to the origin the tokens are requested for.
+     *
+     * @param rule the cluster flow rule
+     * @return true if the rule is skipped
+     */
+    static boolean isSkippedByAttached(FlowRule rule) {
+        ClusterFlowTokens tokens = ATTACHED.get();
+        return tokens != null && tokens.origin != null && !FlowRuleChecker.isApplicableTo(rule, tokens.origin);
+    }
+
+    /**
+     * Take the requested result of given rule from the tokens attached to current thread.
+     *
+     * @param rule the cluster flow rule
+     * @return the requested result, or null if absent
+     */
+    static TokenResult takeAttached(FlowRule rule) {
+        ClusterFlowTokens tokens = ATTACHED.get();
+        if (tokens == null) {
+            return null;
+        }
+        synchronized (tokens.results) {
+            return tokens.results.remove(rule);
+        }
+    }
+}
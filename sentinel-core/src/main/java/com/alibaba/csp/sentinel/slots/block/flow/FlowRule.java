@@ -72,7 +72,8 @@ public class FlowRule extends AbstractRule {
 
     /**
      * Rate limiter control behavior.
-     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter
+     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter,
+     * 4. adaptive concurrency limit (thread grade only)
      */
     private int controlBehavior = RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
 
@@ -83,6 +84,14 @@ public class FlowRule extends AbstractRule {
      */
     private int maxQueueingTimeMs = 500;
 
+    /**
+     * Smoothing factor (0, 1] in adaptive concurrency behavior. The larger it is, the faster
+     * the concurrency limit follows the latency changes.
+     *
+     * @since 1.8.2
+     */
+    private double adaptiveSmoothing = 0.2;
+
     private boolean clusterMode;
     /**
      * Flow rule config for cluster mode.
@@ -112,6 +121,15 @@ public class FlowRule extends AbstractRule {
         return this;
     }
 
+    public double getAdaptiveSmoothing() {
+        return adaptiveSmoothing;
+    }
+
+    public FlowRule setAdaptiveSmoothing(double adaptiveSmoothing) {
+        this.adaptiveSmoothing = adaptiveSmoothing;
+        return this;
+    }
+
     FlowRule setRater(TrafficShapingController rater) {
         this.controller = rater;
         return this;
@@ -198,6 +216,7 @@ public class FlowRule extends AbstractRule {
         if (controlBehavior != rule.controlBehavior) { return false; }
         if (warmUpPeriodSec != rule.warmUpPeriodSec) { return false; }
         if (maxQueueingTimeMs != rule.maxQueueingTimeMs) { return false; }
+        if (Double.compare(rule.adaptiveSmoothing, adaptiveSmoothing) != 0) { return false; }
         if (clusterMode != rule.clusterMode) { return false; }
         if (refResource != null ? !refResource.equals(rule.refResource) : rule.refResource != null) { return false; }
         return clusterConfig != null ? clusterConfig.equals(rule.clusterConfig) : rule.clusterConfig == null;
@@ -215,6 +234,8 @@ public class FlowRule extends AbstractRule {
         result = 31 * result + controlBehavior;
         result = 31 * result + warmUpPeriodSec;
         result = 31 * result + maxQueueingTimeMs;
+        temp = Double.doubleToLongBits(adaptiveSmoothing);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
         return result;
@@ -232,6 +253,7 @@ public class FlowRule extends AbstractRule {
             ", controlBehavior=" + controlBehavior +
             ", warmUpPeriodSec=" + warmUpPeriodSec +
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
+            ", adaptiveSmoothing=" + adaptiveSmoothing +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
             ", controller=" + controller +
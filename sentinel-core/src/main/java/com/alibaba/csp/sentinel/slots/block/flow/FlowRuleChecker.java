@@ -17,6 +17,8 @@ package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Collection;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
@@ -56,6 +58,35 @@ public class FlowRuleChecker {
         }
     }
 
+    /**
+     * Check the flow rules with the compiled plan of the resource.
+     *
+     * @param plan the compiled plan of the resource
+     * @since 1.8.2
+     */
+    void checkFlow(/*@NonNull*/ FlowRulePlan plan, Context context, DefaultNode node, int count,
+                   boolean prioritized) throws BlockException {
+        for (FlowRulePlan.CompiledFlowRule compiledRule : plan.getRules()) {
+            if (!canPassCheck(compiledRule, context, node, count, prioritized)) {
+                FlowRule rule = compiledRule.getRule();
+                throw new FlowException(rule.getLimitApp(), rule);
+            }
+        }
+    }
+
+    private boolean canPassCheck(FlowRulePlan.CompiledFlowRule compiledRule, Context context, DefaultNode node,
+                                 int acquireCount, boolean prioritized) {
+        if (compiledRule.isClusterMode()) {
+            // The cost of cluster check is dominated by the token request, so it's not compiled.
+            return passClusterCheck(compiledRule.getRule(), context, node, acquireCount, prioritized);
+        }
+        Node selectedNode = compiledRule.selectNode(context, node);
+        if (selectedNode == null) {
+            return true;
+        }
+        return passLocalCheck(compiledRule.getRater(), selectedNode, context, acquireCount, prioritized);
+    }
+
     public boolean canPassCheck(/*@NonNull*/ FlowRule rule, Context context, DefaultNode node,
                                                     int acquireCount) {
         return canPassCheck(rule, context, node, acquireCount, false);
@@ -82,7 +113,31 @@ public class FlowRuleChecker {
             return true;
         }
 
-        return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+        return passLocalCheck(rule.getRater(), selectedNode, context, acquireCount, prioritized);
+    }
+
+    private static boolean passLocalCheck(TrafficShapingController rater, Node selectedNode, Context context,
+                                          int acquireCount, boolean prioritized) {
+        AsyncEntry nonBlockingEntry = nonBlockingEntryOf(context);
+        if (nonBlockingEntry != null && rater instanceof ReservableTrafficShapingController) {
+            // Reserve the time to wait rather than making current thread sleep.
+            long waitInMs = ((ReservableTrafficShapingController)rater).tryReserve(selectedNode, acquireCount,
+                prioritized);
+            if (waitInMs == ReservableTrafficShapingController.REJECTED) {
+                return false;
+            }
+            nonBlockingEntry.reserveWait(waitInMs);
+            return true;
+        }
+        return rater.canPass(selectedNode, acquireCount, prioritized);
+    }
+
+    private static AsyncEntry nonBlockingEntryOf(Context context) {
+        Entry curEntry = context.getCurEntry();
+        if (curEntry instanceof AsyncEntry && ((AsyncEntry)curEntry).isNonBlocking()) {
+            return (AsyncEntry)curEntry;
+        }
+        return null;
     }
 
     static Node selectReferenceNode(FlowRule rule, Context context, DefaultNode node) {
@@ -112,6 +167,23 @@ public class FlowRuleChecker {
         return !RuleConstant.LIMIT_APP_DEFAULT.equals(origin) && !RuleConstant.LIMIT_APP_OTHER.equals(origin);
     }
 
+    /**
+     * Check whether the rule applies to the origin, which is the same as the origin matching of
+     * {@link #selectNodeByRequesterAndStrategy(FlowRule, Context, DefaultNode)}.
+     *
+     * @param rule   the flow rule with non-null limit app
+     * @param origin origin of the caller
+     * @return true if the rule applies to the origin
+     * @since 1.8.2
+     */
+    static boolean isApplicableTo(/*@NonNull*/ FlowRule rule, String origin) {
+        String limitApp = rule.getLimitApp();
+        return (limitApp.equals(origin) && filterOrigin(origin))
+            || RuleConstant.LIMIT_APP_DEFAULT.equals(limitApp)
+            || (RuleConstant.LIMIT_APP_OTHER.equals(limitApp)
+                && FlowRuleManager.isOtherOrigin(origin, rule.getResource()));
+    }
+
     static Node selectNodeByRequesterAndStrategy(/*@NonNull*/ FlowRule rule, Context context, DefaultNode node) {
         // The limit app should not be empty.
         String limitApp = rule.getLimitApp();
@@ -147,12 +219,19 @@ public class FlowRuleChecker {
     private static boolean passClusterCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                             boolean prioritized) {
         try {
-            TokenService clusterService = pickClusterService();
-            if (clusterService == null) {
-                return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+            // Tokens might have been requested in advance by non-blocking callers (see ClusterFlowTokens).
+            if (ClusterFlowTokens.isSkippedByAttached(rule)) {
+                return true;
+            }
+            TokenResult result = ClusterFlowTokens.takeAttached(rule);
+            if (result == null) {
+                TokenService clusterService = pickClusterService();
+                if (clusterService == null) {
+                    return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+                }
+                long flowId = rule.getClusterConfig().getFlowId();
+                result = clusterService.requestToken(flowId, acquireCount, prioritized);
             }
-            long flowId = rule.getClusterConfig().getFlowId();
-            TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
             return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
             // If client is absent, then fallback to local mode.
         } catch (Throwable ex) {
@@ -173,7 +252,7 @@ public class FlowRuleChecker {
         }
     }
 
-    private static TokenService pickClusterService() {
+    static TokenService pickClusterService() {
         if (ClusterStateManager.isClient()) {
             return TokenClientProvider.getClient();
         }
@@ -190,6 +269,11 @@ public class FlowRuleChecker {
             case TokenResultStatus.OK:
                 return true;
             case TokenResultStatus.SHOULD_WAIT:
+                AsyncEntry nonBlockingEntry = nonBlockingEntryOf(context);
+                if (nonBlockingEntry != null) {
+                    nonBlockingEntry.reserveWait(result.getWaitInMs());
+                    return true;
+                }
                 // Wait for next tick.
                 try {
                     Thread.sleep(result.getWaitInMs());
@@ -52,6 +52,11 @@ public class FlowRuleManager {
 
     private static final AtomicReference<Map<String, List<FlowRule>>> flowRules = new AtomicReference<Map<String, List<FlowRule>>>();
 
+    /**
+     * Compiled evaluation plans of the rules (resource name as the key), which are rebuilt on each update.
+     */
+    private static volatile Map<String, FlowRulePlan> flowRulePlans = Collections.emptyMap();
+
     private static final FlowPropertyListener LISTENER = new FlowPropertyListener();
     private static SentinelProperty<List<FlowRule>> currentProperty = new DynamicSentinelProperty<List<FlowRule>>();
 
@@ -127,6 +132,17 @@ public class FlowRuleManager {
         return flowRules.get();
     }
 
+    /**
+     * Get the compiled plans of current rules. The map instance changes whenever the rules are updated,
+     * so the callers could cache the plan of a resource until the map changes.
+     *
+     * @return an unmodifiable map of resource name to the compiled plan
+     * @since 1.8.2
+     */
+    static Map<String, FlowRulePlan> getFlowRulePlans() {
+        return flowRulePlans;
+    }
+
     public static boolean hasConfig(String resource) {
         return flowRules.get().containsKey(resource);
     }
@@ -157,6 +173,7 @@ public class FlowRuleManager {
             //the rules was always not null, it's no need to check nullable
             //remove checking to avoid IDE warning
             flowRules.set(rules);
+            flowRulePlans = FlowRulePlan.compile(rules);
             RecordLog.info("[FlowRuleManager] Flow rules received: {}", rules);
         }
 
@@ -164,6 +181,7 @@ public class FlowRuleManager {
         public void configLoad(List<FlowRule> conf) {
             Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
             flowRules.set(rules);
+            flowRulePlans = FlowRulePlan.compile(rules);
             RecordLog.info("[FlowRuleManager] Flow rules loaded: {}", rules);
         }
     }
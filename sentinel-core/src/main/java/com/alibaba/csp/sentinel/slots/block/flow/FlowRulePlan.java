@@ -0,0 +1,224 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.StringUtil;
+
+/**
+ * <p>The immutable evaluation plan of the flow rules of a resource, compiled when the rules are loaded.</p>
+ *
+ * <p>The origin matcher and the node selector of each rule are resolved from {@code limitApp} and the strategy
+ * in advance, so {@link FlowRuleChecker} does not need to look up the rule map or compare the {@code limitApp}
+ * with the special values ({@code default} and {@code other}) for each entry.</p>
+ *
+ * @since 1.8.2
+ */
+final class FlowRulePlan {
+
+    static final FlowRulePlan EMPTY = new FlowRulePlan(new CompiledFlowRule[0]);
+
+    private final CompiledFlowRule[] rules;
+
+    private FlowRulePlan(CompiledFlowRule[] rules) {
+        this.rules = rules;
+    }
+
+    CompiledFlowRule[] getRules() {
+        return rules;
+    }
+
+    boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    /**
+     * Compile the plans of all resources.
+     *
+     * @param ruleMap flow rules grouped by resource
+     * @return an unmodifiable map of resource name to the plan
+     */
+    static Map<String, FlowRulePlan> compile(Map<String, List<FlowRule>> ruleMap) {
+        if (ruleMap == null || ruleMap.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, FlowRulePlan> plans = new HashMap<>(ruleMap.size() * 2);
+        for (Map.Entry<String, List<FlowRule>> entry : ruleMap.entrySet()) {
+            plans.put(entry.getKey(), compile(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(plans);
+    }
+
+    static FlowRulePlan compile(List<FlowRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            return EMPTY;
+        }
+        // Origins which are limited by specific rules, they are not regarded as `other` origins.
+        Set<String> limitApps = new LinkedHashSet<>();
+        for (FlowRule rule : rules) {
+            if (rule.getLimitApp() != null) {
+                limitApps.add(rule.getLimitApp());
+            }
+        }
+        String[] specificOrigins = limitApps.toArray(new String[0]);
+
+        List<CompiledFlowRule> compiled = new ArrayList<>(rules.size());
+        for (FlowRule rule : rules) {
+            // Rules without limit app always pass.
+            if (rule.getLimitApp() != null) {
+                compiled.add(new CompiledFlowRule(rule, specificOrigins));
+            }
+        }
+        return compiled.isEmpty() ? EMPTY : new FlowRulePlan(compiled.toArray(new CompiledFlowRule[0]));
+    }
+
+    /**
+     * A flow rule with pre-resolved origin matcher, node selector and traffic shaping controller.
+     */
+    static final class CompiledFlowRule {
+
+        static final int ORIGIN_SPECIFIC = 0;
+        static final int ORIGIN_DEFAULT = 1;
+        static final int ORIGIN_OTHER = 2;
+
+        static final int NODE_NONE = 0;
+        static final int NODE_ORIGIN = 1;
+        static final int NODE_CLUSTER = 2;
+        static final int NODE_RELATE = 3;
+        static final int NODE_CHAIN = 4;
+
+        private final FlowRule rule;
+        private final TrafficShapingController rater;
+        private final boolean clusterMode;
+
+        private final int originMatcher;
+        private final String limitApp;
+        private final String[] specificOrigins;
+
+        private final int nodeSelector;
+        private final String refResource;
+        /**
+         * The cluster node of the related resource, resolved once it's created.
+         * Cluster nodes are never removed, so the resolved one won't be stale.
+         */
+        private volatile Node refNode;
+
+        CompiledFlowRule(FlowRule rule, String[] specificOrigins) {
+            this.rule = rule;
+            this.rater = rule.getRater();
+            this.clusterMode = rule.isClusterMode();
+            this.limitApp = rule.getLimitApp();
+            this.specificOrigins = specificOrigins;
+            this.refResource = rule.getRefResource();
+
+            if (RuleConstant.LIMIT_APP_DEFAULT.equals(limitApp)) {
+                this.originMatcher = ORIGIN_DEFAULT;
+            } else if (RuleConstant.LIMIT_APP_OTHER.equals(limitApp)) {
+                this.originMatcher = ORIGIN_OTHER;
+            } else {
+                this.originMatcher = ORIGIN_SPECIFIC;
+            }
+
+            int strategy = rule.getStrategy();
+            if (strategy == RuleConstant.STRATEGY_DIRECT) {
+                this.nodeSelector = originMatcher == ORIGIN_DEFAULT ? NODE_CLUSTER : NODE_ORIGIN;
+            } else if (StringUtil.isEmpty(refResource)) {
+                this.nodeSelector = NODE_NONE;
+            } else if (strategy == RuleConstant.STRATEGY_RELATE) {
+                this.nodeSelector = NODE_RELATE;
+            } else if (strategy == RuleConstant.STRATEGY_CHAIN) {
+                this.nodeSelector = NODE_CHAIN;
+            } else {
+                this.nodeSelector = NODE_NONE;
+            }
+        }
+
+        FlowRule getRule() {
+            return rule;
+        }
+
+        TrafficShapingController getRater() {
+            return rater;
+        }
+
+        boolean isClusterMode() {
+            return clusterMode;
+        }
+
+        boolean matchOrigin(String origin) {
+            switch (originMatcher) {
+                case ORIGIN_DEFAULT:
+                    return true;
+                case ORIGIN_OTHER:
+                    if (StringUtil.isEmpty(origin)) {
+                        return false;
+                    }
+                    for (String specificOrigin : specificOrigins) {
+                        if (origin.equals(specificOrigin)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                default:
+                    // The limit app is neither `default` nor `other` here.
+                    return limitApp.equals(origin);
+            }
+        }
+
+        /**
+         * Select the node to check, which is equivalent to
+         * {@link FlowRuleChecker#selectNodeByRequesterAndStrategy(FlowRule, Context, DefaultNode)}.
+         *
+         * @param context current context
+         * @param node    current node
+         * @return the node to check, or null if the rule doesn't apply
+         */
+        Node selectNode(Context context, DefaultNode node) {
+            if (nodeSelector == NODE_NONE || !matchOrigin(context.getOrigin())) {
+                return null;
+            }
+            switch (nodeSelector) {
+                case NODE_ORIGIN:
+                    return context.getOriginNode();
+                case NODE_CLUSTER:
+                    return node.getClusterNode();
+                case NODE_RELATE:
+                    Node resolved = refNode;
+                    if (resolved == null) {
+                        resolved = ClusterBuilderSlot.getClusterNode(refResource);
+                        refNode = resolved;
+                    }
+                    return resolved;
+                case NODE_CHAIN:
+                    return refResource.equals(context.getName()) ? node : null;
+                default:
+                    return null;
+            }
+        }
+    }
+}
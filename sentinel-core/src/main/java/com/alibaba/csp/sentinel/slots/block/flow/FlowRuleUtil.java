@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.flow;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.RateLimiterController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
@@ -144,6 +145,9 @@ public final class FlowRuleUtil {
                 default:
                     // Default mode or unknown mode: default traffic shaping controller (fast-reject).
             }
+        } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+            return new AdaptiveConcurrencyController(rule.getCount(), rule.getAdaptiveSmoothing());
         }
         return new DefaultController(rule.getCount(), rule.getGrade());
     }
@@ -174,7 +178,7 @@ public final class FlowRuleUtil {
             // Check strategy and control (shaping) behavior.
             return checkClusterField(rule) && checkStrategyField(rule) && checkControlBehaviorField(rule);
         } else if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD) {
-            return checkClusterConcurrentField(rule);
+            return checkClusterConcurrentField(rule) && checkAdaptiveConcurrencyField(rule);
         } else {
             return false;
         }
@@ -250,6 +254,13 @@ public final class FlowRuleUtil {
         }
     }
 
+    private static boolean checkAdaptiveConcurrencyField(/*@NonNull*/ FlowRule rule) {
+        if (rule.getControlBehavior() != RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+            return true;
+        }
+        return rule.getCount() >= 1 && rule.getAdaptiveSmoothing() > 0 && rule.getAdaptiveSmoothing() <= 1;
+    }
+
     private static final Function<FlowRule, String> extractResource = new Function<FlowRule, String>() {
         @Override
         public String apply(FlowRule rule) {
@@ -135,13 +135,25 @@ import java.util.Map;
  * </p>
  * </ol>
  *
+ * <p>
+ * The rules of a resource are compiled into a {@link FlowRulePlan} when they are loaded. As each slot chain
+ * has its own FlowSlot, the plan of the resource is cached in the slot until the rules are updated.
+ * </p>
+ *
  * @author jialiang.linjl
  * @author Eric Zhao
  */
-@Spi(order = Constants.ORDER_FLOW_SLOT)
+@Spi(isSingleton = false, order = Constants.ORDER_FLOW_SLOT)
 public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     private final FlowRuleChecker checker;
+    /**
+     * Customized checkers (e.g. subclasses) are checked via the rule provider,
+     * so that the overridden methods still take effect.
+     */
+    private final boolean usePlan;
+
+    private volatile CachedPlan cachedPlan;
 
     public FlowSlot() {
         this(new FlowRuleChecker());
@@ -156,6 +168,7 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
     FlowSlot(FlowRuleChecker checker) {
         AssertUtil.notNull(checker, "flow checker should not be null");
         this.checker = checker;
+        this.usePlan = checker.getClass() == FlowRuleChecker.class;
     }
 
     @Override
@@ -168,7 +181,31 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
 
     void checkFlow(ResourceWrapper resource, Context context, DefaultNode node, int count, boolean prioritized)
         throws BlockException {
-        checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+        if (!usePlan) {
+            checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
+            return;
+        }
+        if (resource == null) {
+            return;
+        }
+        FlowRulePlan plan = planOf(resource.getName());
+        if (!plan.isEmpty()) {
+            checker.checkFlow(plan, context, node, count, prioritized);
+        }
+    }
+
+    private FlowRulePlan planOf(String resourceName) {
+        Map<String, FlowRulePlan> plans = FlowRuleManager.getFlowRulePlans();
+        CachedPlan cached = cachedPlan;
+        if (cached != null && cached.plans == plans && cached.resourceName.equals(resourceName)) {
+            return cached.plan;
+        }
+        FlowRulePlan plan = plans.get(resourceName);
+        if (plan == null) {
+            plan = FlowRulePlan.EMPTY;
+        }
+        cachedPlan = new CachedPlan(plans, resourceName, plan);
+        return plan;
     }
 
     @Override
@@ -184,4 +221,16 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             return flowRules.get(resource);
         }
     };
+
+    private static final class CachedPlan {
+        private final Map<String, FlowRulePlan> plans;
+        private final String resourceName;
+        private final FlowRulePlan plan;
+
+        CachedPlan(Map<String, FlowRulePlan> plans, String resourceName, FlowRulePlan plan) {
+            this.plans = plans;
+            this.resourceName = resourceName;
+            this.plan = plan;
+        }
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * <p>A {@link TrafficShapingController} that queues requests (e.g. uniform rate limiting),
+ * which is able to reserve the pass time for a request rather than waiting on the caller's thread.</p>
+ *
+ * <p>The {@link #canPass(Node, int, boolean)} of such controllers will make the caller's thread sleep until
+ * the reserved time comes, while the {@link #tryReserve(Node, int, boolean)} only returns the time to wait,
+ * so that non-blocking callers (e.g. event loops) could delay the request asynchronously.</p>
+ *
+ * @since 1.8.2
+ */
+public interface ReservableTrafficShapingController extends TrafficShapingController {
+
+    /**
+     * Indicates that the request cannot be reserved within the max queueing time.
+     */
+    long REJECTED = -1;
+
+    /**
+     * Try to reserve the pass time for given resource entry with provided count.
+     * The reservation is made on success, so the request should go ahead after the returned time
+     * rather than calling this method again.
+     *
+     * @param node         resource node
+     * @param acquireCount count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return the time to wait (in milliseconds) before the request could pass, or {@link #REJECTED}
+     * if it should be blocked
+     */
+    long tryReserve(Node node, int acquireCount, boolean prioritized);
+}
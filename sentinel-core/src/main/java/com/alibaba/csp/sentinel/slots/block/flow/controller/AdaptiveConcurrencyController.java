@@ -0,0 +1,151 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A concurrency (thread count) controller whose limit adapts to the latency of the resource
+ * (in the style of the Gradient2 algorithm), so that the limit need not be retuned whenever
+ * the downstream capacity changes.</p>
+ *
+ * <p>Every {@link #UPDATE_INTERVAL_MS} the average RT of the node in recent second is compared to
+ * the no-load RT, which follows the minimal RT of the node. While the average RT stays within a tolerance
+ * of the no-load RT, the limit grows by a queue allowance of {@code sqrt(limit)}; once requests start
+ * queueing in the downstream, the average RT rises and the limit shrinks by the gradient
+ * {@code tolerance * noLoadRt / avgRt} (at most by half in one update). The new limit is smoothed with
+ * the configured smoothing factor, and never exceeds the rule count, which works as the maximum limit.
+ * The limit won't grow either when less than half of it is in use, since the latency tells nothing
+ * about the capacity then.</p>
+ *
+ * <p>The no-load RT drops to a lower minimal RT immediately, but only rises slowly towards a higher one,
+ * which happens when the intrinsic latency of the downstream increases (the queueing is drained soon after
+ * the limit shrinks, so the minimal RT reflects the intrinsic latency then).</p>
+ *
+ * @since 1.8.2
+ */
+public class AdaptiveConcurrencyController implements TrafficShapingController {
+
+    static final int UPDATE_INTERVAL_MS = 100;
+
+    private static final double INITIAL_LIMIT = 20;
+    private static final double MIN_LIMIT = 1;
+    /**
+     * The recent RT is regarded as not increasing within this tolerance.
+     */
+    private static final double RT_TOLERANCE = 1.5;
+    /**
+     * Smoothing factor for raising the no-load RT (about 50 updates, i.e. 5 seconds).
+     */
+    private static final double NO_LOAD_RT_FACTOR = 2.0 / (50 + 1);
+
+    private final double maxLimit;
+    private final double smoothing;
+
+    private final AtomicLong lastUpdateTime = new AtomicLong();
+
+    private volatile double estimatedLimit;
+    /**
+     * Only accessed by the updating thread (guarded by the CAS of {@link #lastUpdateTime}).
+     */
+    private double noLoadRt;
+
+    /**
+     * @param maxLimit  the maximum concurrency limit
+     * @param smoothing smoothing factor (0, 1] of the limit
+     */
+    public AdaptiveConcurrencyController(double maxLimit, double smoothing) {
+        AssertUtil.isTrue(maxLimit >= MIN_LIMIT, "maxLimit should be at least 1");
+        AssertUtil.isTrue(smoothing > 0 && smoothing <= 1, "smoothing should be in (0, 1]");
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.min(maxLimit, INITIAL_LIMIT);
+        this.lastUpdateTime.set(TimeUtil.currentTimeMillis());
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return canPass(node, acquireCount, false);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        if (node == null) {
+            return true;
+        }
+        tryUpdate(node);
+        return node.curThreadNum() + acquireCount <= estimatedLimit;
+    }
+
+    private void tryUpdate(Node node) {
+        long now = TimeUtil.currentTimeMillis();
+        long last = lastUpdateTime.get();
+        if (now - last < UPDATE_INTERVAL_MS || !lastUpdateTime.compareAndSet(last, now)) {
+            return;
+        }
+        double avgRt = node.avgRt();
+        // Estimate the average concurrency in recent second by Little's law.
+        double inflight = Math.max(node.curThreadNum(), node.successQps() * avgRt / 1000);
+        update(avgRt, node.minRt(), inflight);
+    }
+
+    void update(double avgRt, double minRt, double inflight) {
+        if (avgRt <= 0) {
+            // No completed requests recently, thus the RT is unknown.
+            return;
+        }
+        minRt = Math.max(Math.min(minRt, avgRt), 1);
+        if (noLoadRt <= 0 || minRt < noLoadRt) {
+            noLoadRt = minRt;
+        } else {
+            noLoadRt += (minRt - noLoadRt) * NO_LOAD_RT_FACTOR;
+        }
+
+        double limit = estimatedLimit;
+        if (inflight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, RT_TOLERANCE * noLoadRt / avgRt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(MIN_LIMIT, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * @return current concurrency limit
+     */
+    public double getLimit() {
+        return estimatedLimit;
+    }
+
+    double getNoLoadRt() {
+        return noLoadRt;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyController{" +
+            "maxLimit=" + maxLimit +
+            ", smoothing=" + smoothing +
+            ", limit=" + estimatedLimit +
+            '}';
+    }
+}
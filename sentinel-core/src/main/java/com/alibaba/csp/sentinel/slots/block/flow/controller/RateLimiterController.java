@@ -17,7 +17,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import java.util.concurrent.atomic.AtomicLong;
 
-import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.slots.block.flow.ReservableTrafficShapingController;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.Node;
@@ -25,7 +25,7 @@ import com.alibaba.csp.sentinel.node.Node;
 /**
  * @author jialiang.linjl
  */
-public class RateLimiterController implements TrafficShapingController {
+public class RateLimiterController implements ReservableTrafficShapingController {
 
     private final int maxQueueingTimeMs;
     private final double count;
@@ -44,14 +44,31 @@ public class RateLimiterController implements TrafficShapingController {
 
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long waitTime = tryReserve(node, acquireCount, prioritized);
+        if (waitTime == REJECTED) {
+            return false;
+        }
+        // in race condition waitTime may <= 0
+        if (waitTime > 0) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long tryReserve(Node node, int acquireCount, boolean prioritized) {
         // Pass when acquire count is less or equal than 0.
         if (acquireCount <= 0) {
-            return true;
+            return 0;
         }
         // Reject when count is less or equal than 0.
         // Otherwise,the costTime will be max of long and waitTime will overflow in some cases.
         if (count <= 0) {
-            return false;
+            return REJECTED;
         }
 
         long currentTime = TimeUtil.currentTimeMillis();
@@ -64,30 +81,21 @@ public class RateLimiterController implements TrafficShapingController {
         if (expectedTime <= currentTime) {
             // Contention may exist here, but it's okay.
             latestPassedTime.set(currentTime);
-            return true;
+            return 0;
         } else {
             // Calculate the time to wait.
             long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
             if (waitTime > maxQueueingTimeMs) {
-                return false;
+                return REJECTED;
             } else {
                 long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime > maxQueueingTimeMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    // in race condition waitTime may <= 0
-                    if (waitTime > 0) {
-                        Thread.sleep(waitTime);
-                    }
-                    return true;
-                } catch (InterruptedException e) {
+                waitTime = oldTime - TimeUtil.currentTimeMillis();
+                if (waitTime > maxQueueingTimeMs) {
+                    latestPassedTime.addAndGet(-costTime);
+                    return REJECTED;
                 }
+                return Math.max(waitTime, 0);
             }
         }
-        return false;
     }
-
 }
@@ -15,8 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
@@ -62,14 +63,21 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * in this map.
      * </p>
      * <p>
-     * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * The hot path never reads this map, as every slot chain (thus every resource) caches
+     * its own {@link ClusterNode} in the {@link #clusterNode} field. So the map only serves
+     * creation and queries. A concurrent map is used rather than a copy-on-write map, as copying
+     * the whole map on each insert makes registering many resources quadratic.
      * </p>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
+    private static final Map<ResourceWrapper, ClusterNode> clusterNodeMap = new ConcurrentHashMap<>();
 
-    private static final Object lock = new Object();
+    private static final Function<ResourceWrapper, ClusterNode> CLUSTER_NODE_CREATOR
+        = new Function<ResourceWrapper, ClusterNode>() {
+        @Override
+        public ClusterNode apply(ResourceWrapper resourceWrapper) {
+            return new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
+        }
+    };
 
     private volatile ClusterNode clusterNode = null;
 
@@ -78,17 +86,8 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
                       boolean prioritized, Object... args)
         throws Throwable {
         if (clusterNode == null) {
-            synchronized (lock) {
-                if (clusterNode == null) {
-                    // Create the cluster node.
-                    clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
-                }
-            }
+            // Create the cluster node, or take the one created concurrently.
+            clusterNode = clusterNodeMap.computeIfAbsent(node.getId(), CLUSTER_NODE_CREATOR);
         }
         node.setClusterNode(clusterNode);
 
@@ -25,6 +25,7 @@ import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.spi.Spi;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -127,16 +128,27 @@ import java.util.Map;
 @Spi(isSingleton = false, order = Constants.ORDER_NODE_SELECTOR_SLOT)
 public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
 
+    private static final IndexedNode[] EMPTY_NODES = new IndexedNode[1];
+
     /**
-     * {@link DefaultNode}s of the same resource in different context.
+     * {@link DefaultNode}s of the same resource in different context, keyed by {@link Context#getIndex()},
+     * so that looking up the node on the hot path is an array load or a few rather than hashing the context name.
+     * It's a copy-on-write open-addressed table, which is sized by the count of the contexts rather than the
+     * largest index, as a resource might only be entered in a few contexts with large indexes.
      */
-    private volatile Map<String, DefaultNode> map = new HashMap<String, DefaultNode>(10);
+    private volatile IndexedNode[] nodes = EMPTY_NODES;
+
+    /**
+     * {@link DefaultNode}s of the contexts without a valid index, keyed by context name. It's a copy-on-write map
+     * as well, which stays empty in most cases.
+     */
+    private volatile Map<String, DefaultNode> map = Collections.emptyMap();
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
         throws Throwable {
         /*
-         * It's interesting that we use context name rather resource name as the map key.
+         * It's interesting that we use context rather resource to look up the node.
          *
          * Remember that same resource({@link ResourceWrapper#equals(Object)}) will share
          * the same {@link ProcessorSlotChain} globally, no matter in which context. So if
@@ -144,7 +156,7 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          * the resource name must be same but context name may not.
          *
          * If we use {@link com.alibaba.csp.sentinel.SphU#entry(String resource)} to
-         * enter same resource in different context, using context name as map key can
+         * enter same resource in different context, using context (its index or name) as the key can
          * distinguish the same resource. In this case, multiple {@link DefaultNode}s will be created
          * of the same resource name, for every distinct context (different context name) each.
          *
@@ -153,27 +165,110 @@ public class NodeSelectorSlot extends AbstractLinkedProcessorSlot<Object> {
          * The answer is all {@link DefaultNode}s with same resource name share one
          * {@link ClusterNode}. See {@link ClusterBuilderSlot} for detail.
          */
-        DefaultNode node = map.get(context.getName());
+        int index = context.getIndex();
+        DefaultNode node = index >= 0 ? getIndexed(nodes, index) : map.get(context.getName());
         if (node == null) {
-            synchronized (this) {
-                node = map.get(context.getName());
-                if (node == null) {
-                    node = new DefaultNode(resourceWrapper, null);
-                    HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size());
-                    cacheMap.putAll(map);
-                    cacheMap.put(context.getName(), node);
-                    map = cacheMap;
-                    // Build invocation tree
-                    ((DefaultNode) context.getLastNode()).addChild(node);
-                }
-
-            }
+            node = getOrCreateNode(context, resourceWrapper);
         }
 
         context.setCurNode(node);
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
 
+    private synchronized DefaultNode getOrCreateNode(Context context, ResourceWrapper resourceWrapper) {
+        int index = context.getIndex();
+        String contextName = context.getName();
+        DefaultNode node = index >= 0 ? getIndexed(nodes, index) : map.get(contextName);
+        if (node != null) {
+            return node;
+        }
+        // The node might have been created in the context of the same name but looked up in another way
+        // (i.e. without an index, or with the index of a former entrance node of the name).
+        node = map.get(contextName);
+        if (node == null) {
+            node = getIndexedByName(nodes, contextName);
+        }
+        if (node == null) {
+            node = new DefaultNode(resourceWrapper, null);
+            // Build invocation tree
+            ((DefaultNode) context.getLastNode()).addChild(node);
+        }
+        if (index >= 0) {
+            nodes = putIndexed(nodes, new IndexedNode(index, contextName, node));
+        } else {
+            HashMap<String, DefaultNode> cacheMap = new HashMap<String, DefaultNode>(map.size() + 1);
+            cacheMap.putAll(map);
+            cacheMap.put(contextName, node);
+            map = cacheMap;
+        }
+        return node;
+    }
+
+    private static DefaultNode getIndexed(IndexedNode[] table, int index) {
+        int mask = table.length - 1;
+        for (int i = index & mask; ; i = (i + 1) & mask) {
+            IndexedNode entry = table[i];
+            if (entry == null) {
+                return null;
+            }
+            if (entry.index == index) {
+                return entry.node;
+            }
+        }
+    }
+
+    private static DefaultNode getIndexedByName(IndexedNode[] table, String contextName) {
+        for (IndexedNode entry : table) {
+            if (entry != null && entry.contextName.equals(contextName)) {
+                return entry.node;
+            }
+        }
+        return null;
+    }
+
+    private static IndexedNode[] putIndexed(IndexedNode[] table, IndexedNode newEntry) {
+        int size = 1;
+        for (IndexedNode entry : table) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        // Keep the load factor no more than 1/2, so that probing always ends at an empty slot.
+        int capacity = 2;
+        while (capacity < size * 2) {
+            capacity <<= 1;
+        }
+        IndexedNode[] newTable = new IndexedNode[capacity];
+        for (IndexedNode entry : table) {
+            if (entry != null) {
+                insert(newTable, entry);
+            }
+        }
+        insert(newTable, newEntry);
+        return newTable;
+    }
+
+    private static void insert(IndexedNode[] table, IndexedNode entry) {
+        int mask = table.length - 1;
+        int i = entry.index & mask;
+        while (table[i] != null) {
+            i = (i + 1) & mask;
+        }
+        table[i] = entry;
+    }
+
+    private static final class IndexedNode {
+        private final int index;
+        private final String contextName;
+        private final DefaultNode node;
+
+        IndexedNode(int index, String contextName, DefaultNode node) {
+            this.index = index;
+            this.contextName = contextName;
+            this.node = node;
+        }
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
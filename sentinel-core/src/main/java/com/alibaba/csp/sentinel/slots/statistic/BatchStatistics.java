@@ -0,0 +1,95 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+
+/**
+ * <p>The pass statistics of the resources entered in one batch (see {@code SphU#entryBatch}).</p>
+ *
+ * <p>While the batch is attached to the context ({@link Context#setBatchStatistics(BatchStatistics)}),
+ * {@link StatisticSlot} records the pass counts of the entries right after their checks, so that the concurrent
+ * checks see them as for single entries, but defers the pass events (the registered entry callbacks).
+ * Once all resources of the batch have been checked, the pass events are handled via {@link #commit()},
+ * or the pass counts are removed via {@link #rollback()} if the batch is rejected, so that a rejected batch
+ * leaves no pass statistics behind. Until then, the rejected batch might make concurrent checks stricter
+ * (but never looser). Block statistics are always recorded immediately.</p>
+ *
+ * @since 1.8.2
+ */
+public final class BatchStatistics {
+
+    private final List<PassRecord> records = new ArrayList<>();
+
+    void defer(Context context, ResourceWrapper resourceWrapper, DefaultNode node, Node originNode, int count,
+               boolean waited, Object[] args) {
+        records.add(new PassRecord(context, resourceWrapper, node, originNode, count, waited, args));
+    }
+
+    /**
+     * Handle the deferred pass events of the batch.
+     */
+    public void commit() {
+        for (PassRecord r : records) {
+            try {
+                StatisticSlot.firePassEvent(r.context, r.resourceWrapper, r.node, r.count, r.args);
+            } catch (Throwable ex) {
+                // This should not happen, unless there are errors in the registered entry callbacks.
+                RecordLog.warn("[BatchStatistics] Unexpected error when handling pass of " + r.resourceWrapper, ex);
+            }
+        }
+        records.clear();
+    }
+
+    /**
+     * Remove the pass counts of the batch, as the batch is rejected.
+     */
+    public void rollback() {
+        for (int i = records.size() - 1; i >= 0; i--) {
+            PassRecord r = records.get(i);
+            StatisticSlot.removePassCount(r.resourceWrapper, r.node, r.originNode, r.count, r.waited);
+        }
+        records.clear();
+    }
+
+    private static final class PassRecord {
+        private final Context context;
+        private final ResourceWrapper resourceWrapper;
+        private final DefaultNode node;
+        private final Node originNode;
+        private final int count;
+        private final boolean waited;
+        private final Object[] args;
+
+        PassRecord(Context context, ResourceWrapper resourceWrapper, DefaultNode node, Node originNode, int count,
+                   boolean waited, Object[] args) {
+            this.context = context;
+            this.resourceWrapper = resourceWrapper;
+            this.node = node;
+            this.originNode = originNode;
+            this.count = count;
+            this.waited = waited;
+            this.args = args;
+        }
+    }
+}
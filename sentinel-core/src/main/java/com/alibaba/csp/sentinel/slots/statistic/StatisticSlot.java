@@ -59,40 +59,10 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             fireEntry(context, resourceWrapper, node, count, prioritized, args);
 
             // Request passed, add thread count and pass count.
-            node.increaseThreadNum();
-            node.addPassRequest(count);
-
-            if (context.getCurEntry().getOriginNode() != null) {
-                // Add count for origin node.
-                context.getCurEntry().getOriginNode().increaseThreadNum();
-                context.getCurEntry().getOriginNode().addPassRequest(count);
-            }
-
-            if (resourceWrapper.getEntryType() == EntryType.IN) {
-                // Add count for global inbound entry node for global statistics.
-                Constants.ENTRY_NODE.increaseThreadNum();
-                Constants.ENTRY_NODE.addPassRequest(count);
-            }
-
-            // Handle pass event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
-            }
+            recordOrDeferPass(context, resourceWrapper, node, count, false, args);
         } catch (PriorityWaitException ex) {
-            node.increaseThreadNum();
-            if (context.getCurEntry().getOriginNode() != null) {
-                // Add count for origin node.
-                context.getCurEntry().getOriginNode().increaseThreadNum();
-            }
-
-            if (resourceWrapper.getEntryType() == EntryType.IN) {
-                // Add count for global inbound entry node for global statistics.
-                Constants.ENTRY_NODE.increaseThreadNum();
-            }
-            // Handle pass event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
-            }
+            // Request passed after waiting, only add thread count.
+            recordOrDeferPass(context, resourceWrapper, node, count, true, args);
         } catch (BlockException e) {
             // Blocked, set block exception to current entry.
             context.getCurEntry().setBlockError(e);
@@ -122,6 +92,78 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         }
     }
 
+    private static void recordOrDeferPass(Context context, ResourceWrapper resourceWrapper, DefaultNode node,
+                                          int count, boolean waited, Object... args) throws Exception {
+        Node originNode = context.getCurEntry().getOriginNode();
+        // The pass counts are recorded right after the check (also for the resources of a batch),
+        // so that the concurrent checks won't miss them.
+        addPassCount(resourceWrapper, node, originNode, count, waited);
+        BatchStatistics batch = context.getBatchStatistics();
+        if (batch != null) {
+            // The pass event of a batch is handled once all resources of the batch are checked.
+            batch.defer(context, resourceWrapper, node, originNode, count, waited, args);
+            return;
+        }
+        firePassEvent(context, resourceWrapper, node, count, args);
+    }
+
+    static void addPassCount(ResourceWrapper resourceWrapper, DefaultNode node, Node originNode, int count,
+                             boolean waited) {
+        node.increaseThreadNum();
+        if (!waited) {
+            node.addPassRequest(count);
+        }
+
+        if (originNode != null) {
+            // Add count for origin node.
+            originNode.increaseThreadNum();
+            if (!waited) {
+                originNode.addPassRequest(count);
+            }
+        }
+
+        if (resourceWrapper.getEntryType() == EntryType.IN) {
+            // Add count for global inbound entry node for global statistics.
+            Constants.ENTRY_NODE.increaseThreadNum();
+            if (!waited) {
+                Constants.ENTRY_NODE.addPassRequest(count);
+            }
+        }
+    }
+
+    /**
+     * Roll back the pass count added by {@link #addPassCount(ResourceWrapper, DefaultNode, Node, int, boolean)}.
+     */
+    static void removePassCount(ResourceWrapper resourceWrapper, DefaultNode node, Node originNode, int count,
+                                boolean waited) {
+        node.decreaseThreadNum();
+        if (!waited) {
+            node.addPassRequest(-count);
+        }
+
+        if (originNode != null) {
+            originNode.decreaseThreadNum();
+            if (!waited) {
+                originNode.addPassRequest(-count);
+            }
+        }
+
+        if (resourceWrapper.getEntryType() == EntryType.IN) {
+            Constants.ENTRY_NODE.decreaseThreadNum();
+            if (!waited) {
+                Constants.ENTRY_NODE.addPassRequest(-count);
+            }
+        }
+    }
+
+    static void firePassEvent(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                              Object... args) throws Exception {
+        // Handle pass event with registered entry callback handlers.
+        for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
+            handler.onPass(context, resourceWrapper, node, count, args);
+        }
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         Node node = context.getCurNode();
@@ -148,7 +190,7 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             handler.onExit(context, resourceWrapper, count, args);
         }
 
-        fireExit(context, resourceWrapper, count);
+        fireExit(context, resourceWrapper, count, args);
     }
 
     private void recordCompleteFor(Node node, int batchCount, long rt, Throwable error) {
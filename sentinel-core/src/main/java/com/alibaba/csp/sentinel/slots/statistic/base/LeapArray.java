@@ -18,7 +18,6 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReentrantLock;
 
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
@@ -47,11 +46,6 @@ public abstract class LeapArray<T> {
 
     protected final AtomicReferenceArray<WindowWrap<T>> array;
 
-    /**
-     * The conditional (predicate) update lock is used only when current bucket is deprecated.
-     */
-    private final ReentrantLock updateLock = new ReentrantLock();
-
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
      *
@@ -127,10 +121,15 @@ public abstract class LeapArray<T> {
          *
          * (1) Bucket is absent, then just create a new bucket and CAS update to circular array.
          * (2) Bucket is up-to-date, then just return the bucket.
-         * (3) Bucket is deprecated, then reset current bucket and clean all deprecated buckets.
+         * (3) Bucket is deprecated, then CAS its start time (epoch) and reset the bucket.
+         *
+         * Only CAS operations are involved, so no caller will block or yield. A thread which lost
+         * the CAS race will simply re-read the bucket, which has been installed (or rotated) by the winner.
          */
         while (true) {
             WindowWrap<T> old = array.get(idx);
+            // The start time (epoch) of the bucket should be read only once, as it may be advanced concurrently.
+            long oldStart = old == null ? -1 : old.windowStart();
             if (old == null) {
                 /*
                  *     B0       B1      B2    NULL      B4
@@ -142,17 +141,15 @@ public abstract class LeapArray<T> {
                  *
                  * If the old bucket is absent, then we create a new bucket at {@code windowStart},
                  * then try to update circular array via a CAS operation. Only one thread can
-                 * succeed to update, while other threads yield its time slice.
+                 * succeed to update, while other threads will pick up the bucket in next loop.
                  */
                 WindowWrap<T> window = new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
                 if (array.compareAndSet(idx, null, window)) {
                     // Successfully updated, return the created bucket.
                     return window;
-                } else {
-                    // Contention failed, the thread will yield its time slice to wait for bucket available.
-                    Thread.yield();
                 }
-            } else if (windowStart == old.windowStart()) {
+                // Contention failed, the bucket has been created by another thread, so retry directly.
+            } else if (windowStart == oldStart) {
                 /*
                  *     B0       B1      B2     B3      B4
                  * ||_______|_______|_______|_______|_______||___
@@ -165,7 +162,7 @@ public abstract class LeapArray<T> {
                  * that means the time is within the bucket, so directly return the bucket.
                  */
                 return old;
-            } else if (windowStart > old.windowStart()) {
+            } else if (windowStart > oldStart) {
                 /*
                  *   (old)
                  *             B0       B1      B2    NULL      B4
@@ -177,24 +174,17 @@ public abstract class LeapArray<T> {
                  *
                  * If the start timestamp of old bucket is behind provided time, that means
                  * the bucket is deprecated. We have to reset the bucket to current {@code windowStart}.
-                 * Note that the reset and clean-up operations are hard to be atomic,
-                 * so we need a update lock to guarantee the correctness of bucket update.
                  *
-                 * The update lock is conditional (tiny scope) and will take effect only when
-                 * bucket is deprecated, so in most cases it won't lead to performance loss.
+                 * The start timestamp of the bucket acts as its epoch: the thread that succeeds to advance
+                 * the epoch via CAS owns the reset of the bucket value, while other threads will see
+                 * the bucket as up-to-date in next loop. Like the previous lock-based approach, a few
+                 * concurrent updates right at the boundary may be cleared by the reset.
                  */
-                if (updateLock.tryLock()) {
-                    try {
-                        // Successfully get the update lock, now we reset the bucket.
-                        return resetWindowTo(old, windowStart);
-                    } finally {
-                        updateLock.unlock();
-                    }
-                } else {
-                    // Contention failed, the thread will yield its time slice to wait for bucket available.
-                    Thread.yield();
+                if (old.casWindowStart(oldStart, windowStart)) {
+                    return resetWindowTo(old, windowStart);
                 }
-            } else if (windowStart < old.windowStart()) {
+                // Contention failed, the bucket has been rotated by another thread, so retry directly.
+            } else {
                 // Should not go through here, as the provided time is already behind.
                 return new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
             }
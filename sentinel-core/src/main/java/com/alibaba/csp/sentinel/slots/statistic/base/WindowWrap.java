@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * Wrapper entity class for a period of time window.
  *
@@ -24,15 +26,20 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
  */
 public class WindowWrap<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<WindowWrap> WINDOW_START_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(WindowWrap.class, "windowStart");
+
     /**
      * Time length of a single window bucket in milliseconds.
      */
     private final long windowLengthInMs;
 
     /**
-     * Start timestamp of the window in milliseconds.
+     * Start timestamp of the window in milliseconds. It also acts as the epoch tag of the bucket,
+     * which is advanced via CAS when the bucket is rotated (see {@link #casWindowStart(long, long)}).
      */
-    private long windowStart;
+    private volatile long windowStart;
 
     /**
      * Statistic data.
@@ -77,6 +84,20 @@ public class WindowWrap<T> {
         return this;
     }
 
+    /**
+     * Atomically advance the start timestamp of current bucket if it's still the expected one.
+     * Only one thread could succeed for the same expected start time, and that thread is the owner
+     * of the subsequent reset of the bucket value.
+     *
+     * @param expectedStart the start timestamp observed by the caller
+     * @param newStart      new valid start timestamp
+     * @return true if updated successfully; false if the bucket has already been rotated by others
+     * @since 1.8.2
+     */
+    public boolean casWindowStart(long expectedStart, long newStart) {
+        return WINDOW_START_UPDATER.compareAndSet(this, expectedStart, newStart);
+    }
+
     /**
      * Check whether given timestamp is in current bucket.
      *
@@ -40,6 +40,19 @@ public class MetricBucket {
         initMinRt();
     }
 
+    /**
+     * Constructor for buckets that keep the event counters in their own layout.
+     * Subclasses using this constructor should override {@link #get(MetricEvent)},
+     * {@link #add(MetricEvent, long)}, {@link #reset()} and {@link #reset(MetricBucket)}.
+     *
+     * @param counters counters of the bucket, could be null if the subclass maintains its own counters
+     * @since 1.8.2
+     */
+    protected MetricBucket(LongAdder[] counters) {
+        this.counters = counters;
+        initMinRt();
+    }
+
     public MetricBucket reset(MetricBucket bucket) {
         for (MetricEvent event : MetricEvent.values()) {
             counters[event.ordinal()].reset();
@@ -49,7 +62,7 @@ public class MetricBucket {
         return this;
     }
 
-    private void initMinRt() {
+    protected void initMinRt() {
         this.minRt = SentinelConfig.statisticMaxRt();
     }
 
@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.metric.occupy.OccupiableBucketLeapArray;
 import com.alibaba.csp.sentinel.util.function.Predicate;
@@ -42,10 +43,22 @@ public class ArrayMetric implements Metric {
     }
 
     public ArrayMetric(int sampleCount, int intervalInMs, boolean enableOccupy) {
+        this(sampleCount, intervalInMs, enableOccupy, false);
+    }
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of the sliding window in milliseconds
+     * @param enableOccupy whether to enable occupying future buckets
+     * @param striped      whether to use the cache-line padded {@link StripedMetricBucket} layout,
+     *                     which reduces contention of hot resources on many cores at the cost of more memory
+     * @since 1.8.2
+     */
+    public ArrayMetric(int sampleCount, int intervalInMs, boolean enableOccupy, boolean striped) {
         if (enableOccupy) {
-            this.data = new OccupiableBucketLeapArray(sampleCount, intervalInMs);
+            this.data = new OccupiableBucketLeapArray(sampleCount, intervalInMs, striped);
         } else {
-            this.data = new BucketLeapArray(sampleCount, intervalInMs);
+            this.data = new BucketLeapArray(sampleCount, intervalInMs, striped);
         }
     }
 
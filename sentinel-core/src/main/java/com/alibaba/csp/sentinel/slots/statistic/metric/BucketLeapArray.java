@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
 
 /**
  * The fundamental data structure for metric statistics in a time span.
@@ -28,13 +29,26 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
  */
 public class BucketLeapArray extends LeapArray<MetricBucket> {
 
+    private final boolean striped;
+
     public BucketLeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of this {@link LeapArray} in milliseconds
+     * @param striped      whether to use {@link StripedMetricBucket} as the bucket layout
+     * @since 1.8.2
+     */
+    public BucketLeapArray(int sampleCount, int intervalInMs, boolean striped) {
         super(sampleCount, intervalInMs);
+        this.striped = striped;
     }
 
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        return new MetricBucket();
+        return striped ? new StripedMetricBucket() : new MetricBucket();
     }
 
     @Override
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.statistic.metric.occupy;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
 
 /**
  * A kind of {@code BucketLeapArray} that only reserves for future buckets.
@@ -27,14 +28,21 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
  */
 public class FutureBucketLeapArray extends LeapArray<MetricBucket> {
 
+    private final boolean striped;
+
     public FutureBucketLeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    public FutureBucketLeapArray(int sampleCount, int intervalInMs, boolean striped) {
         // This class is the original "BorrowBucketArray".
         super(sampleCount, intervalInMs);
+        this.striped = striped;
     }
 
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        return new MetricBucket();
+        return striped ? new StripedMetricBucket() : new MetricBucket();
     }
 
     @Override
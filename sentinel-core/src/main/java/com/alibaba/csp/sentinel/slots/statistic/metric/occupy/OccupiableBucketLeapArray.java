@@ -21,6 +21,7 @@ import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
 import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.data.StripedMetricBucket;
 
 /**
  * @author jialiang.linjl
@@ -29,16 +30,22 @@ import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
 public class OccupiableBucketLeapArray extends LeapArray<MetricBucket> {
 
     private final FutureBucketLeapArray borrowArray;
+    private final boolean striped;
 
     public OccupiableBucketLeapArray(int sampleCount, int intervalInMs) {
+        this(sampleCount, intervalInMs, false);
+    }
+
+    public OccupiableBucketLeapArray(int sampleCount, int intervalInMs, boolean striped) {
         // This class is the original "CombinedBucketArray".
         super(sampleCount, intervalInMs);
-        this.borrowArray = new FutureBucketLeapArray(sampleCount, intervalInMs);
+        this.striped = striped;
+        this.borrowArray = new FutureBucketLeapArray(sampleCount, intervalInMs, striped);
     }
 
     @Override
     public MetricBucket newEmptyBucket(long time) {
-        MetricBucket newBucket = new MetricBucket();
+        MetricBucket newBucket = striped ? new StripedMetricBucket() : new MetricBucket();
 
         MetricBucket borrowBucket = borrowArray.getWindowValue(time);
         if (borrowBucket != null) {
@@ -0,0 +1,266 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric.offheap;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>An arena of fixed-size slots in off-heap memory. The memory is allocated in chunks of direct
+ * {@link ByteBuffer}s, and each slot is aligned to a cache line. A chunk is released once all its slots
+ * are recycled (except for the last chunk of the arena).</p>
+ *
+ * <p>A slot is bound to an owner object when allocated, and it will be recycled automatically
+ * after the owner is garbage collected (tracked via phantom references), so the owner must keep
+ * itself reachable until the end of each access to the slot (e.g. via a reachability fence,
+ * see {@link OffHeapMetric}), otherwise the slot might be recycled and reused during the access.</p>
+ *
+ * @since 1.8.2
+ */
+public final class OffHeapArena {
+
+    static final int CACHE_LINE = 64;
+
+    private static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final ConcurrentMap<Integer, OffHeapArena> ARENAS = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("restriction")
+    private static final sun.misc.Unsafe UNSAFE = doGetUnsafe();
+    private static final long ADDRESS_OFFSET = addressOffset();
+
+    private final int slotSize;
+    private final int slotsPerChunk;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final Set<SlotReference> owners = new HashSet<>();
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    private OffHeapArena(int slotSize) {
+        this.slotSize = slotSize;
+        this.slotsPerChunk = Math.max(1, CHUNK_SIZE / slotSize);
+    }
+
+    /**
+     * Get the shared arena of the given slot size.
+     *
+     * @param slotSize size of a slot in bytes, will be rounded up to a multiple of the cache line size
+     * @return the arena
+     */
+    public static OffHeapArena of(int slotSize) {
+        AssertUtil.isTrue(slotSize > 0, "slotSize should be positive");
+        int size = (slotSize + CACHE_LINE - 1) / CACHE_LINE * CACHE_LINE;
+        OffHeapArena arena = ARENAS.get(size);
+        if (arena == null) {
+            OffHeapArena newArena = new OffHeapArena(size);
+            arena = ARENAS.putIfAbsent(size, newArena);
+            if (arena == null) {
+                arena = newArena;
+            }
+        }
+        return arena;
+    }
+
+    /**
+     * @return whether off-heap storage is supported in current JVM
+     */
+    public static boolean isSupported() {
+        return UNSAFE != null && ADDRESS_OFFSET >= 0;
+    }
+
+    /**
+     * Allocate a zeroed slot for the owner.
+     *
+     * @param owner the owner of the slot
+     * @return address of the slot
+     */
+    public synchronized long allocate(Object owner) {
+        AssertUtil.notNull(owner, "owner cannot be null");
+        recycle();
+        Chunk chunk = null;
+        long address = -1;
+        for (int i = 0; i < chunks.size() && address < 0; i++) {
+            chunk = chunks.get(i);
+            address = chunk.take();
+        }
+        if (address < 0) {
+            chunk = newChunk();
+            address = chunk.take();
+        }
+        UNSAFE.setMemory(address, slotSize, (byte)0);
+        owners.add(new SlotReference(owner, collected, chunk, address));
+        return address;
+    }
+
+    private void recycle() {
+        Reference<?> ref;
+        while ((ref = collected.poll()) != null) {
+            SlotReference slot = (SlotReference)ref;
+            if (!owners.remove(slot)) {
+                continue;
+            }
+            Chunk chunk = slot.chunk;
+            chunk.release(slot.address);
+            if (chunk.used == 0 && chunks.size() > 1) {
+                // All slots of the chunk are free, so the chunk is released (freed once the buffer is collected).
+                chunks.remove(chunk);
+                RecordLog.info("[OffHeapArena] Empty chunk released, slotSize={}, totalChunks={}", slotSize,
+                    chunks.size());
+            }
+        }
+    }
+
+    private Chunk newChunk() {
+        // Reserve one more cache line for alignment.
+        ByteBuffer buffer = ByteBuffer.allocateDirect(slotsPerChunk * slotSize + CACHE_LINE);
+        long base = UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+        Chunk chunk = new Chunk(buffer, (base + CACHE_LINE - 1) & ~(long)(CACHE_LINE - 1));
+        chunks.add(chunk);
+        RecordLog.info("[OffHeapArena] New chunk allocated, slotSize={}, totalChunks={}", slotSize, chunks.size());
+        return chunk;
+    }
+
+    public int getSlotSize() {
+        return slotSize;
+    }
+
+    /**
+     * @return amount of slots that are currently bound to owners
+     */
+    public synchronized int usedSlots() {
+        recycle();
+        return owners.size();
+    }
+
+    /**
+     * @return total off-heap memory reserved by this arena in bytes
+     */
+    public synchronized long reservedBytes() {
+        recycle();
+        long total = 0;
+        for (Chunk chunk : chunks) {
+            total += chunk.buffer.capacity();
+        }
+        return total;
+    }
+
+    /**
+     * A chunk of slots, where slots are taken from the free list first and then from the never-used part.
+     */
+    private final class Chunk {
+        private final ByteBuffer buffer;
+        private final long end;
+        private final Deque<Long> freeSlots = new ArrayDeque<>();
+
+        private long nextSlot;
+        private int used;
+
+        Chunk(ByteBuffer buffer, long start) {
+            this.buffer = buffer;
+            this.nextSlot = start;
+            this.end = start + (long)slotsPerChunk * slotSize;
+        }
+
+        /**
+         * @return address of the taken slot, or -1 if the chunk is full
+         */
+        long take() {
+            long address;
+            Long free = freeSlots.pollFirst();
+            if (free != null) {
+                address = free;
+            } else if (nextSlot < end) {
+                address = nextSlot;
+                nextSlot += slotSize;
+            } else {
+                return -1;
+            }
+            used++;
+            return address;
+        }
+
+        void release(long address) {
+            freeSlots.addFirst(address);
+            used--;
+        }
+    }
+
+    private static final class SlotReference extends PhantomReference<Object> {
+        private final Chunk chunk;
+        private final long address;
+
+        SlotReference(Object owner, ReferenceQueue<Object> queue, Chunk chunk, long address) {
+            super(owner, queue);
+            this.chunk = chunk;
+            this.address = address;
+        }
+    }
+
+    static long getLongVolatile(long address) {
+        return UNSAFE.getLongVolatile(null, address);
+    }
+
+    static void putLongVolatile(long address, long value) {
+        UNSAFE.putLongVolatile(null, address, value);
+    }
+
+    static boolean compareAndSwapLong(long address, long expected, long value) {
+        return UNSAFE.compareAndSwapLong(null, address, expected, value);
+    }
+
+    static long getAndAddLong(long address, long delta) {
+        return UNSAFE.getAndAddLong(null, address, delta);
+    }
+
+    private static long addressOffset() {
+        if (UNSAFE == null) {
+            return -1;
+        }
+        try {
+            return UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+        } catch (Throwable ex) {
+            RecordLog.warn("[OffHeapArena] Cannot resolve address of direct buffers, off-heap storage is disabled",
+                ex);
+            return -1;
+        }
+    }
+
+    @SuppressWarnings("restriction")
+    private static sun.misc.Unsafe doGetUnsafe() {
+        try {
+            java.lang.reflect.Field f = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            return (sun.misc.Unsafe)f.get(null);
+        } catch (Throwable ex) {
+            RecordLog.warn("[OffHeapArena] Unsafe is not available, off-heap storage is disabled", ex);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric.offheap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>A {@link Metric} which keeps the sliding window in a slot of an {@link OffHeapArena},
+ * rather than in {@code WindowWrap<MetricBucket>} objects on heap. It behaves the same as {@link ArrayMetric}.</p>
+ *
+ * <p>Each bucket takes exactly one cache line: the window start, one counter per {@link MetricEvent}
+ * and the min RT. When occupying is enabled, the slot holds another {@code sampleCount} buckets
+ * for the borrowed (future) windows.</p>
+ *
+ * <p>The slot is recycled once the metric is garbage collected, so every access to the slot ends with
+ * a {@link #reachabilityFence()}, which keeps the metric reachable until the access is done.</p>
+ *
+ * @since 1.8.2
+ */
+public class OffHeapMetric implements Metric {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    static final int BUCKET_SIZE = OffHeapArena.CACHE_LINE;
+    private static final int COUNTERS_OFFSET = 8;
+    private static final int MIN_RT_OFFSET = COUNTERS_OFFSET + 8 * EVENTS.length;
+
+    /**
+     * Window start of a bucket that has never been used.
+     */
+    private static final long EMPTY = -1;
+    /**
+     * Window start of a bucket that is being reset by another thread.
+     */
+    private static final long RESETTING = Long.MIN_VALUE;
+
+    private static final long NO_BUCKET = 0;
+
+    static {
+        AssertUtil.isTrue(MIN_RT_OFFSET + 8 <= BUCKET_SIZE, "metric events do not fit in an off-heap bucket");
+    }
+
+    private final int sampleCount;
+    private final int windowLengthInMs;
+    private final int intervalInMs;
+    private final boolean enableOccupy;
+
+    private final long address;
+
+    private static final AtomicIntegerFieldUpdater<OffHeapMetric> FENCE_UPDATER
+        = AtomicIntegerFieldUpdater.newUpdater(OffHeapMetric.class, "fence");
+
+    /**
+     * Only written by {@link #reachabilityFence()}.
+     */
+    @SuppressWarnings("unused")
+    private volatile int fence;
+
+    public OffHeapMetric(int sampleCount, int intervalInMs, boolean enableOccupy) {
+        AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
+        AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        AssertUtil.isTrue(OffHeapArena.isSupported(), "off-heap storage is not supported");
+
+        this.sampleCount = sampleCount;
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.enableOccupy = enableOccupy;
+
+        int buckets = enableOccupy ? sampleCount * 2 : sampleCount;
+        this.address = OffHeapArena.of(buckets * BUCKET_SIZE).allocate(this);
+        for (int i = 0; i < buckets; i++) {
+            OffHeapArena.putLongVolatile(address + (long)i * BUCKET_SIZE, EMPTY);
+        }
+        reachabilityFence();
+    }
+
+    /**
+     * Keep this metric strongly reachable until this point, so that its slot won't be recycled
+     * by the arena while being accessed, as {@code Reference#reachabilityFence} is absent in JDK 8.
+     * The ordered store to this metric cannot be eliminated, and the preceding accesses to the slot
+     * cannot be reordered after it.
+     */
+    void reachabilityFence() {
+        FENCE_UPDATER.lazySet(this, 0);
+    }
+
+    /**
+     * @return whether off-heap metrics could be created in current JVM
+     */
+    public static boolean isSupported() {
+        return OffHeapArena.isSupported();
+    }
+
+    private long bucketAt(int idx, boolean borrow) {
+        return address + (long)((borrow ? sampleCount : 0) + idx) * BUCKET_SIZE;
+    }
+
+    private int indexOf(long timeMillis) {
+        return (int)((timeMillis / windowLengthInMs) % sampleCount);
+    }
+
+    private long windowStartOf(long timeMillis) {
+        return timeMillis - timeMillis % windowLengthInMs;
+    }
+
+    /**
+     * Get the bucket of the provided time, rotating it if it's deprecated.
+     *
+     * @return address of the bucket, or {@link #NO_BUCKET} if the time is behind the bucket (clock moved back)
+     */
+    private long currentBucket(long timeMillis, boolean borrow) {
+        long windowStart = windowStartOf(timeMillis);
+        long bucket = bucketAt(indexOf(timeMillis), borrow);
+        while (true) {
+            long old = OffHeapArena.getLongVolatile(bucket);
+            if (old == windowStart) {
+                return bucket;
+            } else if (old == RESETTING) {
+                // Another thread is resetting the bucket, which only takes a few stores.
+                Thread.yield();
+            } else if (old < windowStart) {
+                // Mark as resetting first, so that no thread could update the bucket before it's reset.
+                if (OffHeapArena.compareAndSwapLong(bucket, old, RESETTING)) {
+                    resetBucket(bucket, windowStart, borrow);
+                    return bucket;
+                }
+            } else {
+                return NO_BUCKET;
+            }
+        }
+    }
+
+    private void resetBucket(long bucket, long windowStart, boolean borrow) {
+        for (MetricEvent event : EVENTS) {
+            OffHeapArena.putLongVolatile(counter(bucket, event), 0);
+        }
+        OffHeapArena.putLongVolatile(bucket + MIN_RT_OFFSET, SentinelConfig.statisticMaxRt());
+        if (enableOccupy && !borrow) {
+            // Take the passed requests that have been borrowed in advance.
+            long borrowBucket = bucketAt(indexOf(windowStart), true);
+            if (OffHeapArena.getLongVolatile(borrowBucket) == windowStart) {
+                OffHeapArena.putLongVolatile(counter(bucket, MetricEvent.PASS),
+                    get(borrowBucket, MetricEvent.PASS));
+            }
+        }
+        OffHeapArena.putLongVolatile(bucket, windowStart);
+    }
+
+    private static long counter(long bucket, MetricEvent event) {
+        return bucket + COUNTERS_OFFSET + 8L * event.ordinal();
+    }
+
+    static long get(long bucket, MetricEvent event) {
+        return OffHeapArena.getLongVolatile(counter(bucket, event));
+    }
+
+    static void add(long bucket, MetricEvent event, long n) {
+        OffHeapArena.getAndAddLong(counter(bucket, event), n);
+    }
+
+    static void reset(long bucket, MetricBucket source) {
+        for (MetricEvent event : EVENTS) {
+            OffHeapArena.putLongVolatile(counter(bucket, event), source == null ? 0 : source.get(event));
+        }
+        OffHeapArena.putLongVolatile(bucket + MIN_RT_OFFSET, SentinelConfig.statisticMaxRt());
+    }
+
+    static long minRt(long bucket) {
+        return OffHeapArena.getLongVolatile(bucket + MIN_RT_OFFSET);
+    }
+
+    static void addRT(long bucket, long rt) {
+        add(bucket, MetricEvent.RT, rt);
+        long minRtAddress = bucket + MIN_RT_OFFSET;
+        long min;
+        while (rt < (min = OffHeapArena.getLongVolatile(minRtAddress))) {
+            if (OffHeapArena.compareAndSwapLong(minRtAddress, min, rt)) {
+                break;
+            }
+        }
+    }
+
+    private static long windowStart(long bucket) {
+        return OffHeapArena.getLongVolatile(bucket);
+    }
+
+    private boolean isValid(long windowStart, long timeMillis) {
+        return windowStart >= 0 && timeMillis - windowStart <= intervalInMs;
+    }
+
+    /**
+     * Rotate the current bucket and collect the valid buckets, as {@code LeapArray#values()} does.
+     */
+    private List<Long> validBuckets() {
+        long now = TimeUtil.currentTimeMillis();
+        currentBucket(now, false);
+        List<Long> buckets = new ArrayList<>(sampleCount);
+        for (int i = 0; i < sampleCount; i++) {
+            long bucket = bucketAt(i, false);
+            if (isValid(windowStart(bucket), now)) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private long sum(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        currentBucket(now, false);
+        long sum = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            long bucket = bucketAt(i, false);
+            if (isValid(windowStart(bucket), now)) {
+                sum += get(bucket, event);
+            }
+        }
+        reachabilityFence();
+        return sum;
+    }
+
+    private void addCurrent(MetricEvent event, long n) {
+        long bucket = currentBucket(TimeUtil.currentTimeMillis(), false);
+        if (bucket != NO_BUCKET) {
+            add(bucket, event, n);
+        }
+        reachabilityFence();
+    }
+
+    @Override
+    public long success() {
+        return sum(MetricEvent.SUCCESS);
+    }
+
+    @Override
+    public long maxSuccess() {
+        long success = 0;
+        for (long bucket : validBuckets()) {
+            success = Math.max(success, get(bucket, MetricEvent.SUCCESS));
+        }
+        reachabilityFence();
+        return Math.max(success, 1);
+    }
+
+    @Override
+    public long exception() {
+        return sum(MetricEvent.EXCEPTION);
+    }
+
+    @Override
+    public long block() {
+        return sum(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long pass() {
+        return sum(MetricEvent.PASS);
+    }
+
+    @Override
+    public long occupiedPass() {
+        return sum(MetricEvent.OCCUPIED_PASS);
+    }
+
+    @Override
+    public long rt() {
+        return sum(MetricEvent.RT);
+    }
+
+    @Override
+    public long minRt() {
+        long rt = SentinelConfig.statisticMaxRt();
+        for (long bucket : validBuckets()) {
+            rt = Math.min(rt, minRt(bucket));
+        }
+        reachabilityFence();
+        return Math.max(1, rt);
+    }
+
+    @Override
+    public List<MetricNode> details() {
+        return detailsOnCondition(null);
+    }
+
+    @Override
+    public List<MetricNode> detailsOnCondition(Predicate<Long> timePredicate) {
+        List<MetricNode> details = new ArrayList<>();
+        for (long bucket : validBuckets()) {
+            long windowStart = windowStart(bucket);
+            if (timePredicate != null && !timePredicate.test(windowStart)) {
+                continue;
+            }
+            details.add(fromBucket(bucket, windowStart));
+        }
+        reachabilityFence();
+        return details;
+    }
+
+    private MetricNode fromBucket(long bucket, long windowStart) {
+        MetricNode node = new MetricNode();
+        node.setBlockQps(get(bucket, MetricEvent.BLOCK));
+        node.setExceptionQps(get(bucket, MetricEvent.EXCEPTION));
+        node.setPassQps(get(bucket, MetricEvent.PASS));
+        long successQps = get(bucket, MetricEvent.SUCCESS);
+        node.setSuccessQps(successQps);
+        long rt = get(bucket, MetricEvent.RT);
+        node.setRt(successQps != 0 ? rt / successQps : rt);
+        node.setTimestamp(windowStart);
+        node.setOccupiedPassQps(get(bucket, MetricEvent.OCCUPIED_PASS));
+        return node;
+    }
+
+    @Override
+    public MetricBucket[] windows() {
+        List<Long> buckets = validBuckets();
+        MetricBucket[] windows = new MetricBucket[buckets.size()];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = new OffHeapMetricBucket(this, buckets.get(i));
+        }
+        reachabilityFence();
+        return windows;
+    }
+
+    @Override
+    public void addException(int n) {
+        addCurrent(MetricEvent.EXCEPTION, n);
+    }
+
+    @Override
+    public void addBlock(int n) {
+        addCurrent(MetricEvent.BLOCK, n);
+    }
+
+    @Override
+    public void addSuccess(int n) {
+        addCurrent(MetricEvent.SUCCESS, n);
+    }
+
+    @Override
+    public void addPass(int n) {
+        addCurrent(MetricEvent.PASS, n);
+    }
+
+    @Override
+    public void addRT(long rt) {
+        long bucket = currentBucket(TimeUtil.currentTimeMillis(), false);
+        if (bucket != NO_BUCKET) {
+            addRT(bucket, rt);
+        }
+        reachabilityFence();
+    }
+
+    @Override
+    public double getWindowIntervalInSec() {
+        return intervalInMs / 1000.0;
+    }
+
+    @Override
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    @Override
+    public long getWindowPass(long timeMillis) {
+        long bucket = bucketAt(indexOf(timeMillis), false);
+        long pass = windowStart(bucket) == windowStartOf(timeMillis) ? get(bucket, MetricEvent.PASS) : 0L;
+        reachabilityFence();
+        return pass;
+    }
+
+    @Override
+    public void addOccupiedPass(int acquireCount) {
+        addCurrent(MetricEvent.OCCUPIED_PASS, acquireCount);
+    }
+
+    @Override
+    public void addWaiting(long futureTime, int acquireCount) {
+        if (!enableOccupy) {
+            throw new UnsupportedOperationException();
+        }
+        long bucket = currentBucket(futureTime, true);
+        if (bucket != NO_BUCKET) {
+            add(bucket, MetricEvent.PASS, acquireCount);
+        }
+        reachabilityFence();
+    }
+
+    @Override
+    public long waiting() {
+        if (!enableOccupy) {
+            return 0;
+        }
+        long now = TimeUtil.currentTimeMillis();
+        long waiting = 0;
+        for (int i = 0; i < sampleCount; i++) {
+            long bucket = bucketAt(i, true);
+            // Only the future windows are valid for borrowed buckets.
+            if (windowStart(bucket) > now) {
+                waiting += get(bucket, MetricEvent.PASS);
+            }
+        }
+        reachabilityFence();
+        return waiting;
+    }
+
+    @Override
+    public long previousWindowBlock() {
+        return previousWindow(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long previousWindowPass() {
+        return previousWindow(MetricEvent.PASS);
+    }
+
+    private long previousWindow(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        currentBucket(now, false);
+        long previousTime = now - windowLengthInMs;
+        long bucket = bucketAt(indexOf(previousTime), false);
+        long value = windowStart(bucket) == windowStartOf(previousTime) ? get(bucket, event) : 0;
+        reachabilityFence();
+        return value;
+    }
+
+    @Override
+    public void debug() {
+        long now = TimeUtil.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread_").append(Thread.currentThread().getId()).append("_");
+        for (long bucket : validBuckets()) {
+            sb.append(windowStart(bucket)).append(":").append(new OffHeapMetricBucket(this, bucket).toString());
+        }
+        reachabilityFence();
+        sb.append(" time=").append(now);
+        System.out.println(sb.toString());
+    }
+}
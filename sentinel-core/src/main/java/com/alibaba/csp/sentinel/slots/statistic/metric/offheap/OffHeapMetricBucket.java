@@ -0,0 +1,80 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric.offheap;
+
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+
+/**
+ * A {@link MetricBucket} view of a bucket of an {@link OffHeapMetric}.
+ *
+ * @since 1.8.2
+ */
+class OffHeapMetricBucket extends MetricBucket {
+
+    /**
+     * Keep the owner reachable, so that the off-heap slot won't be recycled while the view is alive.
+     */
+    private final OffHeapMetric owner;
+    private final long bucket;
+
+    OffHeapMetricBucket(OffHeapMetric owner, long bucket) {
+        super(null);
+        this.owner = owner;
+        this.bucket = bucket;
+    }
+
+    @Override
+    public long get(MetricEvent event) {
+        long value = OffHeapMetric.get(bucket, event);
+        owner.reachabilityFence();
+        return value;
+    }
+
+    @Override
+    public MetricBucket add(MetricEvent event, long n) {
+        OffHeapMetric.add(bucket, event, n);
+        owner.reachabilityFence();
+        return this;
+    }
+
+    @Override
+    public MetricBucket reset() {
+        OffHeapMetric.reset(bucket, null);
+        owner.reachabilityFence();
+        return this;
+    }
+
+    @Override
+    public MetricBucket reset(MetricBucket source) {
+        OffHeapMetric.reset(bucket, source);
+        owner.reachabilityFence();
+        return this;
+    }
+
+    @Override
+    public long minRt() {
+        long rt = OffHeapMetric.minRt(bucket);
+        owner.reachabilityFence();
+        return rt;
+    }
+
+    @Override
+    public void addRT(long rt) {
+        OffHeapMetric.addRT(bucket, rt);
+        owner.reachabilityFence();
+    }
+}
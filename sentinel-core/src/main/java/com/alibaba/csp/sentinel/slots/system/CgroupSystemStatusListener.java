@@ -0,0 +1,395 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.spi.Spi;
+
+/**
+ * <p>A {@link SystemMetricsProvider} for containers, which samples the CPU accounting of the cgroup
+ * (v1 or v2) of current process from {@code /sys/fs/cgroup} rather than the host-wide metrics from JMX:</p>
+ *
+ * <ul>
+ *     <li>The CPU usage is the CPU time used in the sampling interval divided by the CPU limit
+ *     of the cgroup (the CFS quota, or all available processors if unlimited).</li>
+ *     <li>The system load is the CPU demand in cores, i.e. the CPU time used plus the time throttled
+ *     in the sampling interval, so that it's comparable to the load average (count of runnable tasks)
+ *     and keeps rising when the cgroup is throttled.</li>
+ *     <li>The ratio of throttled CFS periods, and the CPU/memory pressure (PSI {@code some avg10},
+ *     in [0.0, 1.0]) are provided for logging and custom checks. PSI is read from the cgroup in v2,
+ *     and from {@code /proc/pressure} (system-wide) in v1.</li>
+ * </ul>
+ *
+ * <p>The raw counters support sub-second sampling (see {@link SentinelConfig#SYSTEM_STATUS_INTERVAL_MS}),
+ * and the derived metrics are smoothed by an exponential moving average
+ * (see {@link SentinelConfig#SYSTEM_STATUS_SMOOTHING}). If the cgroup is unavailable
+ * (e.g. not on Linux), it falls back to the {@link SystemStatusListener}.</p>
+ *
+ * @since 1.8.2
+ */
+@Spi(CgroupSystemStatusListener.ALIAS)
+public class CgroupSystemStatusListener implements SystemMetricsProvider {
+
+    public static final String ALIAS = "cgroup";
+
+    private static final String CGROUP_ROOT = "/sys/fs/cgroup";
+    private static final String PROC_SELF_CGROUP = "/proc/self/cgroup";
+    private static final String PROC_PRESSURE = "/proc/pressure";
+
+    private final SystemStatusListener fallback = new SystemStatusListener();
+    private final Cgroup cgroup;
+    private final double smoothing;
+
+    volatile double currentLoad = -1;
+    volatile double currentCpuUsage = -1;
+    volatile double throttledRatio = -1;
+    volatile double cpuPressure = -1;
+    volatile double memoryPressure = -1;
+
+    /**
+     * The previous raw sample, only accessed by the sampling thread.
+     */
+    private long lastSampleNanos = -1;
+    private CpuStat lastStat;
+
+    public CgroupSystemStatusListener() {
+        this(CGROUP_ROOT, PROC_SELF_CGROUP, PROC_PRESSURE, SentinelConfig.systemStatusSmoothing());
+    }
+
+    CgroupSystemStatusListener(String cgroupRoot, String procSelfCgroup, String procPressure, double smoothing) {
+        this.cgroup = Cgroup.detect(new File(cgroupRoot), new File(procSelfCgroup), new File(procPressure));
+        this.smoothing = smoothing;
+        if (cgroup == null) {
+            RecordLog.warn("[CgroupSystemStatusListener] cgroup is unavailable under {}, falling back to JMX",
+                cgroupRoot);
+        } else {
+            RecordLog.info("[CgroupSystemStatusListener] Using cgroup v{} under {}", cgroup.version, cgroup.cpuDir);
+        }
+    }
+
+    /**
+     * @return whether the metrics are sampled from cgroup
+     */
+    public boolean isCgroupAvailable() {
+        return cgroup != null;
+    }
+
+    @Override
+    public double getSystemAverageLoad() {
+        return cgroup == null ? fallback.getSystemAverageLoad() : currentLoad;
+    }
+
+    @Override
+    public double getCpuUsage() {
+        return cgroup == null ? fallback.getCpuUsage() : currentCpuUsage;
+    }
+
+    /**
+     * @return the ratio of throttled CFS periods in [0.0, 1.0], or a negative value if unavailable
+     */
+    public double getThrottledRatio() {
+        return throttledRatio;
+    }
+
+    /**
+     * @return the share of time some tasks stalled on CPU in [0.0, 1.0], or a negative value if unavailable
+     */
+    public double getCpuPressure() {
+        return cpuPressure;
+    }
+
+    /**
+     * @return the share of time some tasks stalled on memory in [0.0, 1.0], or a negative value if unavailable
+     */
+    public double getMemoryPressure() {
+        return memoryPressure;
+    }
+
+    @Override
+    public void run() {
+        if (cgroup == null) {
+            fallback.run();
+            return;
+        }
+        try {
+            sample(System.nanoTime());
+            if (currentLoad > SystemRuleManager.getSystemLoadThreshold()) {
+                writeSystemStatusLog();
+            }
+        } catch (Throwable e) {
+            RecordLog.warn("[CgroupSystemStatusListener] Failed to get system metrics from cgroup", e);
+        }
+    }
+
+    void sample(long nowNanos) throws IOException {
+        CpuStat stat = cgroup.readCpuStat();
+        if (lastStat != null && nowNanos > lastSampleNanos && stat.usageNanos >= lastStat.usageNanos) {
+            double elapsed = nowNanos - lastSampleNanos;
+            double usedCores = (stat.usageNanos - lastStat.usageNanos) / elapsed;
+            double throttledCores = Math.max(0, stat.throttledNanos - lastStat.throttledNanos) / elapsed;
+            double limit = cgroup.readCpuLimit();
+            if (limit <= 0) {
+                limit = Runtime.getRuntime().availableProcessors();
+            }
+            currentLoad = smooth(currentLoad, usedCores + throttledCores);
+            currentCpuUsage = smooth(currentCpuUsage, Math.min(1.0d, usedCores / limit));
+
+            long periods = stat.periods - lastStat.periods;
+            if (periods > 0) {
+                throttledRatio = smooth(throttledRatio,
+                    Math.min(1.0d, (double)(stat.throttledPeriods - lastStat.throttledPeriods) / periods));
+            } else if (periods == 0 && stat.periods >= 0) {
+                throttledRatio = smooth(throttledRatio, 0);
+            }
+        }
+        lastStat = stat;
+        lastSampleNanos = nowNanos;
+
+        // PSI averages are smoothed by the kernel already.
+        cpuPressure = cgroup.readPressure(cgroup.cpuPressureFile);
+        memoryPressure = cgroup.readPressure(cgroup.memoryPressureFile);
+    }
+
+    private double smooth(double prev, double value) {
+        return prev < 0 ? value : prev + smoothing * (value - prev);
+    }
+
+    private void writeSystemStatusLog() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Load exceeds the threshold: ");
+        sb.append("load:").append(String.format("%.4f", currentLoad)).append("; ");
+        sb.append("cpuUsage:").append(String.format("%.4f", currentCpuUsage)).append("; ");
+        sb.append("throttled:").append(String.format("%.4f", throttledRatio)).append("; ");
+        sb.append("cpuPressure:").append(String.format("%.4f", cpuPressure)).append("; ");
+        sb.append("memoryPressure:").append(String.format("%.4f", memoryPressure)).append("; ");
+        RecordLog.info(sb.toString());
+    }
+
+    static final class CpuStat {
+        final long usageNanos;
+        final long periods;
+        final long throttledPeriods;
+        final long throttledNanos;
+
+        CpuStat(long usageNanos, long periods, long throttledPeriods, long throttledNanos) {
+            this.usageNanos = usageNanos;
+            this.periods = periods;
+            this.throttledPeriods = throttledPeriods;
+            this.throttledNanos = throttledNanos;
+        }
+    }
+
+    /**
+     * The CPU accounting files of a cgroup.
+     */
+    static final class Cgroup {
+        final int version;
+        /**
+         * {@code cpu.stat} and the CPU limit (both v1 and v2).
+         */
+        final File cpuDir;
+        /**
+         * {@code cpuacct.usage} (v1 only).
+         */
+        final File cpuacctDir;
+        final File cpuPressureFile;
+        final File memoryPressureFile;
+
+        private Cgroup(int version, File cpuDir, File cpuacctDir, File cpuPressureFile, File memoryPressureFile) {
+            this.version = version;
+            this.cpuDir = cpuDir;
+            this.cpuacctDir = cpuacctDir;
+            this.cpuPressureFile = cpuPressureFile;
+            this.memoryPressureFile = memoryPressureFile;
+        }
+
+        static Cgroup detect(File root, File procSelfCgroup, File procPressure) {
+            try {
+                List<String[]> entries = new ArrayList<>();
+                if (procSelfCgroup.isFile()) {
+                    // Lines like "4:cpu,cpuacct:/path" (v1) or "0::/path" (v2).
+                    for (String line : readLines(procSelfCgroup)) {
+                        String[] parts = line.split(":", 3);
+                        if (parts.length == 3) {
+                            entries.add(parts);
+                        }
+                    }
+                }
+                if (new File(root, "cgroup.controllers").isFile()) {
+                    File dir = resolveDir(root, pathOf(entries, ""), "cpu.stat");
+                    if (dir == null) {
+                        return null;
+                    }
+                    return new Cgroup(2, dir, null, new File(dir, "cpu.pressure"), new File(dir, "memory.pressure"));
+                }
+                File cpuDir = resolveDir(controllerRoot(root, "cpu"), pathOf(entries, "cpu"), "cpu.stat");
+                File cpuacctDir = resolveDir(controllerRoot(root, "cpuacct"), pathOf(entries, "cpuacct"),
+                    "cpuacct.usage");
+                if (cpuDir == null || cpuacctDir == null) {
+                    return null;
+                }
+                return new Cgroup(1, cpuDir, cpuacctDir, new File(procPressure, "cpu"),
+                    new File(procPressure, "memory"));
+            } catch (Throwable ex) {
+                RecordLog.warn("[CgroupSystemStatusListener] Failed to detect cgroup under " + root, ex);
+                return null;
+            }
+        }
+
+        private static File controllerRoot(File root, String controller) {
+            File dir = new File(root, controller);
+            return dir.isDirectory() ? dir : new File(root, "cpu,cpuacct");
+        }
+
+        private static String pathOf(List<String[]> entries, String controller) {
+            for (String[] entry : entries) {
+                for (String c : entry[1].split(",")) {
+                    if (c.equals(controller)) {
+                        return entry[2];
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * The cgroup path of the process is used if it's visible, otherwise the root
+         * (e.g. the cgroup namespace of a container makes its own cgroup the root).
+         */
+        private static File resolveDir(File root, String path, String probeFile) {
+            if (path != null && !"/".equals(path)) {
+                File dir = new File(root, path);
+                if (new File(dir, probeFile).isFile()) {
+                    return dir;
+                }
+            }
+            return new File(root, probeFile).isFile() ? root : null;
+        }
+
+        CpuStat readCpuStat() throws IOException {
+            long usage = -1;
+            long periods = -1;
+            long throttledPeriods = 0;
+            long throttledNanos = 0;
+            for (String line : readLines(new File(cpuDir, "cpu.stat"))) {
+                String[] kv = line.trim().split("\\s+");
+                if (kv.length != 2) {
+                    continue;
+                }
+                long value = Long.parseLong(kv[1]);
+                if ("usage_usec".equals(kv[0])) {
+                    usage = value * 1000;
+                } else if ("nr_periods".equals(kv[0])) {
+                    periods = value;
+                } else if ("nr_throttled".equals(kv[0])) {
+                    throttledPeriods = value;
+                } else if ("throttled_usec".equals(kv[0])) {
+                    throttledNanos = value * 1000;
+                } else if ("throttled_time".equals(kv[0])) {
+                    // v1 reports in nanoseconds.
+                    throttledNanos = value;
+                }
+            }
+            if (version == 1) {
+                usage = Long.parseLong(readLines(new File(cpuacctDir, "cpuacct.usage")).get(0).trim());
+            }
+            if (usage < 0) {
+                throw new IOException("CPU usage not found in " + cpuDir);
+            }
+            return new CpuStat(usage, periods, throttledPeriods, throttledNanos);
+        }
+
+        /**
+         * @return the CPU limit in cores, or a negative value if unlimited
+         */
+        double readCpuLimit() throws IOException {
+            long quota;
+            long period;
+            if (version == 2) {
+                File max = new File(cpuDir, "cpu.max");
+                if (!max.isFile()) {
+                    return -1;
+                }
+                // "max 100000" or "$QUOTA $PERIOD"
+                String[] parts = readLines(max).get(0).trim().split("\\s+");
+                if ("max".equals(parts[0]) || parts.length < 2) {
+                    return -1;
+                }
+                quota = Long.parseLong(parts[0]);
+                period = Long.parseLong(parts[1]);
+            } else {
+                File quotaFile = new File(cpuDir, "cpu.cfs_quota_us");
+                File periodFile = new File(cpuDir, "cpu.cfs_period_us");
+                if (!quotaFile.isFile() || !periodFile.isFile()) {
+                    return -1;
+                }
+                quota = Long.parseLong(readLines(quotaFile).get(0).trim());
+                period = Long.parseLong(readLines(periodFile).get(0).trim());
+            }
+            return quota > 0 && period > 0 ? (double)quota / period : -1;
+        }
+
+        /**
+         * @return the {@code some avg10} of a PSI file in [0.0, 1.0], or -1 if unavailable
+         */
+        double readPressure(File file) {
+            if (!file.isFile()) {
+                return -1;
+            }
+            try {
+                // "some avg10=0.00 avg60=0.00 avg300=0.00 total=0"
+                for (String line : readLines(file)) {
+                    if (!line.startsWith("some")) {
+                        continue;
+                    }
+                    for (String field : line.split("\\s+")) {
+                        if (field.startsWith("avg10=")) {
+                            return Double.parseDouble(field.substring("avg10=".length())) / 100;
+                        }
+                    }
+                }
+            } catch (Throwable ex) {
+                // PSI might be disabled (reading fails with EOPNOTSUPP).
+            }
+            return -1;
+        }
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        if (lines.isEmpty()) {
+            throw new IOException("Empty file: " + file);
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+/**
+ * <p>Provider of the system metrics which the system adaptive protection ({@link SystemSlot}) is based on.
+ * The provider is sampled periodically (see {@link com.alibaba.csp.sentinel.config.SentinelConfig#SYSTEM_STATUS_INTERVAL_MS})
+ * by the scheduler of {@link SystemRuleManager}, and the getters should return the latest sampled values.</p>
+ *
+ * <p>Implementations are loaded via SPI by the alias configured in
+ * {@link com.alibaba.csp.sentinel.config.SentinelConfig#SYSTEM_STATUS_PROVIDER}.</p>
+ *
+ * @since 1.8.2
+ */
+public interface SystemMetricsProvider extends Runnable {
+
+    /**
+     * @return the system load (comparable to the system load average), or a negative value if unavailable
+     */
+    double getSystemAverageLoad();
+
+    /**
+     * @return the CPU usage in [0.0, 1.0], or a negative value if unavailable
+     */
+    double getCpuUsage();
+}
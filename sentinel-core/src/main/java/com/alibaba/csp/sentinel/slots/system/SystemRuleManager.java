@@ -25,12 +25,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.spi.SpiLoader;
+import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
  * <p>
@@ -84,7 +87,7 @@ public final class SystemRuleManager {
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
-    private static SystemStatusListener statusListener = null;
+    private static SystemMetricsProvider statusListener = null;
     private final static SystemPropertyListener listener = new SystemPropertyListener();
     private static SentinelProperty<List<SystemRule>> currentProperty = new DynamicSentinelProperty<List<SystemRule>>();
 
@@ -94,8 +97,9 @@ public final class SystemRuleManager {
 
     static {
         checkSystemStatus.set(false);
-        statusListener = new SystemStatusListener();
-        scheduler.scheduleAtFixedRate(statusListener, 0, 1, TimeUnit.SECONDS);
+        statusListener = resolveStatusProvider();
+        scheduler.scheduleAtFixedRate(statusListener, 0, SentinelConfig.systemStatusIntervalMs(),
+            TimeUnit.MILLISECONDS);
         currentProperty.addListener(listener);
     }
 
@@ -339,6 +343,29 @@ public final class SystemRuleManager {
         return true;
     }
 
+    private static SystemMetricsProvider resolveStatusProvider() {
+        String alias = SentinelConfig.getConfig(SentinelConfig.SYSTEM_STATUS_PROVIDER);
+        if (StringUtil.isNotBlank(alias)) {
+            try {
+                SystemMetricsProvider provider = SpiLoader.of(SystemMetricsProvider.class).loadInstance(alias.trim());
+                RecordLog.info("[SystemRuleManager] Using system metrics provider: {}", provider.getClass().getName());
+                return provider;
+            } catch (Throwable ex) {
+                RecordLog.warn("[SystemRuleManager] Failed to load system metrics provider: " + alias
+                    + ", using the default", ex);
+            }
+        }
+        return new SystemStatusListener();
+    }
+
+    /**
+     * @return the provider of the system metrics
+     * @since 1.8.2
+     */
+    public static SystemMetricsProvider getSystemMetricsProvider() {
+        return statusListener;
+    }
+
     public static double getCurrentSystemAvgLoad() {
         return statusListener.getSystemAverageLoad();
     }
@@ -21,14 +21,20 @@ import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.spi.Spi;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
 import com.sun.management.OperatingSystemMXBean;
 
 /**
+ * The default {@link SystemMetricsProvider}, which samples the system load and CPU usage from JMX.
+ *
  * @author jialiang.linjl
  */
-public class SystemStatusListener implements Runnable {
+@Spi(SystemStatusListener.ALIAS)
+public class SystemStatusListener implements SystemMetricsProvider {
+
+    public static final String ALIAS = "jmx";
 
     volatile double currentLoad = -1;
     volatile double currentCpuUsage = -1;
@@ -38,10 +44,12 @@ public class SystemStatusListener implements Runnable {
     volatile long processCpuTime = 0;
     volatile long processUpTime = 0;
 
+    @Override
     public double getSystemAverageLoad() {
         return currentLoad;
     }
 
+    @Override
     public double getCpuUsage() {
         return currentCpuUsage;
     }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * The clock behind {@link TimeUtil}, which implements the clock modes configured
+ * via {@link SentinelConfig#TIME_TICK_MODE}. It's separated from {@link TimeUtil}
+ * so that {@link TimeUtil} could be mocked statically in tests.
+ *
+ * @since 1.8.2
+ */
+final class TimeTicker {
+
+    private static final int TICK = 0;
+    private static final int ADAPTIVE = 1;
+    private static final int MONOTONIC = 2;
+
+    /**
+     * In adaptive mode, switch to ticking when the clock is read more than this amount of times per second.
+     */
+    private static final long ADAPTIVE_HOT_READS_PER_SECOND = 1000;
+    /**
+     * In adaptive mode, switch back to direct reads when less than this amount of ticks within
+     * {@link #ADAPTIVE_CHECK_TICKS} ticks have seen any read.
+     */
+    private static final int ADAPTIVE_COLD_ACTIVE_TICKS = 200;
+    private static final int ADAPTIVE_CHECK_TICKS = 1000;
+    private static final long ADAPTIVE_IDLE_CHECK_INTERVAL_MS = 100;
+
+    private static final int mode;
+
+    private static volatile long currentTimeMillis;
+
+    /**
+     * Whether the cached time is being ticked (only for adaptive mode).
+     */
+    private static volatile boolean ticking;
+    /**
+     * Whether the cached time has been read since last tick (only for adaptive mode).
+     */
+    private static volatile boolean touched;
+    /**
+     * Reads when not ticking (only for adaptive mode).
+     */
+    private static final LongAdder directReads = new LongAdder();
+
+    private static final long baseMillis;
+    private static final long baseNanos;
+
+    private static volatile long tickCount;
+    private static volatile long lastTickDrift;
+    private static volatile long maxTickDrift;
+
+    static {
+        baseNanos = System.nanoTime();
+        baseMillis = System.currentTimeMillis();
+        currentTimeMillis = baseMillis;
+        mode = resolveMode(SentinelConfig.getConfig(SentinelConfig.TIME_TICK_MODE));
+        if (mode == TICK) {
+            ticking = true;
+            startDaemon(new Runnable() {
+                @Override
+                public void run() {
+                    while (true) {
+                        tick();
+                        sleepQuietly(1);
+                    }
+                }
+            });
+        } else if (mode == ADAPTIVE) {
+            startDaemon(new Runnable() {
+                @Override
+                public void run() {
+                    adaptiveLoop();
+                }
+            });
+        }
+        RecordLog.info("[TimeTicker] Clock mode resolved: {}", modeName(mode));
+    }
+
+    static long currentTimeMillis() {
+        switch (mode) {
+            case TICK:
+                return currentTimeMillis;
+            case MONOTONIC:
+                return baseMillis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - baseNanos);
+            default:
+                if (ticking) {
+                    if (!touched) {
+                        touched = true;
+                    }
+                    return currentTimeMillis;
+                }
+                directReads.increment();
+                return System.currentTimeMillis();
+        }
+    }
+
+    static String currentMode() {
+        return modeName(mode);
+    }
+
+    static boolean isTicking() {
+        return ticking;
+    }
+
+    static long getTickCount() {
+        return tickCount;
+    }
+
+    static long getLastTickDrift() {
+        return lastTickDrift;
+    }
+
+    static long getMaxTickDrift() {
+        return maxTickDrift;
+    }
+
+    private static void tick() {
+        long now = System.currentTimeMillis();
+        long drift = now - currentTimeMillis;
+        lastTickDrift = drift;
+        if (drift > maxTickDrift) {
+            maxTickDrift = drift;
+        }
+        currentTimeMillis = now;
+        tickCount++;
+    }
+
+    private static void adaptiveLoop() {
+        int ticks = 0;
+        int activeTicks = 0;
+        while (true) {
+            if (ticking) {
+                tick();
+                if (touched) {
+                    touched = false;
+                    activeTicks++;
+                }
+                if (++ticks >= ADAPTIVE_CHECK_TICKS) {
+                    if (activeTicks < ADAPTIVE_COLD_ACTIVE_TICKS) {
+                        ticking = false;
+                    }
+                    ticks = 0;
+                    activeTicks = 0;
+                }
+                sleepQuietly(1);
+            } else {
+                sleepQuietly(ADAPTIVE_IDLE_CHECK_INTERVAL_MS);
+                long reads = directReads.sumThenReset();
+                if (reads * 1000 / ADAPTIVE_IDLE_CHECK_INTERVAL_MS >= ADAPTIVE_HOT_READS_PER_SECOND) {
+                    // Refresh the cached time before readers switch to it.
+                    currentTimeMillis = System.currentTimeMillis();
+                    ticking = true;
+                }
+            }
+        }
+    }
+
+    private static void startDaemon(Runnable task) {
+        Thread daemon = new Thread(task);
+        daemon.setDaemon(true);
+        daemon.setName("sentinel-time-tick-thread");
+        daemon.start();
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (Throwable e) {
+
+        }
+    }
+
+    static int resolveMode(String modeName) {
+        if (TimeUtil.MODE_ADAPTIVE.equalsIgnoreCase(modeName)) {
+            return ADAPTIVE;
+        }
+        if (TimeUtil.MODE_MONOTONIC.equalsIgnoreCase(modeName)) {
+            return MONOTONIC;
+        }
+        if (modeName != null && !TimeUtil.MODE_TICK.equalsIgnoreCase(modeName)) {
+            RecordLog.warn("[TimeTicker] Unknown clock mode <{}>, using the default tick mode", modeName);
+        }
+        return TICK;
+    }
+
+    private static String modeName(int mode) {
+        switch (mode) {
+            case ADAPTIVE:
+                return TimeUtil.MODE_ADAPTIVE;
+            case MONOTONIC:
+                return TimeUtil.MODE_MONOTONIC;
+            default:
+                return TimeUtil.MODE_TICK;
+        }
+    }
+
+    private TimeTicker() {}
+}
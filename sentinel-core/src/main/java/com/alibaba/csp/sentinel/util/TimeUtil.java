@@ -15,38 +15,73 @@
  */
 package com.alibaba.csp.sentinel.util;
 
-import java.util.concurrent.TimeUnit;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 
 /**
- * Provides millisecond-level time of OS.
+ * <p>Provides millisecond-level time of OS.</p>
+ *
+ * <p>The clock mode could be configured via {@link SentinelConfig#TIME_TICK_MODE}:</p>
+ * <ul>
+ * <li>{@code tick} (default): a daemon thread caches {@code System.currentTimeMillis()} every millisecond.</li>
+ * <li>{@code adaptive}: when the clock is rarely read (e.g. idle services), the time is read directly
+ * from {@code System.currentTimeMillis()} and the daemon thread only wakes up occasionally to check the read
+ * rate. Once the read rate gets high, it switches to the tick mode, and it switches back when it cools down.</li>
+ * <li>{@code monotonic}: the time is derived from {@code System.nanoTime()} based on the wall-clock time
+ * at startup, so it never goes backwards even if the wall-clock is adjusted. No daemon thread is needed.</li>
+ * </ul>
  *
  * @author qinan.qn
  */
 public final class TimeUtil {
 
-    private static volatile long currentTimeMillis;
-
-    static {
-        currentTimeMillis = System.currentTimeMillis();
-        Thread daemon = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    currentTimeMillis = System.currentTimeMillis();
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (Throwable e) {
-
-                    }
-                }
-            }
-        });
-        daemon.setDaemon(true);
-        daemon.setName("sentinel-time-tick-thread");
-        daemon.start();
-    }
+    public static final String MODE_TICK = "tick";
+    public static final String MODE_ADAPTIVE = "adaptive";
+    public static final String MODE_MONOTONIC = "monotonic";
 
     public static long currentTimeMillis() {
-        return currentTimeMillis;
+        return TimeTicker.currentTimeMillis();
+    }
+
+    /**
+     * @return name of current clock mode
+     * @since 1.8.2
+     */
+    public static String currentMode() {
+        return TimeTicker.currentMode();
+    }
+
+    /**
+     * @return whether the cached time is being ticked by the daemon thread currently
+     * @since 1.8.2
+     */
+    public static boolean isTicking() {
+        return TimeTicker.isTicking();
+    }
+
+    /**
+     * @return total amount of ticks of the daemon thread
+     * @since 1.8.2
+     */
+    public static long getTickCount() {
+        return TimeTicker.getTickCount();
+    }
+
+    /**
+     * Get how far the cached time lagged behind the OS time in last tick (in milliseconds).
+     * Values larger than 1 indicate the tick thread was delayed (e.g. descheduled or GC paused).
+     *
+     * @return drift of the cached time in last tick
+     * @since 1.8.2
+     */
+    public static long getLastTickDrift() {
+        return TimeTicker.getLastTickDrift();
+    }
+
+    /**
+     * @return max drift of the cached time (in milliseconds) observed by the tick thread
+     * @since 1.8.2
+     */
+    public static long getMaxTickDrift() {
+        return TimeTicker.getMaxTickDrift();
     }
 }
@@ -1,9 +1,16 @@
 package com.alibaba.csp.sentinel;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 
 import org.junit.After;
 import org.junit.Test;
@@ -98,4 +105,34 @@ public class AsyncEntryTest {
     public void tearDown() {
         ContextTestUtil.cleanUpContext();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testNonBlockingEntryReservesWaitTime() throws Exception {
+        final String resourceName = "testNonBlockingEntryReservesWaitTime";
+        FlowRule rule = new FlowRule(resourceName)
+            .setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(1000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            AsyncEntry first = SphU.asyncEntryNonBlocking(resourceName, EntryType.IN);
+            assertTrue(first.isNonBlocking());
+            assertEquals(0, first.getWaitInMs());
+            assertTrue(first.whenReady().isDone());
+
+            long start = System.currentTimeMillis();
+            AsyncEntry second = SphU.asyncEntryNonBlocking(resourceName, EntryType.IN);
+            // The wait time is reserved rather than waited on current thread.
+            assertTrue(System.currentTimeMillis() - start < 50);
+            assertTrue(second.getWaitInMs() > 50);
+            assertSame(second, second.whenReady().get(2, TimeUnit.SECONDS));
+            assertTrue(System.currentTimeMillis() - start >= second.getWaitInMs() - 20);
+
+            first.exit();
+            second.exit();
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+            ContextTestUtil.cleanUpContext();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link BatchEntry}.
+ */
+public class BatchEntryTest {
+
+    private static final String RES_A = "batchResA";
+    private static final String RES_B = "batchResB";
+    private static final String RES_BLOCKED = "batchResBlocked";
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        FlowRule rule = new FlowRule(RES_BLOCKED).setCount(0).setGrade(RuleConstant.FLOW_GRADE_QPS);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+    }
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        ContextTestUtil.cleanUpContext();
+    }
+
+    @Test
+    public void testEntryBatchAllPassed() throws BlockException {
+        String resA = RES_A + "-allPassed";
+        String resB = RES_B + "-allPassed";
+        Map<String, Integer> batch = new LinkedHashMap<>();
+        batch.put(resA, 3);
+        batch.put(resB, 2);
+
+        BatchEntry entry = SphU.entryBatch(batch);
+        assertTrue(entry.isAllPassed());
+        assertEquals(2, entry.getEntries().size());
+        assertSame(entry.getEntries().get(1), ContextUtil.getContext().getCurEntry());
+
+        ClusterNode nodeA = ClusterBuilderSlot.getClusterNode(resA);
+        assertEquals(1, nodeA.curThreadNum());
+        entry.exit();
+
+        assertEquals(0, nodeA.curThreadNum());
+        assertEquals(3, nodeA.totalSuccess());
+        assertEquals(2, ClusterBuilderSlot.getClusterNode(resB).totalSuccess());
+        // The default context should be exited together with the outermost entry.
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testEntryBatchAllOrNothing() {
+        Map<String, Integer> batch = new LinkedHashMap<>();
+        batch.put(RES_A, 1);
+        batch.put(RES_BLOCKED, 1);
+        try {
+            SphU.entryBatch(batch);
+            fail("should be blocked");
+        } catch (BlockException ex) {
+            assertTrue(ex instanceof FlowException);
+        }
+        ClusterNode nodeA = ClusterBuilderSlot.getClusterNode(RES_A);
+        assertEquals(0, nodeA.curThreadNum());
+        // The batch is rejected as a whole, so the passed resource leaves no pass statistics.
+        assertEquals(0, nodeA.totalPass());
+        assertEquals(0, nodeA.totalSuccess());
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testPassCountVisibleWithinBatch() throws BlockException {
+        String resA = RES_A + "-visible";
+        String resRelated = RES_B + "-relatedToA";
+        FlowRule relatedRule = new FlowRule(resRelated).setCount(2).setGrade(RuleConstant.FLOW_GRADE_QPS)
+            .setStrategy(RuleConstant.STRATEGY_RELATE).setRefResource(resA);
+        FlowRuleManager.loadRules(Collections.singletonList(relatedRule));
+        Map<String, Integer> batch = new LinkedHashMap<>();
+        batch.put(resA, 2);
+        batch.put(resRelated, 1);
+
+        BatchEntry entry = SphU.entryBatch(batch, EntryType.IN, true);
+        // The pass count of the resource is recorded right after its check, so the following checks see it.
+        assertEquals(2, ClusterBuilderSlot.getClusterNode(resA).passQps(), 0.01);
+        assertTrue(entry.getBlockedResources().containsKey(resRelated));
+        entry.exit();
+    }
+
+    @Test
+    public void testEntryBatchPartial() throws BlockException {
+        Map<String, Integer> batch = new LinkedHashMap<>();
+        batch.put(RES_BLOCKED, 1);
+        batch.put(RES_B, 1);
+
+        BatchEntry entry = SphU.entryBatch(batch, EntryType.OUT, true);
+        assertFalse(entry.isAllPassed());
+        assertTrue(entry.getBlockedResources().get(RES_BLOCKED) instanceof FlowException);
+        assertEquals(1, entry.getEntries().size());
+        assertEquals(RES_B, entry.getEntries().get(0).getResourceWrapper().getName());
+
+        entry.exit();
+        // Duplicate exit should take no effect.
+        entry.exit();
+        assertEquals(0, ClusterBuilderSlot.getClusterNode(RES_B).curThreadNum());
+        assertNull(ContextUtil.getContext());
+    }
+}
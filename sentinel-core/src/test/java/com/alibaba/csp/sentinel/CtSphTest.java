@@ -1,5 +1,8 @@
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
@@ -269,6 +272,43 @@ public class CtSphTest {
         assertNull(ctSph.lookProcessChain(r2));
     }
 
+    @Test
+    public void testLookUpSlotChainConcurrently() throws Exception {
+        final int threadCount = 16;
+        final int resourceCount = 200;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        final ProcessorSlot<?>[][] chains = new ProcessorSlot<?>[threadCount][resourceCount];
+        for (int t = 0; t < threadCount; t++) {
+            final int idx = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        for (int i = 0; i < resourceCount; i++) {
+                            chains[idx][i] = ctSph.lookProcessChain(
+                                new StringResourceWrapper("concurrentRes-" + i, EntryType.IN));
+                        }
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        assertTrue(doneLatch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(resourceCount, CtSph.entrySize());
+        for (int i = 0; i < resourceCount; i++) {
+            assertNotNull(chains[0][i]);
+            for (int t = 1; t < threadCount; t++) {
+                assertSame("Same resource should share the same slot chain", chains[0][i], chains[t][i]);
+            }
+        }
+    }
+
     private void fillFullContext() {
         for (int i = 0; i < Constants.MAX_CONTEXT_NAME_SIZE; i++) {
             ContextUtil.enter("test-context-" + i);
@@ -23,6 +23,8 @@ import org.junit.Test;
 
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
@@ -59,6 +61,22 @@ public class SphUTest {
         e.exit();
     }
 
+    @Test
+    public void testResourceWrapperEntryNormal() throws BlockException {
+        ResourceWrapper resource = new StringResourceWrapper("resourceName", EntryType.IN);
+        Entry e = SphU.entry(resource);
+
+        assertNotNull(e);
+        assertSame(resource, e.resourceWrapper);
+        assertEquals(ContextUtil.getContext().getName(), Constants.CONTEXT_DEFAULT_NAME);
+
+        e.exit();
+
+        Entry e1 = SphU.entry(resource, 2);
+        assertSame(resource, e1.resourceWrapper);
+        e1.exit(2);
+    }
+
     @Test(expected = ErrorEntryFreeException.class)
     public void testStringEntryNotPairedException() throws BlockException {
         Entry e = SphU.entry("resourceName");
@@ -11,6 +11,8 @@ import java.io.IOException;
 import static com.alibaba.csp.sentinel.config.SentinelConfig.*;
 import static com.alibaba.csp.sentinel.util.ConfigUtil.addSeparator;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Test cases for {@link SentinelConfig}.
@@ -68,6 +70,28 @@ public class SentinelConfigTest {
     }
 
 
+    @Test
+    public void testMetricLogFormat() {
+        try {
+            SentinelConfig.setConfig(SentinelConfig.METRIC_LOG_FORMAT, "binary");
+            assertTrue(SentinelConfig.metricLogBinary());
+            assertFalse(SentinelConfig.metricLogText());
+
+            SentinelConfig.setConfig(SentinelConfig.METRIC_LOG_FORMAT, "binary, text");
+            assertTrue(SentinelConfig.metricLogBinary());
+            assertTrue(SentinelConfig.metricLogText());
+
+            // Unrecognized format falls back to text.
+            SentinelConfig.setConfig(SentinelConfig.METRIC_LOG_FORMAT, "json");
+            assertFalse(SentinelConfig.metricLogBinary());
+            assertTrue(SentinelConfig.metricLogText());
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.METRIC_LOG_FORMAT);
+        }
+        assertFalse(SentinelConfig.metricLogBinary());
+        assertTrue(SentinelConfig.metricLogText());
+    }
+
     //add Jvm parameter
     //-Dcsp.sentinel.config.file=classpath:sentinel-propertiesTest.properties
     //-Dcsp.sentinel.flow.cold.factor=5
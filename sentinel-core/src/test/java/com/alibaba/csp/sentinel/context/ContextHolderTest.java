@@ -0,0 +1,92 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.context;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ContextHolderTest {
+
+    @After
+    public void cleanUp() {
+        ContextTestUtil.cleanUpContext();
+    }
+
+    private static Context newContext(String name) {
+        return new Context(new EntranceNode(new StringResourceWrapper(name, EntryType.IN), null), name);
+    }
+
+    private void verifyRunWithRestores(final ContextHolder holder) {
+        final Context outer = newContext("outer-context");
+        final Context inner = newContext("inner-context");
+        holder.set(outer);
+        holder.runWith(inner, new Runnable() {
+            @Override
+            public void run() {
+                assertSame(inner, holder.get());
+                holder.remove();
+                assertNull(holder.get());
+            }
+        });
+        assertSame(outer, holder.get());
+
+        holder.runWith(null, new Runnable() {
+            @Override
+            public void run() {
+                assertNull(holder.get());
+            }
+        });
+        assertSame(outer, holder.get());
+        holder.remove();
+        assertNull(holder.get());
+    }
+
+    @Test
+    public void testThreadLocalHolder() {
+        verifyRunWithRestores(new ThreadLocalContextHolder());
+    }
+
+    @Test
+    public void testScopedValueHolder() {
+        // Falls back to ThreadLocal on JDK without ScopedValue, and the semantics keep the same.
+        verifyRunWithRestores(new ScopedValueContextHolder());
+    }
+
+    @Test
+    public void testRunOnContextWithFreshScope() {
+        ContextUtil.enter("outer-context");
+        final Context outer = ContextUtil.getContext();
+        ContextUtil.runOnContext(null, new Runnable() {
+            @Override
+            public void run() {
+                assertNull(ContextUtil.getContext());
+                ContextUtil.enter("inner-context");
+                assertEquals("inner-context", ContextUtil.getContext().getName());
+                ContextUtil.exit();
+                assertNull(ContextUtil.getContext());
+            }
+        });
+        assertSame(outer, ContextUtil.getContext());
+        ContextUtil.exit();
+        assertNull(ContextUtil.getContext());
+    }
+}
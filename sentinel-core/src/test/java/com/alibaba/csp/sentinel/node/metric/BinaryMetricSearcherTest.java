@@ -0,0 +1,131 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BinaryMetricSearcherTest {
+
+    private static final String BASE_FILE_NAME = "test-metrics.bin";
+    private static final long BASE_TIME = 1600000000000L;
+
+    private File baseDir;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("sentinel-binary-metric", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        baseDir.delete();
+    }
+
+    private static List<MetricNode> nodesOf(int second, int resourceCount) {
+        List<MetricNode> nodes = new ArrayList<MetricNode>();
+        for (int i = 0; i < resourceCount; i++) {
+            MetricNode node = new MetricNode();
+            node.setResource("resource-" + i);
+            node.setPassQps(second * 100 + i);
+            node.setBlockQps(i);
+            node.setRt(5);
+            node.setConcurrency(i);
+            node.setClassification(1);
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void testWriteAndFind() throws Exception {
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), BASE_FILE_NAME, 1024 * 1024, 6);
+        for (int second = 0; second < 10; second++) {
+            writer.write(BASE_TIME + second * 1000, nodesOf(second, 5));
+        }
+        BinaryMetricSearcher searcher = new BinaryMetricSearcher(baseDir.getAbsolutePath(), BASE_FILE_NAME);
+
+        List<MetricNode> nodes = searcher.findByTimeAndResource(BASE_TIME + 2000, BASE_TIME + 4999, null);
+        assertEquals(15, nodes.size());
+        assertEquals(BASE_TIME + 2000, nodes.get(0).getTimestamp());
+        assertEquals("resource-0", nodes.get(0).getResource());
+        assertEquals(200, nodes.get(0).getPassQps());
+        assertEquals(BASE_TIME + 4000, nodes.get(14).getTimestamp());
+        assertEquals(404, nodes.get(14).getPassQps());
+        assertEquals(4, nodes.get(14).getConcurrency());
+        assertEquals(1, nodes.get(14).getClassification());
+
+        nodes = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 20000, "resource-3");
+        assertEquals(10, nodes.size());
+        for (MetricNode node : nodes) {
+            assertEquals("resource-3", node.getResource());
+        }
+        assertTrue(searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 20000, "absent").isEmpty());
+
+        // Metrics of the same second are not split.
+        assertEquals(10, searcher.find(BASE_TIME + 8000, 7).size());
+
+        // Newly written metrics are visible to the existing searcher.
+        writer.write(BASE_TIME + 10000, nodesOf(10, 6));
+        nodes = searcher.findByTimeAndResource(BASE_TIME + 10000, BASE_TIME + 10000, "resource-5");
+        assertEquals(1, nodes.size());
+        assertEquals(1005, nodes.get(0).getPassQps());
+
+        List<ByteBuffer> slices = searcher.sliceByTime(BASE_TIME + 9000, BASE_TIME + 10000);
+        assertEquals(1, slices.size());
+        assertEquals(11 * BinaryMetricWriter.RECORD_SIZE, slices.get(0).remaining());
+        writer.close();
+    }
+
+    @Test
+    public void testFindAcrossSegments() throws Exception {
+        // Each segment holds 4 records.
+        long fileSize = BinaryMetricWriter.HEADER_SIZE + 4 * BinaryMetricWriter.RECORD_SIZE;
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), BASE_FILE_NAME, fileSize, 100);
+        for (int second = 0; second < 5; second++) {
+            writer.write(BASE_TIME + second * 1000, nodesOf(second, 3));
+        }
+        writer.close();
+        assertEquals(4, MetricWriter.listMetricFiles(baseDir.getAbsolutePath() + File.separator, BASE_FILE_NAME)
+            .size());
+
+        BinaryMetricSearcher searcher = new BinaryMetricSearcher(baseDir.getAbsolutePath(), BASE_FILE_NAME);
+        List<MetricNode> nodes = searcher.findByTimeAndResource(BASE_TIME + 1000, BASE_TIME + 3000, null);
+        assertEquals(9, nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(BASE_TIME + 1000 + i / 3 * 1000, nodes.get(i).getTimestamp());
+            assertEquals("resource-" + i % 3, nodes.get(i).getResource());
+        }
+        nodes = searcher.findByTimeAndResource(BASE_TIME, BASE_TIME + 5000, "resource-2");
+        assertEquals(5, nodes.size());
+    }
+}
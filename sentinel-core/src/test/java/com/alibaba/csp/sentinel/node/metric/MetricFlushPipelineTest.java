@@ -0,0 +1,127 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class MetricFlushPipelineTest {
+
+    private static final String BASE_FILE_NAME = "test-metrics.bin";
+    private static final long BASE_TIME = 1600000000000L;
+
+    private File baseDir;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = File.createTempFile("sentinel-metric-flush", "");
+        baseDir.delete();
+        baseDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = baseDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        baseDir.delete();
+    }
+
+    private static List<MetricNode> nodesOf(String resource) {
+        MetricNode node = new MetricNode();
+        node.setResource(resource);
+        node.setPassQps(1);
+        return Collections.singletonList(node);
+    }
+
+    @Test
+    public void testDropOldestSecondsWhenFull() throws Exception {
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), BASE_FILE_NAME, 1024 * 1024, 6);
+        MetricFlushPipeline pipeline = new MetricFlushPipeline(3, null, writer);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(pipeline.submit(BASE_TIME + i * 1000, nodesOf("resource-" + i)));
+        }
+        // The writer is not started, so the oldest seconds are dropped.
+        assertFalse(pipeline.submit(BASE_TIME + 3000, nodesOf("resource-3")));
+        assertFalse(pipeline.submit(BASE_TIME + 4000, nodesOf("resource-4")));
+        assertEquals(3, pipeline.getQueuedSeconds());
+        assertEquals(2, pipeline.getDroppedSeconds());
+        assertEquals(5, pipeline.getSubmittedSeconds());
+        assertTrue(pipeline.getBacklogMs() > 0);
+
+        assertEquals(3, pipeline.drain());
+        assertEquals(0, pipeline.getQueuedSeconds());
+        assertEquals(0, pipeline.getBacklogMs());
+        assertEquals(3, pipeline.getWrittenSeconds());
+        assertEquals(BASE_TIME + 4000, pipeline.getLastWrittenTime());
+        assertTrue(pipeline.getLastFlushLagMs() > 0);
+        writer.close();
+
+        List<MetricNode> nodes = new BinaryMetricSearcher(baseDir.getAbsolutePath(), BASE_FILE_NAME)
+            .findByTimeAndResource(BASE_TIME, BASE_TIME + 10000, null);
+        assertEquals(3, nodes.size());
+        assertEquals("resource-2", nodes.get(0).getResource());
+        assertEquals("resource-4", nodes.get(2).getResource());
+    }
+
+    @Test
+    public void testWriteOnWriterThread() throws Exception {
+        BinaryMetricWriter writer = new BinaryMetricWriter(baseDir.getAbsolutePath(), BASE_FILE_NAME, 1024 * 1024, 6);
+        MetricFlushPipeline pipeline = new MetricFlushPipeline(10, null, writer);
+        pipeline.start();
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(BASE_TIME + i * 1000, nodesOf("resource"));
+        }
+        for (int i = 0; i < 100 && pipeline.getWrittenSeconds() < 5; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(5, pipeline.getWrittenSeconds());
+        assertEquals(0, pipeline.getDroppedSeconds());
+        assertEquals(BASE_TIME + 4000, pipeline.getLastWrittenTime());
+    }
+
+    @Test
+    public void testTextWrittenWhenBinaryFails() throws Exception {
+        BinaryMetricWriter binaryWriter = mock(BinaryMetricWriter.class);
+        doThrow(new IOException("disk full")).when(binaryWriter).write(anyLong(), anyList());
+        MetricWriter textWriter = mock(MetricWriter.class);
+        MetricFlushPipeline pipeline = new MetricFlushPipeline(10, textWriter, binaryWriter);
+
+        List<MetricNode> nodes = nodesOf("resource");
+        pipeline.submit(BASE_TIME, nodes);
+        assertEquals(1, pipeline.drain());
+        verify(textWriter).write(BASE_TIME, nodes);
+        assertEquals(1, pipeline.getFailedSeconds());
+        assertEquals(0, pipeline.getWrittenSeconds());
+    }
+}
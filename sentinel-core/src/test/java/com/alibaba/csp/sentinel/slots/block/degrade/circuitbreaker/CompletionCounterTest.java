@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompletionCounterTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testCountAndRollover() {
+        setCurrentMillis(1200);
+        CompletionCounter counter = new CompletionCounter(1000, 4);
+        counter.add(false);
+        counter.add(true);
+        counter.add(true);
+        assertEquals(3, counter.total());
+        assertEquals(2, counter.bad());
+
+        counter.markMinRequestReached();
+        sleep(500);
+        counter.add(false);
+        assertEquals(4, counter.total());
+        assertTrue(counter.isMinRequestReached());
+
+        // The interval [1000, 2000) ends, so the counters start over.
+        sleep(400);
+        counter.add(true);
+        assertEquals(1, counter.total());
+        assertEquals(1, counter.bad());
+        assertFalse(counter.isMinRequestReached());
+
+        counter.markMinRequestReached();
+        counter.reset();
+        assertEquals(0, counter.total());
+        assertEquals(0, counter.bad());
+        assertFalse(counter.isMinRequestReached());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws Exception {
+        setCurrentMillis(0);
+        final CompletionCounter counter = new CompletionCounter(1000, 8);
+        final int threads = 8;
+        final int count = 1000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            final boolean bad = i % 2 == 0;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < count; j++) {
+                        counter.add(bad);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        assertEquals(threads * count, counter.total());
+        assertEquals(threads * count / 2, counter.bad());
+    }
+}
@@ -55,4 +55,22 @@ public class ResponseTimeCircuitBreakerTest extends AbstractTimeBasedTest {
         assertTrue(entryAndSleepFor(resource, 20));
     }
 
+    @Test
+    public void testTripWhenMinRequestAmountReachedByFastRequest() {
+        String resource = "testTripWhenMinRequestAmountReachedByFastRequest";
+        DegradeRule rule = new DegradeRule(resource)
+                .setCount(10)
+                .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+                .setMinRequestAmount(3)
+                .setSlowRatioThreshold(0.5)
+                .setStatIntervalMs(5000)
+                .setTimeWindow(5);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        assertTrue(entryAndSleepFor(resource, 20));
+        assertTrue(entryAndSleepFor(resource, 20));
+        // 2/3 requests are slow once the min request amount is reached, even though the last one is fast.
+        assertTrue(entryAndSleepFor(resource, 1));
+        assertFalse(entryAndSleepFor(resource, 1));
+    }
 }
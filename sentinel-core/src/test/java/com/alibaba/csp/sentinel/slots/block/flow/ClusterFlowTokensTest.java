@@ -0,0 +1,190 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClusterFlowTokensTest {
+
+    @After
+    public void tearDown() {
+        ClusterFlowTokens.detach();
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testAttachedResultAppliedOnce() {
+        FlowRule rule = newClusterRule("testAttachedResultAppliedOnce");
+        Map<FlowRule, TokenResult> results = new IdentityHashMap<>();
+        results.put(rule, new TokenResult(TokenResultStatus.BLOCKED));
+        new ClusterFlowTokens(results).attach();
+
+        FlowRuleChecker checker = new FlowRuleChecker();
+        Context context = mock(Context.class);
+        DefaultNode node = mock(DefaultNode.class);
+        assertFalse(checker.canPassCheck(rule, context, node, 1));
+        // The result has been taken, and the rule won't be activated as there is no token service.
+        assertTrue(checker.canPassCheck(rule, context, node, 1));
+    }
+
+    @Test
+    public void testDetachedResultNotApplied() {
+        FlowRule rule = newClusterRule("testDetachedResultNotApplied");
+        Map<FlowRule, TokenResult> results = new IdentityHashMap<>();
+        results.put(rule, new TokenResult(TokenResultStatus.BLOCKED));
+        new ClusterFlowTokens(results).attach();
+        ClusterFlowTokens.detach();
+
+        assertTrue(new FlowRuleChecker().canPassCheck(rule, mock(Context.class), mock(DefaultNode.class), 1));
+    }
+
+    @Test
+    public void testRequestAsyncWithoutTokenService() throws Exception {
+        String resourceName = "testRequestAsyncWithoutTokenService";
+        FlowRuleManager.loadRules(Collections.singletonList(newClusterRule(resourceName)));
+
+        ClusterFlowTokens tokens = ClusterFlowTokens.requestAsync(resourceName, 1, false).getNow(null);
+        // Not in cluster mode, so nothing is requested and the future completes immediately.
+        assertTrue(tokens != null && ClusterFlowTokens.requestAsync("absent", 1, false).isDone());
+        tokens.attach();
+        assertTrue(ClusterFlowTokens.takeAttached(FlowRuleManager.getRules().get(0)) == null);
+    }
+
+    @Test
+    public void testRequestStopsAtBlockedRule() throws Exception {
+        String resourceName = "testRequestStopsAtBlockedRule";
+        FlowRule rule1 = newClusterRule(resourceName);
+        FlowRule rule2 = newClusterRule(resourceName);
+        rule2.getClusterConfig().setFlowId(2L);
+        TokenService service = mock(TokenService.class);
+        when(service.requestToken(1L, 1, false)).thenReturn(new TokenResult(TokenResultStatus.BLOCKED));
+
+        ClusterFlowTokens tokens = new ClusterFlowTokens(new IdentityHashMap<FlowRule, TokenResult>())
+            .requestFrom(service, Arrays.asList(rule1, rule2), 0, 1, false).get();
+        // The entry would be blocked by the first rule, so the token of the second rule is not requested.
+        verify(service, never()).requestToken(2L, 1, false);
+        tokens.attach();
+        assertEquals(TokenResultStatus.BLOCKED, (int)ClusterFlowTokens.takeAttached(rule1).getStatus());
+        assertTrue(ClusterFlowTokens.takeAttached(rule2) == null);
+    }
+
+    @Test
+    public void testRuleApplicableToOrigin() {
+        String resourceName = "testRuleApplicableToOrigin";
+        FlowRule defaultRule = newClusterRule(resourceName);
+        FlowRule appRule = newClusterRule(resourceName);
+        appRule.setLimitApp("appA");
+        FlowRule otherRule = newClusterRule(resourceName);
+        otherRule.setLimitApp(RuleConstant.LIMIT_APP_OTHER);
+        FlowRuleManager.loadRules(Arrays.asList(defaultRule, appRule, otherRule));
+
+        assertTrue(FlowRuleChecker.isApplicableTo(defaultRule, ""));
+        assertTrue(FlowRuleChecker.isApplicableTo(appRule, "appA"));
+        assertFalse(FlowRuleChecker.isApplicableTo(appRule, "appB"));
+        assertFalse(FlowRuleChecker.isApplicableTo(otherRule, "appA"));
+        assertTrue(FlowRuleChecker.isApplicableTo(otherRule, "appB"));
+        assertFalse(FlowRuleChecker.isApplicableTo(otherRule, ""));
+    }
+
+    @Test
+    public void testCheckWithoutAttachedTokensNotFilteredByOrigin() {
+        String resourceName = "testCheckWithoutAttachedTokensNotFilteredByOrigin";
+        FlowRule defaultRule = newClusterRule(resourceName);
+        FlowRule appRule = newClusterRule(resourceName);
+        appRule.setLimitApp("appA");
+        FlowRule otherRule = newClusterRule(resourceName);
+        otherRule.setLimitApp(RuleConstant.LIMIT_APP_OTHER);
+        FlowRuleManager.loadRules(Arrays.asList(defaultRule, appRule, otherRule));
+        Map<FlowRule, TokenResult> results = new IdentityHashMap<>();
+        for (FlowRule rule : Arrays.asList(defaultRule, appRule, otherRule)) {
+            results.put(rule, new TokenResult(TokenResultStatus.BLOCKED));
+        }
+        // The results are not selected by origin.
+        new ClusterFlowTokens(results).attach();
+
+        FlowRuleChecker checker = new FlowRuleChecker();
+        Context context = mock(Context.class);
+        when(context.getOrigin()).thenReturn("appA");
+        DefaultNode node = mock(DefaultNode.class);
+        // Cluster rules are checked regardless of the limit app.
+        assertFalse(checker.canPassCheck(defaultRule, context, node, 1));
+        assertFalse(checker.canPassCheck(appRule, context, node, 1));
+        assertFalse(checker.canPassCheck(otherRule, context, node, 1));
+    }
+
+    @Test
+    public void testRulesSkippedByAttachedTokens() {
+        String resourceName = "testRulesSkippedByAttachedTokens";
+        FlowRule defaultRule = newClusterRule(resourceName);
+        FlowRule appRule = newClusterRule(resourceName);
+        appRule.setLimitApp("appA");
+        FlowRule otherRule = newClusterRule(resourceName);
+        otherRule.setLimitApp(RuleConstant.LIMIT_APP_OTHER);
+        FlowRuleManager.loadRules(Arrays.asList(defaultRule, appRule, otherRule));
+        Map<FlowRule, TokenResult> results = new IdentityHashMap<>();
+        for (FlowRule rule : Arrays.asList(defaultRule, appRule, otherRule)) {
+            results.put(rule, new TokenResult(TokenResultStatus.BLOCKED));
+        }
+        // The tokens are requested for origin appA, so the rule for other origins is skipped.
+        new ClusterFlowTokens(results, "appA").attach();
+
+        FlowRuleChecker checker = new FlowRuleChecker();
+        Context context = mock(Context.class);
+        DefaultNode node = mock(DefaultNode.class);
+        assertFalse(checker.canPassCheck(defaultRule, context, node, 1));
+        assertFalse(checker.canPassCheck(appRule, context, node, 1));
+        assertTrue(checker.canPassCheck(otherRule, context, node, 1));
+    }
+
+    @Test
+    public void testEmptyTokensAttachedForOrigin() {
+        FlowRule rule = newClusterRule("testEmptyTokensAttachedForOrigin");
+        rule.setLimitApp("appA");
+        new ClusterFlowTokens(new IdentityHashMap<FlowRule, TokenResult>(), "appB").attach();
+
+        // No rule applies to appB, so the rule is passed without requesting the token server.
+        assertTrue(ClusterFlowTokens.isSkippedByAttached(rule));
+        ClusterFlowTokens.detach();
+        assertFalse(ClusterFlowTokens.isSkippedByAttached(rule));
+    }
+
+    private static FlowRule newClusterRule(String resourceName) {
+        return new FlowRule(resourceName).setCount(10).setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig().setFlowId(1L).setFallbackToLocalWhenFail(false));
+    }
+}
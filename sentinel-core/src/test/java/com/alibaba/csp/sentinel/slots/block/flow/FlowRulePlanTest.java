@@ -0,0 +1,113 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class FlowRulePlanTest {
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(null);
+    }
+
+    private static FlowRule withLimitApp(FlowRule rule, String limitApp) {
+        rule.setLimitApp(limitApp);
+        return rule;
+    }
+
+    @Test
+    public void testCompiledSelectorsMatchChecker() {
+        String resource = "testCompiledSelectorsMatchChecker";
+        String refResource = "testCompiledSelectorsMatchChecker_ref";
+        ClusterNode refNode = mock(ClusterNode.class);
+        ClusterBuilderSlot.getClusterNodeMap().put(new StringResourceWrapper(refResource, EntryType.IN), refNode);
+
+        List<FlowRule> rules = Arrays.asList(
+            new FlowRule(resource).setCount(1),
+            withLimitApp(new FlowRule(resource).setCount(2), "appA"),
+            withLimitApp(new FlowRule(resource).setCount(3), RuleConstant.LIMIT_APP_OTHER),
+            new FlowRule(resource).setCount(4).setStrategy(RuleConstant.STRATEGY_RELATE).setRefResource(refResource),
+            withLimitApp(new FlowRule(resource).setCount(5).setStrategy(RuleConstant.STRATEGY_CHAIN)
+                .setRefResource("entranceA"), "appA"),
+            new FlowRule(resource).setCount(6).setStrategy(RuleConstant.STRATEGY_CHAIN).setRefResource("entranceB")
+        );
+        FlowRuleManager.loadRules(rules);
+        FlowRulePlan plan = FlowRuleManager.getFlowRulePlans().get(resource);
+        assertEquals(rules.size(), plan.getRules().length);
+
+        DefaultNode node = mock(DefaultNode.class);
+        when(node.getClusterNode()).thenReturn(mock(ClusterNode.class));
+        for (String origin : new String[] {"", "appA", "appB", RuleConstant.LIMIT_APP_DEFAULT,
+            RuleConstant.LIMIT_APP_OTHER}) {
+            for (String contextName : new String[] {"entranceA", "entranceB"}) {
+                Context context = mock(Context.class);
+                when(context.getOrigin()).thenReturn(origin);
+                when(context.getName()).thenReturn(contextName);
+                when(context.getOriginNode()).thenReturn(mock(DefaultNode.class));
+                for (FlowRulePlan.CompiledFlowRule compiledRule : plan.getRules()) {
+                    assertSame(FlowRuleChecker.selectNodeByRequesterAndStrategy(compiledRule.getRule(), context, node),
+                        compiledRule.selectNode(context, node));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPlanReplacedOnRuleUpdate() throws Exception {
+        String resource = "testPlanReplacedOnRuleUpdate";
+        FlowSlot slot = new FlowSlot();
+        Context context = mock(Context.class);
+        DefaultNode node = mock(DefaultNode.class);
+        ClusterNode cn = mock(ClusterNode.class);
+        when(node.getClusterNode()).thenReturn(cn);
+        when(cn.passQps()).thenReturn(5d);
+        StringResourceWrapper wrapper = new StringResourceWrapper(resource, EntryType.IN);
+
+        // No rules.
+        slot.checkFlow(wrapper, context, node, 1, false);
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(10)));
+        slot.checkFlow(wrapper, context, node, 1, false);
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resource).setCount(2)));
+        try {
+            slot.checkFlow(wrapper, context, node, 1, false);
+            fail("should be blocked by the updated rule");
+        } catch (FlowException ex) {
+            assertEquals(2, ((FlowRule)ex.getRule()).getCount(), 0.01);
+        }
+
+        // The cached plan is for another resource.
+        slot.checkFlow(new StringResourceWrapper(resource + "_another", EntryType.IN), context, node, 1, false);
+    }
+}
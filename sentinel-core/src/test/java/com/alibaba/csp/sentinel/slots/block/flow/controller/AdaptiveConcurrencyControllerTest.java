@@ -0,0 +1,84 @@
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class AdaptiveConcurrencyControllerTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testLimitFollowsLatency() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, 0.5);
+        assertEquals(20, controller.getLimit(), 0.01);
+
+        // Stable latency: the limit grows by the queue allowance.
+        for (int i = 0; i < 10; i++) {
+            controller.update(10, 8, controller.getLimit());
+        }
+        assertEquals(8, controller.getNoLoadRt(), 0.01);
+        double grown = controller.getLimit();
+        assertTrue(grown > 40);
+
+        // Requests start queueing in the downstream.
+        for (int i = 0; i < 10; i++) {
+            controller.update(40, 30, controller.getLimit());
+        }
+        assertTrue(controller.getLimit() < grown / 2);
+        // The no-load RT rises slowly.
+        assertTrue(controller.getNoLoadRt() > 8 && controller.getNoLoadRt() < 20);
+
+        // Never beyond the max limit.
+        for (int i = 0; i < 200; i++) {
+            controller.update(10, 8, controller.getLimit());
+        }
+        assertEquals(100, controller.getLimit(), 0.01);
+    }
+
+    @Test
+    public void testNoGrowthWhenLimitNotUsed() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, 0.5);
+        for (int i = 0; i < 10; i++) {
+            controller.update(10, 8, 5);
+        }
+        assertEquals(20, controller.getLimit(), 0.01);
+    }
+
+    @Test
+    public void testCanPass() {
+        setCurrentMillis(1000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, 0.2);
+        Node node = mock(Node.class);
+        when(node.avgRt()).thenReturn(10d);
+        when(node.minRt()).thenReturn(8d);
+        when(node.successQps()).thenReturn(500d);
+        when(node.curThreadNum()).thenReturn(9, 10);
+
+        assertTrue(controller.canPass(node, 1));
+        assertFalse(controller.canPass(node, 1));
+        // Not updated within the update interval.
+        verify(node, never()).avgRt();
+
+        sleep(AdaptiveConcurrencyController.UPDATE_INTERVAL_MS);
+        controller.canPass(node, 1);
+        verify(node, times(1)).avgRt();
+        assertEquals(8, controller.getNoLoadRt(), 0.01);
+    }
+
+    @Test
+    public void testValidRule() {
+        FlowRule rule = new FlowRule("testAdaptiveConcurrency")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY)
+            .setCount(100);
+        assertTrue(FlowRuleUtil.isValidRule(rule));
+        assertFalse(FlowRuleUtil.isValidRule(rule.setAdaptiveSmoothing(0)));
+        assertFalse(FlowRuleUtil.isValidRule(rule.setAdaptiveSmoothing(0.5).setCount(0.5)));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -24,6 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 
+import com.alibaba.csp.sentinel.slots.block.flow.ReservableTrafficShapingController;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.Node;
 
@@ -95,4 +97,22 @@ public class RateLimiterControllerTest {
             assertTrue(paceController.canPass(node, 0));
         }
     }
+
+    @Test
+    public void testTryReserveWithoutSleeping() {
+        RateLimiterController paceController = new RateLimiterController(500, 10d);
+        Node node = mock(Node.class);
+
+        long start = TimeUtil.currentTimeMillis();
+        assertEquals(0, paceController.tryReserve(node, 1, false));
+        long lastWait = 0;
+        for (int i = 0; i < 5; i++) {
+            long waitTime = paceController.tryReserve(node, 1, false);
+            assertTrue(waitTime > lastWait);
+            lastWait = waitTime;
+        }
+        assertEquals(ReservableTrafficShapingController.REJECTED, paceController.tryReserve(node, 1, false));
+        // The reservations are made without waiting.
+        assertTrue(TimeUtil.currentTimeMillis() - start < 100);
+    }
 }
@@ -15,22 +15,32 @@
  */
 package com.alibaba.csp.sentinel.slots.nodeselector;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
 
 import org.junit.Test;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 
 /**
  * @author jialiang.linjl
@@ -116,6 +126,63 @@ public class NodeSelectorTest {
         ContextUtil.exit();
     }
 
+    @Test
+    public void testIndexedAndNamedLookupShareNode() throws Throwable {
+        final String contextName = "entry_indexed_lookup";
+        ResourceWrapper resource = new StringResourceWrapper("nodeIndexed", EntryType.IN);
+        EntranceNode entranceNode = new EntranceNode(new StringResourceWrapper(contextName, EntryType.IN), null);
+        NodeSelectorSlot slot = new NodeSelectorSlot();
+
+        // Context whose entrance node does not match its name has no index, so the name is used.
+        Context unindexed = newContext(new DefaultNode(resource, null), contextName);
+        assertEquals(-1, unindexed.getIndex());
+        slot.entry(unindexed, resource, null, 1, false);
+        Node nodeByName = unindexed.getCurNode();
+
+        Context indexed = newContext(entranceNode, contextName);
+        assertEquals(entranceNode.getIndex(), indexed.getIndex());
+        slot.entry(indexed, resource, null, 1, false);
+        assertSame(nodeByName, indexed.getCurNode());
+        // Hit the indexed table.
+        Context indexedAgain = newContext(entranceNode, contextName);
+        slot.entry(indexedAgain, resource, null, 1, false);
+        assertSame(nodeByName, indexedAgain.getCurNode());
+
+        Context another = newContext(new EntranceNode(new StringResourceWrapper("another_" + contextName,
+            EntryType.IN), null), "another_" + contextName);
+        slot.entry(another, resource, null, 1, false);
+        assertNotSame(nodeByName, another.getCurNode());
+    }
+
+    @Test
+    public void testLookupInManyContexts() throws Throwable {
+        ResourceWrapper resource = new StringResourceWrapper("nodeInManyContexts", EntryType.IN);
+        NodeSelectorSlot slot = new NodeSelectorSlot();
+        List<EntranceNode> entranceNodes = new ArrayList<>();
+        List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String contextName = "entry_many_contexts_" + i;
+            EntranceNode entranceNode = new EntranceNode(new StringResourceWrapper(contextName, EntryType.IN), null);
+            Context context = newContext(entranceNode, contextName);
+            slot.entry(context, resource, null, 1, false);
+            entranceNodes.add(entranceNode);
+            nodes.add(context.getCurNode());
+        }
+        assertEquals(nodes.size(), new HashSet<>(nodes).size());
+        for (int i = 0; i < entranceNodes.size(); i++) {
+            EntranceNode entranceNode = entranceNodes.get(i);
+            Context context = newContext(entranceNode, entranceNode.getId().getName());
+            slot.entry(context, resource, null, 1, false);
+            assertSame(nodes.get(i), context.getCurNode());
+        }
+    }
+
+    private static Context newContext(DefaultNode entranceNode, String name) {
+        Context context = new Context(entranceNode, name);
+        context.setCurEntry(mock(Entry.class, CALLS_REAL_METHODS));
+        return context;
+    }
+
     //@Test
     public void testMultipleLayer() throws Exception {
         // TODO: fix this
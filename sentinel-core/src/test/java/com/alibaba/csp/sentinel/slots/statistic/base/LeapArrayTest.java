@@ -15,7 +15,10 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.junit.Test;
 
@@ -62,4 +65,58 @@ public class LeapArrayTest extends AbstractTimeBasedTest {
         assertSame(expected2, leapArray.getValidHead());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testConcurrentRotateResetsBucketOnlyOnce() throws Exception {
+        final int windowLengthInMs = 500;
+        final int intervalInMs = 1000;
+        final AtomicInteger resetCount = new AtomicInteger(0);
+        final LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(intervalInMs / windowLengthInMs,
+            intervalInMs) {
+            @Override
+            public AtomicInteger newEmptyBucket(long time) {
+                return new AtomicInteger(0);
+            }
+
+            @Override
+            protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap, long startTime) {
+                resetCount.incrementAndGet();
+                windowWrap.resetTo(startTime);
+                windowWrap.value().set(0);
+                return windowWrap;
+            }
+        };
+        final WindowWrap<AtomicInteger> first = leapArray.currentWindow(1000);
+        first.value().addAndGet(5);
+
+        final int threadCount = 16;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        final AtomicReferenceArray<WindowWrap<AtomicInteger>> results = new AtomicReferenceArray<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            final int index = i;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        startLatch.await();
+                        // Same bucket index as time 1000, so the bucket is deprecated and should be rotated.
+                        results.set(index, leapArray.currentWindow(2000));
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        doneLatch.countDown();
+                    }
+                }
+            }).start();
+        }
+        startLatch.countDown();
+        assertTrue(doneLatch.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < threadCount; i++) {
+            assertSame(first, results.get(i));
+        }
+
+        assertEquals(1, resetCount.get());
+        assertEquals(2000, first.windowStart());
+        assertEquals(0, first.value().get());
+    }
+}
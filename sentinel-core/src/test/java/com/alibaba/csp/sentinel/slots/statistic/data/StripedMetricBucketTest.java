@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedMetricBucket}.
+ */
+public class StripedMetricBucketTest {
+
+    @Test
+    public void testStripesRoundedToPowerOfTwo() {
+        assertEquals(1, new StripedMetricBucket(0).stripes());
+        assertEquals(4, new StripedMetricBucket(3).stripes());
+        assertEquals(8, new StripedMetricBucket(8).stripes());
+        assertEquals(64, new StripedMetricBucket(1000).stripes());
+    }
+
+    @Test
+    public void testAddAndResetWithConcurrentWriters() throws Exception {
+        final StripedMetricBucket bucket = new StripedMetricBucket(8);
+        final int threads = 16;
+        final int loops = 1000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < loops; i++) {
+                        bucket.addPass(1);
+                        bucket.addSuccess(2);
+                        bucket.addRT(3);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * loops, bucket.pass());
+        assertEquals(threads * loops * 2, bucket.success());
+        assertEquals(threads * loops * 3, bucket.rt());
+        assertEquals(3, bucket.minRt());
+        assertEquals(0, bucket.block());
+
+        MetricBucket source = new MetricBucket();
+        source.addPass(5);
+        source.addBlock(2);
+        bucket.reset(source);
+        assertEquals(5, bucket.pass());
+        assertEquals(2, bucket.block());
+        assertEquals(0, bucket.rt());
+        assertEquals(SentinelConfig.statisticMaxRt(), bucket.minRt());
+
+        bucket.reset();
+        for (MetricEvent event : MetricEvent.values()) {
+            assertEquals(0, bucket.get(event));
+        }
+    }
+
+    @Test
+    public void testStripedArrayMetric() {
+        ArrayMetric metric = new ArrayMetric(2, 1000, true, true);
+        metric.addPass(3);
+        metric.addBlock(1);
+        metric.addSuccess(2);
+        metric.addRT(10);
+
+        assertEquals(3, metric.pass());
+        assertEquals(1, metric.block());
+        assertEquals(2, metric.success());
+        assertEquals(10, metric.rt());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric.offheap;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapMetricTest extends AbstractTimeBasedTest {
+
+    private static final int SAMPLE_COUNT = 2;
+    private static final int INTERVAL_MILLIS = 1000;
+
+    @Test
+    public void testAddAndSumInSlidingWindow() {
+        setCurrentMillis(0);
+        OffHeapMetric metric = new OffHeapMetric(SAMPLE_COUNT, INTERVAL_MILLIS, false);
+        assertEquals(0, metric.pass());
+        assertEquals(SentinelConfig.statisticMaxRt(), metric.minRt());
+
+        metric.addPass(3);
+        metric.addSuccess(2);
+        metric.addRT(20);
+        metric.addRT(10);
+        sleep(500);
+        metric.addPass(2);
+        metric.addBlock(4);
+        metric.addException(1);
+
+        assertEquals(5, metric.pass());
+        assertEquals(4, metric.block());
+        assertEquals(1, metric.exception());
+        assertEquals(30, metric.rt());
+        assertEquals(10, metric.minRt());
+        assertEquals(2, metric.maxSuccess());
+        assertEquals(3, metric.previousWindowPass());
+        assertEquals(3, metric.getWindowPass(100));
+        assertEquals(2, metric.windows().length);
+
+        // The first bucket is deprecated and then reused.
+        sleep(600);
+        assertEquals(2, metric.pass());
+        metric.addPass(7);
+        assertEquals(9, metric.pass());
+        assertEquals(0, metric.getWindowPass(100));
+
+        sleep(2000);
+        assertEquals(0, metric.pass());
+        assertEquals(1, metric.windows().length);
+    }
+
+    @Test
+    public void testDetails() {
+        setCurrentMillis(3000);
+        OffHeapMetric metric = new OffHeapMetric(60, 60 * 1000, false);
+        metric.addPass(2);
+        metric.addSuccess(2);
+        metric.addRT(30);
+        sleep(1000);
+        metric.addBlock(1);
+
+        List<MetricNode> details = metric.details();
+        assertEquals(2, details.size());
+        for (MetricNode node : details) {
+            if (node.getTimestamp() == 3000) {
+                assertEquals(2, node.getPassQps());
+                assertEquals(15, node.getRt());
+            } else {
+                assertEquals(4000, node.getTimestamp());
+                assertEquals(1, node.getBlockQps());
+            }
+        }
+        assertEquals(1, metric.detailsOnCondition(new Predicate<Long>() {
+            @Override
+            public boolean test(Long t) {
+                return t >= 4000;
+            }
+        }).size());
+    }
+
+    @Test
+    public void testOccupyFutureWindow() {
+        setCurrentMillis(0);
+        OffHeapMetric metric = new OffHeapMetric(SAMPLE_COUNT, INTERVAL_MILLIS, true);
+        metric.addPass(1);
+        metric.addWaiting(500, 3);
+        metric.addWaiting(700, 2);
+        assertEquals(5, metric.waiting());
+
+        sleep(500);
+        // The borrowed passes are taken when the future window comes.
+        assertEquals(0, metric.waiting());
+        assertEquals(6, metric.pass());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testAddWaitingWithoutOccupy() {
+        new OffHeapMetric(SAMPLE_COUNT, INTERVAL_MILLIS, false).addWaiting(500, 1);
+    }
+
+    @Test
+    public void testBucketView() {
+        setCurrentMillis(0);
+        OffHeapMetric metric = new OffHeapMetric(SAMPLE_COUNT, INTERVAL_MILLIS, false);
+        metric.addPass(2);
+        MetricBucket bucket = metric.windows()[0];
+        bucket.addRT(5);
+        bucket.addPass(1);
+        assertEquals(3, metric.pass());
+        assertEquals(5, metric.minRt());
+        bucket.reset();
+        assertEquals(0, metric.pass());
+    }
+
+    @Test
+    public void testRecycleSlotOfCollectedMetric() throws Exception {
+        OffHeapArena arena = OffHeapArena.of(7 * OffHeapMetric.BUCKET_SIZE);
+        int used = arena.usedSlots();
+        OffHeapMetric metric = new OffHeapMetric(7, 7000, false);
+        assertEquals(used + 1, arena.usedSlots());
+        long reserved = arena.reservedBytes();
+
+        metric = null;
+        for (int i = 0; i < 50 && arena.usedSlots() > used; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(used, arena.usedSlots());
+        // The recycled slot is reused rather than reserving more memory.
+        metric = new OffHeapMetric(7, 7000, false);
+        assertTrue(metric.getSampleCount() == 7 && arena.reservedBytes() == reserved);
+    }
+
+    @Test
+    public void testReleaseEmptyChunks() throws Exception {
+        // Two slots per chunk, so three owners take two chunks.
+        OffHeapArena arena = OffHeapArena.of(512 * 1024);
+        Object[] owners = new Object[] {new Object(), new Object(), new Object()};
+        for (Object owner : owners) {
+            arena.allocate(owner);
+        }
+        long reserved = arena.reservedBytes();
+
+        owners = null;
+        for (int i = 0; i < 50 && arena.usedSlots() > 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, arena.usedSlots());
+        // Only one empty chunk is kept for later allocations.
+        assertEquals(reserved / 2, arena.reservedBytes());
+    }
+}
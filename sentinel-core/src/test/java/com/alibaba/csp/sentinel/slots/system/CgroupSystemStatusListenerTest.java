@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class CgroupSystemStatusListenerTest {
+
+    private static final long MS = 1000 * 1000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSampleCgroupV2() throws Exception {
+        File root = folder.newFolder("cgroup");
+        File procPressure = folder.newFolder("pressure");
+        File dir = new File(root, "app.slice");
+        assertTrue(dir.mkdirs());
+        write(new File(root, "cgroup.controllers"), "cpu memory");
+        write(new File(root, "cpu.stat"), "usage_usec 0");
+        File procSelfCgroup = write(folder.newFile("self"), "0::/app.slice");
+        write(new File(dir, "cpu.max"), "200000 100000");
+        write(new File(dir, "memory.pressure"), "some avg10=12.50 avg60=1.00 avg300=0.00 total=100\n"
+            + "full avg10=0.00 avg60=0.00 avg300=0.00 total=0");
+        writeCpuStatV2(dir, 1000000, 10, 0, 0);
+
+        CgroupSystemStatusListener listener = new CgroupSystemStatusListener(root.getPath(),
+            procSelfCgroup.getPath(), procPressure.getPath(), 0.5);
+        assertTrue(listener.isCgroupAvailable());
+        listener.sample(0);
+        assertEquals(-1, listener.getCpuUsage(), 0.001);
+        assertEquals(0.125, listener.getMemoryPressure(), 0.001);
+        assertEquals(-1, listener.getCpuPressure(), 0.001);
+
+        // 100 ms: 100 ms of CPU time used (0.5 of 2 cores), throttled for 50 ms in 5 of 10 periods.
+        writeCpuStatV2(dir, 1100000, 20, 5, 50000);
+        listener.sample(100 * MS);
+        assertEquals(0.5, listener.getCpuUsage(), 0.001);
+        assertEquals(1.5, listener.getSystemAverageLoad(), 0.001);
+        assertEquals(0.5, listener.getThrottledRatio(), 0.001);
+
+        // 200 ms: 200 ms of CPU time used without throttling, smoothed with factor 0.5.
+        writeCpuStatV2(dir, 1300000, 30, 5, 50000);
+        listener.sample(200 * MS);
+        assertEquals(0.75, listener.getCpuUsage(), 0.001);
+        assertEquals(1.75, listener.getSystemAverageLoad(), 0.001);
+        assertEquals(0.25, listener.getThrottledRatio(), 0.001);
+    }
+
+    @Test
+    public void testSampleCgroupV1() throws Exception {
+        File root = folder.newFolder("cgroup");
+        File procPressure = folder.newFolder("pressure");
+        File cpu = new File(root, "cpu");
+        File cpuacct = new File(root, "cpuacct");
+        assertTrue(cpu.mkdirs() && cpuacct.mkdirs());
+        write(new File(cpu, "cpu.cfs_quota_us"), "-1");
+        write(new File(cpu, "cpu.cfs_period_us"), "100000");
+        write(new File(cpu, "cpu.stat"), "nr_periods 0\nnr_throttled 0\nthrottled_time 0");
+        write(new File(cpuacct, "cpuacct.usage"), "0");
+        write(new File(procPressure, "cpu"), "some avg10=3.00 avg60=0.00 avg300=0.00 total=0");
+        File procSelfCgroup = write(folder.newFile("self"), "2:cpuacct:/\n1:cpu:/");
+
+        CgroupSystemStatusListener listener = new CgroupSystemStatusListener(root.getPath(),
+            procSelfCgroup.getPath(), procPressure.getPath(), 1);
+        assertTrue(listener.isCgroupAvailable());
+        listener.sample(0);
+        write(new File(cpuacct, "cpuacct.usage"), String.valueOf(50 * MS));
+        listener.sample(100 * MS);
+        // Unlimited: the usage is relative to all available processors.
+        assertEquals(0.5 / Runtime.getRuntime().availableProcessors(), listener.getCpuUsage(), 0.001);
+        assertEquals(0.5, listener.getSystemAverageLoad(), 0.001);
+        assertEquals(0, listener.getThrottledRatio(), 0.001);
+        assertEquals(0.03, listener.getCpuPressure(), 0.001);
+        assertEquals(-1, listener.getMemoryPressure(), 0.001);
+    }
+
+    @Test
+    public void testFallbackWhenCgroupUnavailable() throws Exception {
+        File root = folder.newFolder("empty");
+        CgroupSystemStatusListener listener = new CgroupSystemStatusListener(root.getPath(),
+            new File(root, "self").getPath(), root.getPath(), 0.5);
+        assertFalse(listener.isCgroupAvailable());
+        listener.run();
+        assertEquals(-1, listener.getThrottledRatio(), 0.001);
+    }
+
+    private static void writeCpuStatV2(File dir, long usageUsec, long periods, long throttled, long throttledUsec)
+        throws IOException {
+        write(new File(dir, "cpu.stat"), "usage_usec " + usageUsec + "\nuser_usec 0\nsystem_usec 0\nnr_periods "
+            + periods + "\nnr_throttled " + throttled + "\nthrottled_usec " + throttledUsec);
+    }
+
+    private static File write(File file, String content) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}
@@ -94,16 +94,16 @@ public class SpiLoaderTest {
         List<ProcessorSlot> slots2 = spiLoader.loadInstanceList();
         assertNotSame(slots1, slots2);
 
-        List<Class<? extends ProcessorSlot>> prototypeSlotClasses = new ArrayList<>(2);
+        List<Class<? extends ProcessorSlot>> prototypeSlotClasses = new ArrayList<>(3);
         prototypeSlotClasses.add(NodeSelectorSlot.class);
         prototypeSlotClasses.add(ClusterBuilderSlot.class);
+        prototypeSlotClasses.add(FlowSlot.class);
 
-        List<Class<? extends ProcessorSlot>> singletonSlotClasses = new ArrayList<>(6);
+        List<Class<? extends ProcessorSlot>> singletonSlotClasses = new ArrayList<>(5);
         singletonSlotClasses.add(LogSlot.class);
         singletonSlotClasses.add(StatisticSlot.class);
         singletonSlotClasses.add(AuthoritySlot.class);
         singletonSlotClasses.add(SystemSlot.class);
-        singletonSlotClasses.add(FlowSlot.class);
         singletonSlotClasses.add(DegradeSlot.class);
 
         for (int i = 0; i < slots1.size(); i++) {
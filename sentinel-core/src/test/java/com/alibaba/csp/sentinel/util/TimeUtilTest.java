@@ -0,0 +1,43 @@
+/*
+ * Copyright 1999-2019 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimeUtilTest {
+
+    @Test
+    public void testResolveMode() {
+        assertEquals(TimeTicker.resolveMode(null), TimeTicker.resolveMode(TimeUtil.MODE_TICK));
+        assertEquals(TimeTicker.resolveMode("unknown"), TimeTicker.resolveMode(TimeUtil.MODE_TICK));
+        assertEquals(TimeTicker.resolveMode("ADAPTIVE"), TimeTicker.resolveMode(TimeUtil.MODE_ADAPTIVE));
+        assertNotEquals(TimeTicker.resolveMode(TimeUtil.MODE_TICK), TimeTicker.resolveMode(TimeUtil.MODE_MONOTONIC));
+        assertNotEquals(TimeTicker.resolveMode(TimeUtil.MODE_ADAPTIVE), TimeTicker.resolveMode(TimeUtil.MODE_MONOTONIC));
+    }
+
+    @Test
+    public void testCurrentTimeMillis() throws Exception {
+        assertEquals(TimeUtil.MODE_TICK, TimeUtil.currentMode());
+        Thread.sleep(20);
+        long t1 = TimeUtil.currentTimeMillis();
+        assertTrue(Math.abs(System.currentTimeMillis() - t1) < 100);
+        assertTrue(TimeUtil.isTicking());
+        assertTrue(TimeUtil.getTickCount() > 0);
+        assertTrue(TimeUtil.getMaxTickDrift() >= TimeUtil.getLastTickDrift());
+    }
+}
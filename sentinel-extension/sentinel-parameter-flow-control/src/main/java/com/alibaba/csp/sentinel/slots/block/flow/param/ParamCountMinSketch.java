@@ -0,0 +1,126 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>A Count-Min sketch that estimates the amount of acquired tokens of each parameter value
+ * within a fixed time window, which works as the front filter of the hot parameters.</p>
+ *
+ * <p>The sketch (with conservative update) never underestimates, so a value whose estimated count is within the threshold is guaranteed
+ * to be within the threshold too, and needs no exact counter. The estimation error grows with
+ * {@code total count / width}, so the width should be large enough compared to the total count divided by
+ * the threshold, otherwise cold values might be mistaken for hot ones (which costs an exact counter each,
+ * but never blocks them by mistake).</p>
+ *
+ * <p>The memory is fixed ({@code 4 * width * depth} bytes) regardless of the amount of distinct values.
+ * Like {@code LeapArray}, the counters are cleared in place when a new window starts, so a few updates racing
+ * with the rollover might be lost.</p>
+ *
+ * @since 1.8.2
+ */
+class ParamCountMinSketch {
+
+    static final int DEFAULT_DEPTH = 4;
+
+    private final int depth;
+    private final int widthMask;
+    private final long windowMs;
+    private final AtomicIntegerArray counters;
+    private final AtomicLong windowStart = new AtomicLong();
+
+    /**
+     * @param width    counters per row, will be rounded up to a power of two
+     * @param depth    amount of rows (hash functions)
+     * @param windowMs length of the window in milliseconds
+     */
+    ParamCountMinSketch(int width, int depth, long windowMs) {
+        AssertUtil.isTrue(width > 0 && depth > 0, "width and depth should be positive");
+        AssertUtil.isTrue(windowMs > 0, "windowMs should be positive");
+        int n = Integer.highestOneBit(width) == width ? width : Integer.highestOneBit(width) << 1;
+        this.depth = depth;
+        this.widthMask = n - 1;
+        this.windowMs = windowMs;
+        this.counters = new AtomicIntegerArray(n * depth);
+        this.windowStart.set(currentWindowStart());
+    }
+
+    private long currentWindowStart() {
+        long now = TimeUtil.currentTimeMillis();
+        return now - now % windowMs;
+    }
+
+    /**
+     * Add the count of given value in current window.
+     *
+     * @param value parameter value
+     * @param count count to add
+     * @return the estimated count of the value in current window (including the added count)
+     */
+    int add(Object value, int count) {
+        long start = currentWindowStart();
+        long prev = windowStart.get();
+        if (start > prev && windowStart.compareAndSet(prev, start)) {
+            clear();
+        }
+        int h1 = spread(value.hashCode());
+        // The second hash of double hashing, which should be odd to cover the whole row.
+        int h2 = spread(h1 + 0x9e3779b9) | 1;
+        int[] indexes = new int[depth];
+        int min = Integer.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            indexes[i] = i * (widthMask + 1) + ((h1 + i * h2) & widthMask);
+            min = Math.min(min, counters.get(indexes[i]));
+        }
+        // Conservative update: only raise the counters below the new estimation, which keeps the counters
+        // shared with hot values from being inflated further, thus much less overestimation for cold values.
+        int estimate = min + count;
+        for (int idx : indexes) {
+            int cur;
+            while ((cur = counters.get(idx)) < estimate) {
+                if (counters.compareAndSet(idx, cur, estimate)) {
+                    break;
+                }
+            }
+        }
+        return estimate;
+    }
+
+    int width() {
+        return widthMask + 1;
+    }
+
+    private void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+    }
+
+    private static int spread(int h) {
+        // From MurmurHash3 fmix32.
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
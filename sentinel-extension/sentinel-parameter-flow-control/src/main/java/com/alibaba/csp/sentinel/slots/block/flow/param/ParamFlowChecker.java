@@ -150,6 +150,16 @@ public final class ParamFlowChecker {
             return false;
         }
 
+        ParamCountMinSketch sketch = metric.getRuleSketch(rule);
+        if (sketch != null && timeCounters.get(value) == null) {
+            // The value is not hot yet. The sketch never underestimates, so the value is surely within
+            // the threshold in current window if the estimation is. Otherwise it's regarded as hot,
+            // and will be tracked by the exact token bucket from now on.
+            if (sketch.add(value, acquireCount) <= maxCount) {
+                return true;
+            }
+        }
+
         while (true) {
             long currentTime = TimeUtil.currentTimeMillis();
 
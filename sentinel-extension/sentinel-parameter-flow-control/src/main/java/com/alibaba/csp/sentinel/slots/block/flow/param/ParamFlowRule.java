@@ -63,6 +63,17 @@ public class ParamFlowRule extends AbstractRule {
     private int burstCount = 0;
     private long durationInSec = 1;
 
+    /**
+     * Max amount of parameter values tracked with exact token counters (QPS mode with default or warm-up behavior,
+     * not applicable to the rate limiter behavior).
+     * If positive, a Count-Min sketch is used to detect the hot values, and only the hot values are tracked exactly,
+     * so that the memory of the rule is bounded. 0 means tracking every value exactly.
+     * Note that a value might pass up to twice the threshold in the window it's detected as hot.
+     *
+     * @since 1.8.2
+     */
+    private int hotKeyCapacity = 0;
+
     /**
      * Original exclusion items of parameters.
      */
@@ -118,6 +129,15 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public int getHotKeyCapacity() {
+        return hotKeyCapacity;
+    }
+
+    public ParamFlowRule setHotKeyCapacity(int hotKeyCapacity) {
+        this.hotKeyCapacity = hotKeyCapacity;
+        return this;
+    }
+
     public int getGrade() {
         return grade;
     }
@@ -202,6 +222,7 @@ public class ParamFlowRule extends AbstractRule {
         if (maxQueueingTimeMs != that.maxQueueingTimeMs) { return false; }
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
+        if (hotKeyCapacity != that.hotKeyCapacity) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
@@ -220,6 +241,7 @@ public class ParamFlowRule extends AbstractRule {
         result = 31 * result + maxQueueingTimeMs;
         result = 31 * result + burstCount;
         result = 31 * result + (int)(durationInSec ^ (durationInSec >>> 32));
+        result = 31 * result + hotKeyCapacity;
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
@@ -236,6 +258,7 @@ public class ParamFlowRule extends AbstractRule {
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
             ", burstCount=" + burstCount +
             ", durationInSec=" + durationInSec +
+            ", hotKeyCapacity=" + hotKeyCapacity +
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
@@ -48,7 +48,7 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
-            && checkCluster(rule);
+            && rule.getHotKeyCapacity() >= 0 && checkCluster(rule);
     }
 
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
@@ -23,6 +23,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
 
@@ -38,6 +39,10 @@ public class ParameterMetric {
     private static final int BASE_PARAM_MAX_CAPACITY = 4000;
     private static final int TOTAL_MAX_CAPACITY = 20_0000;
 
+    private static final int SKETCH_WIDTH_PER_HOT_KEY = 8;
+    private static final int MIN_SKETCH_WIDTH = 1024;
+    private static final int MAX_SKETCH_WIDTH = 1 << 20;
+
     private final Object lock = new Object();
 
     /**
@@ -53,6 +58,12 @@ public class ParameterMetric {
      */
     private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTokenCounter = new HashMap<>();
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
+    /**
+     * Format: (rule, sketch of the values), only for the rules tracking hot values only.
+     *
+     * @since 1.8.2
+     */
+    private final Map<ParamFlowRule, ParamCountMinSketch> ruleSketches = new HashMap<>();
 
     /**
      * Get the token counter for given parameter rule.
@@ -76,9 +87,21 @@ public class ParameterMetric {
         return ruleTimeCounters.get(rule);
     }
 
+    /**
+     * Get the sketch detecting the hot values for given parameter rule.
+     *
+     * @param rule valid parameter rule
+     * @return the associated sketch, or null if the rule tracks every value exactly
+     * @since 1.8.2
+     */
+    ParamCountMinSketch getRuleSketch(ParamFlowRule rule) {
+        return ruleSketches.get(rule);
+    }
+
     public void clear() {
         synchronized (lock) {
             threadCountMap.clear();
+            ruleSketches.clear();
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
         }
@@ -88,15 +111,30 @@ public class ParameterMetric {
         synchronized (lock) {
             ruleTimeCounters.remove(rule);
             ruleTokenCounter.remove(rule);
+            ruleSketches.remove(rule);
             threadCountMap.remove(rule.getParamIdx());
         }
     }
 
     public void initialize(ParamFlowRule rule) {
+        boolean useSketch = isSketchApplicable(rule);
+        if (useSketch && !ruleSketches.containsKey(rule)) {
+            synchronized (lock) {
+                if (ruleSketches.get(rule) == null) {
+                    int width = Math.min(Math.max(rule.getHotKeyCapacity() * SKETCH_WIDTH_PER_HOT_KEY,
+                        MIN_SKETCH_WIDTH), MAX_SKETCH_WIDTH);
+                    ruleSketches.put(rule, new ParamCountMinSketch(width, ParamCountMinSketch.DEFAULT_DEPTH,
+                        rule.getDurationInSec() * 1000));
+                }
+            }
+        }
+        // Only the hot values are tracked exactly in sketch mode.
+        long size = useSketch ? rule.getHotKeyCapacity()
+            : Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
+
         if (!ruleTimeCounters.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTimeCounters.get(rule) == null) {
-                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
                     ruleTimeCounters.put(rule, new ConcurrentLinkedHashMapWrapper<Object, AtomicLong>(size));
                 }
             }
@@ -105,7 +143,6 @@ public class ParameterMetric {
         if (!ruleTokenCounter.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTokenCounter.get(rule) == null) {
-                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
                     ruleTokenCounter.put(rule, new ConcurrentLinkedHashMapWrapper<Object, AtomicLong>(size));
                 }
             }
@@ -121,6 +158,11 @@ public class ParameterMetric {
         }
     }
 
+    static boolean isSketchApplicable(ParamFlowRule rule) {
+        return rule.getHotKeyCapacity() > 0 && rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() != RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER;
+    }
+
     @SuppressWarnings("rawtypes")
     public void decreaseThreadCount(Object... args) {
         if (args == null) {
@@ -264,4 +306,8 @@ public class ParameterMetric {
     Map<ParamFlowRule, CacheMap<Object, AtomicLong>> getRuleTimeCounterMap() {
         return ruleTimeCounters;
     }
+
+    Map<ParamFlowRule, ParamCountMinSketch> getRuleSketchMap() {
+        return ruleSketches;
+    }
 }
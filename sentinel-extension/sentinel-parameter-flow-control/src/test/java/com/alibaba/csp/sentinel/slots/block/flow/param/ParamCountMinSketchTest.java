@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParamCountMinSketchTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testNeverUnderestimate() {
+        setCurrentMillis(0);
+        ParamCountMinSketch sketch = new ParamCountMinSketch(1000, ParamCountMinSketch.DEFAULT_DEPTH, 1000);
+        assertEquals(1024, sketch.width());
+
+        Map<Integer, Integer> counts = new HashMap<>();
+        Random random = new Random(17);
+        int exact = 0;
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(300);
+            Integer c = counts.get(value);
+            c = c == null ? 1 : c + 1;
+            counts.put(value, c);
+            int estimate = sketch.add(value, 1);
+            assertTrue(estimate >= c);
+            if (estimate == c) {
+                exact++;
+            }
+        }
+        // Most estimations are exact with a sketch that large.
+        assertTrue(exact > 20000 * 0.9);
+    }
+
+    @Test
+    public void testClearWhenNewWindowStarts() {
+        setCurrentMillis(1500);
+        ParamCountMinSketch sketch = new ParamCountMinSketch(64, 2, 1000);
+        assertEquals(3, sketch.add("a", 3));
+        sleep(400);
+        assertEquals(5, sketch.add("a", 2));
+        sleep(100);
+        assertEquals(1, sketch.add("a", 1));
+    }
+}
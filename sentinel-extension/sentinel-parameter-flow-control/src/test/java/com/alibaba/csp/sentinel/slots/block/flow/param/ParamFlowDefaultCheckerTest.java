@@ -328,6 +328,43 @@ public class ParamFlowDefaultCheckerTest extends AbstractTimeBasedTest {
         ParameterMetricStorage.getMetricsMap().clear();
     }
 
+    @Test
+    public void testParamFlowDefaultCheckWithHotKeySketch() {
+        final String resourceName = "testParamFlowDefaultCheckWithHotKeySketch";
+        final ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        long threshold = 5L;
+        ParamFlowRule rule = new ParamFlowRule(resourceName)
+            .setCount(threshold)
+            .setParamIdx(0)
+            .setHotKeyCapacity(16);
+
+        setCurrentMillis(System.currentTimeMillis() / 1000 * 1000);
+        ParameterMetric metric = new ParameterMetric();
+        ParameterMetricStorage.getMetricsMap().put(resourceWrapper.getName(), metric);
+        metric.initialize(rule);
+        assertTrue(metric.getRuleSketch(rule) != null);
+
+        // Cold values pass without any exact counter.
+        for (int i = 0; i < 100; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "cold-" + i));
+        }
+        assertEquals(0, metric.getRuleTimeCounter(rule).size());
+
+        // The hot value passes the sketch within the threshold, then it's tracked by the token bucket.
+        String hot = "hot";
+        for (int i = 0; i < threshold; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, hot));
+        }
+        for (int i = 0; i < threshold; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, hot));
+        }
+        assertEquals(1, metric.getRuleTimeCounter(rule).size());
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, hot));
+
+        sleep(1100);
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, hot));
+    }
+
     @After
     public void tearDown() throws Exception {
         ParameterMetricStorage.getMetricsMap().clear();
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.node.metric.MetricFlushPipeline;
+import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * @since 1.8.2
+ */
+@CommandMapping(name = "metricFlushStats", desc = "get statistics of the metric log flush")
+public class FetchMetricFlushStatsCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        MetricFlushPipeline pipeline = MetricTimerListener.getFlushPipeline();
+
+        Map<String, Object> stats = new HashMap<String, Object>();
+        stats.put("queuedSeconds", pipeline.getQueuedSeconds());
+        stats.put("backlogMs", pipeline.getBacklogMs());
+        stats.put("lastFlushLagMs", pipeline.getLastFlushLagMs());
+        stats.put("lastWriteCostMs", pipeline.getLastWriteCostMs());
+        stats.put("lastWrittenTime", pipeline.getLastWrittenTime());
+        stats.put("submittedSeconds", pipeline.getSubmittedSeconds());
+        stats.put("writtenSeconds", pipeline.getWrittenSeconds());
+        stats.put("droppedSeconds", pipeline.getDroppedSeconds());
+        stats.put("failedSeconds", pipeline.getFailedSeconds());
+
+        return CommandResponse.ofSuccess(JSONObject.toJSONString(stats));
+    }
+}
@@ -24,6 +24,8 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricSearcher;
+import com.alibaba.csp.sentinel.node.metric.BinaryMetricWriter;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
 import com.alibaba.csp.sentinel.node.metric.MetricWriter;
@@ -43,19 +45,30 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
 public class SendMetricCommandHandler implements CommandHandler<String> {
 
     private volatile MetricSearcher searcher;
+    /**
+     * Searcher of the binary metric log (if enabled), which serves range queries from memory-mapped segments.
+     *
+     * @since 1.8.2
+     */
+    private volatile BinaryMetricSearcher binarySearcher;
 
     private final Object lock = new Object();
 
     @Override
     public CommandResponse<String> handle(CommandRequest request) {
+        boolean binary = SentinelConfig.metricLogBinary();
         // Note: not thread-safe.
-        if (searcher == null) {
+        if (binary ? binarySearcher == null : searcher == null) {
             synchronized (lock) {
                 String appName = SentinelConfig.getAppName();
                 if (appName == null) {
                     appName = "";
                 }
-                if (searcher == null) {
+                if (binary && binarySearcher == null) {
+                    binarySearcher = new BinaryMetricSearcher(MetricWriter.METRIC_BASE_DIR,
+                        BinaryMetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                }
+                if (!binary && searcher == null) {
                     searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
                         MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
                 }
@@ -77,13 +90,14 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
             // Find by end time if set.
             if (StringUtil.isNotBlank(endTimeStr)) {
                 long endTime = Long.parseLong(endTimeStr);
-                list = searcher.findByTimeAndResource(startTime, endTime, identity);
+                list = binary ? binarySearcher.findByTimeAndResource(startTime, endTime, identity)
+                    : searcher.findByTimeAndResource(startTime, endTime, identity);
             } else {
                 if (StringUtil.isNotBlank(maxLinesStr)) {
                     maxLines = Integer.parseInt(maxLinesStr);
                 }
                 maxLines = Math.min(maxLines, 12000);
-                list = searcher.find(startTime, maxLines);
+                list = binary ? binarySearcher.find(startTime, maxLines) : searcher.find(startTime, maxLines);
             }
         } catch (Exception ex) {
             return CommandResponse.ofFailure(new RuntimeException("Error when retrieving metrics", ex));